@@ -0,0 +1,210 @@
+/**
+ * DataAccessBenchmarks.java
+ *
+ * Throughput and latency of the main data-access paths against a synthetic H2
+ * database: loading and linking questions, search, chat paging, voting and the
+ * reviewer rating, the single-row statements behind sign-in, chat and edits, and
+ * invitation codes one at a time against one batch.
+ *
+ * Run:  java -jar TP4/jmh/target/benchmarks.jar DataAccessBenchmarks
+ *            [-p questions=1000,10000 -p answersPerQuestion=3 -p users=500 -p chatMessages=50000]
+ *            [-rf csv -rff results.csv]
+ */
+
+package benchmark;
+
+import application.Answer;
+import application.Answers;
+import application.Question;
+import application.Questions;
+import application.User;
+import databasePart1.DatabaseHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark suite for the data-access layer. The dataset is built once per trial and
+ * shared by every benchmark method; the writing benchmarks (votes, messages, edits,
+ * invitation codes) grow it a little, as they would in use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataAccessBenchmarks {
+
+    private static final int CHAT_PAGE = 50;
+    private static final int INVITATION_BATCH = 100;
+
+    @Param({"10000"})
+    public int questions;
+
+    @Param({"3"})
+    public int answersPerQuestion;
+
+    @Param({"500"})
+    public int users;
+
+    @Param({"50000"})
+    public int chatMessages;
+
+    private String url;
+    private DatabaseHelper db;
+    private SyntheticData data;
+    private Questions qs;
+    private Answers as;
+    private List<Question> loaded;
+    private List<Answer> allAnswers;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void createDataset() throws Exception {
+        url = "jdbc:h2:mem:bench" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        db = new DatabaseHelper();
+        db.connectToDatabase(url, "sa", "");
+        data = new SyntheticData(42);
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            data.populateUsers(connection, users);
+            data.populate(connection, questions, answersPerQuestion, 1, users);
+            data.populateChats(connection, chatMessages, users);
+        }
+
+        qs = new Questions(db.getConnectionPool());
+        as = new Answers(db.getConnectionPool(), qs, db);
+        qs.createTable();   // indexes the rows just inserted for search
+        as.createTable();
+        db.getReputationEngine().backfill();   // the reviewer totals, from their votes
+        qs.loadAllFromDB();
+        as.loadAllFromDB();
+        loaded = List.copyOf(qs.getAllQuestions());
+        allAnswers = List.copyOf(as.getAllAnswers());
+    }
+
+    @TearDown(Level.Trial)
+    public void dropDataset() throws Exception {
+        db.closeConnection();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement st = connection.createStatement()) {
+            st.execute("SHUTDOWN");
+        }
+    }
+
+    private String user() {
+        return "user" + random.nextInt(users);
+    }
+
+    private String reviewer() {
+        return "reviewer" + random.nextInt(Math.max(1, users / 10));
+    }
+
+    private Answer anyAnswer() {
+        return allAnswers.get(random.nextInt(allAnswers.size()));
+    }
+
+    @Benchmark
+    public Object questionsLoadAllFromDB() throws Exception {
+        qs.loadAllFromDB();
+        return qs.getAllQuestions();
+    }
+
+    @Benchmark
+    public Object answersLoadAllFromDB() throws Exception {
+        as.loadAllFromDB();
+        return as.getAllAnswers();
+    }
+
+    @Benchmark
+    public Object answersLinkAnswersToQuestions() {
+        for (Question q : loaded) q.getAnswers().clear();
+        as.linkAnswersToQuestions(loaded);
+        return loaded;
+    }
+
+    @Benchmark
+    public Object questionsSearch() throws Exception {
+        return qs.search(data.word() + " " + data.word());
+    }
+
+    @Benchmark
+    public Object questionsAdvancedSearch() throws Exception {
+        return qs.advancedSearch(data.word(), null, Boolean.FALSE);
+    }
+
+    @Benchmark
+    public Object getChatLatestPage() {
+        return db.getChat(user(), reviewer(), null, null, CHAT_PAGE);
+    }
+
+    @Benchmark
+    public Object answersMarkHelpful() {
+        Answer a = anyAnswer();
+        as.markHelpful(a);
+        return a;
+    }
+
+    /** What computeReviewerRating used to recompute from every vote; now a running total. */
+    @Benchmark
+    public Object reviewerRating() throws Exception {
+        return db.getReputationEngine().getRating(reviewer());
+    }
+
+    @Benchmark
+    public boolean login() throws Exception {
+        return db.login(new User(user(), "pw", "user"));
+    }
+
+    @Benchmark
+    public long insertMessage() {
+        return db.insertMessage(user(), "reviewer0", "Benchmark message");
+    }
+
+    @Benchmark
+    public Object answersFetchForQuestionsPage() throws Exception {
+        long from = 1 + random.nextInt(Math.max(1, questions - 20));
+        return as.fetchForQuestions(from, from + 19);
+    }
+
+    @Benchmark
+    public Object answersUpdateAnswer() {
+        Answer a = anyAnswer();
+        as.updateAnswer(a, data.word() + " and " + data.word());
+        return a;
+    }
+
+    @Benchmark
+    public int questionsCountTotal() throws Exception {
+        return qs.countTotalQuestions();
+    }
+
+    @Benchmark
+    public String generateInvitationCodeX100() throws Exception {
+        String last = null;
+        for (int i = 0; i < INVITATION_BATCH; i++) last = db.generateInvitationCode();
+        return last;
+    }
+
+    @Benchmark
+    public Object generateInvitationCodes100() throws Exception {
+        return db.generateInvitationCodes(INVITATION_BATCH);
+    }
+}
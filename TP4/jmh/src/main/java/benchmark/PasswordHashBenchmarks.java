@@ -0,0 +1,147 @@
+/**
+ * PasswordHashBenchmarks.java
+ *
+ * Picks the PBKDF2 work factor for a login latency budget and then measures how many
+ * concurrent sign-ins per second DatabaseHelper.login sustains with it.
+ *
+ * Calibrate:  java [-Dauth.budgetMs=40] -cp TP4/jmh/target/benchmarks.jar benchmark.PasswordHashBenchmarks
+ * Measure:    java -jar TP4/jmh/target/benchmarks.jar PasswordHashBenchmarks.login
+ *                  -p iterations=<recommended> [-t 1,2,4,8 -p users=64]
+ *
+ * Then start the application with -Dauth.pbkdf2.iterations=<recommended>.
+ */
+
+package benchmark;
+
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.PasswordHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calibration: main times the hash benchmark at a probe iteration count, scales the
+ * count to the budget (hash time grows linearly with iterations) and checks the
+ * result. The budget is per login on one core, so a machine with n cores can sign in
+ * about n / budget users per second at most; the login benchmark measures how close
+ * DatabaseHelper.login gets to that with the connection pool and database in the loop.
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashBenchmarks {
+
+    private static final int PROBE_ITERATIONS = 20_000;
+    private static final int ROUND_TO = 10_000;
+    private static final String PASSWORD = "Secret#123";
+
+    @State(Scope.Benchmark)
+    public static class Hashing {
+        @Param({"20000", "90000"})
+        public int iterations;
+
+        PasswordHasher hasher;
+
+        @Setup(Level.Trial)
+        public void create() {
+            hasher = new PasswordHasher(iterations);
+        }
+    }
+
+    /** Registered users {@code user0..user<n-1>}, all with the same password. */
+    @State(Scope.Benchmark)
+    public static class Accounts {
+        @Param({"90000"})
+        public int iterations;
+
+        @Param({"64"})
+        public int users;
+
+        String url;
+        DatabaseHelper db;
+
+        @Setup(Level.Trial)
+        public void register() throws Exception {
+            url = "jdbc:h2:mem:auth" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+            db = new DatabaseHelper();
+            db.connectToDatabase(url, "sa", "");
+            db.setPasswordHasher(new PasswordHasher(iterations));
+            for (int i = 0; i < users; i++) db.register(new User("user" + i, PASSWORD, "user"));
+        }
+
+        @TearDown(Level.Trial)
+        public void drop() throws Exception {
+            db.closeConnection();
+            try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                 Statement st = connection.createStatement()) {
+                st.execute("SHUTDOWN");
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String hash(Hashing hashing) {
+        return hashing.hasher.hash(PASSWORD);
+    }
+
+    /** Sign-ins per millisecond and their latency percentiles, on every core. */
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(Threads.MAX)
+    public boolean login(Accounts accounts) throws Exception {
+        String name = "user" + ThreadLocalRandom.current().nextInt(accounts.users);
+        if (!accounts.db.login(new User(name, PASSWORD, "user"))) {
+            throw new IllegalStateException("login failed for " + name);
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws Exception {
+        double budgetMs = Double.parseDouble(System.getProperty("auth.budgetMs", "40"));
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        double probeMs = hashMillis(PROBE_ITERATIONS);
+        int recommended = (int) Math.max(PasswordHasher.MIN_ITERATIONS,
+                Math.floor(budgetMs / probeMs * PROBE_ITERATIONS / ROUND_TO) * ROUND_TO);
+        double chosenMs = hashMillis(recommended);
+
+        System.out.printf("%nbudget %.1f ms per login per core, %d cores%n", budgetMs, cores);
+        System.out.printf("probe: %,d iterations in %.2f ms%n", PROBE_ITERATIONS, probeMs);
+        System.out.printf("recommended: -D%s=%d  (%.1f ms per hash, at most %.0f logins/s on %d cores)%n",
+                PasswordHasher.ITERATIONS_PROPERTY, recommended, chosenMs, cores * 1000 / chosenMs, cores);
+        System.out.printf("then measure: java -jar benchmarks.jar PasswordHashBenchmarks.login -p iterations=%d%n",
+                recommended);
+    }
+
+    private static double hashMillis(int iterations) throws Exception {
+        RunResult result = new Runner(new OptionsBuilder()
+                .include(PasswordHashBenchmarks.class.getName() + ".hash$")
+                .param("iterations", String.valueOf(iterations))
+                .build()).runSingle();
+        return result.getPrimaryResult().getScore();
+    }
+}
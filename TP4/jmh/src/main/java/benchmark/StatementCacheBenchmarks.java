@@ -0,0 +1,109 @@
+/**
+ * StatementCacheBenchmarks.java
+ *
+ * The per-connection prepared-statement cache, on against off. A cache of one
+ * statement misses on every call of a mix that alternates SQL texts, so it is
+ * the baseline of H2 re-parsing and re-planning each statement; 64 is the
+ * default size.
+ *
+ * Run:  java -jar TP4/jmh/target/benchmarks.jar StatementCacheBenchmarks
+ *            [-p statementCacheSize=1,64 -p questions=5000]
+ */
+
+package benchmark;
+
+import application.Answer;
+import application.Answers;
+import application.Questions;
+import databasePart1.ConnectionPool;
+import databasePart1.DatabaseHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementCacheBenchmarks {
+
+    @Param({"1", "64"})
+    public int statementCacheSize;
+
+    @Param({"5000"})
+    public int questions;
+
+    private String url;
+    private DatabaseHelper db;
+    private ConnectionPool pool;
+    private SyntheticData data;
+    private Questions qs;
+    private Answers as;
+    private List<Answer> allAnswers;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void createDataset() throws Exception {
+        url = "jdbc:h2:mem:stmtcache" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        db = new DatabaseHelper();
+        db.connectToDatabase(url, "sa", "");   // creates the schema
+        data = new SyntheticData(42);
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            data.populateUsers(connection, 100);
+            data.populate(connection, questions, 3, 1, 100);
+        }
+
+        pool = new ConnectionPool(url, "sa", "", 10, ConnectionPool.DEFAULT_BORROW_TIMEOUT_MS,
+                                  statementCacheSize);
+        qs = new Questions(pool);
+        as = new Answers(pool, qs, null);
+        qs.createTable();
+        as.createTable();
+        as.loadAllFromDB();
+        allAnswers = List.copyOf(as.getAllAnswers());
+    }
+
+    @TearDown(Level.Trial)
+    public void dropDataset() throws Exception {
+        System.out.println(pool);   // hit ratio of the measured pool
+        pool.close();
+        db.closeConnection();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement st = connection.createStatement()) {
+            st.execute("SHUTDOWN");
+        }
+    }
+
+    /** The hot statements behind paging, editing and the dashboard count, interleaved. */
+    @Benchmark
+    public void hotPathMix(Blackhole bh) throws Exception {
+        long from = 1 + random.nextInt(Math.max(1, questions - 20));
+        bh.consume(as.fetchForQuestions(from, from + 19));
+
+        Answer a = allAnswers.get(random.nextInt(allAnswers.size()));
+        as.updateAnswer(a, data.word() + " and " + data.word());
+        bh.consume(a);
+
+        bh.consume(qs.countTotalQuestions());
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * ValidationBenchmarks.java
+ *
+ * Throughput of the input validators (user name, password, question, answer) on one
+ * thread and on every core, and a check that concurrent callers never see each
+ * other's results.
+ *
+ * Run:  java -jar TP4/jmh/target/benchmarks.jar ValidationBenchmarks
+ *            [-t 1,2,4,8 to scale the per-validator benchmarks by hand]
+ */
+
+package benchmark;
+
+import application.PasswordEvaluator;
+import application.UserNameRecognizer;
+import application.ValidationResult;
+import application.answerEvaluator;
+import application.questionEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every thread cycles through the same mix of valid and invalid inputs, starting at a
+ * different offset so that threads validate different inputs at the same moment, and
+ * compares each result with the one computed single-threaded before the run. An
+ * iteration with any mismatch fails the benchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ValidationBenchmarks {
+
+    private static final String[] USER_NAMES = {
+        "sam", "Sam.Smith", "rita_reviewer", "9lives", "a.b", "ThisNameIsFarTooLongToBeValid", "ok-name", "bad!name"
+    };
+    private static final String[] PASSWORDS = {
+        "Secret#123", "short", "NoDigitsHere!", "alllower1!", "ALLUPPER1!", "Tab\tInside1!", "Aa1!Aa1!Aa1!Aa1!", ""
+    };
+    private static final String[][] QUESTIONS = {
+        { "Streams", "How do streams work in Java?" },
+        { "lower title", "Is this title accepted?" },
+        { "A title that is far too long", "Short?" },
+        { "Threads", "no question mark" },
+        { "", "" }
+    };
+    private static final String[] ANSWERS = {
+        "Use the map method.", "it starts lower case.", "Ask ChatGPT.", "Hi", "Can you please clarify?"
+    };
+
+    private static final int KINDS = 4;
+    private static final int INPUTS = Math.max(Math.max(USER_NAMES.length, PASSWORDS.length),
+                                               Math.max(QUESTIONS.length, ANSWERS.length));
+
+    /** The single-threaded results every thread's results are compared with. */
+    @State(Scope.Benchmark)
+    public static class Expected {
+        final ValidationResult[][] results = new ValidationResult[KINDS][INPUTS];
+
+        @Setup(Level.Trial)
+        public void compute() {
+            for (int kind = 0; kind < KINDS; kind++) {
+                for (int i = 0; i < INPUTS; i++) results[kind][i] = validate(kind, i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        int step;
+        long mismatches;
+
+        @Setup(Level.Trial)
+        public void offset(ThreadParams params) {
+            step = params.getThreadIndex();
+        }
+
+        ValidationResult next(Expected expected, int kind) {
+            return check(expected, kind, step++ % INPUTS);
+        }
+
+        ValidationResult nextOfMix(Expected expected) {
+            int kind = step % KINDS, i = (step / KINDS) % INPUTS;
+            step++;
+            return check(expected, kind, i);
+        }
+
+        private ValidationResult check(Expected expected, int kind, int i) {
+            ValidationResult result = validate(kind, i);
+            // results are compared by message, not identity: some are created per call
+            ValidationResult want = expected.results[kind][i];
+            if (!result.getMessage().equals(want.getMessage()) || result.getErrorIndex() != want.getErrorIndex()) {
+                mismatches++;
+            }
+            return result;
+        }
+
+        @TearDown(Level.Iteration)
+        public void check() {
+            if (mismatches != 0) {
+                throw new IllegalStateException(mismatches + " validation results differed from the single-threaded ones");
+            }
+        }
+    }
+
+    @Benchmark
+    public ValidationResult userName(Expected expected, Caller caller) {
+        return caller.next(expected, 0);
+    }
+
+    @Benchmark
+    public ValidationResult password(Expected expected, Caller caller) {
+        return caller.next(expected, 1);
+    }
+
+    @Benchmark
+    public ValidationResult question(Expected expected, Caller caller) {
+        return caller.next(expected, 2);
+    }
+
+    @Benchmark
+    public ValidationResult answer(Expected expected, Caller caller) {
+        return caller.next(expected, 3);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ValidationResult mixOneThread(Expected expected, Caller caller) {
+        return caller.nextOfMix(expected);
+    }
+
+    /** Compare with mixOneThread: the speed-up is this score over that one, per core. */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ValidationResult mixAllThreads(Expected expected, Caller caller) {
+        return caller.nextOfMix(expected);
+    }
+
+    private static ValidationResult validate(int kind, int i) {
+        switch (kind) {
+            case 0:  return UserNameRecognizer.validate(USER_NAMES[i % USER_NAMES.length]);
+            case 1:  return PasswordEvaluator.evaluate(PASSWORDS[i % PASSWORDS.length]);
+            case 2:  return questionEvaluator.validate(QUESTIONS[i % QUESTIONS.length][0],
+                                                       QUESTIONS[i % QUESTIONS.length][1]);
+            default: return answerEvaluator.validate(ANSWERS[i % ANSWERS.length]);
+        }
+    }
+}
@@ -14,11 +14,6 @@ import javafx.stage.Stage;
 
 import databasePart1.DatabaseHelper;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-import java.sql.Statement;
-
 /**
  * AdminHomePage – admin view for questions AND now instructor admin‑requests.
  */
@@ -41,27 +36,25 @@ public class AdminHomePage {
     /* ──────────────────────────────────────────────────────────────────── */
     public void start(Stage primaryStage, User user) {
         /* ─── set‑up Questions / Answers managers ────────────────────── */
-        try {
-            Class.forName("org.h2.Driver");
-            Connection connection = DriverManager.getConnection(
-                    "jdbc:h2:file:./mydb;DB_CLOSE_DELAY=-1;", "sa", "");
+        questionsManager = new Questions(databaseHelper.getConnectionPool());
+        answersManager = new Answers(databaseHelper.getConnectionPool(), questionsManager, databaseHelper);
 
-            questionsManager = new Questions(connection);
+        // loads in the background; the list fills in once everything has arrived
+        AsyncDataAccess.run("loadAllQuestions", () -> {
             questionsManager.createTable();
-
-            answersManager = new Answers(connection, databaseHelper);
             answersManager.createTable();
 
-            Statement statement = connection.createStatement();
             //statement.execute("DROP TABLE answers");   // dev‑only
             //statement.execute("DROP TABLE questions");
 
             questionsManager.loadAllFromDB();
             answersManager.loadAllFromDB();
-            answersManager.linkAnswersToQuestions(
-                    questionsManager.getAllQuestions());
-
-        } catch (Exception e) { e.printStackTrace(); }
+        }).thenRun(() -> answersManager.linkAnswersToQuestions(
+                    questionsManager.getAllQuestions()))
+          .exceptionally(error -> {
+              messageLabel.setText("Could not load questions: " + AsyncDataAccess.describe(error));
+              return null;
+          });
 
         /* ─── Primary UI ─────────────────────────────────────────────── */
         primaryStage.setTitle("Discussion Application (Questions)");
@@ -101,10 +94,7 @@ public class AdminHomePage {
         createBtn.setOnAction(e -> createQuestion(user));
 
         Button searchBtn = new Button("Search Question");
-        searchBtn.setOnAction(e -> {
-            try { searchQuestion(); }
-            catch (SQLException ex) { ex.printStackTrace(); }
-        });
+        searchBtn.setOnAction(e -> searchQuestion());
 
         Button updateBtn = new Button("Update Question");
         updateBtn.setOnAction(e -> updateQuestion(user));
@@ -137,17 +127,20 @@ public class AdminHomePage {
                           "Please enter a username.").show();
                 return;
             }
-            boolean success = databaseHelper.changeUserRole(userName,"reviewer");
-            if (success) {
-                new Alert(Alert.AlertType.INFORMATION,
-                          "User promoted to reviewer successfully!").show();
-                if (user.getUserName().equals(userName)) {
-                    user.setRole("reviewer");
-                }
-            } else {
-                new Alert(Alert.AlertType.ERROR,
-                          "Failed to promote user. User may not exist.").show();
-            }
+            AsyncDataAccess.supply("changeUserRole",
+                                   () -> databaseHelper.changeUserRole(userName, "reviewer"))
+                .thenAccept(success -> {
+                    if (success) {
+                        new Alert(Alert.AlertType.INFORMATION,
+                                  "User promoted to reviewer successfully!").show();
+                        if (user.getUserName().equals(userName)) {
+                            user.setRole("reviewer");
+                        }
+                    } else {
+                        new Alert(Alert.AlertType.ERROR,
+                                  "Failed to promote user. User may not exist.").show();
+                    }
+                });
         });
 
         VBox promoteBox = new VBox(10, promoteLabel, userField, promoteButton);
@@ -161,8 +154,12 @@ public class AdminHomePage {
                                          questionsManager,
                                          answersManager).show());
 
+        Button topReviewersBtn = new Button("Top Reviewers");
+        topReviewersBtn.setMinWidth(200);
+        topReviewersBtn.setOnAction(e -> new TopReviewersWindow(databaseHelper).show());
+
         VBox reviewerRequestBox = new VBox(10,
-                new Label("Pending Reviewer Requests:"), viewRequestsBtn);
+                new Label("Pending Reviewer Requests:"), viewRequestsBtn, topReviewersBtn);
         reviewerRequestBox.setPadding(new Insets(10));
         reviewerRequestBox.setStyle("-fx-border-color: gray; -fx-border-width: 1; -fx-padding: 10;");
 
@@ -172,8 +169,19 @@ public class AdminHomePage {
         adminReqBtn.setOnAction(e -> new AdminRequestsWindow(databaseHelper)
                                            .show());
 
+        Button latencyBtn = new Button("Query Latency");
+        latencyBtn.setMinWidth(200);
+        latencyBtn.setOnAction(e -> {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION,
+                    AsyncDataAccess.latencyReport() + "\n" + databaseHelper.getConnectionPool()
+                    + "\n" + answersManager.getVoteBuffer() + "\n" + databaseHelper.getUserCache());
+            alert.setHeaderText("Background query latency");
+            alert.getDialogPane().setMinWidth(650);
+            alert.show();
+        });
+
         VBox adminReqBox = new VBox(10,
-                new Label("Instructor Admin Requests:"), adminReqBtn);
+                new Label("Instructor Admin Requests:"), adminReqBtn, latencyBtn);
         adminReqBox.setPadding(new Insets(10));
         adminReqBox.setStyle("-fx-border-color: gray; -fx-border-width: 1; -fx-padding: 10;");
 
@@ -211,10 +219,12 @@ public class AdminHomePage {
             messageLabel.setText(errorMessage);
             return;
         }
-        questionsManager.createQuestion(text, user.getUserName(), title);
-        messageLabel.setText("Question created.");
         questionInput.clear();
-        questionListView.refresh();
+        AsyncDataAccess.run("createQuestion", () -> questionsManager.createQuestion(text, user.getUserName(), title))
+            .thenRun(() -> {
+                messageLabel.setText("Question created.");
+                questionListView.refresh();
+            });
     }
 
     private void updateQuestion(User user) {
@@ -228,9 +238,12 @@ public class AdminHomePage {
             messageLabel.setText("You are not the author of this post"); return;
         }
 
-        questionsManager.updateQuestion(selected, newText);
-        messageLabel.setText("Question updated.");
-        questionTitle.clear(); questionInput.clear(); questionListView.refresh();
+        questionTitle.clear(); questionInput.clear();
+        AsyncDataAccess.run("updateQuestion", () -> questionsManager.updateQuestion(selected, newText))
+            .thenRun(() -> {
+                messageLabel.setText("Question updated.");
+                questionListView.refresh();
+            });
     }
 
     private void deleteQuestion(User user) {
@@ -242,9 +255,11 @@ public class AdminHomePage {
             messageLabel.setText("You are not the author of this post"); return;
         }
 
-        questionsManager.deleteQuestion(selected);
-        messageLabel.setText("Question deleted.");
-        questionListView.refresh();
+        AsyncDataAccess.run("deleteQuestion", () -> questionsManager.deleteQuestion(selected))
+            .thenRun(() -> {
+                messageLabel.setText("Question deleted.");
+                questionListView.refresh();
+            });
     }
 
     private void markQuestionResolved(User user) {
@@ -256,9 +271,11 @@ public class AdminHomePage {
             messageLabel.setText("You are not the author of this post"); return;
         }
 
-        questionsManager.markQuestionAsResolved(selected);
-        messageLabel.setText("Question marked as resolved.");
-        questionListView.refresh();
+        AsyncDataAccess.run("markQuestionResolved", () -> questionsManager.markQuestionAsResolved(selected))
+            .thenRun(() -> {
+                messageLabel.setText("Question marked as resolved.");
+                questionListView.refresh();
+            });
     }
 
     private void openAnswersWindow(User user) {
@@ -271,11 +288,19 @@ public class AdminHomePage {
         messageLabel.setText("Opened separate window for answers.");
     }
 
-    private void searchQuestion() throws SQLException {
+    private void searchQuestion() {
         String text = questionInput.getText().trim();
         if (text.isEmpty()) { messageLabel.setText("Cannot search empty question."); return; }
 
-        ObservableList<Question> similar = questionsManager.search(text);
+        AsyncDataAccess.supply("searchQuestions", () -> questionsManager.search(text))
+            .thenAccept(this::showSimilarQuestions)
+            .exceptionally(error -> {
+                messageLabel.setText("Search error: " + AsyncDataAccess.describe(error));
+                return null;
+            });
+    }
+
+    private void showSimilarQuestions(ObservableList<Question> similar) {
         if (similar.isEmpty()) { messageLabel.setText("Question not found."); return; }
 
         questionListView.getItems().clear();
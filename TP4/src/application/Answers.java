@@ -4,131 +4,245 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import databasePart1.ConnectionPool;
 import databasePart1.DatabaseHelper;
+import databasePart1.PooledConnection;
+import databasePart1.ReputationEngine;
+import databasePart1.UnitOfWork;
+import databasePart1.VoteBuffer;
 
 public class Answers {
-    private final Connection connection;
+    /** The answers table as first released; later columns come from SchemaMigrator. */
+    public static final String CREATE_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS answers (
+          id IDENTITY PRIMARY KEY,
+          question_id BIGINT NOT NULL,
+          text VARCHAR(255) NOT NULL,
+          author VARCHAR(255) NOT NULL,
+          likes INT DEFAULT 0,
+          dislikes INT DEFAULT 0,
+          is_review INT,
+          parent_answer_id BIGINT,
+          FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE,
+          FOREIGN KEY (parent_answer_id) REFERENCES answers(id) ON DELETE CASCADE
+        )
+    """;
+
+    private final ConnectionPool pool;
+    private final SearchIndex searchIndex;
+    private final VoteBuffer votes;
+
+    // allAnswers and the answer lists of questions are only changed through
+    // AsyncDataAccess.runOnFxThread, so these methods may run on a background thread.
     private final ObservableList<Answer> allAnswers = FXCollections.observableArrayList();
-    
+
+    // Secondary indexes over allAnswers. They are keyed on fields that never change after
+    // an answer is created, so only create/delete (and a reload) have to touch them.
+    private final Map<Long, List<Answer>>   answersByQuestion = new ConcurrentHashMap<>();
+    private final Map<Long, List<Answer>>   reviewsByParent   = new ConcurrentHashMap<>();
+    private final Map<String, List<Answer>> answersByAuthor   = new ConcurrentHashMap<>();
+    private final Map<Long, Answer>         answersById       = new ConcurrentHashMap<>();
     
     private final DatabaseHelper dbHelper;
+    // told about answer counts so it can keep its unanswered set current
+    private final Questions questionsManager;
 
-    public Answers(Connection connection, DatabaseHelper dbHelper) {
-        this.connection = connection;
+    public Answers(ConnectionPool pool, Questions questions, DatabaseHelper dbHelper) {
+        // the application's buffer is shared; a private one must not schedule or hook anything
+        this(pool, questions, dbHelper, dbHelper != null && dbHelper.getVoteBuffer() != null
+                                        ? dbHelper.getVoteBuffer() : VoteBuffer.writeThrough(pool));
+    }
+
+    public Answers(ConnectionPool pool, Questions questions, DatabaseHelper dbHelper, VoteBuffer votes) {
+        this.pool = pool;
+        this.searchIndex = new SearchIndex(pool);
+        this.questionsManager = Objects.requireNonNull(questions, "questions");
         this.dbHelper = dbHelper;
+        this.votes = votes;
+    }
+
+    public Answers(Connection connection, Questions questions, DatabaseHelper dbHelper) {
+        this(ConnectionPool.wrap(connection), questions, dbHelper);
     }
 
     public DatabaseHelper getDatabaseHelper() {
         return dbHelper;
     }
 
+    public VoteBuffer getVoteBuffer() {
+        return votes;
+    }
+
+    /** The manager whose unanswered set follows the answers created and deleted here. */
+    public Questions getQuestionsManager() {
+        return questionsManager;
+    }
+
     public void createTable() throws SQLException {
-        try (Statement st = connection.createStatement()) {
-            st.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS answers (
-                  id IDENTITY PRIMARY KEY,
-                  question_id BIGINT NOT NULL,
-                  text VARCHAR(255) NOT NULL,
-                  author VARCHAR(255) NOT NULL,
-                  likes INT DEFAULT 0,
-                  dislikes INT DEFAULT 0,
-                  is_review INT,
-                  parent_answer_id BIGINT,
-                  FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE,
-                  FOREIGN KEY (parent_answer_id) REFERENCES answers(id) ON DELETE CASCADE
-                )
-            """);
-        }
-        /*try (Statement st = connection.createStatement()) {
-            st.execute("ALTER TABLE answers ADD COLUMN dislikes INT DEFAULT 0");
-        } catch (SQLException e) {
-            if (!e.getMessage().contains("Column \"DISLIKES\" already exists")) {
-                e.printStackTrace();
-            }
-        }*/
-        /*try(Statement st = connection.createStatement()) {
-            st.execute("ALTER TABLE answers ADD COLUMN is_review INT");
-        } catch (SQLException e) {
-            if (!e.getMessage().contains("Column \"IS_REVIEW\" already exists")) {
-                e.printStackTrace();
-            }
+        try (PooledConnection pc = pool.borrow();
+             Statement st = pc.getConnection().createStatement()) {
+            st.executeUpdate(CREATE_TABLE_SQL);
         }
+        // columns added after the first release, the indexes and the reviewer totals come from SchemaMigrator
 
-        // PARENT_ANSWER_ID
-        try (Statement st = connection.createStatement()) {
-            st.execute("ALTER TABLE answers ADD COLUMN parent_answer_id BIGINT");
-        } catch (SQLException e) {
-            if (!e.getMessage().contains("Column \"PARENT_ANSWER_ID\" already exists")) {
-                e.printStackTrace();
+        searchIndex.createTable();
+        if (searchIndex.isFieldEmpty(SearchIndex.FIELD_ANSWER)) {
+            try (PooledConnection pc = pool.borrow();
+                 Statement st = pc.getConnection().createStatement();
+                 ResultSet rs = st.executeQuery("SELECT id, question_id, text FROM answers")) {
+                while (rs.next()) {
+                    searchIndex.indexField(rs.getLong("question_id"), SearchIndex.FIELD_ANSWER,
+                                           rs.getLong("id"), rs.getString("text"));
+                }
             }
-        }*/
-
+        }
     }
 
     public void loadAllFromDB() throws SQLException {
-        allAnswers.clear();
-        try (Statement st = connection.createStatement();
+        clear();
+        List<Answer> loaded = new ArrayList<>();
+        try (PooledConnection pc = pool.borrow();
+             Statement st = pc.getConnection().createStatement();
              ResultSet rs = st.executeQuery("""
                  SELECT id, question_id, text, author, likes, dislikes, is_review, parent_answer_id
                  FROM answers
              """)) {
             while (rs.next()) {
-                long id = rs.getLong("id");
-                long qId = rs.getLong("question_id");
-                String txt = rs.getString("text");
-                String author = rs.getString("author");
-                int likes = rs.getInt("likes");
-                int dislikes = rs.getInt("dislikes");
-                int isReview = rs.getInt("is_review");
-                Long parentId = (rs.getObject("parent_answer_id") != null)
-                                ? rs.getLong("parent_answer_id")
-                                : null;
-
-                Answer ans = new Answer(id, qId, txt, likes, dislikes, author, isReview, parentId);
-                allAnswers.add(ans);
+                Answer ans = readAnswer(rs);
+                loaded.add(ans);
+                index(ans);
             }
         }
+        AsyncDataAccess.runOnFxThread(() -> allAnswers.setAll(loaded));
     }
 
-    public void linkAnswersToQuestions(ObservableList<Question> questions) {
-        for (Answer ans : allAnswers) {
-            for (Question q : questions) {
-                if (q.getId() == ans.getQuestionId()) {
-                    q.getAnswers().add(ans);
-                    break;
+    /** Forgets every answer held in memory, e.g. before paging questions in again. */
+    public void clear() {
+        AsyncDataAccess.runOnFxThread(allAnswers::clear);
+        answersByQuestion.clear();
+        reviewsByParent.clear();
+        answersByAuthor.clear();
+        answersById.clear();
+    }
+
+    /**
+     * Reads the answers of every question whose id lies in [fromQuestionId, toQuestionId],
+     * i.e. the answers belonging to one page of questions. Only touches the database.
+     */
+    public List<Answer> fetchForQuestions(long fromQuestionId, long toQuestionId) throws SQLException {
+        List<Answer> page = new ArrayList<>();
+        String sql = """
+            SELECT id, question_id, text, author, likes, dislikes, is_review, parent_answer_id
+            FROM answers WHERE question_id BETWEEN ? AND ?
+        """;
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql);
+            ps.setLong(1, fromQuestionId);
+            ps.setLong(2, toQuestionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    page.add(readAnswer(rs));
                 }
             }
         }
+        return page;
     }
 
-    public void createAnswer(Question question, String text, User user, int roleVal) {
-        createAnswer(question, text, user, roleVal, null);
+    /**
+     * Adds answers read by fetchForQuestions to memory and attaches them to their
+     * questions. Answers of questions not in the list were already in memory and are
+     * skipped. Must run on the thread that owns the lists.
+     */
+    public void appendAnswers(List<Answer> page, List<Question> questions) {
+        Set<Long> questionIds = new HashSet<>();
+        for (Question q : questions) {
+            questionIds.add(q.getId());
+        }
+        for (Answer ans : page) {
+            if (questionIds.contains(ans.getQuestionId())) {
+                allAnswers.add(ans);
+                index(ans);
+            }
+        }
+        linkAnswersToQuestions(questions);
+    }
+
+    // votes still waiting in the buffer are added to the stored counters
+    private Answer readAnswer(ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        long qId = rs.getLong("question_id");
+        String txt = rs.getString("text");
+        String author = rs.getString("author");
+        int likes = rs.getInt("likes") + votes.getPendingLikes(id);
+        int dislikes = rs.getInt("dislikes") + votes.getPendingDislikes(id);
+        int isReview = rs.getInt("is_review");
+        Long parentId = (rs.getObject("parent_answer_id") != null)
+                        ? rs.getLong("parent_answer_id")
+                        : null;
+
+        return new Answer(id, qId, txt, likes, dislikes, author, isReview, parentId);
     }
 
-    public void createAnswer(Question question, String text, User user, int roleVal, Long parentAnswerId) {
+    /**
+     * Attaches every loaded answer to its question. This is a hash join on question id
+     * through the answersByQuestion index, so it costs O(questions + answers).
+     */
+    public void linkAnswersToQuestions(List<Question> questions) {
+        for (Question q : questions) {
+            List<Answer> forQuestion = answersByQuestion.get(q.getId());
+            if (forQuestion != null) {
+                q.getAnswers().addAll(forQuestion);
+            }
+            reportAnswerCount(q.getId());
+        }
+    }
+
+    public Answer createAnswer(Question question, String text, User user, int roleVal) {
+        return createAnswer(question, text, user, roleVal, null);
+    }
+
+    /** Stores a new answer (or, with a parent, a review) and returns it; null if it could not be stored. */
+    public Answer createAnswer(Question question, String text, User user, int roleVal, Long parentAnswerId) {
         try {
             long newId = insertAnswerDB(question.getId(), text, user.getUserName(), roleVal, parentAnswerId);
             Answer ans = new Answer(newId, question.getId(), text,
                                     0, 0, // likes, dislikes
                                     user.getUserName(), roleVal, parentAnswerId);
-            allAnswers.add(ans);
-            question.getAnswers().add(ans);
+            searchIndex.indexAnswer(ans);
+            UnitOfWork.afterCommit(pool, () -> {
+                index(ans);
+                AsyncDataAccess.runOnFxThread(() -> {
+                    allAnswers.add(ans);
+                    question.getAnswers().add(ans);
+                });
+            });
+            return ans;
         } catch (SQLException e) {
             e.printStackTrace();
+            UnitOfWork.setRollbackOnly(pool);
         }
+        return null;
     }
 
     public void updateAnswer(Answer ans, String newText) {
         try {
             String sql = "UPDATE answers SET text=? WHERE id=?";
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            try (PooledConnection pc = pool.borrow()) {
+                PreparedStatement ps = pc.prepareStatement(sql);
                 ps.setString(1, newText);
                 ps.setLong(2, ans.getId());
                 ps.executeUpdate();
             }
-            ans.setText(newText);
+            AsyncDataAccess.runOnFxThread(() -> ans.setText(newText));
+            searchIndex.indexField(ans.getQuestionId(), SearchIndex.FIELD_ANSWER, ans.getId(), newText);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -137,50 +251,110 @@ public class Answers {
     public void deleteAnswer(Answer ans, Question q) {
         try {
             String sql = "DELETE FROM answers WHERE id=?";
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            try (PooledConnection pc = pool.borrow()) {
+                PreparedStatement ps = pc.prepareStatement(sql);
                 ps.setLong(1, ans.getId());
                 ps.executeUpdate();
             }
-            allAnswers.remove(ans);
-            q.getAnswers().remove(ans);
+            // the database cascades the delete to this answer's reviews; mirror that here
+            List<Answer> removed = getReviewsForAnswer(ans.getId());
+            removed.add(ans);
+            for (Answer gone : removed) {
+                searchIndex.removeAnswer(gone.getId());
+            }
+            // inside a unit of work, the loaded answers and the reviewer totals follow only
+            // once the delete commits
+            UnitOfWork.afterCommit(pool, () -> {
+                ReputationEngine reputation = votes.getReputationEngine();
+                for (Answer gone : removed) {
+                    unindex(gone);
+                    if (reputation != null && gone.isReview()) {
+                        try {
+                            reputation.removeReview(gone.getAuthor(), gone.getLikes(), gone.getDislikes());
+                        } catch (SQLException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+                AsyncDataAccess.runOnFxThread(() -> {
+                    allAnswers.removeAll(removed);
+                    q.getAnswers().removeAll(removed);
+                });
+            });
         } catch (SQLException e) {
             e.printStackTrace();
+            UnitOfWork.setRollbackOnly(pool);
         }
     }
 
+    public Answer getAnswer(long answerId) {
+        return answersById.get(answerId);
+    }
+
     public List<Answer> getAnswersForQuestion(long questionId) {
-        List<Answer> subset = new ArrayList<>();
-        for (Answer ans : allAnswers) {
-            if (ans.getQuestionId() == questionId) {
-                subset.add(ans);
-            }
+        return new ArrayList<>(answersByQuestion.getOrDefault(questionId, List.of()));
+    }
+
+    public List<Answer> getReviewsForAnswer(long answerId) {
+        return new ArrayList<>(reviewsByParent.getOrDefault(answerId, List.of()));
+    }
+
+    public List<Answer> getAnswersByAuthor(String author) {
+        return new ArrayList<>(answersByAuthor.getOrDefault(author, List.of()));
+    }
+
+    private void index(Answer ans) {
+        answersById.put(ans.getId(), ans);
+        answersByQuestion.computeIfAbsent(ans.getQuestionId(), k -> new CopyOnWriteArrayList<>()).add(ans);
+        reportAnswerCount(ans.getQuestionId());
+        answersByAuthor.computeIfAbsent(ans.getAuthor(), k -> new CopyOnWriteArrayList<>()).add(ans);
+        if (ans.isReview() && ans.getParentAnswerId() != null) {
+            reviewsByParent.computeIfAbsent(ans.getParentAnswerId(), k -> new CopyOnWriteArrayList<>()).add(ans);
+        }
+    }
+
+    private void unindex(Answer ans) {
+        answersById.remove(ans.getId());
+        removeFrom(answersByQuestion, ans.getQuestionId(), ans);
+        reportAnswerCount(ans.getQuestionId());
+        removeFrom(answersByAuthor, ans.getAuthor(), ans);
+        if (ans.getParentAnswerId() != null) {
+            removeFrom(reviewsByParent, ans.getParentAnswerId(), ans);
         }
-        return subset;
+    }
+
+    private void reportAnswerCount(long questionId) {
+        questionsManager.answerCountChanged(questionId, answersByQuestion.getOrDefault(questionId, List.of()).size());
+    }
+
+    private static <K> void removeFrom(Map<K, List<Answer>> index, K key, Answer ans) {
+        index.computeIfPresent(key, (k, list) -> {
+            list.remove(ans);
+            return list.isEmpty() ? null : list;
+        });
     }
 
    
+    /** Counts the vote right away; the buffer writes it to the database shortly after. */
     public void markHelpful(Answer ans) {
-        try {
-            String sql = "UPDATE answers SET likes = likes + 1 WHERE id=?";
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                ps.setLong(1, ans.getId());
-                ps.executeUpdate();
-            }
-            ans.incrementLikes();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        votes.recordLike(ans.getId());
+        recordReviewVote(ans, true);
+        AsyncDataAccess.runOnFxThread(ans::incrementLikes);
     }
 
     
     public void markNotHelpful(Answer ans) {
+        votes.recordDislike(ans.getId());
+        recordReviewVote(ans, false);
+        AsyncDataAccess.runOnFxThread(ans::incrementDislikes);
+    }
+
+    // a vote on a review also moves its author's reputation
+    private void recordReviewVote(Answer ans, boolean helpful) {
+        ReputationEngine reputation = votes.getReputationEngine();
+        if (reputation == null || !ans.isReview()) return;
         try {
-            String sql = "UPDATE answers SET dislikes = dislikes + 1 WHERE id=?";
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                ps.setLong(1, ans.getId());
-                ps.executeUpdate();
-            }
-            ans.incrementDislikes();
+            reputation.recordVote(ans.getAuthor(), helpful);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -197,7 +371,8 @@ public class Answers {
             INSERT INTO answers (question_id, text, author, is_review, parent_answer_id)
             VALUES (?, ?, ?, ?, ?)
         """;
-        try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             ps.setLong(1, questionId);
             ps.setString(2, text);
             ps.setString(3, author);
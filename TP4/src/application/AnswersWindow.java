@@ -10,6 +10,7 @@ import javafx.stage.Stage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import databasePart1.DatabaseHelper;
 
@@ -136,6 +137,15 @@ public class AnswersWindow extends Stage {
 
    
     private void loadAnswers() {
+        // one query for the whole window instead of one per review
+        AsyncDataAccess.supply("getTrustedReviewers",
+                               () -> (dbHelper != null && currentUser != null)
+                                     ? dbHelper.getTrustedReviewers(currentUser.getUserName())
+                                     : Set.<String>of())
+            .thenAccept(this::showAnswers);
+    }
+
+    private void showAnswers(Set<String> trustedReviewers) {
         List<Answer> rawList = answersManager.getAnswersForQuestion(question.getId());
         List<Answer> displayList = new ArrayList<>();
 
@@ -148,24 +158,11 @@ public class AnswersWindow extends Stage {
                 List<Answer> trustedReviews = new ArrayList<>();
                 List<Answer> untrustedReviews = new ArrayList<>();
 
-                for (Answer possibleReview : rawList) {
-                    if (possibleReview.isReview()
-                        && possibleReview.getParentAnswerId() != null
-                        && possibleReview.getParentAnswerId().equals(ans.getId())) {
-
-                        boolean isTrusted = false;
-                        if (dbHelper != null && currentUser != null) {
-                            
-                            String reviewerName = possibleReview.getAuthor();
-                            String studentName = currentUser.getUserName();
-                            isTrusted = dbHelper.isReviewerTrusted(studentName, reviewerName);
-                        }
-
-                        if (isTrusted) {
-                            trustedReviews.add(possibleReview);
-                        } else {
-                            untrustedReviews.add(possibleReview);
-                        }
+                for (Answer review : answersManager.getReviewsForAnswer(ans.getId())) {
+                    if (trustedReviewers.contains(review.getAuthor())) {
+                        trustedReviews.add(review);
+                    } else {
+                        untrustedReviews.add(review);
                     }
                 }
 
@@ -196,10 +193,13 @@ public class AnswersWindow extends Stage {
             parentId = selected.getId();
         }
 
-        answersManager.createAnswer(question, text, user, roleVal, parentId);
-        messageLabel.setText(roleVal == 1 ? "Review added." : "Answer added.");
+        Long parent = parentId;
         answerInput.clear();
-        refreshAnswers();
+        AsyncDataAccess.run("createAnswer", () -> answersManager.createAnswer(question, text, user, roleVal, parent))
+            .thenRun(() -> {
+                messageLabel.setText(roleVal == 1 ? "Review added." : "Answer added.");
+                refreshAnswers();
+            });
     }
 
     private void updateAnswer(User user, int roleVal) {
@@ -221,10 +221,12 @@ public class AnswersWindow extends Stage {
             return;
         }
 
-        answersManager.updateAnswer(selected, newText);
-        messageLabel.setText(roleVal == 1 ? "Review updated." : "Answer updated.");
         answerInput.clear();
-        refreshAnswers();
+        AsyncDataAccess.run("updateAnswer", () -> answersManager.updateAnswer(selected, newText))
+            .thenRun(() -> {
+                messageLabel.setText(roleVal == 1 ? "Review updated." : "Answer updated.");
+                refreshAnswers();
+            });
     }
 
     private void deleteAnswer(User user, int roleVal) {
@@ -239,9 +241,11 @@ public class AnswersWindow extends Stage {
             return;
         }
 
-        answersManager.deleteAnswer(selectedAnswer, question);
-        messageLabel.setText(roleVal == 1 ? "Review deleted." : "Answer deleted.");
-        refreshAnswers();
+        AsyncDataAccess.run("deleteAnswer", () -> answersManager.deleteAnswer(selectedAnswer, question))
+            .thenRun(() -> {
+                messageLabel.setText(roleVal == 1 ? "Review deleted." : "Answer deleted.");
+                refreshAnswers();
+            });
     }
 
     private void markHelpful() {
@@ -250,9 +254,11 @@ public class AnswersWindow extends Stage {
             messageLabel.setText("No item selected.");
             return;
         }
-        answersManager.markHelpful(selected);
-        messageLabel.setText("Marked as Helpful. [Helpful: " + selected.getLikes() + "]");
-        refreshAnswers();
+        AsyncDataAccess.run("markHelpful", () -> answersManager.markHelpful(selected))
+            .thenRun(() -> {
+                messageLabel.setText("Marked as Helpful. [Helpful: " + selected.getLikes() + "]");
+                refreshAnswers();
+            });
     }
 
     private void markNotHelpful() {
@@ -261,9 +267,11 @@ public class AnswersWindow extends Stage {
             messageLabel.setText("No item selected.");
             return;
         }
-        answersManager.markNotHelpful(selected);
-        messageLabel.setText("Marked as Not Helpful. [Not helpful: " + selected.getDislikes() + "]");
-        refreshAnswers();
+        AsyncDataAccess.run("markNotHelpful", () -> answersManager.markNotHelpful(selected))
+            .thenRun(() -> {
+                messageLabel.setText("Marked as Not Helpful. [Not helpful: " + selected.getDislikes() + "]");
+                refreshAnswers();
+            });
     }
 
     private void markReviewerAsTrusted() {
@@ -286,11 +294,12 @@ public class AnswersWindow extends Stage {
         
         String studentName = currentUser.getUserName();
 
-        dbHelper.markReviewerAsTrusted(studentName, reviewerName);
-        messageLabel.setText("You now trust reviewer: " + reviewerName);
+        AsyncDataAccess.run("markReviewerAsTrusted", () -> dbHelper.markReviewerAsTrusted(studentName, reviewerName))
+            .thenRun(() -> {
+                messageLabel.setText("You now trust reviewer: " + reviewerName);
 
-        
-        refreshAnswers();
+                refreshAnswers();
+            });
     }
     
     private void viewUserProfile() {
@@ -301,38 +310,16 @@ public class AnswersWindow extends Stage {
         }
 
         String username = selected.getAuthor();
-        String role = dbHelper.getUserRole(username);  // Ensure this method exists
-        Double rating = null;
-
-        if ("reviewer".equalsIgnoreCase(role)) {
-            rating = computeReviewerRating(username);
-        }
-
-        new ProfilePage(username, role, rating).show();
-    }
-
-    private Double computeReviewerRating(String reviewerUsername) {
-        List<Answer> reviews = answersManager.getAllAnswers().stream()
-            .filter(ans -> ans.isReview() && reviewerUsername.equals(ans.getAuthor()))
-            .toList();
-
-        if (reviews.isEmpty()) return null;
-
-        double total = 0;
-        int count = 0;
-
-        for (Answer ans : reviews) {
-            int likes = ans.getLikes();
-            int dislikes = ans.getDislikes();
-            int totalVotes = likes + dislikes;
-            if (totalVotes == 0) continue;
-
-            double rawScore = ((double)(likes - dislikes) / totalVotes) * 4 + 3;
-            total += Math.max(1.0, Math.min(5.0, rawScore));
-            count++;
-        }
-
-        return count > 0 ? total / count : null;
+        AsyncDataAccess.supply("getUserRole", () -> dbHelper.getUserRole(username))
+            .thenAccept(role -> {
+                if (!"reviewer".equalsIgnoreCase(role)) {
+                    new ProfilePage(username, role, null).show();
+                    return;
+                }
+                // kept current by every vote, so this is a lookup rather than a scan of the reviews
+                AsyncDataAccess.supply("getReviewerRating", () -> dbHelper.getReputationEngine().getRating(username))
+                    .thenAccept(rating -> new ProfilePage(username, role, rating).show());
+            });
     }
 
 
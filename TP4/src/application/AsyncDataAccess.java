@@ -0,0 +1,190 @@
+/**
+ * AsyncDataAccess.java
+ *
+ * Runs database work for the JavaFX pages on background threads so a slow query
+ * never freezes the UI, and records how long every call took.
+ */
+
+package application;
+
+import databasePart1.LatencyHistogram;
+import javafx.application.Platform;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The AsyncDataAccess class is the single place the UI hands JDBC work to.
+ * Each call runs on its own virtual thread (a blocked JDBC call costs no platform
+ * thread, and the connection pool still bounds how many queries run at once).
+ * The returned future completes on the JavaFX application thread, so stages
+ * chained on it from the UI may touch controls directly.
+ *
+ * The Questions and Answers managers route their ObservableList changes through
+ * {@link #runOnFxThread(Runnable)}, so their methods are safe to call from here.
+ */
+public final class AsyncDataAccess {
+
+    /**
+     * A unit of database work that produces a value.
+     *
+     * @param <T> The result type.
+     */
+    @FunctionalInterface
+    public interface DbCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * A unit of database work without a result.
+     */
+    @FunctionalInterface
+    public interface DbAction {
+        void run() throws Exception;
+    }
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-", 0).factory());
+
+    private static final Map<String, LatencyHistogram> LATENCY = new ConcurrentHashMap<>();
+
+    private static volatile boolean toolkitMissing;
+
+    // stands in for the JavaFX application thread in headless runs (load tests)
+    private static volatile Executor uiExecutor;
+
+    private AsyncDataAccess() {
+    }
+
+    /**
+     * Runs {@code call} on a background thread.
+     *
+     * @param operation Name under which the call's latency is recorded.
+     * @param call      The database work.
+     * @param <T>       The result type.
+     * @return A future completed with the result on the JavaFX application thread.
+     */
+    public static <T> CompletableFuture<T> supply(String operation, DbCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                T value = call.call();
+                record(operation, start);
+                runOnFxThread(() -> future.complete(value));
+            } catch (Throwable t) {
+                record(operation, start);
+                runOnFxThread(() -> future.completeExceptionally(t));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs {@code action} on a background thread.
+     *
+     * @param operation Name under which the call's latency is recorded.
+     * @param action    The database work.
+     * @return A future completed on the JavaFX application thread.
+     */
+    public static CompletableFuture<Void> run(String operation, DbAction action) {
+        return supply(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code task} on the JavaFX application thread: immediately when already on
+     * it, queued otherwise. Without a running toolkit (tests, benchmarks) the task runs
+     * on the calling thread.
+     *
+     * @param task The work that touches JavaFX state.
+     */
+    public static void runOnFxThread(Runnable task) {
+        Executor headless = uiExecutor;
+        if (headless != null) {
+            headless.execute(task);
+            return;
+        }
+        if (toolkitMissing || Platform.isFxApplicationThread()) {
+            task.run();
+            return;
+        }
+        try {
+            Platform.runLater(task);
+        } catch (IllegalStateException notStarted) {
+            toolkitMissing = true;
+            task.run();
+        }
+    }
+
+    /**
+     * Sends the work meant for the JavaFX application thread to {@code executor} instead.
+     * A headless driver that calls the managers from many threads passes a
+     * single-threaded executor here, so their list changes stay on one thread as they
+     * do in the UI. Pass null to go back to the JavaFX thread.
+     *
+     * @param executor The stand-in UI thread, or null.
+     */
+    public static void setUiExecutor(Executor executor) {
+        uiExecutor = executor;
+    }
+
+    /**
+     * Returns an executor that runs tasks on the JavaFX application thread.
+     *
+     * @return The FX executor.
+     */
+    public static Executor fxExecutor() {
+        return AsyncDataAccess::runOnFxThread;
+    }
+
+    /**
+     * Returns the latency histogram of one operation, creating it if needed.
+     *
+     * @param operation The operation name.
+     * @return Its histogram.
+     */
+    public static LatencyHistogram getLatency(String operation) {
+        return LATENCY.computeIfAbsent(operation, k -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns one line per operation with its call count and latency percentiles.
+     *
+     * @return The report, sorted by operation name.
+     */
+    public static String latencyReport() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(LATENCY).entrySet()) {
+            sb.append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+        }
+        return sb.length() == 0 ? "No queries recorded yet.\n" : sb.toString();
+    }
+
+    /**
+     * Logs a failed future and describes it for a status label, unwrapping the
+     * completion wrapper.
+     *
+     * @param error The failure passed to an exceptionally/handle stage.
+     * @return A short message.
+     */
+    public static String describe(Throwable error) {
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null)
+                          ? error.getCause()
+                          : error;
+        cause.printStackTrace();
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
+    private static void record(String operation, long start) {
+        getLatency(operation).record(System.nanoTime() - start);
+    }
+}
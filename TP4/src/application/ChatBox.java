@@ -1,21 +1,29 @@
 package application;
 
 import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.geometry.Insets;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import databasePart1.ChatMessageBus;
 import databasePart1.DatabaseHelper;
 
 /**
  * The ChatBox class displays a window to show conversations with other users.
  */
 public class ChatBox extends VBox {
-    private ListView<String> messageList;
+    /** Messages fetched when a chat opens and per older page scrolled in. */
+    private static final int PAGE_SIZE = 50;
+
+    private ListView<ChatMessage> messageList;
     private TextField messageInput;
     private Button sendButton;
     private TextField searchField;
@@ -24,6 +32,11 @@ public class ChatBox extends VBox {
     private String currentUser;
     private String otherUser;
     private VBox chatInterface;
+    private boolean loadingOlder;
+    private boolean reachedStart;
+    // ids already in messageList; the bus also echoes our own messages back
+    private final Set<Long> shownIds = new HashSet<>();
+    private ChatMessageBus.Subscription subscription;
     
     private final DatabaseHelper databaseHelper;
 
@@ -73,10 +86,12 @@ public class ChatBox extends VBox {
             return;
         }
 
-        List<String> reviewers = getReviewers(searchTerm);
-        reviewerList.getItems().clear();
-        reviewerList.getItems().addAll(reviewers);
-        reviewerList.setVisible(true);
+        AsyncDataAccess.supply("getChatters", () -> getReviewers(searchTerm))
+            .thenAccept(reviewers -> {
+                reviewerList.getItems().clear();
+                reviewerList.getItems().addAll(reviewers);
+                reviewerList.setVisible(true);
+            });
     }
 
     //gets a list of chatters based on the search term
@@ -96,6 +111,19 @@ public class ChatBox extends VBox {
         // Initialize chat components
         messageList = new ListView<>();
         messageList.setPrefHeight(300);
+        messageList.setCellFactory(param -> new ListCell<>() {
+            @Override
+            protected void updateItem(ChatMessage item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.display(currentUser));
+            }
+        });
+        // older history is fetched when the list is scrolled to the top
+        messageList.skinProperty().addListener((obs, oldSkin, skin) -> {
+            if (skin != null) {
+                Platform.runLater(this::hookScrollBar);
+            }
+        });
         
         messageInput = new TextField();
         messageInput.setPromptText("Type your message...");
@@ -110,32 +138,150 @@ public class ChatBox extends VBox {
         chatInterface.getChildren().addAll(messageList, inputBox);
         chatInterface.setVisible(true);
         
-        // Load existing messages
+        // Subscribe before loading so nothing sent in between is missed, then load the latest messages
+        subscribe();
         loadMessages();
     }
 
+    /**
+     * Stops receiving new messages. Call when the window holding this chat closes.
+     */
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+    }
+
+    private void subscribe() {
+        close();
+        String chatPartner = otherUser;
+        subscription = databaseHelper.getChatMessageBus().subscribe(currentUser, new ChatMessageBus.Listener() {
+            @Override
+            public void onMessage(ChatMessage message) {
+                if (message.getSender().equals(chatPartner) || message.getReceiver().equals(chatPartner)) {
+                    AsyncDataAccess.runOnFxThread(() -> appendMessage(message));
+                }
+            }
+
+            @Override
+            public void onMessagesDropped(long count) {
+                AsyncDataAccess.runOnFxThread(ChatBox.this::catchUp);
+            }
+        });
+    }
+
+    private void appendMessage(ChatMessage message) {
+        if (!shownIds.add(message.getId())) {
+            return;
+        }
+        messageList.getItems().add(message);
+        messageList.scrollTo(messageList.getItems().size() - 1);
+    }
+
+    // fetches whatever the bus could not deliver, starting after the newest message shown
+    private void catchUp() {
+        List<ChatMessage> items = messageList.getItems();
+        long newestId = items.isEmpty() ? 0 : items.get(items.size() - 1).getId();
+        catchUpAfter(newestId);
+    }
+
+    // one page at a time until a short page shows nothing more was missed
+    private void catchUpAfter(long afterId) {
+        String chatPartner = otherUser;
+        AsyncDataAccess.supply("getChat", () -> databaseHelper.getChat(currentUser, chatPartner, afterId, null, PAGE_SIZE))
+            .thenAccept(missed -> {
+                missed.forEach(this::appendMessage);
+                if (missed.size() == PAGE_SIZE) {
+                    catchUpAfter(missed.get(missed.size() - 1).getId());
+                }
+            });
+    }
+
+    private void hookScrollBar() {
+        for (Node node : messageList.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                bar.valueProperty().addListener((obs, oldValue, value) -> {
+                    if (value.doubleValue() <= bar.getMin()) {
+                        loadOlderMessages();
+                    }
+                });
+            }
+        }
+    }
+
     private void sendMessage() {
         String message = messageInput.getText().trim();
         if (!message.isEmpty()) {
-            insertMessage(currentUser, otherUser, message);
-            messageList.getItems().add("You: " + message);
+            String receiver = otherUser;
             messageInput.clear();
+            AsyncDataAccess.supply("insertMessage", () -> insertMessage(currentUser, receiver, message))
+                .thenAccept(id -> {
+                    if (id < 0) {
+                        sendFailed(message, "The message could not be sent. Please try again.");
+                    } else {
+                        appendMessage(new ChatMessage(id, currentUser, receiver, message));
+                    }
+                })
+                .exceptionally(error -> {
+                    sendFailed(message, AsyncDataAccess.describe(error));
+                    return null;
+                });
+        }
+    }
+
+    // nothing was stored, so nothing is shown; the text goes back into the box unless something new was typed
+    private void sendFailed(String message, String reason) {
+        if (messageInput.getText().isEmpty()) {
+            messageInput.setText(message);
         }
+        new Alert(Alert.AlertType.ERROR, reason).show();
     }
 
     private void loadMessages() {
-        List<String> messages = getMessages(currentUser, otherUser, currentUser);
-        for (String msg : messages) {
-            messageList.getItems().add(msg);
+        String chatPartner = otherUser;
+        reachedStart = false;
+        AsyncDataAccess.supply("getChat", () -> getMessages(currentUser, chatPartner, null))
+            .thenAccept(messages -> {
+                reachedStart = messages.size() < PAGE_SIZE;
+                // keep anything the bus delivered after the page was read
+                long newestLoaded = messages.isEmpty() ? 0 : messages.get(messages.size() - 1).getId();
+                List<ChatMessage> newer = new ArrayList<>();
+                for (ChatMessage m : messageList.getItems()) {
+                    if (m.getId() > newestLoaded) newer.add(m);
+                }
+                messageList.getItems().setAll(messages);
+                messageList.getItems().addAll(newer);
+                shownIds.clear();
+                messageList.getItems().forEach(m -> shownIds.add(m.getId()));
+                messageList.scrollTo(messageList.getItems().size() - 1);
+            });
+    }
+
+    // prepends the page before the oldest message shown, keeping the same message in view
+    private void loadOlderMessages() {
+        if (loadingOlder || reachedStart || messageList.getItems().isEmpty()) {
+            return;
         }
+        loadingOlder = true;
+        String chatPartner = otherUser;
+        long oldestId = messageList.getItems().get(0).getId();
+        AsyncDataAccess.supply("getChat", () -> getMessages(currentUser, chatPartner, oldestId))
+            .thenAccept(older -> {
+                reachedStart = older.size() < PAGE_SIZE;
+                older.forEach(m -> shownIds.add(m.getId()));
+                messageList.getItems().addAll(0, older);
+                messageList.scrollTo(older.size());
+            })
+            .whenComplete((ignored, error) -> loadingOlder = false);
     }
 
-    private void insertMessage(String sender, String receiver, String message) {
-       databaseHelper.insertMessage(sender, receiver, message);
+    private long insertMessage(String sender, String receiver, String message) {
+       return databaseHelper.insertMessage(sender, receiver, message);
     }
 
-    private List<String> getMessages(String user1, String user2, String currentUser) {
-        List<String> messages = databaseHelper.getChat(user1, user2, currentUser);
+    private List<ChatMessage> getMessages(String user1, String user2, Long beforeId) {
+        List<ChatMessage> messages = databaseHelper.getChat(user1, user2, null, beforeId, PAGE_SIZE);
         
         return messages;
     }
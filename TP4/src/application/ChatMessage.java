@@ -0,0 +1,35 @@
+package application;
+
+/**
+ * One message of a two‑person chat. Ids grow with every message sent, so they
+ * order a conversation and serve as its paging cursor.
+ */
+public class ChatMessage {
+    private final long id;
+    private final String sender;
+    private final String receiver;
+    private final String text;
+
+    public ChatMessage(long id, String sender, String receiver, String text) {
+        this.id = id;
+        this.sender = sender;
+        this.receiver = receiver;
+        this.text = text;
+    }
+
+    /* ---------- getters ---------- */
+    public long getId() { return id; }
+    public String getSender() { return sender; }
+    public String getReceiver() { return receiver; }
+    public String getText() { return text; }
+
+    /* ---------- helpers ---------- */
+    /** Text shown in the chat window of {@code viewer}: "You: …" for their own messages. */
+    public String display(String viewer) {
+        return (sender.equals(viewer) ? "You" : sender) + ": " + text;
+    }
+
+    @Override public String toString() {
+        return sender + ": " + text;
+    }
+}
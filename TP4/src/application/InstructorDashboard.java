@@ -1,7 +1,6 @@
 package application;
 
 import databasePart1.DatabaseHelper;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -34,6 +33,8 @@ public class InstructorDashboard {
         Label heading = new Label("Instructor Dashboard");
 
         ListView<Question> questionList = new ListView<>(questionsManager.getAllQuestions());
+        new QuestionPager(questionsManager, answersManager)
+                .attach(questionList, message -> new Alert(Alert.AlertType.ERROR, message).show());
         TextArea staffNoteArea = new TextArea();
         staffNoteArea.setPromptText("Add or review internal feedback (staff note)");
 
@@ -104,8 +105,13 @@ public class InstructorDashboard {
 
         Button viewUnansweredBtn = new Button("View Unanswered Questions");
         viewUnansweredBtn.setOnAction(e -> {
-            ObservableList<Question> unanswered = questionsManager.getUnansweredQuestions();
-            questionList.setItems(unanswered);
+            if (!questionsManager.hasMorePages()) {
+                questionList.setItems(questionsManager.getUnansweredQuestions());
+                return;
+            }
+            // not every question is loaded yet, so ask the database
+            AsyncDataAccess.supply("fetchUnansweredQuestions", questionsManager::fetchUnansweredQuestions)
+                .thenAccept(questionList::setItems);
         });
 
         Button markResolvedBtn = new Button("Mark as Resolved");
@@ -137,11 +143,14 @@ public class InstructorDashboard {
         Button reqStatusBtn = new Button("Admin Request Status");
         reqStatusBtn.setOnAction(e -> new InstructorRequestStatusWindow(db).show());
 
+        Button topReviewersBtn = new Button("Top Reviewers");
+        topReviewersBtn.setOnAction(e -> new TopReviewersWindow(db).show());
+
         /* ───── Unified button bar (all buttons now exist) ─────────────── */
         HBox buttonBar = new HBox(10,
                 saveNoteBtn, viewAnswersBtn, flagAnswerBtn,
                 deleteQuestionBtn, viewUnansweredBtn, markResolvedBtn,
-                newReqBtn, reqStatusBtn, changeUserRole);         // ← new buttons added here
+                newReqBtn, reqStatusBtn, changeUserRole, topReviewersBtn);         // ← new buttons added here
         VBox.setMargin(buttonBar, new Insets(5));
 
         root.getChildren().addAll(heading, questionList, staffNoteArea, buttonBar);
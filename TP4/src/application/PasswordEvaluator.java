@@ -14,45 +14,36 @@ public class PasswordEvaluator {
 	 * @author Lynn Robert Carter
 	 * 
 	 * @version 0.00		2018-02-22	Initial baseline 
+	 * @version 0.01		2026-10-18	Reentrant: the scan keeps its state in local variables and
+	 * 									the outcome is returned as a ValidationResult
 	 * 
 	 */
 
 	/**********************************************************************************************
 	 * 
-	 * Result attributes to be used for GUI applications where a detailed error message and a 
-	 * pointer to the character of the error will enhance the user experience.
+	 * The error messages. The "conditions were not satisfied" message depends on which of the
+	 * five conditions failed, so every combination is built once, indexed by a bit mask of the
+	 * failed conditions.
 	 * 
 	 */
 
-	public static String passwordErrorMessage = "";		// The error message text
-	public static String passwordInput = "";			// The input being processed
-	public static int passwordIndexofError = -1;		// The index where the error was located
-	public static boolean foundUpperCase = false;
-	public static boolean foundLowerCase = false;
-	public static boolean foundNumericDigit = false;
-	public static boolean foundSpecialChar = false;
-	public static boolean foundLongEnough = false;
-	private static String inputLine = "";				// The input line
-	private static char currentChar;					// The current character in the line
-	private static int currentCharNdx;					// The index of the current character
-	private static boolean running;						// The flag that specifies if the FSM is 
-														// running
+	private static final String EMPTY_INPUT = "*** Error *** The password is empty!";
+	private static final String INVALID_CHAR = "*** Error *** An invalid character has been found!";
+	private static final String SPECIAL_CHARS = "~`!@#$%^&*()_-+={}[]|\\:;\"'<>,.?/";
 
-	/**********
-	 * This private method display the input line and then on a line under it displays an up arrow
-	 * at the point where an error should one be detected.  This method is designed to be used to 
-	 * display the error message on the console terminal.
-	 * 
-	 * @param input				The input string
-	 * @param currentCharNdx	The location where an error was found
-	 * @return					Two lines, the entire input line followed by a line with an up arrow
-	 */
-	private static void displayInputState() {
-		// Display the entire input line
-		System.out.println(inputLine);
-		System.out.println(inputLine.substring(0,currentCharNdx) + "?");
-		System.out.println("The password size: " + inputLine.length() + "  |  The currentCharNdx: " + 
-				currentCharNdx + "  |  The currentChar: \"" + currentChar + "\"");
+	private static final int UPPER_CASE = 1, LOWER_CASE = 2, DIGIT = 4, SPECIAL = 8, LONG_ENOUGH = 16;
+	private static final int ALL_CONDITIONS = 31;
+	private static final String[] CONDITION_NAMES =
+			{ "Upper case; ", "Lower case; ", "Numeric digits; ", "Special character; ", "Long Enough; " };
+	private static final String[] UNSATISFIED = new String[ALL_CONDITIONS + 1];
+
+	static {
+		for (int missing = 1; missing <= ALL_CONDITIONS; missing++) {
+			StringBuilder message = new StringBuilder();
+			for (int bit = 0; bit < CONDITION_NAMES.length; bit++)
+				if ((missing & (1 << bit)) != 0) message.append(CONDITION_NAMES[bit]);
+			UNSATISFIED[missing] = message.append("conditions were not satisfied").toString();
+		}
 	}
 
 	/**********
@@ -61,92 +52,47 @@ public class PasswordEvaluator {
 	 * 
 	 * @param input		The input string for directed graph processing
 	 * @return			An output string that is empty if every things is okay or it will be
-	 * 						a string with a help description of the error follow by two lines
-	 * 						that shows the input line follow by a line with an up arrow at the
-	 *						point where the error was found.
+	 * 						a string with a help description of the error
 	 */
 	public static String evaluatePassword(String input) {
-		// The following are the local variable used to perform the Directed Graph simulation
-		passwordErrorMessage = "";
-		passwordIndexofError = 0;			// Initialize the IndexofError
-		inputLine = input;					// Save the reference to the input line as a global
-		currentCharNdx = 0;					// The index of the current character
-		
-		if(input.length() <= 0) return "*** Error *** The password is empty!";
-		
-		// The input is not empty, so we can access the first character
-		currentChar = input.charAt(0);		// The current character from the above indexed position
-
-		// The Directed Graph simulation continues until the end of the input is reached or at some 
-		// state the current character does not match any valid transition to a next state
+		return evaluate(input).getMessage();
+	}
 
-		passwordInput = input;				// Save a copy of the input
-		foundUpperCase = false;				// Reset the Boolean flag
-		foundLowerCase = false;				// Reset the Boolean flag
-		foundNumericDigit = false;			// Reset the Boolean flag
-		foundSpecialChar = false;			// Reset the Boolean flag
-		foundNumericDigit = false;			// Reset the Boolean flag
-		foundLongEnough = false;			// Reset the Boolean flag
-		running = true;						// Start the loop
+	/**********
+	 * Walks the Directed Graph over the input. The conditions found so far are kept in a
+	 * local bit mask, so any number of threads may call this at once, and the loop over
+	 * the characters allocates nothing.
+	 * 
+	 * @param input		The input string for directed graph processing
+	 * @return			{@link ValidationResult#VALID}, or the error message together with the
+	 * 						index where the error was found
+	 */
+	public static ValidationResult evaluate(String input) {
+		if (input.length() <= 0) return ValidationResult.invalid(EMPTY_INPUT, 0);
 
-		// The Directed Graph simulation continues until the end of the input is reached or at some 
-		// state the current character does not match any valid transition
-		while (running) {
-			displayInputState();
+		int found = 0;						// The conditions satisfied so far
+		for (int currentCharNdx = 0; currentCharNdx < input.length(); currentCharNdx++) {
+			char currentChar = input.charAt(currentCharNdx);
 			// The cascading if statement sequentially tries the current character against all of the
 			// valid transitions
-			if (currentChar >= 'A' && currentChar <= 'Z') {
-				System.out.println("Upper case letter found");
-				foundUpperCase = true;
-			} else if (currentChar >= 'a' && currentChar <= 'z') {
-				System.out.println("Lower case letter found");
-				foundLowerCase = true;
-			} else if (currentChar >= '0' && currentChar <= '9') {
-				System.out.println("Digit found");
-				foundNumericDigit = true;
-			} else if ("~`!@#$%^&*()_-+={}[]|\\:;\"'<>,.?/".indexOf(currentChar) >= 0) {
-				System.out.println("Special character found");
-				foundSpecialChar = true;
-			} else {
-				passwordIndexofError = currentCharNdx;
-				return "*** Error *** An invalid character has been found!";
-			}
-			if (currentCharNdx >= 7) {
-				System.out.println("At least 8 characters found");
-				foundLongEnough = true;
-			}
-			
-			// Go to the next character if there is one
-			currentCharNdx++;
-			if (currentCharNdx >= inputLine.length())
-				running = false;
+			if (currentChar >= 'A' && currentChar <= 'Z')
+				found |= UPPER_CASE;
+			else if (currentChar >= 'a' && currentChar <= 'z')
+				found |= LOWER_CASE;
+			else if (currentChar >= '0' && currentChar <= '9')
+				found |= DIGIT;
+			else if (SPECIAL_CHARS.indexOf(currentChar) >= 0)
+				found |= SPECIAL;
 			else
-				currentChar = input.charAt(currentCharNdx);
-			
-			System.out.println();
+				return ValidationResult.invalid(INVALID_CHAR, currentCharNdx);
+
+			if (currentCharNdx >= 7)
+				found |= LONG_ENOUGH;
 		}
-		
-		String errMessage = "";
-		if (!foundUpperCase)
-			errMessage += "Upper case; ";
-		
-		if (!foundLowerCase)
-			errMessage += "Lower case; ";
-		
-		if (!foundNumericDigit)
-			errMessage += "Numeric digits; ";
-			
-		if (!foundSpecialChar)
-			errMessage += "Special character; ";
-			
-		if (!foundLongEnough)
-			errMessage += "Long Enough; ";
-		
-		if (errMessage == "")
-			return "";
-		
-		passwordIndexofError = currentCharNdx;
-		return errMessage + "conditions were not satisfied";
 
+		int missing = ALL_CONDITIONS & ~found;
+		if (missing == 0)
+			return ValidationResult.VALID;
+		return ValidationResult.invalid(UNSATISFIED[missing], input.length());
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+/**
+ * QuestionPager.java
+ *
+ * Loads questions and their answers into the Questions/Answers managers one
+ * keyset page at a time, and pulls in the next page when a question list is
+ * scrolled near its end.
+ */
+
+package application;
+
+import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollBar;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The QuestionPager class keeps start-up cost and memory proportional to what the
+ * user has scrolled through rather than to the size of the forum. Reading a page
+ * ({@link #fetchNextPage()}) only touches the database; adding it to the observable
+ * lists ({@link #applyPage(Page)}) must happen on the JavaFX thread.
+ */
+public class QuestionPager {
+
+    /** Number of questions loaded per page by the home pages and dashboards. */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /** Fraction of the scroll range after which the next page is requested. */
+    private static final double LOAD_THRESHOLD = 0.9;
+
+    /**
+     * One page of questions with the answers that belong to them.
+     */
+    public static final class Page {
+        private final List<Question> questions;
+        private final List<Answer> answers;
+        private final int limit;
+
+        Page(List<Question> questions, List<Answer> answers, int limit) {
+            this.questions = questions;
+            this.answers = answers;
+            this.limit = limit;
+        }
+
+        /** @return The questions of this page, in id order. */
+        public List<Question> getQuestions() { return questions; }
+
+        /** @return The answers and reviews of this page's questions. */
+        public List<Answer> getAnswers() { return answers; }
+    }
+
+    private final Questions questions;
+    private final Answers answers;
+    private final int pageSize;
+    private boolean loading;
+    private Consumer<String> onError = message -> { };
+
+    /**
+     * Constructs a pager with the default page size.
+     *
+     * @param questions The questions manager to fill.
+     * @param answers   The answers manager to fill.
+     */
+    public QuestionPager(Questions questions, Answers answers) {
+        this(questions, answers, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Constructs a pager.
+     *
+     * @param questions The questions manager to fill.
+     * @param answers   The answers manager to fill.
+     * @param pageSize  Number of questions per page.
+     */
+    public QuestionPager(Questions questions, Answers answers, int pageSize) {
+        this.questions = questions;
+        this.answers = answers;
+        this.pageSize = pageSize;
+        if (answers.getQuestionsManager() != questions) {
+            throw new IllegalArgumentException("answers must report answer counts to questions");
+        }
+    }
+
+    /**
+     * Forgets everything loaded so far and loads the first page.
+     *
+     * @throws SQLException if a database error occurs.
+     */
+    public void loadFirstPage() throws SQLException {
+        questions.resetPaging();
+        answers.clear();
+        loadNextPage();
+    }
+
+    /**
+     * Loads the next page if there is one.
+     *
+     * @return true if a page was read, false if everything is already loaded.
+     * @throws SQLException if a database error occurs.
+     */
+    public boolean loadNextPage() throws SQLException {
+        if (!questions.hasMorePages()) return false;
+        applyPage(fetchNextPage());
+        return true;
+    }
+
+    /**
+     * Reads the page after the current cursor together with its answers.
+     * Does not modify the managers, so it may run off the JavaFX thread.
+     *
+     * @return The page read; empty once the end has been reached.
+     * @throws SQLException if a database error occurs.
+     */
+    public Page fetchNextPage() throws SQLException {
+        List<Question> page = questions.fetchPage(questions.getPageCursor(), pageSize);
+        if (page.isEmpty()) {
+            return new Page(page, List.of(), pageSize);
+        }
+        long first = page.get(0).getId();
+        long last = page.get(page.size() - 1).getId();
+        return new Page(page, answers.fetchForQuestions(first, last), pageSize);
+    }
+
+    /**
+     * Adds a page read by {@link #fetchNextPage()} to the managers and links its answers.
+     *
+     * @param page The page to add.
+     */
+    public void applyPage(Page page) {
+        List<Question> added = questions.appendPage(page.questions, page.limit);
+        answers.appendAnswers(page.answers, added);
+    }
+
+    /**
+     * Loads the first page on a background thread, creating the tables first if needed.
+     * Must be called on the JavaFX thread of a freshly constructed pair of managers.
+     *
+     * @return A future completed on the JavaFX thread once the page is shown.
+     */
+    public CompletableFuture<Void> openAsync() {
+        return AsyncDataAccess.supply("loadQuestionPage", () -> {
+                    questions.createTable();
+                    answers.createTable();
+                    return fetchNextPage();
+                })
+                .thenAccept(this::applyPage);
+    }
+
+    /**
+     * Makes the given list load the next page whenever it is scrolled close to its
+     * end. Nothing is loaded while the list shows something other than the full
+     * question list, such as search results.
+     *
+     * @param view    A list view whose items are {@link Questions#getAllQuestions()}.
+     * @param onError Shows why a page could not be loaded, e.g. in the page's status label;
+     *                called on the JavaFX thread.
+     */
+    public void attach(ListView<Question> view, Consumer<String> onError) {
+        this.onError = onError;
+        // the scroll bars only exist once the skin has been created
+        view.skinProperty().addListener((obs, oldSkin, skin) -> {
+            if (skin != null) {
+                Platform.runLater(() -> hookScrollBar(view));
+            }
+        });
+        if (view.getSkin() != null) {
+            hookScrollBar(view);
+        }
+    }
+
+    private void hookScrollBar(ListView<Question> view) {
+        for (Node node : view.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                bar.valueProperty().addListener((obs, oldValue, value) -> {
+                    if (value.doubleValue() >= bar.getMax() * LOAD_THRESHOLD
+                            && view.getItems() == questions.getAllQuestions()) {
+                        loadMore();
+                    }
+                });
+            }
+        }
+    }
+
+    private void loadMore() {
+        if (loading || !questions.hasMorePages()) return;
+        loading = true;
+        AsyncDataAccess.supply("loadQuestionPage", this::fetchNextPage)
+                .thenAccept(this::applyPage)
+                .whenComplete((ignored, error) -> {
+                    loading = false;
+                    if (error != null) {
+                        onError.accept("Could not load more questions: " + AsyncDataAccess.describe(error));
+                    }
+                });
+    }
+}
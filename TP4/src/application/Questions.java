@@ -4,7 +4,8 @@
  * Manages all question-related operations, including loading from and writing to
  * the database, and maintaining an in-memory list of all questions.
  * Also includes utility methods to update notes, filter unanswered questions,
- * and delete or search for specific questions.
+ * and delete or search for specific questions. Questions can be loaded all at
+ * once or a page at a time in id order.
  *
  * Author: Vatsal Joshi
  * Version: 1.0
@@ -16,42 +17,93 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import databasePart1.ConnectionPool;
+import databasePart1.PooledConnection;
+import databasePart1.UnitOfWork;
 
 /**
  * The Questions class handles the storage, retrieval, and modification of
  * question data in both the database and local memory.
  */
 public class Questions {
-    private final Connection connection;
+    /** Maximum number of questions returned by a keyword search. */
+    public static final int SEARCH_LIMIT = 200;
+
+    /** The questions table; the indexes on it come from SchemaMigrator. */
+    public static final String CREATE_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS questions (
+            id IDENTITY PRIMARY KEY,
+            text VARCHAR(255) NOT NULL,
+            title VARCHAR(255),
+            author VARCHAR(255),
+            resolved BOOLEAN DEFAULT FALSE,
+            staff_note VARCHAR(255) DEFAULT ''
+        )
+    """;
+
+    private final ConnectionPool pool;
+    private final SearchIndex searchIndex;
     private final ObservableList<Question> allQuestions = FXCollections.observableArrayList();
+    private final NavigableMap<Long, Question> questionsById = new ConcurrentSkipListMap<>();
+    // allQuestions backs ListViews, so it (and the questions in it) is only changed through
+    // AsyncDataAccess.runOnFxThread; questionsById is updated at once so lookups never lag,
+    // and is sorted so callers without the FX thread can page through it by id.
+
+    // ids of loaded questions without any answer, kept current by Answers (see answerCountChanged)
+    private final Set<Long> unansweredIds = new ConcurrentSkipListSet<>();
+
+    // keyset paging cursor: highest id loaded through appendPage and whether rows remain past it
+    private volatile long pageCursor = 0;
+    private volatile boolean morePages = true;
 
     /**
-     * Constructs a Questions manager instance.
+     * Constructs a Questions manager that borrows connections from a shared pool.
+     *
+     * @param pool The connection pool to use for every database call.
+     */
+    public Questions(ConnectionPool pool) {
+        this.pool = pool;
+        this.searchIndex = new SearchIndex(pool);
+    }
+
+    /**
+     * Constructs a Questions manager over a single, already‑open connection.
      *
      * @param connection The active database connection.
      */
     public Questions(Connection connection) {
-        this.connection = connection;
+        this(ConnectionPool.wrap(connection));
     }
 
     /**
-     * Creates the questions table in the database if it doesn't already exist.
+     * Creates the questions table and its search index in the database if they
+     * don't already exist, and indexes any questions written before the index did.
      *
      * @throws SQLException if a database error occurs.
      */
     public void createTable() throws SQLException {
-        try (Statement st = connection.createStatement()) {
-            String sql = """
-                CREATE TABLE IF NOT EXISTS questions (
-                    id IDENTITY PRIMARY KEY,
-                    text VARCHAR(255) NOT NULL,
-                    title VARCHAR(255),
-                    author VARCHAR(255),
-                    resolved BOOLEAN DEFAULT FALSE,
-                    staff_note VARCHAR(255) DEFAULT ''
-                )
-            """;
-            st.executeUpdate(sql);
+        try (PooledConnection pc = pool.borrow();
+             Statement st = pc.getConnection().createStatement()) {
+            st.executeUpdate(CREATE_TABLE_SQL);
+        }
+        searchIndex.createTable();
+        if (searchIndex.isFieldEmpty(SearchIndex.FIELD_TITLE) && countTotalQuestions() > 0) {
+            try (PooledConnection pc = pool.borrow();
+                 Statement st = pc.getConnection().createStatement();
+                 ResultSet rs = st.executeQuery("SELECT id, title, text FROM questions")) {
+                while (rs.next()) {
+                    searchIndex.indexQuestion(rs.getLong("id"), rs.getString("title"), rs.getString("text"));
+                }
+            }
         }
     }
 
@@ -61,23 +113,133 @@ public class Questions {
      * @throws SQLException if a database access error occurs.
      */
     public void loadAllFromDB() throws SQLException {
-        allQuestions.clear();
-        try (Statement st = connection.createStatement();
+        resetPaging();
+        long maxId = 0;
+        List<Question> loaded = new ArrayList<>();
+        try (PooledConnection pc = pool.borrow();
+             Statement st = pc.getConnection().createStatement();
              ResultSet rs = st.executeQuery("SELECT * FROM questions")) {
             while (rs.next()) {
-                long id = rs.getLong("id");
-                String txt = rs.getString("text");
-                boolean res = rs.getBoolean("resolved");
-                String author = rs.getString("author");
-                String title = rs.getString("title");
-                String note = rs.getString("staff_note");
-
-                Question q = new Question(id, txt, author, title);
-                q.setResolved(res);
-                q.setStaffNote(note);
-                allQuestions.add(q);
+                Question q = readQuestion(rs);
+                loaded.add(q);
+                questionsById.put(q.getId(), q);
+                unansweredIds.add(q.getId());
+                maxId = Math.max(maxId, q.getId());
+            }
+        }
+        AsyncDataAccess.runOnFxThread(() -> allQuestions.setAll(loaded));
+        pageCursor = maxId;
+        morePages = false;
+    }
+
+    /**
+     * Reads up to {@code limit} questions with an id greater than {@code afterId}, in
+     * id order. Only touches the database, so it is safe to call off the FX thread.
+     *
+     * @param afterId Keyset cursor; 0 starts from the first question.
+     * @param limit   Maximum number of questions to read.
+     * @return The page, possibly empty.
+     * @throws SQLException if a database access error occurs.
+     */
+    public List<Question> fetchPage(long afterId, int limit) throws SQLException {
+        List<Question> page = new ArrayList<>(limit);
+        String sql = "SELECT * FROM questions WHERE id > ? ORDER BY id LIMIT ?";
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql);
+            ps.setLong(1, afterId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    page.add(readQuestion(rs));
+                }
             }
         }
+        return page;
+    }
+
+    /**
+     * Adds a page read by {@link #fetchPage} to the in-memory list and moves the paging
+     * cursor past it. Questions already in memory, such as ones created since the
+     * previous page, are skipped. Must run on the thread that owns the list.
+     *
+     * @param page  The page to add.
+     * @param limit The limit the page was fetched with; a short page means the end.
+     * @return The questions that were actually added.
+     */
+    public List<Question> appendPage(List<Question> page, int limit) {
+        List<Question> added = new ArrayList<>(page.size());
+        for (Question q : page) {
+            pageCursor = Math.max(pageCursor, q.getId());
+            if (questionsById.putIfAbsent(q.getId(), q) == null) {
+                added.add(q);
+                unansweredIds.add(q.getId());
+            }
+        }
+        allQuestions.addAll(added);
+        morePages = page.size() == limit;
+        return added;
+    }
+
+    /**
+     * Fetches and appends the next page of questions.
+     *
+     * @param limit Maximum number of questions to load.
+     * @return The questions that were added.
+     * @throws SQLException if a database access error occurs.
+     */
+    public List<Question> loadNextPage(int limit) throws SQLException {
+        if (!morePages) return List.of();
+        return appendPage(fetchPage(pageCursor, limit), limit);
+    }
+
+    /**
+     * Clears the in-memory list and rewinds paging to the first question.
+     */
+    public void resetPaging() {
+        AsyncDataAccess.runOnFxThread(allQuestions::clear);
+        questionsById.clear();
+        unansweredIds.clear();
+        pageCursor = 0;
+        morePages = true;
+    }
+
+    /**
+     * Returns the id of the last question loaded by paging.
+     *
+     * @return The keyset cursor for the next page.
+     */
+    public long getPageCursor() {
+        return pageCursor;
+    }
+
+    /**
+     * Returns whether questions past the paging cursor may still exist.
+     *
+     * @return false once a short page or a full load has been seen.
+     */
+    public boolean hasMorePages() {
+        return morePages;
+    }
+
+    /**
+     * Builds a Question from the current row of a {@code SELECT *} over questions.
+     *
+     * @param rs The result set, positioned on a row.
+     * @return The question for that row.
+     * @throws SQLException if a column cannot be read.
+     */
+    private Question readQuestion(ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        String txt = rs.getString("text");
+        boolean res = rs.getBoolean("resolved");
+        String author = rs.getString("author");
+        String title = rs.getString("title");
+        String note = rs.getString("staff_note");
+
+        Question q = new Question(id, txt, author, title);
+        q.setResolved(res);
+        q.setStaffNote(note);
+        return q;
     }
 
     /**
@@ -86,15 +248,25 @@ public class Questions {
      * @param text   The content of the question.
      * @param author The author of the question.
      * @param title  The title of the question.
+     * @return The new question, or null if it could not be stored.
      */
-    public void createQuestion(String text, String author, String title) {
+    public Question createQuestion(String text, String author, String title) {
         try {
             long newId = insertQuestionDB(text, author, title);
             Question q = new Question(newId, text, author, title);
-            allQuestions.add(q);
+            searchIndex.indexQuestion(newId, title, text);
+            // inside a unit of work, the loaded questions show it only once the insert commits
+            UnitOfWork.afterCommit(pool, () -> {
+                questionsById.put(newId, q);
+                unansweredIds.add(newId);
+                AsyncDataAccess.runOnFxThread(() -> allQuestions.add(q));
+            });
+            return q;
         } catch (SQLException e) {
             e.printStackTrace();
+            UnitOfWork.setRollbackOnly(pool);
         }
+        return null;
     }
 
     /**
@@ -106,12 +278,14 @@ public class Questions {
     public void updateQuestion(Question q, String newText) {
         try {
             String sql = "UPDATE questions SET text=? WHERE id=?";
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            try (PooledConnection pc = pool.borrow()) {
+                PreparedStatement ps = pc.prepareStatement(sql);
                 ps.setString(1, newText);
                 ps.setLong(2, q.getId());
                 ps.executeUpdate();
             }
-            q.setText(newText);
+            AsyncDataAccess.runOnFxThread(() -> q.setText(newText));
+            searchIndex.indexField(q.getId(), SearchIndex.FIELD_TEXT, q.getId(), newText);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -126,12 +300,13 @@ public class Questions {
     public void updateStaffNote(Question q, String note) {
         try {
             String sql = "UPDATE questions SET staff_note=? WHERE id=?";
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            try (PooledConnection pc = pool.borrow()) {
+                PreparedStatement ps = pc.prepareStatement(sql);
                 ps.setString(1, note);
                 ps.setLong(2, q.getId());
                 ps.executeUpdate();
             }
-            q.setStaffNote(note);
+            AsyncDataAccess.runOnFxThread(() -> q.setStaffNote(note));
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -145,32 +320,41 @@ public class Questions {
     public void markQuestionAsResolved(Question q) {
         try {
             String sql = "UPDATE questions SET resolved = ? WHERE id = ?";
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            try (PooledConnection pc = pool.borrow()) {
+                PreparedStatement ps = pc.prepareStatement(sql);
                 ps.setBoolean(1, true);
                 ps.setLong(2, q.getId());
                 ps.executeUpdate();
             }
-            q.setResolved(true);
+            AsyncDataAccess.runOnFxThread(() -> q.setResolved(true));
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Deletes a question from the database and removes it from memory.
+     * Deletes a question from the database and removes it from memory. Its search
+     * postings are removed with it by the ON DELETE CASCADE on search_postings. Inside a
+     * {@link UnitOfWork} it leaves memory alone until the delete commits.
      *
      * @param q The question to delete.
      */
     public void deleteQuestion(Question q) {
         try {
             String sql = "DELETE FROM questions WHERE id=?";
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            try (PooledConnection pc = pool.borrow()) {
+                PreparedStatement ps = pc.prepareStatement(sql);
                 ps.setLong(1, q.getId());
                 ps.executeUpdate();
             }
-            allQuestions.remove(q);
+            UnitOfWork.afterCommit(pool, () -> {
+                questionsById.remove(q.getId());
+                unansweredIds.remove(q.getId());
+                AsyncDataAccess.runOnFxThread(() -> allQuestions.remove(q));
+            });
         } catch (SQLException e) {
             e.printStackTrace();
+            UnitOfWork.setRollbackOnly(pool);
         }
     }
 
@@ -184,14 +368,45 @@ public class Questions {
     }
 
     /**
-     * Returns all questions that have no associated answers.
+     * Returns the loaded question with the given id. Safe to call from any thread.
+     *
+     * @param id The question id.
+     * @return The question, or null if it is not loaded.
+     */
+    public Question getQuestion(long id) {
+        return questionsById.get(id);
+    }
+
+    /**
+     * Returns up to {@code limit} loaded questions with an id greater than {@code afterId},
+     * in id order. Unlike {@link #getAllQuestions()} it is safe to call from any thread.
      *
-     * @return A filtered list of unanswered questions.
+     * @param afterId Keyset cursor; 0 starts from the first question.
+     * @param limit   Maximum number of questions to return.
+     * @return The page of questions.
+     */
+    public List<Question> getQuestionsAfter(long afterId, int limit) {
+        List<Question> page = new ArrayList<>(Math.min(limit, 256));
+        for (Question q : questionsById.tailMap(afterId, false).values()) {
+            if (page.size() >= limit) break;
+            page.add(q);
+        }
+        return page;
+    }
+
+    /**
+     * Returns the loaded questions that have no associated answers, in id order. Reads
+     * the unanswered set instead of scanning every question, so it costs O(unanswered).
+     * Only covers questions in memory; use {@link #fetchUnansweredQuestions()} while
+     * {@link #hasMorePages()} is true.
+     *
+     * @return A list of unanswered questions.
      */
     public ObservableList<Question> getUnansweredQuestions() {
         ObservableList<Question> unanswered = FXCollections.observableArrayList();
-        for (Question q : allQuestions) {
-            if (q.getAnswers().isEmpty()) {
+        for (Long id : unansweredIds) {
+            Question q = questionsById.get(id);
+            if (q != null) {
                 unanswered.add(q);
             }
         }
@@ -199,33 +414,64 @@ public class Questions {
     }
 
     /**
-     * Searches for questions containing the given text.
+     * Reads every unanswered question from the database, in id order, for when not all
+     * questions are in memory. Questions already loaded are returned as the loaded
+     * instances. Uses the index on answers.question_id for the NOT EXISTS probe.
      *
-     * @param text The search keyword.
-     * @return An ObservableList of questions that match the search.
+     * @return A list of unanswered questions.
      * @throws SQLException if a database error occurs.
      */
-    public ObservableList<Question> search(String text) throws SQLException {
-        ObservableList<Question> specificQuestions = FXCollections.observableArrayList();
-        String query = "SELECT * FROM questions WHERE text LIKE ?";
-        try (PreparedStatement st = connection.prepareStatement(query)) {
-            st.setString(1, "%" + text + "%");
-            ResultSet rs = st.executeQuery();
+    public ObservableList<Question> fetchUnansweredQuestions() throws SQLException {
+        ObservableList<Question> unanswered = FXCollections.observableArrayList();
+        String sql = """
+            SELECT q.* FROM questions q
+            WHERE NOT EXISTS (SELECT 1 FROM answers a WHERE a.question_id = q.id)
+            ORDER BY q.id
+        """;
+        try (PooledConnection pc = pool.borrow();
+             ResultSet rs = pc.prepareStatement(sql).executeQuery()) {
             while (rs.next()) {
-                long id = rs.getLong("id");
-                String txt = rs.getString("text");
-                boolean res = rs.getBoolean("resolved");
-                String auth = rs.getString("author");
-                String title = rs.getString("title");
-                String note = rs.getString("staff_note");
-
-                Question q = new Question(id, txt, auth, title);
-                q.setResolved(res);
-                q.setStaffNote(note);
-                specificQuestions.add(q);
+                Question q = readQuestion(rs);
+                unanswered.add(questionsById.getOrDefault(q.getId(), q));
             }
         }
-        return specificQuestions;
+        return unanswered;
+    }
+
+    /**
+     * Told by {@link Answers} whenever the number of answers held for a question changes.
+     *
+     * @param questionId  The question whose answers changed.
+     * @param answerCount How many answers (including reviews) it has now.
+     */
+    public void answerCountChanged(long questionId, int answerCount) {
+        if (!questionsById.containsKey(questionId)) return;
+        if (answerCount == 0) {
+            unansweredIds.add(questionId);
+        } else {
+            unansweredIds.remove(questionId);
+        }
+    }
+
+    /**
+     * Returns the full-text index kept over question titles, text and answers.
+     *
+     * @return The search index.
+     */
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Searches question titles, text and answers for the given words, best match first.
+     * Each word also matches longer words it is a prefix of.
+     *
+     * @param text The search keywords.
+     * @return An ObservableList of questions that match the search, ranked by relevance.
+     * @throws SQLException if a database error occurs.
+     */
+    public ObservableList<Question> search(String text) throws SQLException {
+        return advancedSearch(text, null, null);
     }
 
     /**
@@ -239,7 +485,8 @@ public class Questions {
      */
     private long insertQuestionDB(String text, String author, String title) throws SQLException {
         String sql = "INSERT INTO questions (text, author, title) VALUES (?, ?, ?)";
-        try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, text);
             ps.setString(2, author);
             ps.setString(3, title);
@@ -253,12 +500,31 @@ public class Questions {
         throw new SQLException("Failed to insert question.");
     }
     
+    /**
+     * Searches with optional keyword, author and resolved filters. Keywords go through
+     * the search index and results keep its relevance order, up to {@link #SEARCH_LIMIT}
+     * of the questions that pass the filters; without keywords the questions come back
+     * in id order.
+     *
+     * @param text     Search keywords, or null/empty for none.
+     * @param author   Exact author to match, or null/empty for any.
+     * @param resolved Resolved state to match, or null for any.
+     * @return The matching questions.
+     * @throws SQLException if a database error occurs.
+     */
     public ObservableList<Question> advancedSearch(String text, String author, Boolean resolved) throws SQLException {
         ObservableList<Question> results = FXCollections.observableArrayList();
         StringBuilder sql = new StringBuilder("SELECT * FROM questions WHERE 1=1 ");
 
+        boolean filtered = (author != null && !author.isEmpty()) || resolved != null;
+        List<Long> ranked = null;
         if (text != null && !text.isEmpty()) {
-            sql.append("AND (title LIKE ? OR text LIKE ?) ");
+            // with filters the best matches may all be filtered out, so cut only after filtering
+            ranked = searchIndex.search(text, filtered ? Integer.MAX_VALUE : SEARCH_LIMIT);
+            if (ranked.isEmpty()) {
+                return results;
+            }
+            sql.append("AND id = ANY(?) ");
         }
         if (author != null && !author.isEmpty()) {
             sql.append("AND author = ? ");
@@ -266,12 +532,15 @@ public class Questions {
         if (resolved != null) {
             sql.append("AND resolved = ? ");
         }
+        if (ranked == null) {
+            sql.append("ORDER BY id");
+        }
 
-        try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql.toString());
             int paramIndex = 1;
-            if (text != null && !text.isEmpty()) {
-                ps.setString(paramIndex++, "%" + text + "%");
-                ps.setString(paramIndex++, "%" + text + "%");
+            if (ranked != null) {
+                ps.setArray(paramIndex++, pc.getConnection().createArrayOf("BIGINT", ranked.toArray()));
             }
             if (author != null && !author.isEmpty()) {
                 ps.setString(paramIndex++, author);
@@ -282,18 +551,19 @@ public class Questions {
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    long id = rs.getLong("id");
-                    String txt = rs.getString("text");
-                    boolean res = rs.getBoolean("resolved");
-                    String auth = rs.getString("author");
-                    String title = rs.getString("title");
-
-                    Question q = new Question(id, txt, auth, title);
-                    q.setResolved(res);
-                    results.add(q);
+                    results.add(readQuestion(rs));
                 }
             }
         }
+
+        if (ranked != null) {
+            Map<Long, Integer> rank = new HashMap<>();
+            for (int i = 0; i < ranked.size(); i++) rank.put(ranked.get(i), i);
+            results.sort((a, b) -> Integer.compare(rank.get(a.getId()), rank.get(b.getId())));
+            if (results.size() > SEARCH_LIMIT) {
+                results.remove(SEARCH_LIMIT, results.size());
+            }
+        }
         return results;
     }
 
@@ -305,8 +575,8 @@ public class Questions {
      */
     public int countTotalQuestions() throws SQLException {
         String sql = "SELECT COUNT(*) FROM questions";
-        try (Statement st = connection.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+        try (PooledConnection pc = pool.borrow();
+             ResultSet rs = pc.prepareStatement(sql).executeQuery()) {
             if (rs.next()) {
                 return rs.getInt(1);
             }
@@ -322,8 +592,8 @@ public class Questions {
      */
     public int countResolvedQuestions() throws SQLException {
         String sql = "SELECT COUNT(*) FROM questions WHERE resolved = TRUE";
-        try (Statement st = connection.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+        try (PooledConnection pc = pool.borrow();
+             ResultSet rs = pc.prepareStatement(sql).executeQuery()) {
             if (rs.next()) {
                 return rs.getInt(1);
             }
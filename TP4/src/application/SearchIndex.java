@@ -0,0 +1,259 @@
+/**
+ * SearchIndex.java
+ *
+ * An inverted index over question titles, question text and answer text, stored in
+ * the search_postings table so it survives restarts and never has to be rebuilt
+ * from the full question list.
+ */
+
+package application;
+
+import java.sql.*;
+import java.util.*;
+
+import databasePart1.ConnectionPool;
+import databasePart1.PooledConnection;
+
+/**
+ * The SearchIndex class tokenizes question and answer text into postings
+ * (term, question, field, term frequency) and answers ranked, prefix-matching
+ * keyword queries. Every call is a handful of index range scans on the term
+ * column, so query cost depends on how common the words are rather than on how
+ * many questions exist.
+ */
+public class SearchIndex {
+
+    /** Posting field for a question title. */
+    public static final int FIELD_TITLE  = 0;
+    /** Posting field for a question body. */
+    public static final int FIELD_TEXT   = 1;
+    /** Posting field for an answer or review body. */
+    public static final int FIELD_ANSWER = 2;
+
+    private static final double[] FIELD_WEIGHT = { 3.0, 2.0, 1.0 };
+    private static final double   PREFIX_MATCH_WEIGHT = 0.5;
+    private static final int      MAX_TERM_LENGTH = 64;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "can", "do", "does", "for",
+            "how", "i", "in", "is", "it", "of", "on", "or", "the", "to", "what", "when",
+            "where", "which", "who", "why", "with");
+
+    private final ConnectionPool pool;
+
+    /**
+     * Constructs a search index that stores its postings through the given pool.
+     *
+     * @param pool The connection pool to use.
+     */
+    public SearchIndex(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Creates the postings table if it does not exist. The questions table must
+     * already exist, because postings are deleted together with their question.
+     *
+     * @throws SQLException if a database error occurs.
+     */
+    public void createTable() throws SQLException {
+        try (PooledConnection pc = pool.borrow();
+             Statement st = pc.getConnection().createStatement()) {
+            st.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS search_postings (
+                    term VARCHAR(64) NOT NULL,
+                    question_id BIGINT NOT NULL,
+                    field INT NOT NULL,
+                    source_id BIGINT NOT NULL,
+                    tf INT NOT NULL,
+                    PRIMARY KEY (term, field, source_id),
+                    FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE
+                )
+            """);
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_postings_source ON search_postings(field, source_id)");
+        }
+    }
+
+    // ─── Tokenizing ─────────────────────────────────────────────────────────────
+
+    /**
+     * Splits text into lower-case terms on every non letter/digit character,
+     * dropping one-letter tokens and common stop words.
+     *
+     * @param text The text to tokenize, may be null.
+     * @return The terms in order of appearance, duplicates included.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (current.length() < MAX_TERM_LENGTH) current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                String term = current.toString();
+                if (term.length() > 1 && !STOP_WORDS.contains(term)) terms.add(term);
+                current.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    // ─── Incremental maintenance ───────────────────────────────────────────────
+
+    /**
+     * Indexes (or re-indexes) the title and body of a question.
+     *
+     * @param questionId The question id.
+     * @param title      The question title.
+     * @param text       The question body.
+     * @throws SQLException if a database error occurs.
+     */
+    public void indexQuestion(long questionId, String title, String text) throws SQLException {
+        indexField(questionId, FIELD_TITLE, questionId, title);
+        indexField(questionId, FIELD_TEXT, questionId, text);
+    }
+
+    /**
+     * Indexes (or re-indexes) the body of an answer under its question.
+     *
+     * @param answer The answer to index.
+     * @throws SQLException if a database error occurs.
+     */
+    public void indexAnswer(Answer answer) throws SQLException {
+        indexField(answer.getQuestionId(), FIELD_ANSWER, answer.getId(), answer.getText());
+    }
+
+    /**
+     * Removes the postings of one answer.
+     *
+     * @param answerId The answer id.
+     * @throws SQLException if a database error occurs.
+     */
+    public void removeAnswer(long answerId) throws SQLException {
+        removeField(FIELD_ANSWER, answerId);
+    }
+
+    /**
+     * Replaces the postings of one field of one source with the terms of the given text.
+     *
+     * @param questionId The question the postings belong to.
+     * @param field      One of the FIELD_ constants.
+     * @param sourceId   The question id for title/text, the answer id for answers.
+     * @param text       The text to index.
+     * @throws SQLException if a database error occurs.
+     */
+    public void indexField(long questionId, int field, long sourceId, String text) throws SQLException {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : tokenize(text)) tf.merge(term, 1, Integer::sum);
+
+        try (PooledConnection pc = pool.borrow()) {
+            removeField(field, sourceId);
+            if (tf.isEmpty()) return;
+            PreparedStatement ps = pc.prepareStatement(
+                    "INSERT INTO search_postings (term, question_id, field, source_id, tf) VALUES (?, ?, ?, ?, ?)");
+            for (Map.Entry<String, Integer> e : tf.entrySet()) {
+                ps.setString(1, e.getKey());
+                ps.setLong(2, questionId);
+                ps.setInt(3, field);
+                ps.setLong(4, sourceId);
+                ps.setInt(5, e.getValue());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void removeField(int field, long sourceId) throws SQLException {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                    "DELETE FROM search_postings WHERE field = ? AND source_id = ?");
+            ps.setInt(1, field);
+            ps.setLong(2, sourceId);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Returns true when no posting of the given field exists yet, meaning rows
+     * written before the index existed still have to be indexed.
+     *
+     * @param field One of the FIELD_ constants.
+     * @return true if the field has never been indexed.
+     * @throws SQLException if a database error occurs.
+     */
+    public boolean isFieldEmpty(int field) throws SQLException {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                    "SELECT 1 FROM search_postings WHERE field = ? LIMIT 1");
+            ps.setInt(1, field);
+            try (ResultSet rs = ps.executeQuery()) {
+                return !rs.next();
+            }
+        }
+    }
+
+    // ─── Querying ───────────────────────────────────────────────────────────────
+
+    /**
+     * Ranks questions against a keyword query. Every query word also matches terms it
+     * is a prefix of, at a lower weight than an exact match. Questions that match more
+     * of the query words rank first; ties are broken by a TF-IDF score in which title
+     * hits count more than body hits, and body hits more than answer hits.
+     *
+     * @param query The user's search text.
+     * @param limit Maximum number of ids to return.
+     * @return Question ids, best match first.
+     * @throws SQLException if a database error occurs.
+     */
+    public List<Long> search(String query, int limit) throws SQLException {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) return new ArrayList<>();
+
+        Map<Long, double[]> hits = new HashMap<>();   // id → {words matched, score}
+        try (PooledConnection pc = pool.borrow()) {
+            long totalQuestions = 1;
+            try (ResultSet rs = pc.prepareStatement("SELECT COUNT(*) FROM questions").executeQuery()) {
+                if (rs.next()) totalQuestions = Math.max(1, rs.getLong(1));
+            }
+
+            PreparedStatement ps = pc.prepareStatement(
+                    "SELECT term, question_id, field, tf FROM search_postings WHERE term >= ? AND term < ?");
+            for (String word : words) {
+                ps.setString(1, word);
+                ps.setString(2, word + Character.MAX_VALUE);
+
+                Map<Long, Double> wordScores = new HashMap<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        double weight = FIELD_WEIGHT[rs.getInt("field")]
+                                * (1 + Math.log(rs.getInt("tf")))
+                                * (word.equals(rs.getString("term")) ? 1.0 : PREFIX_MATCH_WEIGHT);
+                        wordScores.merge(rs.getLong("question_id"), weight, Double::sum);
+                    }
+                }
+                if (wordScores.isEmpty()) continue;
+
+                double idf = Math.log(1 + (double) totalQuestions / wordScores.size());
+                for (Map.Entry<Long, Double> e : wordScores.entrySet()) {
+                    double[] h = hits.computeIfAbsent(e.getKey(), k -> new double[2]);
+                    h[0] += 1;
+                    h[1] += idf * e.getValue();
+                }
+            }
+        }
+
+        List<Map.Entry<Long, double[]>> ranked = new ArrayList<>(hits.entrySet());
+        ranked.sort((a, b) -> {
+            int byWords = Double.compare(b.getValue()[0], a.getValue()[0]);
+            if (byWords != 0) return byWords;
+            int byScore = Double.compare(b.getValue()[1], a.getValue()[1]);
+            return byScore != 0 ? byScore : Long.compare(a.getKey(), b.getKey());
+        });
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ranked.size() && i < limit; i++) ids.add(ranked.get(i).getKey());
+        return ids;
+    }
+}
@@ -76,9 +76,9 @@ public class SetupAccountPage {
                 }
 
                 if (!databaseHelper.doesUserExist(userName)) {
-                    if (databaseHelper.validateInvitationCode(code)) {
-                        User user = new User(userName, password, selectedRole);
-                        databaseHelper.register(user);
+                    // the code is claimed and the account created together, or neither
+                    User user = new User(userName, password, selectedRole);
+                    if (databaseHelper.registerWithInvitationCode(user, code)) {
                         new WelcomeLoginPage(databaseHelper).show(primaryStage, user);
                     } else {
                         errorLabel.setText("Please enter a valid invitation code.");
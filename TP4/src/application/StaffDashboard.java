@@ -13,10 +13,7 @@ package application;
 
 import databasePart1.DatabaseHelper;
 
-import java.sql.SQLException;
-
 import application.AnswersWindow;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -59,6 +56,8 @@ public class StaffDashboard {
         Label heading = new Label("Staff Dashboard");
 
         ListView<Question> questionList = new ListView<>(questionsManager.getAllQuestions());
+        new QuestionPager(questionsManager, answersManager)
+                .attach(questionList, message -> messageLabel.setText(message));
 
         TextArea staffNoteArea = new TextArea();
         staffNoteArea.setPromptText("Add internal note (visible only to staff/instructors)");
@@ -78,20 +77,26 @@ public class StaffDashboard {
             Question selected = questionList.getSelectionModel().getSelectedItem();
             if (selected != null) {
                 String note = staffNoteArea.getText().trim();
-                questionsManager.updateStaffNote(selected, note);
-
-                Alert alert = new Alert(Alert.AlertType.INFORMATION, "Note saved for: " + selected.getTitle());
-                alert.show();
+                AsyncDataAccess.run("updateStaffNote", () -> questionsManager.updateStaffNote(selected, note))
+                    .thenRun(() -> {
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION, "Note saved for: " + selected.getTitle());
+                        alert.show();
 
-                questionList.refresh();
+                        questionList.refresh();
+                    });
             }
         });
 
         // View only unanswered questions
         Button viewUnansweredBtn = new Button("View Unanswered Questions");
         viewUnansweredBtn.setOnAction(e -> {
-            ObservableList<Question> unanswered = questionsManager.getUnansweredQuestions();
-            questionList.setItems(unanswered);
+            if (!questionsManager.hasMorePages()) {
+                questionList.setItems(questionsManager.getUnansweredQuestions());
+                return;
+            }
+            // not every question is loaded yet, so ask the database
+            AsyncDataAccess.supply("fetchUnansweredQuestions", questionsManager::fetchUnansweredQuestions)
+                .thenAccept(questionList::setItems);
         });
 
         // View all answers to the selected question
@@ -107,30 +112,33 @@ public class StaffDashboard {
 
         Button banUserBtn = new Button("Ban User");
         banUserBtn.setOnAction(a -> {
-            try {
-                Question selected = questionList.getSelectionModel().getSelectedItem();
+            Question selected = questionList.getSelectionModel().getSelectedItem();
 
-                if (selected == null) {
-                    messageLabel.setText("No question selected.");
-                    return;
-                }
+            if (selected == null) {
+                messageLabel.setText("No question selected.");
+                return;
+            }
 
+            AsyncDataAccess.supply("banUser", () -> {
                 String role = db.getUserRole(selected.getAuthor());
                 if((role.equals("staff")) || (role.equals("admin"))) {
-                    messageLabel.setText("You cannot ban an admin or staff member.");
-                    return;
+                    return "You cannot ban an admin or staff member.";
                 }
 
-                db.userBanned(selected.getAuthor());
-                questionsManager.deleteQuestion(selected);
-                
+                // one transaction: a failed delete leaves the user unbanned, and the other way round
+                return db.inTransaction(pc -> {
+                    db.userBanned(selected.getAuthor());
+                    questionsManager.deleteQuestion(selected);
+                    return "User Banned.";
+                });
+            }).thenAccept(result -> {
                 questionList.refresh();
 
-                messageLabel.setText("User Banned.");
-            } catch (SQLException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            }
+                messageLabel.setText(result);
+            }).exceptionally(error -> {
+                messageLabel.setText("Ban failed: " + AsyncDataAccess.describe(error));
+                return null;
+            });
         });
         // Notify reviewers if the question is unanswered
         Button notifyReviewersBtn = new Button("Notify Reviewers");
@@ -148,16 +156,18 @@ public class StaffDashboard {
         deleteBtn.setOnAction(e -> {
             Question selected = questionList.getSelectionModel().getSelectedItem();
             if (selected != null) {
-                questionsManager.deleteQuestion(selected);
-                questionList.getItems().remove(selected);
-                staffNoteArea.clear();
+                AsyncDataAccess.run("deleteQuestion", () -> questionsManager.deleteQuestion(selected))
+                    .thenRun(() -> {
+                        questionList.getItems().remove(selected);
+                        staffNoteArea.clear();
+                    });
             }
         });
 
         HBox actionButtons = new HBox(10, saveNoteBtn, notifyReviewersBtn, deleteBtn, viewUnansweredBtn, viewAnswersBtn, banUserBtn);
         VBox.setMargin(actionButtons, new Insets(5));
 
-        root.getChildren().addAll(heading, questionList, staffNoteArea, actionButtons);
+        root.getChildren().addAll(heading, questionList, staffNoteArea, actionButtons, messageLabel);
 
         Scene scene = new Scene(root, 700, 500);
         stage.setScene(scene);
@@ -31,6 +31,11 @@ public class StartCSE360 extends Application {
         	System.out.println(e.getMessage());
         }
     }
+
+	@Override
+	public void stop() {
+		databaseHelper.closeConnection(); // writes the buffered votes, then closes the database
+	}
 	
 
 }
\ No newline at end of file
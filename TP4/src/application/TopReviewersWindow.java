@@ -0,0 +1,44 @@
+package application;
+
+import databasePart1.DatabaseHelper;
+import databasePart1.ReputationEngine.ReviewerScore;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+import javafx.stage.Stage;
+
+/**
+ * Lists the best‑rated reviewers, read from the leaderboard kept by the reputation engine.
+ */
+public class TopReviewersWindow {
+    public static final int TOP_K = 25;
+
+    private final DatabaseHelper db;
+
+    public TopReviewersWindow(DatabaseHelper db) { this.db = db; }
+
+    public void show() {
+        Stage st = new Stage();
+        ListView<ReviewerScore> list = new ListView<>();
+        list.setPlaceholder(new Label("Loading..."));
+
+        Button refreshBtn = new Button("Refresh");
+        refreshBtn.setOnAction(e -> load(list));
+
+        VBox root = new VBox(10, new Label("Top " + TOP_K + " reviewers"), list, refreshBtn);
+        root.setPadding(new Insets(10));
+        st.setTitle("Top Reviewers");
+        st.setScene(new Scene(root, 400, 450));
+        st.show();
+        load(list);
+    }
+
+    private void load(ListView<ReviewerScore> list) {
+        AsyncDataAccess.supply("getTopReviewers", () -> db.getTopReviewers(TOP_K))
+            .thenAccept(top -> {
+                list.getItems().setAll(top);
+                list.setPlaceholder(new Label("No reviewer has been rated yet."));
+            });
+    }
+}
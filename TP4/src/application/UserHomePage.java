@@ -11,14 +11,12 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
 
 public class UserHomePage {
 
     private Questions questionsManager;  
     private Answers answersManager;      
+    private QuestionPager questionPager;
 
     private ListView<Question> questionListView;
     private Label messageLabel;
@@ -33,29 +31,21 @@ public class UserHomePage {
     }
    
     public void start(Stage primaryStage, User user) { //Function that displays the page
-        try {
-            Class.forName("org.h2.Driver");
-            Connection connection = DriverManager.getConnection("jdbc:h2:file:./mydb;DB_CLOSE_DELAY=-1;", "sa", "");
-
-            questionsManager = new Questions(connection);
-            answersManager = new Answers(connection, databaseHelper);
-
-            questionsManager.createTable();
-            answersManager.createTable();
-            
-           
-            questionsManager.loadAllFromDB();
-            answersManager.loadAllFromDB();
-            answersManager.linkAnswersToQuestions(questionsManager.getAllQuestions());
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        questionsManager = new Questions(databaseHelper.getConnectionPool());
+        answersManager = new Answers(databaseHelper.getConnectionPool(), questionsManager, databaseHelper);
+
+        // tables and the first page load in the background; the list fills in when they arrive
+        questionPager = new QuestionPager(questionsManager, answersManager);
+        questionPager.openAsync().exceptionally(error -> {
+            messageLabel.setText("Could not load questions: " + AsyncDataAccess.describe(error));
+            return null;
+        });
 
         primaryStage.setTitle("Discussion Application (Questions)");
 
         // List of questions
         questionListView = new ListView<>(questionsManager.getAllQuestions());
+        questionPager.attach(questionListView, message -> messageLabel.setText(message));
         questionListView.setCellFactory(param -> new ListCell<>() {
             @Override
             protected void updateItem(Question item, boolean empty) {
@@ -89,13 +79,7 @@ public class UserHomePage {
         });
         
         Button searchBtn = new Button("Search Question");
-        searchBtn.setOnAction(e -> {
-            try {
-                doAdvancedSearch();
-            } catch (SQLException e1) {
-                e1.printStackTrace();
-            }
-        });
+        searchBtn.setOnAction(e -> doAdvancedSearch());
         
         Button createBtn = new Button("Create Question");
         createBtn.setOnAction(e -> createQuestion(user));
@@ -119,12 +103,14 @@ public class UserHomePage {
         
         Button requestReviewerBtn = new Button("Request Reviewer Access");
         requestReviewerBtn.setOnAction(e -> {
-            boolean requested = databaseHelper.requestReviewer(user.getUserName());
-            if (requested) {
-                messageLabel.setText("Reviewer access requested.");
-            } else {
-                messageLabel.setText("Request already submitted or failed.");
-            }
+            AsyncDataAccess.supply("requestReviewer", () -> databaseHelper.requestReviewer(user.getUserName()))
+                .thenAccept(requested -> {
+                    if (requested) {
+                        messageLabel.setText("Reviewer access requested.");
+                    } else {
+                        messageLabel.setText("Request already submitted or failed.");
+                    }
+                });
         });
 
         HBox questionBtns = new HBox(10, createBtn, updateBtn, deleteBtn, resolvedBtn, viewAnswersBtn);
@@ -172,6 +158,7 @@ public class UserHomePage {
         ChatBox chatBox = new ChatBox(currentUser, otherUser, databaseHelper);
         Scene chatScene = new Scene(chatBox, 400, 300);
         chatStage.setScene(chatScene);
+        chatStage.setOnHidden(e -> chatBox.close());
         chatStage.setTitle("Chat with " + otherUser);
         chatStage.show();
     }
@@ -187,11 +174,13 @@ public class UserHomePage {
             return;
         }
         
-        questionsManager.createQuestion(text, user.getUserName(), title);
-        messageLabel.setText("Question created.");
         questionInput.clear();
         questionTitle.clear();
-        questionListView.refresh();
+        AsyncDataAccess.run("createQuestion", () -> questionsManager.createQuestion(text, user.getUserName(), title))
+            .thenRun(() -> {
+                messageLabel.setText("Question created.");
+                questionListView.refresh();
+            });
     }
 
     private void updateQuestion(User user) { //Function to update questions
@@ -212,10 +201,12 @@ public class UserHomePage {
         	return;
         }
         
-        questionsManager.updateQuestion(selected, newText);
-        messageLabel.setText("Question updated.");
         questionInput.clear();
-        questionListView.refresh();
+        AsyncDataAccess.run("updateQuestion", () -> questionsManager.updateQuestion(selected, newText))
+            .thenRun(() -> {
+                messageLabel.setText("Question updated.");
+                questionListView.refresh();
+            });
     }
 
     private void deleteQuestion(User user) { //Function to delete questions
@@ -230,9 +221,11 @@ public class UserHomePage {
         	return;
         }
         
-        questionsManager.deleteQuestion(selected);
-        messageLabel.setText("Question deleted.");
-        questionListView.refresh();
+        AsyncDataAccess.run("deleteQuestion", () -> questionsManager.deleteQuestion(selected))
+            .thenRun(() -> {
+                messageLabel.setText("Question deleted.");
+                questionListView.refresh();
+            });
     }
 
     private void markQuestionResolved(User user) { //Marks questions resolved
@@ -247,9 +240,11 @@ public class UserHomePage {
         	return;
         }
         
-        questionsManager.markQuestionAsResolved(selected);
-        messageLabel.setText("Question marked as resolved.");
-        questionListView.refresh();
+        AsyncDataAccess.run("markQuestionResolved", () -> questionsManager.markQuestionAsResolved(selected))
+            .thenRun(() -> {
+                messageLabel.setText("Question marked as resolved.");
+                questionListView.refresh();
+            });
     }
 
     private void openAnswersWindow(User user) { //Opens a separate window that shows answers for each question
@@ -263,13 +258,21 @@ public class UserHomePage {
         messageLabel.setText("Opened separate window for answers.");
     }
     
-    private void searchQuestion() throws SQLException {
+    private void searchQuestion() {
     	String text = questionInput.getText().trim();
         if (text.isEmpty()) {
             messageLabel.setText("Cannot search empty question.");
             return;
         }
-        ObservableList<Question> similarQuestions = questionsManager.search(text);
+        AsyncDataAccess.supply("searchQuestions", () -> questionsManager.search(text))
+            .thenAccept(this::showSimilarQuestions)
+            .exceptionally(error -> {
+                messageLabel.setText("Search error: " + AsyncDataAccess.describe(error));
+                return null;
+            });
+    }
+
+    private void showSimilarQuestions(ObservableList<Question> similarQuestions) {
         if (similarQuestions.isEmpty()) {
             messageLabel.setText("Question not found.");
             return;
@@ -295,7 +298,7 @@ public class UserHomePage {
     }
     
     
-    private void doAdvancedSearch() throws SQLException {
+    private void doAdvancedSearch() {
         String text = questionInput.getText().trim();
         String author = "";
         String resolvedChoice = resolvedComboBox.getValue();
@@ -307,17 +310,16 @@ public class UserHomePage {
             resolvedFilter = false;
         }
 
-        try {
-            ObservableList<Question> results = questionsManager.advancedSearch(
-                    text, author, resolvedFilter
-            );
-            
-            questionListView.setItems(results);
-            
-            messageLabel.setText("Search returned " + results.size() + " results.");
-        } catch (SQLException e) {
-            e.printStackTrace();
-            messageLabel.setText("Search error: " + e.getMessage());
-        }
+        Boolean filter = resolvedFilter;
+        AsyncDataAccess.supply("advancedSearch", () -> questionsManager.advancedSearch(text, author, filter))
+            .thenAccept(results -> {
+                questionListView.setItems(results);
+
+                messageLabel.setText("Search returned " + results.size() + " results.");
+            })
+            .exceptionally(error -> {
+                messageLabel.setText("Search error: " + AsyncDataAccess.describe(error));
+                return null;
+            });
     }
 }
\ No newline at end of file
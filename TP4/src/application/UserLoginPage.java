@@ -43,33 +43,17 @@ public class UserLoginPage {
             String userName = userNameField.getText();
             String password = passwordField.getText();
             try {
-                User user=new User(userName, password, "");
-                WelcomeLoginPage welcomeLoginPage = new WelcomeLoginPage(databaseHelper);
+                // Rate limit, password, role and ban state are checked in one place
+                LoginResult result = databaseHelper.signIn(userName, password, "local");
 
-                // Retrieve the user's role from the database using userName
-                String role = databaseHelper.getUserRole(userName);
-
-                if(!(databaseHelper.isUserBanned(user))) {
-                    if(role!=null) {
-                        user.setRole(role);
-                        if(databaseHelper.login(user)) {
-                            welcomeLoginPage.show(primaryStage,user);
-                        }
-                        else {
-                            // Display an error if the login fails
-                            errorLabel.setText("Error logging in");
-                        }
-                    }
-                    else {
-                        // Display an error if the account does not exist
-                        errorLabel.setText("user account doesn't exists");
-                    }
-                } else {
-                    //Display an error if account is banned
-                    errorLabel.setText("You are banned");
+                if(result.isSignedIn()) {
+                    User user=new User(userName, password, result.getSession().getRole());
+                    new WelcomeLoginPage(databaseHelper).show(primaryStage,user);
+                }
+                else {
+                    // Display why the login failed (unknown user, wrong password, banned or too many attempts)
+                    errorLabel.setText(result.getMessage());
                 }
-
-            	
             } catch (SQLException e) {
                 System.err.println("Database error: " + e.getMessage());
                 e.printStackTrace();
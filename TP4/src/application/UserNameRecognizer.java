@@ -16,52 +16,38 @@ public class UserNameRecognizer {
 	 * @version 1.00		2024-09-13	Initial baseline derived from the Even Recognizer
 	 * @version 1.01		2024-09-17	Correction to address UNChar coding error, improper error
 	 * 									message, and improve internal documentation
+	 * @version 1.02		2026-10-18	Reentrant: the FSM state lives in local variables and the
+	 * 									outcome is returned as a ValidationResult
 	 * 
 	 */
 
 	/**********************************************************************************************
 	 * 
-	 * Result attributes to be used for GUI applications where a detailed error message and a 
-	 * pointer to the character of the error will enhance the user experience.
+	 * The error messages, built once so that a run of the FSM never has to concatenate them.
 	 * 
 	 */
 
-	public static String userNameRecognizerErrorMessage = "";	// The error message text
-	public static String userNameRecognizerInput = "";			// The input being processed
-	public static int userNameRecognizerIndexofError = -1;		// The index of error location
-	private static int state = 0;						// The current state value
-	private static int nextState = 0;					// The next state value
-	private static boolean finalState = false;			// Is this state a final state?
-	private static String inputLine = "";				// The input line
-	private static char currentChar;					// The current character in the line
-	private static int currentCharNdx;					// The index of the current character
-	private static boolean running;						// The flag that specifies if the FSM is 
-														// running
-	private static int userNameSize = 0;			// A numeric value may not exceed 16 characters
-
-	// Private method to display debugging data
-	private static void displayDebuggingInfo() {
-		// Display the current state of the FSM as part of an execution trace
-		if (currentCharNdx >= inputLine.length())
-			// display the line with the current state numbers aligned
-			System.out.println(((state > 99) ? " " : (state > 9) ? "  " : "   ") + state + 
-					((finalState) ? "       F   " : "           ") + "None");
-		else
-			System.out.println(((state > 99) ? " " : (state > 9) ? "  " : "   ") + state + 
-				((finalState) ? "       F   " : "           ") + "  " + currentChar + " " + 
-				((nextState > 99) ? "" : (nextState > 9) || (nextState == -1) ? "   " : "    ") + 
-				nextState + "     " + userNameSize);
+	private static final String EMPTY_INPUT = "\n*** ERROR *** The input is empty";
+	private static final String BAD_FIRST_CHAR =
+			"\n*** ERROR *** A UserName must start with A-Z or a-z.\n";
+	private static final String TOO_SHORT =
+			"\n*** ERROR *** A UserName must have at least 4 characters.\n";
+	private static final String TOO_LONG =
+			"\n*** ERROR *** A UserName must have no more than 16 character.\n";
+	private static final String BAD_CHAR =
+			"\n*** ERROR *** A UserName character may only contain the characters A-Z, a-z, 0-9, -, _, .\n";
+	private static final String BAD_CHAR_AFTER_SEPARATOR =
+			"\n*** ERROR *** A UserName character after a period, minus or underscore must be A-Z, a-z, 0-9.\n";
+
+	private static final int MAX_SIZE = 16;			// A UserName may not exceed 16 characters
+	private static final int MIN_SIZE = 4;			// nor be shorter than 4
+
+	private static boolean isLetter(char c) {
+		return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
 	}
-	
-	// Private method to move to the next character within the limits of the input line
-	private static void moveToNextCharacter() {
-		currentCharNdx++;
-		if (currentCharNdx < inputLine.length())
-			currentChar = inputLine.charAt(currentCharNdx);
-		else {
-			currentChar = ' ';
-			running = false;
-		}
+
+	private static boolean isLetterOrDigit(char c) {
+		return isLetter(c) || (c >= '0' && c <= '9');
 	}
 
 	/**********
@@ -73,194 +59,121 @@ public class UserNameRecognizer {
 	 * 						with a helpful description of the error
 	 */
 	public static String checkForValidUserName(String input) {
-		// Check to ensure that there is input to process
-		if(input.length() <= 0) {
-			userNameRecognizerIndexofError = 0;	// Error at first character;
-			return "\n*** ERROR *** The input is empty";
-		}
-		
-		// The local variables used to perform the Finite State Machine simulation
-		state = 0;							// This is the FSM state number
-		inputLine = input;					// Save the reference to the input line as a global
-		currentCharNdx = 0;					// The index of the current character
-		currentChar = input.charAt(0);		// The current character from above indexed position
+		return validate(input).getMessage();
+	}
 
-		// The Finite State Machines continues until the end of the input is reached or at some 
-		// state the current character does not match any valid transition to a next state
+	/**********
+	 * Runs the Finite State Machine over the input. All of the machine's state is held in
+	 * local variables, so any number of threads may call this at once, and the loop over
+	 * the characters allocates nothing.
+	 * 
+	 * @param input		The input string for the Finite State Machine
+	 * @return			{@link ValidationResult#VALID}, or the error message together with the
+	 * 						index of the character where the machine stopped
+	 */
+	public static ValidationResult validate(String input) {
+		// Check to ensure that there is input to process
+		if (input.length() <= 0)
+			return ValidationResult.invalid(EMPTY_INPUT, 0);	// Error at first character
 
-		userNameRecognizerInput = input;	// Save a copy of the input
-		running = true;						// Start the loop
-		nextState = -1;						// There is no next state
-		System.out.println("\nCurrent Final Input  Next  Date\nState   State Char  State  Size");
-		
-		// This is the place where semantic actions for a transition to the initial state occur
-		
-		userNameSize = 0;					// Initialize the UserName size
+		int state = 0;							// This is the FSM state number
+		int nextState = -1;						// There is no next state
+		int currentCharNdx = 0;					// The index of the current character
+		char currentChar = input.charAt(0);		// The current character
+		int userNameSize = 0;					// The UserName size so far
+		boolean running = true;					// Start the loop
 
 		// The Finite State Machines continues until the end of the input is reached or at some 
 		// state the current character does not match any valid transition to a next state
 		while (running) {
-			// The switch statement takes the execution to the code for the current state, where
-			// that code sees whether or not the current character is valid to transition to a
-			// next state
 			switch (state) {
 			case 0: 
-				// State 0 has 1 valid transition that is addressed by an if statement.
-				
-				// The current character is checked against A-Z, a-z, 0-9. If any are matched
-				// the FSM goes to state 1
-				
-				// A-Z, a-z, 0-9 -> State 1
-				if ((currentChar >= 'A' && currentChar <= 'Z' ) ||		// Check for A-Z
-						(currentChar >= 'a' && currentChar <= 'z' )) {	// Check for a-z
+				// A-Z, a-z -> State 1
+				if (isLetter(currentChar)) {
 					nextState = 1;
-					
-					// Count the character 
 					userNameSize++;
-					
-					// This only occurs once, so there is no need to check for the size getting
-					// too large.
 				}
 				// If it is none of those characters, the FSM halts
 				else 
 					running = false;
-				
-				// The execution of this state is finished
 				break;
 			
 			case 1: 
-				// State 1 has two valid transitions, 
-				//	1: a A-Z, a-z, 0-9 that transitions back to state 1
-				//  2: a period that transitions to state 2 
-
-				
 				// A-Z, a-z, 0-9 -> State 1
-				if ((currentChar >= 'A' && currentChar <= 'Z' ) ||		// Check for A-Z
-						(currentChar >= 'a' && currentChar <= 'z' ) ||	// Check for a-z
-						(currentChar >= '0' && currentChar <= '9' )) {	// Check for 0-9
+				if (isLetterOrDigit(currentChar)) {
 					nextState = 1;
-					
-					// Count the character
 					userNameSize++;
 				}
-				// . -> State 2
-				else if (currentChar == '.' || currentChar == '-' || currentChar == '_') {							// Check for /
+				// . - _ -> State 2
+				else if (currentChar == '.' || currentChar == '-' || currentChar == '_') {
 					nextState = 2;
-					
-					// Count the .
 					userNameSize++;
 				}				
 				// If it is none of those characters, the FSM halts
 				else
 					running = false;
-				
-				// The execution of this state is finished
+
 				// If the size is larger than 16, the loop must stop
-				if (userNameSize > 16)
+				if (userNameSize > MAX_SIZE)
 					running = false;
 				break;			
 				
 			case 2: 
-				// State 2 deals with a character after a period in the name.
-				
 				// A-Z, a-z, 0-9 -> State 1
-				if ((currentChar >= 'A' && currentChar <= 'Z' ) ||		// Check for A-Z
-						(currentChar >= 'a' && currentChar <= 'z' ) ||	// Check for a-z
-						(currentChar >= '0' && currentChar <= '9' )) {	// Check for 0-9
+				if (isLetterOrDigit(currentChar)) {
 					nextState = 1;
-					
-					// Count the odd digit
 					userNameSize++;
-					
 				}
 				// If it is none of those characters, the FSM halts
 				else 
 					running = false;
 
-				// The execution of this state is finished
 				// If the size is larger than 16, the loop must stop
-				if (userNameSize > 16)
+				if (userNameSize > MAX_SIZE)
 					running = false;
 				break;			
 			}
 			
 			if (running) {
-				displayDebuggingInfo();
-				// When the processing of a state has finished, the FSM proceeds to the next
-				// character in the input and if there is one, it fetches that character and
-				// updates the currentChar.  If there is no next character the currentChar is
-				// set to a blank.
-				moveToNextCharacter();
+				// Proceed to the next character; at the end of the input the FSM halts
+				currentCharNdx++;
+				if (currentCharNdx < input.length())
+					currentChar = input.charAt(currentCharNdx);
+				else
+					running = false;
 
 				// Move to the next state
 				state = nextState;
-				
-				// Is the new state a final state?  If so, signal this fact.
-				if (state == 1) finalState = true;
-
-				// Ensure that one of the cases sets this to a valid value
 				nextState = -1;
 			}
-			// Should the FSM get here, the loop starts again
-	
 		}
-		displayDebuggingInfo();
-		
-		System.out.println("The loop has ended.");
-		
-		// When the FSM halts, we must determine if the situation is an error or not.  That depends
-		// of the current state of the FSM and whether or not the whole string has been consumed.
-		// This switch directs the execution to separate code for each of the FSM states and that
-		// makes it possible for this code to display a very specific error message to improve the
-		// user experience.
-		userNameRecognizerIndexofError = currentCharNdx;	// Set index of a possible error;
-		userNameRecognizerErrorMessage = "\n*** ERROR *** ";
-		
-		// The following code is a slight variation to support just console output.
+
+		// When the FSM halts, whether the input is an error depends on the current state of
+		// the FSM and whether or not the whole string has been consumed.
 		switch (state) {
 		case 0:
-			// State 0 is not a final state, so we can return a very specific error message
-			userNameRecognizerErrorMessage += "A UserName must start with A-Z or a-z.\n";
-			return userNameRecognizerErrorMessage;
+			// State 0 is not a final state
+			return ValidationResult.invalid(BAD_FIRST_CHAR, currentCharNdx);
 
 		case 1:
-			// State 1 is a final state.  Check to see if the UserName length is valid.  If so we
-			// we must ensure the whole string has been consumed.
-
-			if (userNameSize < 4) {
-				// UserName is too small
-				userNameRecognizerErrorMessage += "A UserName must have at least 4 characters.\n";
-				return userNameRecognizerErrorMessage;
-			}
-			else if (userNameSize > 16) {
-				// UserName is too long
-				userNameRecognizerErrorMessage += 
-					"A UserName must have no more than 16 character.\n";
-				return userNameRecognizerErrorMessage;
-			}
-			else if (currentCharNdx < input.length()) {
-				// There are characters remaining in the input, so the input is not valid
-				userNameRecognizerErrorMessage += 
-					"A UserName character may only contain the characters A-Z, a-z, 0-9, -, _, .\n";
-				return userNameRecognizerErrorMessage;
-			}
-			else {
-					// UserName is valid
-					userNameRecognizerIndexofError = -1;
-					userNameRecognizerErrorMessage = "";
-					return userNameRecognizerErrorMessage;
-			}
+			// State 1 is a final state. Check the length and that the whole string was consumed.
+			if (userNameSize < MIN_SIZE)
+				return ValidationResult.invalid(TOO_SHORT, currentCharNdx);
+			else if (userNameSize > MAX_SIZE)
+				return ValidationResult.invalid(TOO_LONG, currentCharNdx);
+			else if (currentCharNdx < input.length())
+				return ValidationResult.invalid(BAD_CHAR, currentCharNdx);
+			else
+				return ValidationResult.VALID;
 
 		case 2:
-			// State 2 is not a final state, so we can return a very specific error message
-			userNameRecognizerErrorMessage +=
-				"A UserName character after a period, minus or underscore must be A-Z, a-z, 0-9.\n";
-			return userNameRecognizerErrorMessage;
+			// State 2 is not a final state
+			return ValidationResult.invalid(BAD_CHAR_AFTER_SEPARATOR, currentCharNdx);
 			
 		default:
 			// This is for the case where we have a state that is outside of the valid range.
 			// This should not happen
-			return "";
+			return ValidationResult.VALID;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package application;
+
+/**
+ * <p> Title: ValidationResult. </p>
+ *
+ * <p> Description: The immutable outcome of one run of an input validator
+ * ({@link UserNameRecognizer}, {@link PasswordEvaluator}, {@link questionEvaluator},
+ * {@link answerEvaluator}). Because the validators keep no state between calls, the
+ * result is the only place the error message and error position are reported, and it
+ * can be shared freely between threads.</p>
+ */
+public final class ValidationResult {
+
+	/** The result of every input that passes; its message is empty. */
+	public static final ValidationResult VALID = new ValidationResult("", -1);
+
+	private final String message;		// "" when the input is valid
+	private final int errorIndex;		// index of the offending character, or -1
+
+	private ValidationResult(String message, int errorIndex) {
+		this.message = message;
+		this.errorIndex = errorIndex;
+	}
+
+	/**
+	 * Creates the result for a rejected input.
+	 *
+	 * @param message		The error message shown to the user; must not be empty.
+	 * @param errorIndex	Index of the character where the error was found, or -1 if the
+	 * 						error is not tied to one position.
+	 * @return				The result.
+	 */
+	public static ValidationResult invalid(String message, int errorIndex) {
+		if (message == null || message.isEmpty())
+			throw new IllegalArgumentException("An invalid result needs a message");
+		return new ValidationResult(message, errorIndex);
+	}
+
+	public boolean isValid() {
+		return this == VALID;
+	}
+
+	/** The error message, or an empty string when the input is valid. */
+	public String getMessage() {
+		return message;
+	}
+
+	/** Index of the character where the error was found, or -1. */
+	public int getErrorIndex() {
+		return errorIndex;
+	}
+
+	@Override
+	public String toString() {
+		return isValid() ? "valid" : "invalid at " + errorIndex + ": " + message.trim();
+	}
+}
@@ -7,9 +7,6 @@ import javafx.stage.Stage;
 import javafx.application.Platform;
 import databasePart1.*;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-
 /**
  * The WelcomeLoginPage class displays a welcome screen for authenticated users.
  * It allows users to navigate to their respective pages based on their role or quit the application.
@@ -40,17 +37,23 @@ public class WelcomeLoginPage {
                 } else if (role.equals("user") || role.equals("reviewer")) {
                     new UserHomePage(databaseHelper).start(primaryStage, user);
                 } else if (role.equals("staff")) {
-                    Connection connection = DriverManager.getConnection("jdbc:h2:file:./mydb;DB_CLOSE_DELAY=-1;", "sa", "");
-                    Questions q = new Questions(connection);
-                    Answers ans = new Answers(connection, databaseHelper);
-                    q.createTable(); ans.createTable(); q.loadAllFromDB(); ans.loadAllFromDB(); ans.linkAnswersToQuestions(q.getAllQuestions());
-                    new StaffDashboard(databaseHelper, q, ans).show();
+                    Questions q = new Questions(databaseHelper.getConnectionPool());
+                    Answers ans = new Answers(databaseHelper.getConnectionPool(), q, databaseHelper);
+                    new QuestionPager(q, ans).openAsync()
+                        .thenRun(() -> new StaffDashboard(databaseHelper, q, ans).show())
+                        .exceptionally(error -> {
+                            new Alert(Alert.AlertType.ERROR, AsyncDataAccess.describe(error)).show();
+                            return null;
+                        });
                 } else if (role.equals("instructor")) {
-                    Connection connection = DriverManager.getConnection("jdbc:h2:file:./mydb;DB_CLOSE_DELAY=-1;", "sa", "");
-                    Questions q = new Questions(connection);
-                    Answers ans = new Answers(connection, databaseHelper);
-                    q.createTable(); ans.createTable(); q.loadAllFromDB(); ans.loadAllFromDB(); ans.linkAnswersToQuestions(q.getAllQuestions());
-                    new InstructorDashboard(databaseHelper, q, ans).show();
+                    Questions q = new Questions(databaseHelper.getConnectionPool());
+                    Answers ans = new Answers(databaseHelper.getConnectionPool(), q, databaseHelper);
+                    new QuestionPager(q, ans).openAsync()
+                        .thenRun(() -> new InstructorDashboard(databaseHelper, q, ans).show())
+                        .exceptionally(error -> {
+                            new Alert(Alert.AlertType.ERROR, AsyncDataAccess.describe(error)).show();
+                            return null;
+                        });
                 } else {
                     Alert alert = new Alert(Alert.AlertType.ERROR, "Unknown role: " + role);
                     alert.show();
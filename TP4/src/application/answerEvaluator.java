@@ -1,45 +1,79 @@
 package application;
 
+/**
+ * Checks an answer before it is posted. The checks keep no state between calls, so the
+ * evaluator can be used from any number of threads at once.
+ */
 public class answerEvaluator {
-    private static String answerErrorMessage = "";
+    private static final ValidationResult EMPTY = ValidationResult.invalid("Answer input field is empty; ", 0);
+
+    private static final int BAD_LENGTH = 1, BAD_ENDING = 2, LOWER_CASE = 4, BANNED_WORD = 8;
+    private static final String[] PROBLEMS = {
+        "Answer is not a proper length; ",
+        "Answer must end in a . or a ?; ",
+        "Answer must start with upper case letter; ",
+        "Your answer contains a word that is prohibited"
+    };
+
+    //words that are not allowed or are unethical
+    private static final String[] BANNED_WORDS = {"ChatGPT", "extension", "curve", "AI"};
+
+    //one result per combination of failed checks, so a check never builds a message
+    private static final ValidationResult[] RESULTS = new ValidationResult[1 << PROBLEMS.length];
+
+    static {
+        RESULTS[0] = ValidationResult.VALID;
+        for(int failed = 1; failed < RESULTS.length; failed++) {
+            StringBuilder message = new StringBuilder();
+            for(int bit = 0; bit < PROBLEMS.length; bit++) {
+                if((failed & (1 << bit)) != 0) message.append(PROBLEMS[bit]);
+            }
+            RESULTS[failed] = ValidationResult.invalid(message.toString(), -1);
+        }
+    }
 
     public static String checkAnswer(String input) {
-        //resets the error message for every test case
-        answerErrorMessage = "";
+        return validate(input).getMessage();
+    }
 
+    /**
+     * Runs every check on the answer.
+     *
+     * @param input The answer text.
+     * @return {@link ValidationResult#VALID}, or a result whose message lists every failed check.
+     */
+    public static ValidationResult validate(String input) {
         //checks if the answer field is empty
         if(input.length() <= 0) {
-            answerErrorMessage += "Answer input field is empty; ";
-            return answerErrorMessage;
+            return EMPTY;
         }
 
+        int failed = 0;
+
         //checks if the answer meets the length requirement
         if(input.length() < 5 || input.length() > 950) {
-            answerErrorMessage += "Answer is not a proper length; ";
+            failed |= BAD_LENGTH;
         }
 
-
         //checks if the answer ends in the proper character
-        if(input.charAt(input.length() - 1) != '.' && input.charAt(input.length() - 1) != '?') {
-            answerErrorMessage += "Answer must end in a . or a ?; ";
+        char last = input.charAt(input.length() - 1);
+        if(last != '.' && last != '?') {
+            failed |= BAD_ENDING;
         }
 
         //checks if the answer starts with a capital letter
-        String firstChar = input.charAt(0) + "";
-        if(firstChar != firstChar.toUpperCase()) {
-            answerErrorMessage += "Answer must start with upper case letter; ";
+        if(questionEvaluator.startsLowerCase(input)) {
+            failed |= LOWER_CASE;
         }
 
         //checks if the answer contains a word that is not allowed or is unethical
-        String[] bannedWords = {"ChatGPT", "extension", "curve", "AI"};
-
-        for(int i = 0; i< bannedWords.length; i++) {
-            if(input.contains(bannedWords[i])) {
-                answerErrorMessage += "Your answer contains a word that is prohibited";
+        for(String word : BANNED_WORDS) {
+            if(input.contains(word)) {
+                failed |= BANNED_WORD;
                 break;
             }
         }
 
-        return answerErrorMessage;
+        return RESULTS[failed];
     }
-}
\ No newline at end of file
+}
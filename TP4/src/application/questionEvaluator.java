@@ -1,55 +1,98 @@
 package application;
 
+/**
+ * Checks a question title and text before they are posted. The checks keep no state
+ * between calls, so the evaluator can be used from any number of threads at once.
+ */
 public class questionEvaluator {
-	private static String questionErrorMessage = "";
-	
+	private static final String QUESTION_EMPTY = "Question input field is empty; ";
+	private static final String TITLE_EMPTY = "Question title field is empty; ";
+
+	private static final int TITLE_TOO_LONG = 1, TITLE_LOWER_CASE = 2, NO_QUESTION_MARK = 4,
+			BAD_LENGTH = 8, QUESTION_LOWER_CASE = 16;
+	private static final String[] PROBLEMS = {
+		"Question title is too long; ",
+		"Question title must start with upper case letter; ",
+		"Question must end with a ?; ",
+		"Question is not a proper length; ",
+		"Question must start with upper case letter; "
+	};
+
+	//one result per combination of failed checks, so a check never builds a message
+	private static final ValidationResult[] RESULTS = new ValidationResult[1 << PROBLEMS.length];
+
+	static {
+		RESULTS[0] = ValidationResult.VALID;
+		for(int failed = 1; failed < RESULTS.length; failed++) {
+			StringBuilder message = new StringBuilder();
+			for(int bit = 0; bit < PROBLEMS.length; bit++) {
+				if((failed & (1 << bit)) != 0) message.append(PROBLEMS[bit]);
+			}
+			RESULTS[failed] = ValidationResult.invalid(message.toString(), -1);
+		}
+	}
+
+	private static final ValidationResult BOTH_EMPTY = ValidationResult.invalid(QUESTION_EMPTY + TITLE_EMPTY, 0);
+	private static final ValidationResult ONLY_QUESTION_EMPTY = ValidationResult.invalid(QUESTION_EMPTY, 0);
+	private static final ValidationResult ONLY_TITLE_EMPTY = ValidationResult.invalid(TITLE_EMPTY, 0);
+
 	public static String checkQuestion(String title, String question) {
-		//resets the error message after each test case
-		questionErrorMessage = "";
-		
+		return validate(title, question).getMessage();
+	}
+
+	/**
+	 * Runs every check on the title and question.
+	 *
+	 * @param title    The question title.
+	 * @param question The question text.
+	 * @return {@link ValidationResult#VALID}, or a result whose message lists every failed check.
+	 */
+	public static ValidationResult validate(String title, String question) {
 		//checks if either the question or title fields are empty
 		if(question.length() <= 0) {
-			questionErrorMessage += "Question input field is empty; ";
-			
-			if(title.length() <= 0) {
-				questionErrorMessage += "Question title field is empty; ";
-			}
-			
-			return questionErrorMessage;
-			
+			return title.length() <= 0 ? BOTH_EMPTY : ONLY_QUESTION_EMPTY;
 		} else if(title.length() <= 0) {
-			questionErrorMessage += "Question title field is empty; ";
-			
-			return questionErrorMessage;
+			return ONLY_TITLE_EMPTY;
 		}
-		
+
+		int failed = 0;
+
 		//checks if the title meets the length requirement
 		if(title.length() > 20) {
-			questionErrorMessage += "Question title is too long; ";
+			failed |= TITLE_TOO_LONG;
 		}
-		
+
 		//checks if the question title starts with a capitol letter
-		String firstChar = title.charAt(0) + "";
-		if(firstChar != firstChar.toUpperCase()) {
-			questionErrorMessage += "Question title must start with upper case letter; ";
+		if(startsLowerCase(title)) {
+			failed |= TITLE_LOWER_CASE;
 		}
-		
+
 		//checks if the question ends in the proper character
 		if(question.charAt(question.length() - 1) != '?') {
-			questionErrorMessage += "Question must end with a ?; ";
+			failed |= NO_QUESTION_MARK;
 		}
-		
+
 		//checks if the question meets the length requirement
 		if(question.length() < 10 || question.length() > 450) {
-			questionErrorMessage += "Question is not a proper length; ";
+			failed |= BAD_LENGTH;
 		}
-		
+
 		//checks if the question starts with a capital letter
-		firstChar = question.charAt(0) + "";
-		if(firstChar != firstChar.toUpperCase()) {
-			questionErrorMessage += "Question must start with upper case letter; ";
+		if(startsLowerCase(question)) {
+			failed |= QUESTION_LOWER_CASE;
+		}
+
+		return RESULTS[failed];
+	}
+
+	//true when the first character has an upper case form it differs from
+	static boolean startsLowerCase(String text) {
+		char first = text.charAt(0);
+		if(first < 0x80) {
+			return first >= 'a' && first <= 'z';
 		}
-		
-		return questionErrorMessage;
+		//outside ASCII the upper case form can be longer, e.g. for a ligature
+		String firstChar = String.valueOf(first);
+		return !firstChar.equals(firstChar.toUpperCase());
 	}
-}
\ No newline at end of file
+}
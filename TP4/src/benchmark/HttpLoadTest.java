@@ -0,0 +1,333 @@
+/**
+ * HttpLoadTest.java
+ *
+ * Measures how the HTTP API scales with cores. For each core count it starts the server
+ * in a child JVM limited to that many processors, holds thousands of chat long polls
+ * open against it and drives a closed-loop request mix from a fixed set of clients.
+ *
+ * Run:  java [-Dhttp.cores=1,2,4,8 -Dhttp.clients=64 -Dhttp.pollers=2000
+ *             -Dhttp.duration=15 -Dhttp.warmup=5 -Dhttp.questions=2000]
+ *            benchmark.HttpLoadTest
+ */
+
+package benchmark;
+
+import application.Answers;
+import application.AsyncDataAccess;
+import application.Questions;
+import databasePart1.DatabaseHelper;
+import databasePart1.LatencyHistogram;
+import service.ApiServer;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test driver and, with the argument {@code serve}, the server side it launches.
+ *
+ * Pollers sign in as students and keep one chat long poll open each, re-polling as soon
+ * as one returns. Clients sign in as reviewers and loop over page reads, answer lists,
+ * searches, votes and chat messages to the polling students, which wakes their polls.
+ * Only client requests are counted as throughput; the open polls are load.
+ */
+public class HttpLoadTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+    private static final int ANSWERS_PER_QUESTION = 3;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+
+        int clients = Integer.getInteger("http.clients", 64);
+        int pollers = Integer.getInteger("http.pollers", 2_000);
+        int seconds = Integer.getInteger("http.duration", 15);
+        int warmup = Integer.getInteger("http.warmup", 5);
+        int questions = Integer.getInteger("http.questions", 2_000);
+        int users = Math.max(pollers, clients * 10);
+
+        List<Integer> cores = new ArrayList<>();
+        String spec = System.getProperty("http.cores");
+        if (spec == null) {
+            for (int n = 1; n <= Runtime.getRuntime().availableProcessors(); n *= 2) cores.add(n);
+        } else {
+            for (String s : spec.split(",")) cores.add(Integer.parseInt(s.trim()));
+        }
+
+        System.out.printf("%d clients, %d open long polls, %d s measured after %d s warm-up%n%n",
+                clients, pollers, seconds, warmup);
+        System.out.printf("%5s %10s %9s %9s %9s %8s %10s %10s %8s%n",
+                "cores", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors", "max polls", "wake-ups", "speedup");
+        double base = 0;
+        for (int n : cores) {
+            Process server = launch(n, users, questions);
+            try {
+                int port = awaitPort(server);
+                Run run = new Run(port, clients, pollers, users, questions);
+                run.execute(warmup, seconds);
+                double rate = run.completed.get() / (double) seconds;
+                if (base == 0) base = rate;
+                System.out.printf("%5d %10.1f %9.3f %9.3f %9.3f %8d %10d %10d %7.2fx%n",
+                        n, rate, run.latency.getPercentileMillis(0.50), run.latency.getPercentileMillis(0.99),
+                        run.latency.getPercentileMillis(0.999), run.errors.get(), run.maxOpenPolls.get(),
+                        run.wakeUps.get(), rate / base);
+            } finally {
+                server.getOutputStream().close();   // the child exits when its stdin closes
+                if (!server.waitFor(10, TimeUnit.SECONDS)) server.destroyForcibly();
+            }
+        }
+        System.exit(0);
+    }
+
+    // ─── SERVER SIDE ───────────────────────────────────────────────────────────────
+    private static Process launch(int cores, int users, int questions) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        // every client signs in from 127.0.0.1, so lift the per-address login limit
+        return new ProcessBuilder(java, "-XX:ActiveProcessorCount=" + cores,
+                                  "-Dauth.limit.source.burst=1000000",
+                                  "-Dauth.limit.source.perMinute=1000000",
+                                  "-cp", System.getProperty("java.class.path"),
+                                  HttpLoadTest.class.getName(), "serve",
+                                  String.valueOf(users), String.valueOf(questions))
+                .redirectErrorStream(true)
+                .start();
+    }
+
+    private static int awaitPort(Process server) throws Exception {
+        BufferedReader out = new BufferedReader(new InputStreamReader(server.getInputStream()));
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.startsWith("PORT ")) {
+                Thread.ofVirtual().start(() -> out.lines().forEach(l -> { }));   // keep the pipe drained
+                return Integer.parseInt(line.substring(5).trim());
+            }
+        }
+        throw new IllegalStateException("The server exited before it was ready");
+    }
+
+    private static void serve(int users, int questions) throws Exception {
+        ExecutorService ui = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ui");
+            t.setDaemon(true);
+            return t;
+        });
+        AsyncDataAccess.setUiExecutor(ui);
+
+        String url = "jdbc:h2:mem:http;DB_CLOSE_DELAY=-1";
+        DatabaseHelper db = new DatabaseHelper();
+        db.connectToDatabase(url, "sa", "");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            SyntheticData data = new SyntheticData(42);
+            data.populateUsers(connection, users);
+            data.populate(connection, questions, ANSWERS_PER_QUESTION, 0, users);
+        }
+        Questions qs = new Questions(db.getConnectionPool());
+        Answers as = new Answers(db.getConnectionPool(), qs, db);
+        qs.createTable();
+        qs.loadAllFromDB();
+        as.loadAllFromDB();
+
+        ApiServer server = new ApiServer(db, qs, as, new InetSocketAddress("127.0.0.1", 0),
+                                         ApiServer.newRequestExecutor());
+        server.start();
+        System.out.println("PORT " + server.getPort());
+        System.out.flush();
+        while (System.in.read() >= 0) {
+            // serve until the driver closes our stdin
+        }
+        server.stop(0);
+        db.closeConnection();
+        System.exit(0);
+    }
+
+    // ─── CLIENT SIDE ───────────────────────────────────────────────────────────────
+    /** One measured run against one server. */
+    private static final class Run {
+        final HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        final String base;
+        final int clients, pollers, users, questions, reviewers;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong wakeUps = new AtomicLong();
+        final AtomicInteger openPolls = new AtomicInteger();
+        final AtomicInteger maxOpenPolls = new AtomicInteger();
+        volatile boolean measuring;
+
+        Run(int port, int clients, int pollers, int users, int questions) {
+            this.base = "http://127.0.0.1:" + port + "/api/";
+            this.clients = clients;
+            this.pollers = pollers;
+            this.users = users;
+            this.questions = questions;
+            this.reviewers = Math.max(1, users / 10);
+        }
+
+        /**
+         * Signs everyone in first, so the sign-in burst is not part of the measurement,
+         * then runs the warm-up and the measured window.
+         */
+        void execute(int warmupSeconds, int seconds) throws Exception {
+            String[] pollerTokens = new String[pollers];
+            String[] clientTokens = new String[clients];
+            try (ExecutorService logins = Executors.newVirtualThreadPerTaskExecutor()) {
+                Semaphore inFlight = new Semaphore(64);
+                for (int i = 0; i < pollers + clients; i++) {
+                    int id = i;
+                    logins.execute(() -> {
+                        inFlight.acquireUninterruptibly();
+                        try {
+                            if (id < pollers) pollerTokens[id] = login("user" + id);
+                            else clientTokens[id - pollers] = login("reviewer" + ((id - pollers) % reviewers));
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+            if (errors.get() > 0) throw new IllegalStateException(errors.get() + " sign-ins failed");
+
+            long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long deadline = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+            try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < pollers; i++) {
+                    int id = i;
+                    threads.execute(() -> poller(id, pollerTokens[id], deadline));
+                }
+                for (int i = 0; i < clients; i++) {
+                    int id = i;
+                    threads.execute(() -> client(id, clientTokens[id], deadline));
+                }
+                Thread.sleep(Math.max(0, TimeUnit.NANOSECONDS.toMillis(measureFrom - System.nanoTime())));
+                measuring = true;
+            }
+        }
+
+        // a student who keeps one long poll open on their chat with one reviewer
+        private void poller(int id, String token, long deadline) {
+            try {
+                String path = "chat/reviewer" + (id % reviewers) + "/poll?wait=5&after=";
+                // only messages sent from now on
+                long after = latestId("chat/reviewer" + (id % reviewers) + "?limit=1", token, 0);
+                while (System.nanoTime() < deadline) {
+                    maxOpenPolls.accumulateAndGet(openPolls.incrementAndGet(), Math::max);
+                    String body;
+                    try {
+                        body = send(HttpRequest.newBuilder(URI.create(base + path + after)).GET(), token).body();
+                    } finally {
+                        openPolls.decrementAndGet();
+                    }
+                    long newest = maxId(body, after);
+                    if (newest > after) {
+                        wakeUps.incrementAndGet();
+                        after = newest;
+                    }
+                }
+            } catch (Exception e) {
+                if (measuring) errors.incrementAndGet();
+            }
+        }
+
+        // a reviewer working through the forum as fast as the server answers
+        private void client(int id, String token, long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+                int op = random.nextInt(100);
+                HttpRequest.Builder request;
+                if (op < 35) {
+                    request = get("questions?limit=20&after=" + random.nextInt(questions));
+                } else if (op < 55) {
+                    request = get("questions/" + (1 + random.nextInt(questions)) + "/answers");
+                } else if (op < 70) {
+                    request = get("questions/search?q=" + SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)]);
+                } else if (op < 85) {
+                    request = post("answers/" + (1 + random.nextInt(questions * ANSWERS_PER_QUESTION)) + "/vote",
+                                   "helpful=" + random.nextBoolean());
+                } else {
+                    // to a student polling this reviewer, so the message wakes a poll
+                    int reviewer = id % reviewers;
+                    int students = Math.max(1, (pollers - reviewer + reviewers - 1) / reviewers);
+                    request = post("chat/user" + (reviewer + reviewers * random.nextInt(students)),
+                                   "text=Load+test+message");
+                }
+                long t0 = System.nanoTime();
+                try {
+                    int status = send(request, token).statusCode();
+                    if (measuring && status >= 400) errors.incrementAndGet();
+                } catch (Exception e) {
+                    if (measuring) errors.incrementAndGet();
+                }
+                if (measuring && System.nanoTime() < deadline) {
+                    latency.record(System.nanoTime() - t0);
+                    completed.incrementAndGet();
+                }
+            }
+        }
+
+        private String login(String user) throws Exception {
+            HttpResponse<String> r = client.send(HttpRequest.newBuilder(URI.create(base + "login"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString("userName=" + user + "&password=pw")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher m = TOKEN.matcher(r.body());
+            if (!m.find()) throw new IllegalStateException("Login of " + user + " failed: " + r.body());
+            return m.group(1);
+        }
+
+        private long latestId(String path, String token, long fallback) throws Exception {
+            return maxId(send(get(path), token).body(), fallback);
+        }
+
+        private HttpRequest.Builder get(String path) {
+            return HttpRequest.newBuilder(URI.create(base + path)).GET();
+        }
+
+        private HttpRequest.Builder post(String path, String form) {
+            return HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form));
+        }
+
+        private HttpResponse<String> send(HttpRequest.Builder request, String token) throws Exception {
+            return client.send(request.header("Authorization", "Bearer " + token).build(),
+                               HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    private static final String[] SEARCH_WORDS = { "java", "thread", "index", "stream", "exam", "layout" };
+
+    private static long maxId(String json, long fallback) {
+        long max = fallback;
+        Matcher m = ID.matcher(json);
+        while (m.find()) max = Math.max(max, Long.parseLong(m.group(1)));
+        return max;
+    }
+}
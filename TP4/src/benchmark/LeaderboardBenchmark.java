@@ -0,0 +1,105 @@
+/**
+ * LeaderboardBenchmark.java
+ *
+ * Measures the reviewer leaderboard: the one-off load of every rated reviewer, the
+ * cost of a vote (which re-sorts its reviewer), and a top-K read between votes.
+ *
+ * Run:  java benchmark.LeaderboardBenchmark [reviewers] [votes]
+ */
+
+package benchmark;
+
+import databasePart1.ConnectionPool;
+import databasePart1.ReputationEngine;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Random;
+
+/**
+ * Top-K latency benchmark for {@link ReputationEngine#getTopReviewers}.
+ */
+public class LeaderboardBenchmark {
+
+    private static final int TOP_K = 25;
+
+    /** A top-K read slower than this at the median is reported as a failure. */
+    private static final double MAX_MEDIAN_TOP_K_MS = 1.0;
+
+    public static void main(String[] args) throws Exception {
+        int reviewers = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int votes = args.length > 1 ? Integer.parseInt(args[1]) : 300_000;
+
+        Class.forName("org.h2.Driver");
+        String url = "jdbc:h2:mem:leaderboard;DB_CLOSE_DELAY=-1";
+        Random random = new Random(42);
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement st = connection.createStatement()) {
+                st.execute("""
+                    CREATE TABLE cse360users (
+                        userName VARCHAR(255) UNIQUE,
+                        l_d_difference INT,
+                        num_ratings INT
+                    )
+                """);
+            }
+            // every reviewer starts with the totals of a few dozen already-rated reviews
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO cse360users (userName, l_d_difference, num_ratings) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < reviewers; i++) {
+                    int ratings = 1 + random.nextInt(60);
+                    ps.setString(1, "reviewer" + i);
+                    ps.setInt(2, random.nextInt(2 * ratings + 1) - ratings);
+                    ps.setInt(3, ratings);
+                    ps.addBatch();
+                    if (i % 1_000 == 999) ps.executeBatch();
+                }
+                ps.executeBatch();
+            }
+
+            try (ConnectionPool pool = new ConnectionPool(url, "sa", "", 2)) {
+                ReputationEngine engine = new ReputationEngine(pool);
+
+                long t0 = System.nanoTime();
+                engine.getTopReviewers(TOP_K);
+                long loadNanos = System.nanoTime() - t0;
+
+                long[] voteNanos = new long[votes];
+                long[] readNanos = new long[votes / 100];
+                for (int v = 0; v < votes; v++) {
+                    String reviewer = "reviewer" + random.nextInt(reviewers);
+                    long s = System.nanoTime();
+                    engine.recordVote(reviewer, random.nextInt(3) > 0);
+                    voteNanos[v] = System.nanoTime() - s;
+                    if (v % 100 == 0) {
+                        s = System.nanoTime();
+                        engine.getTopReviewers(TOP_K);
+                        readNanos[v / 100] = System.nanoTime() - s;
+                    }
+                }
+
+                double readMedian = LinkAnswersBenchmark.median(readNanos) / 1e6;
+                System.out.printf("reviewers=%d votes=%d%n", reviewers, votes);
+                System.out.printf("initial load        %10.3f ms%n", loadNanos / 1e6);
+                System.out.printf("vote (median)       %10.3f ms%n", LinkAnswersBenchmark.median(voteNanos) / 1e6);
+                System.out.printf("top-%d (median)     %10.3f ms%n", TOP_K, readMedian);
+                System.out.printf("top-%d (max)        %10.3f ms%n", TOP_K, max(readNanos) / 1e6);
+                System.out.println("top reviewer: " + engine.getTopReviewers(1).get(0));
+
+                if (readMedian > MAX_MEDIAN_TOP_K_MS) {
+                    System.out.println("TOO SLOW");
+                    System.exit(1);
+                }
+                System.out.println("OK");
+            }
+        }
+    }
+
+    private static long max(long[] samples) {
+        long m = 0;
+        for (long s : samples) m = Math.max(m, s);
+        return m;
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * LinkAnswersBenchmark.java
+ *
+ * Measures the home page start-up path (load questions, load answers, link them)
+ * at growing dataset sizes and checks that the cost per row stays flat.
+ *
+ * Run:  java benchmark.LinkAnswersBenchmark [maxQuestions]
+ */
+
+package benchmark;
+
+import application.Answers;
+import application.Questions;
+
+import java.sql.Connection;
+import java.util.Arrays;
+
+/**
+ * Start-up scaling benchmark for {@link Answers#linkAnswersToQuestions}.
+ */
+public class LinkAnswersBenchmark {
+
+    private static final int ANSWERS_PER_QUESTION = 3;
+    private static final int REVIEWS_PER_ANSWER   = 1;
+    private static final int RUNS                 = 7;
+
+    /**
+     * Allowed growth of the per-row cost between the smallest and the largest
+     * dataset before the run is reported as non-linear.
+     */
+    private static final double MAX_PER_ROW_GROWTH = 3.0;
+
+    public static void main(String[] args) throws Exception {
+        int max = args.length > 0 ? Integer.parseInt(args[0]) : 64_000;
+
+        System.out.printf("%10s %10s %14s %14s %12s%n",
+                "questions", "answers", "link (ms)", "startup (ms)", "ns/row");
+
+        double firstPerRow = -1, lastPerRow = -1;
+        for (int questions = 1_000; questions <= max; questions *= 2) {
+            Connection connection = SyntheticData.openInMemory("link" + questions);
+            new SyntheticData(42).populate(connection, questions, ANSWERS_PER_QUESTION, REVIEWS_PER_ANSWER, 500);
+
+            long[] link = new long[RUNS];
+            long[] startup = new long[RUNS];
+            int answerRows = 0;
+            for (int run = 0; run < RUNS; run++) {
+                Questions qs = new Questions(connection);
+                Answers as = new Answers(connection, qs, null);
+
+                long t0 = System.nanoTime();
+                qs.loadAllFromDB();
+                as.loadAllFromDB();
+                long t1 = System.nanoTime();
+                as.linkAnswersToQuestions(qs.getAllQuestions());
+                long t2 = System.nanoTime();
+
+                link[run] = t2 - t1;
+                startup[run] = t2 - t0;
+                answerRows = as.getAllAnswers().size();
+            }
+            SyntheticData.drop(connection);
+
+            long linkMedian = median(link);
+            long startupMedian = median(startup);
+            double perRow = startupMedian / (double) (questions + answerRows);
+            if (firstPerRow < 0) firstPerRow = perRow;
+            lastPerRow = perRow;
+
+            System.out.printf("%10d %10d %14.3f %14.3f %12.1f%n",
+                    questions, answerRows, linkMedian / 1e6, startupMedian / 1e6, perRow);
+        }
+
+        double growth = lastPerRow / firstPerRow;
+        System.out.printf("%nper-row cost growth smallest -> largest: %.2fx (limit %.1fx)%n",
+                growth, MAX_PER_ROW_GROWTH);
+        if (growth > MAX_PER_ROW_GROWTH) {
+            System.out.println("NOT LINEAR");
+            System.exit(1);
+        }
+        System.out.println("LINEAR");
+    }
+
+    static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
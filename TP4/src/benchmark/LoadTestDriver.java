@@ -0,0 +1,279 @@
+/**
+ * LoadTestDriver.java
+ *
+ * Replays student traffic (questions, answers, votes, chat, search) against the
+ * DatabaseHelper, Questions and Answers APIs without the JavaFX UI, and reports
+ * throughput, latency percentiles and errors per operation.
+ *
+ * Run:  java [-Dload.users=50 -Dload.duration=30 -Dload.thinkMs=100
+ *             -Dload.mix=question=5,answer=15,vote=35,chat=20,readChat=15,search=10
+ *             -Dload.db=jdbc:h2:./loadtest -Dload.seedQuestions=2000]
+ *            benchmark.LoadTestDriver
+ */
+
+package benchmark;
+
+import application.Answer;
+import application.Answers;
+import application.AsyncDataAccess;
+import application.ChatMessage;
+import application.Question;
+import application.Questions;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.LatencyHistogram;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop load generator: every simulated student runs on its own virtual thread,
+ * picks an operation at random according to the configured mix, runs it, then thinks
+ * for an exponentially distributed pause before the next one.
+ *
+ * An operation counts as an error when it throws or reports failure (a chat message
+ * that was not stored). The managers' list updates go to a single "ui" thread, as
+ * they would to the JavaFX thread in the application.
+ */
+public class LoadTestDriver {
+
+    private static final String DEFAULT_MIX = "question=5,answer=15,vote=35,chat=20,readChat=15,search=10";
+    private static final Set<String> OPERATIONS = Set.of("question", "answer", "vote", "chat", "readChat", "search");
+    private static final int CHAT_PAGE = 50;
+
+    /** Latency and error counts of one operation. */
+    static final class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+        volatile Throwable firstError;
+
+        void failed(Throwable cause) {
+            if (errors.getAndIncrement() == 0) firstError = cause;
+        }
+    }
+
+    private final DatabaseHelper db;
+    private final Questions questions;
+    private final Answers answers;
+    private final int users;
+    private final long thinkMillis;
+    private final String[] mixOps;
+    private final int[] mixWeights;
+    private final int mixTotal;
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+
+    // targets picked by the simulated students; fixed once the run starts
+    private List<Question> questionTargets;
+    private List<Answer> answerTargets;
+
+    LoadTestDriver(DatabaseHelper db, int users, long thinkMillis, String mix) {
+        this.db = db;
+        this.questions = new Questions(db.getConnectionPool());
+        this.answers = new Answers(db.getConnectionPool(), questions, db);
+        this.users = users;
+        this.thinkMillis = thinkMillis;
+
+        String[] parts = mix.split(",");
+        mixOps = new String[parts.length];
+        mixWeights = new int[parts.length];
+        int total = 0;
+        for (int i = 0; i < parts.length; i++) {
+            String[] kv = parts[i].trim().split("=");
+            if (kv.length != 2 || !OPERATIONS.contains(kv[0])) {
+                throw new IllegalArgumentException("Bad operation in mix: " + parts[i] + " (known: " + OPERATIONS + ")");
+            }
+            mixOps[i] = kv[0];
+            mixWeights[i] = Integer.parseInt(kv[1]);
+            total += mixWeights[i];
+            stats.put(kv[0], new OperationStats());
+        }
+        if (total <= 0) throw new IllegalArgumentException("Operation mix has no weight: " + mix);
+        mixTotal = total;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 50);
+        int seconds = Integer.getInteger("load.duration", 30);
+        long think = Long.getLong("load.thinkMs", 100);
+        int seedQuestions = Integer.getInteger("load.seedQuestions", 2_000);
+        String mix = System.getProperty("load.mix", DEFAULT_MIX);
+        String url = System.getProperty("load.db", "jdbc:h2:mem:load;DB_CLOSE_DELAY=-1");
+
+        ExecutorService ui = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ui");
+            t.setDaemon(true);
+            return t;
+        });
+        AsyncDataAccess.setUiExecutor(ui);
+
+        DatabaseHelper db = new DatabaseHelper();
+        db.connectToDatabase(url, "sa", "");
+        seed(url, seedQuestions, users);
+
+        LoadTestDriver driver = new LoadTestDriver(db, users, think, mix);
+        driver.prepare();
+        System.out.printf("load: %d students, %d s, think %d ms, mix %s, db %s%n%n", users, seconds, think, mix, url);
+
+        long elapsed = driver.run(TimeUnit.SECONDS.toNanos(seconds));
+        driver.report(elapsed);
+        System.out.println();
+        System.out.println(db.getConnectionPool());
+        System.out.println(db.getVoteBuffer());
+
+        db.closeConnection();
+        ui.shutdown();
+        System.exit(0);
+    }
+
+    // fills an empty database with the synthetic forum; a file database keeps it between runs
+    private static void seed(String url, int seedQuestions, int users) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM questions")) {
+            rs.next();
+            if (rs.getLong(1) > 0 || seedQuestions <= 0) return;
+            SyntheticData data = new SyntheticData(42);
+            data.populateUsers(connection, users);
+            data.populate(connection, seedQuestions, 3, 1, users);
+            data.populateChats(connection, seedQuestions * 5, users);
+        }
+    }
+
+    // loads the forum the way the UI does at sign-in and fixes the targets
+    void prepare() throws Exception {
+        questions.createTable();
+        answers.createTable();
+        db.getReputationEngine().backfill();   // totals of seeded reviewers; a no-op after that
+        questions.loadAllFromDB();
+        answers.loadAllFromDB();
+        // the lists are filled on the ui thread, so read them there once it caught up
+        List<Question> loaded = onUiThread(() -> new ArrayList<>(questions.getAllQuestions()));
+        answers.linkAnswersToQuestions(loaded);
+        questionTargets = List.copyOf(loaded);
+        answerTargets = onUiThread(() -> List.copyOf(answers.getAllAnswers()));
+        if (questionTargets.isEmpty()) {
+            throw new IllegalStateException("The database has no questions to answer; seed it first");
+        }
+    }
+
+    private static <T> T onUiThread(Supplier<T> read) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AsyncDataAccess.runOnFxThread(() -> result.complete(read.get()));
+        return result.join();
+    }
+
+    /**
+     * Runs the simulated students until the deadline.
+     *
+     * @return The measured wall-clock time in nanoseconds.
+     */
+    long run(long durationNanos) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        try (ExecutorService students = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                int id = i;
+                students.execute(() -> student(id, deadline));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void student(int id, long deadline) {
+        Random random = new Random(1_000L + id);
+        SyntheticData text = new SyntheticData(id);
+        String name = "user" + id;
+        User user = new User(name, "pw", "user");
+        while (System.nanoTime() < deadline) {
+            String op = pick(random);
+            OperationStats s = stats.get(op);
+            long t0 = System.nanoTime();
+            try {
+                if (!execute(op, random, text, user)) s.failed(null);
+            } catch (Exception e) {
+                s.failed(e);
+            }
+            s.latency.record(System.nanoTime() - t0);
+            if (thinkMillis > 0) {
+                long pause = (long) (-Math.log(1 - random.nextDouble()) * thinkMillis);
+                try {
+                    Thread.sleep(Math.min(pause, thinkMillis * 10));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private String pick(Random random) {
+        int r = random.nextInt(mixTotal);
+        for (int i = 0; i < mixOps.length; i++) {
+            r -= mixWeights[i];
+            if (r < 0) return mixOps[i];
+        }
+        return mixOps[mixOps.length - 1];
+    }
+
+    // runs one operation; false when it reported a failure
+    private boolean execute(String op, Random random, SyntheticData text, User user) throws Exception {
+        String reviewer = "reviewer" + random.nextInt(Math.max(1, users / 10));
+        switch (op) {
+            case "question":
+                questions.createQuestion(text.sentence(12), user.getUserName(), text.sentence(4));
+                return true;
+            case "answer":
+                Question q = questionTargets.get(random.nextInt(questionTargets.size()));
+                answers.createAnswer(q, text.sentence(10), user, 0);
+                return true;
+            case "vote":
+                if (answerTargets.isEmpty()) return false;
+                Answer a = answerTargets.get(random.nextInt(answerTargets.size()));
+                if (random.nextInt(4) == 0) answers.markNotHelpful(a); else answers.markHelpful(a);
+                return true;
+            case "chat":
+                return db.insertMessage(user.getUserName(), reviewer, text.sentence(8)) >= 0;
+            case "readChat":
+                List<ChatMessage> page = db.getChat(user.getUserName(), reviewer, null, null, CHAT_PAGE);
+                return page != null;
+            case "search":
+                return questions.search(text.word() + " " + text.word()) != null;
+            default:
+                throw new IllegalStateException(op);
+        }
+    }
+
+    void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long total = 0, errors = 0;
+        System.out.printf("%-10s %9s %9s %9s %9s %9s %9s %7s%n",
+                "operation", "count", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        for (Map.Entry<String, OperationStats> e : stats.entrySet()) {
+            LatencyHistogram h = e.getValue().latency;
+            long err = e.getValue().errors.get();
+            total += h.getCount();
+            errors += err;
+            System.out.printf("%-10s %9d %9.1f %9.3f %9.3f %9.3f %9.3f %7d%n",
+                    e.getKey(), h.getCount(), h.getCount() / seconds, h.getPercentileMillis(0.50),
+                    h.getPercentileMillis(0.99), h.getPercentileMillis(0.999), h.getMaxMillis(), err);
+        }
+        System.out.printf("%-10s %9d %9.1f %49d%n", "total", total, total / seconds, errors);
+        for (Map.Entry<String, OperationStats> e : stats.entrySet()) {
+            Throwable first = e.getValue().firstError;
+            if (first != null) System.out.println("first " + e.getKey() + " error: " + first);
+        }
+    }
+}
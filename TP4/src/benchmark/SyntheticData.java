@@ -0,0 +1,242 @@
+/**
+ * SyntheticData.java
+ *
+ * Fills an H2 database with a reproducible forum of questions, answers and reviews
+ * so the benchmarks can run against realistic table sizes without the JavaFX UI.
+ */
+
+package benchmark;
+
+import application.Answers;
+import application.Questions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+/**
+ * Generates synthetic rows in JDBC batches. The same seed always produces the same data.
+ */
+public class SyntheticData {
+
+    private static final String[] WORDS = {
+        "java", "class", "object", "method", "thread", "database", "index", "query",
+        "stream", "lambda", "interface", "exception", "compile", "runtime", "memory",
+        "heap", "stack", "loop", "array", "list", "map", "set", "test", "junit",
+        "scene", "stage", "button", "layout", "deadline", "homework", "project", "exam"
+    };
+
+    private static final int BATCH = 1_000;
+
+    private final Random random;
+
+    /**
+     * Creates a generator with a fixed seed.
+     *
+     * @param seed The random seed.
+     */
+    public SyntheticData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Opens a fresh, private in-memory database and creates the forum tables in it.
+     *
+     * @param name A name unique to this run.
+     * @return An open connection to the new database.
+     * @throws Exception if the driver is missing or the schema cannot be created.
+     */
+    public static Connection openInMemory(String name) throws Exception {
+        Class.forName("org.h2.Driver");
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Questions questions = new Questions(connection);
+        questions.createTable();
+        new Answers(connection, questions, null).createTable();
+        return connection;
+    }
+
+    /**
+     * Drops an in-memory database opened by {@link #openInMemory(String)}.
+     *
+     * @param connection The connection to the database.
+     * @throws SQLException if the database cannot be dropped.
+     */
+    public static void drop(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    /**
+     * Inserts questions, answers and reviews. Every answer gets the given number of
+     * reviews, written by one of {@code users} synthetic reviewers.
+     *
+     * @param connection         Target database.
+     * @param questions          Number of questions.
+     * @param answersPerQuestion Answers per question.
+     * @param reviewsPerAnswer   Reviews per answer.
+     * @param users              Size of the synthetic user population.
+     * @throws SQLException if an insert fails.
+     */
+    public void populate(Connection connection, int questions, int answersPerQuestion,
+                         int reviewsPerAnswer, int users) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement();
+             PreparedStatement q = connection.prepareStatement(
+                     "INSERT INTO questions (id, text, title, author, resolved) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement a = connection.prepareStatement(
+                     "INSERT INTO answers (id, question_id, text, author, likes, dislikes, is_review, parent_answer_id) "
+                   + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+
+            long answerId = nextId(st, "answers");
+            long questionId = nextId(st, "questions");
+            int pending = 0;
+
+            for (int i = 0; i < questions; i++, questionId++) {
+                q.setLong(1, questionId);
+                q.setString(2, sentence(8) + "?");
+                q.setString(3, capitalize(word()) + " " + word());
+                q.setString(4, "user" + random.nextInt(users));
+                q.setBoolean(5, random.nextInt(4) == 0);
+                q.addBatch();
+
+                for (int j = 0; j < answersPerQuestion; j++) {
+                    long parent = answerId;
+                    addAnswer(a, answerId++, questionId, "user" + random.nextInt(users), 0, null);
+                    for (int k = 0; k < reviewsPerAnswer; k++) {
+                        addAnswer(a, answerId++, questionId, "reviewer" + random.nextInt(Math.max(1, users / 10)), 1, parent);
+                    }
+                }
+
+                if (++pending >= BATCH) {
+                    q.executeBatch();
+                    a.executeBatch();
+                    pending = 0;
+                }
+            }
+            q.executeBatch();
+            a.executeBatch();
+            connection.commit();
+
+            // keep the identity columns ahead of the explicit ids we inserted
+            st.execute("ALTER TABLE questions ALTER COLUMN id RESTART WITH " + questionId);
+            st.execute("ALTER TABLE answers ALTER COLUMN id RESTART WITH " + answerId);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Inserts the users the other generators refer to: {@code user0 … user(n-1)} as
+     * students and {@code reviewer0 … reviewer(n/10-1)} as reviewers. Their reputation
+     * totals are left empty for {@link databasePart1.ReputationEngine#backfill()} to fill.
+     *
+     * @param connection Target database, with the cse360users table.
+     * @param users      Size of the synthetic user population, as passed to populate.
+     * @throws SQLException if an insert fails.
+     */
+    public void populateUsers(Connection connection, int users) throws SQLException {
+        try (PreparedStatement u = connection.prepareStatement(
+                "INSERT INTO cse360users (userName, password, role, l_d_difference, num_ratings) VALUES (?, 'pw', ?, NULL, NULL)")) {
+            for (int i = 0; i < users; i++) {
+                u.setString(1, "user" + i);
+                u.setString(2, "user");
+                u.addBatch();
+            }
+            for (int i = 0; i < Math.max(1, users / 10); i++) {
+                u.setString(1, "reviewer" + i);
+                u.setString(2, "reviewer");
+                u.addBatch();
+            }
+            u.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts chat messages between random student / reviewer pairs.
+     *
+     * @param connection Target database, with the chat_messages table.
+     * @param messages   Number of messages.
+     * @param users      Size of the synthetic user population, as passed to populate.
+     * @throws SQLException if an insert fails.
+     */
+    public void populateChats(Connection connection, int messages, int users) throws SQLException {
+        try (Statement st = connection.createStatement();
+             PreparedStatement m = connection.prepareStatement(
+                     "INSERT INTO chat_messages (student_Id, reviewer, comment) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < messages; i++) {
+                String student = "user" + random.nextInt(users);
+                String reviewer = "reviewer" + random.nextInt(Math.max(1, users / 10));
+                boolean fromStudent = random.nextBoolean();
+                m.setString(1, fromStudent ? student : reviewer);
+                m.setString(2, fromStudent ? reviewer : student);
+                m.setString(3, sentence(6));
+                m.addBatch();
+                if (i % BATCH == BATCH - 1) m.executeBatch();
+            }
+            m.executeBatch();
+            // same key as schema migration 2 and DatabaseHelper.insertMessage
+            st.execute("""
+                UPDATE chat_messages
+                SET conversation_key = LEAST(student_Id, reviewer) || '|' || GREATEST(student_Id, reviewer)
+                WHERE conversation_key IS NULL
+            """);
+        }
+    }
+
+    private void addAnswer(PreparedStatement a, long id, long questionId, String author,
+                           int isReview, Long parent) throws SQLException {
+        a.setLong(1, id);
+        a.setLong(2, questionId);
+        a.setString(3, capitalize(sentence(10)) + ".");
+        a.setString(4, author);
+        a.setInt(5, random.nextInt(10));
+        a.setInt(6, random.nextInt(5));
+        a.setInt(7, isReview);
+        if (parent == null) a.setNull(8, java.sql.Types.BIGINT); else a.setLong(8, parent);
+        a.addBatch();
+    }
+
+    private static long nextId(Statement st, String table) throws SQLException {
+        try (var rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Returns a random vocabulary word.
+     *
+     * @return A word from the synthetic vocabulary.
+     */
+    public String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /**
+     * Returns a sentence of random vocabulary words.
+     *
+     * @param words Number of words.
+     * @return The sentence, without final punctuation.
+     */
+    public String sentence(int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(word());
+        }
+        return sb.toString();
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
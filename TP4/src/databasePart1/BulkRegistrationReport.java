@@ -0,0 +1,63 @@
+package databasePart1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What {@link DatabaseHelper#registerFromCsv} did: how many users it registered and,
+ * for every row it skipped, the line number and why.
+ */
+public final class BulkRegistrationReport {
+
+    /** One row that was not registered. */
+    public static final class Failure {
+        private final int line;
+        private final String userName;
+        private final String reason;
+
+        Failure(int line, String userName, String reason) {
+            this.line = line;
+            this.userName = userName;
+            this.reason = reason;
+        }
+
+        /** The 1-based line of the CSV input. */
+        public int getLine()         { return line; }
+        /** The user name in that row; empty if there was none. */
+        public String getUserName()  { return userName; }
+        public String getReason()    { return reason; }
+
+        @Override public String toString() {
+            return "line " + line + (userName.isEmpty() ? "" : " (" + userName + ")") + ": " + reason;
+        }
+    }
+
+    private int registered;
+    private final List<Failure> failures = new ArrayList<>();
+
+    void addRegistered(int count) {
+        registered += count;
+    }
+
+    void addFailure(int line, String userName, String reason) {
+        failures.add(new Failure(line, userName == null ? "" : userName, reason));
+    }
+
+    public int getRegisteredCount()  { return registered; }
+    public int getFailedCount()      { return failures.size(); }
+    public boolean hasFailures()     { return !failures.isEmpty(); }
+    /** The skipped rows in input order; read-only. */
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    // rows refused by the database are found a batch later than rows refused on sight
+    void sortByLine() {
+        failures.sort((a, b) -> Integer.compare(a.line, b.line));
+    }
+
+    @Override public String toString() {
+        return "registered " + registered + ", failed " + failures.size();
+    }
+}
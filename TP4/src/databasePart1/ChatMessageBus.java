@@ -0,0 +1,49 @@
+package databasePart1;
+
+import application.ChatMessage;
+
+/**
+ * Delivers chat messages to the open chat windows of their sender and receiver as
+ * soon as they are stored, so nobody has to poll chat_messages.
+ *
+ * {@link DatabaseHelper#insertMessage} publishes every stored message. The default
+ * {@link InProcessChatMessageBus} only reaches windows in the same JVM; a deployment
+ * with several application nodes installs an implementation backed by a socket or
+ * message broker through {@link DatabaseHelper#setChatMessageBus(ChatMessageBus)}.
+ */
+public interface ChatMessageBus extends AutoCloseable {
+
+    /**
+     * Receives the messages of one subscription. Callbacks for a subscription arrive on
+     * a single background thread, one at a time and in publish order.
+     */
+    interface Listener {
+        void onMessage(ChatMessage message);
+
+        /**
+         * Called when messages had to be dropped because this subscriber fell behind.
+         * The subscriber should catch up from the database.
+         */
+        default void onMessagesDropped(long count) {
+        }
+    }
+
+    /** A live subscription; closing it stops delivery and releases its queue. */
+    interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Hands a stored message to the subscribers of its sender and its receiver.
+     * May block briefly when a subscriber's queue is full (back‑pressure).
+     */
+    void publish(ChatMessage message);
+
+    /** Subscribes to every message sent or received by {@code userName}. */
+    Subscription subscribe(String userName, Listener listener);
+
+    /** Closes every subscription. */
+    @Override
+    void close();
+}
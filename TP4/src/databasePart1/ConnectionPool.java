@@ -0,0 +1,239 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small bounded JDBC connection pool.
+ *
+ * Callers borrow a {@link PooledConnection} per call with try‑with‑resources and it is
+ * handed back to the pool when closed. Borrowing is re‑entrant per thread: a nested
+ * borrow on a thread that already holds a connection returns that same connection, so
+ * helpers that call each other never need two slots (and can never dead‑lock the pool).
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    // ─── CONFIG ─────────────────────────────────────────────────────────────────────
+    public static final long DEFAULT_BORROW_TIMEOUT_MS = 30_000;
+    public static final int  DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private final String url;
+    private final String user;
+    private final String pass;
+    private final int    maxSize;
+    private final long   borrowTimeoutMillis;
+    private final int    statementCacheSize;
+
+    // ─── STATE ──────────────────────────────────────────────────────────────────────
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final ThreadLocal<PooledConnection> held = new ThreadLocal<>();
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    // ─── METRICS ────────────────────────────────────────────────────────────────────
+    private final AtomicInteger created        = new AtomicInteger();
+    private final AtomicInteger active         = new AtomicInteger();
+    private final AtomicLong    borrowCount    = new AtomicLong();
+    private final AtomicLong    totalWaitNanos = new AtomicLong();
+    private final AtomicLong    maxWaitNanos   = new AtomicLong();
+    private final AtomicLong    statementHits      = new AtomicLong();
+    private final AtomicLong    statementMisses    = new AtomicLong();
+    private final AtomicLong    statementEvictions = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String pass, int maxSize) {
+        this(url, user, pass, maxSize, DEFAULT_BORROW_TIMEOUT_MS);
+    }
+
+    public ConnectionPool(String url, String user, String pass, int maxSize, long borrowTimeoutMillis) {
+        this(url, user, pass, maxSize, borrowTimeoutMillis, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * @param statementCacheSize Prepared statements kept per connection; the least
+     *                           recently used one is closed when a new one would exceed it.
+     */
+    public ConnectionPool(String url, String user, String pass, int maxSize, long borrowTimeoutMillis,
+                          int statementCacheSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be at least 1");
+        if (statementCacheSize < 1) throw new IllegalArgumentException("statementCacheSize must be at least 1");
+        this.url = url;
+        this.user = user;
+        this.pass = pass;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Wraps a single, already‑open connection in a pool of size one. Used by code (and
+     * tests) that still hand a raw {@link Connection} to the data managers.
+     */
+    public static ConnectionPool wrap(Connection connection) {
+        ConnectionPool pool = new ConnectionPool(null, null, null, 1);
+        pool.idle.add(new PooledConnection(pool, connection));
+        pool.created.incrementAndGet();
+        return pool;
+    }
+
+    // ─── BORROW / RETURN ───────────────────────────────────────────────────────────
+    public PooledConnection borrow() throws SQLException {
+        PooledConnection current = held.get();
+        if (current != null) {
+            current.holds++;
+            return current;
+        }
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a pooled connection (" + this + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        PooledConnection pc;
+        try {
+            pc = idle.pollFirst();
+            if (pc == null) pc = open();
+        } catch (SQLException e) {
+            permits.release();
+            throw e;
+        }
+        pc.holds = 1;
+        held.set(pc);
+        active.incrementAndGet();
+        return pc;
+    }
+
+    // the connection the calling thread holds, without borrowing it; null if none
+    PooledConnection current() {
+        return held.get();
+    }
+
+    void release(PooledConnection pc) {
+        held.remove();
+        active.decrementAndGet();
+        boolean reusable = !closed;
+        try {
+            Connection c = pc.getConnection();
+            if (c.isClosed()) {
+                reusable = false;
+            } else if (!c.getAutoCommit()) {
+                // never hand out a connection with a half‑finished transaction
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        if (reusable) {
+            idle.offerFirst(pc);   // LIFO keeps the warmest connection (and its statements) busy
+        } else {
+            pc.closeQuietly();
+            created.decrementAndGet();
+        }
+        permits.release();
+    }
+
+    private PooledConnection open() throws SQLException {
+        if (url == null) throw new SQLException("Wrapped connection pool cannot open new connections");
+        Connection c = DriverManager.getConnection(url, user, pass);
+        created.incrementAndGet();
+        return new PooledConnection(this, c);
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordStatementLookup(boolean hit) {
+        (hit ? statementHits : statementMisses).incrementAndGet();
+    }
+
+    void recordStatementEviction() {
+        statementEvictions.incrementAndGet();
+    }
+
+    // ─── METRICS ACCESSORS ─────────────────────────────────────────────────────────
+    public int  getMaxSize()     { return maxSize; }
+    public int  getActiveCount() { return active.get(); }
+    public int  getIdleCount()   { return idle.size(); }
+    public int  getOpenCount()   { return created.get(); }
+    public long getBorrowCount() { return borrowCount.get(); }
+
+    public int  getStatementCacheSize()      { return statementCacheSize; }
+    public long getStatementHitCount()       { return statementHits.get(); }
+    public long getStatementMissCount()      { return statementMisses.get(); }
+    public long getStatementEvictionCount()  { return statementEvictions.get(); }
+
+    public double getStatementHitRatio() {
+        long hits = statementHits.get();
+        long total = hits + statementMisses.get();
+        return total == 0 ? 0.0 : hits / (double) total;
+    }
+
+    public double getAverageWaitMillis() {
+        long n = borrowCount.get();
+        return n == 0 ? 0.0 : totalWaitNanos.get() / (double) n / 1_000_000.0;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    @Override public String toString() {
+        return String.format("pool[active=%d, idle=%d, max=%d, borrows=%d, avgWait=%.3fms, maxWait=%.3fms, "
+                        + "stmtHits=%.1f%%, stmtEvictions=%d]",
+                getActiveCount(), getIdleCount(), maxSize, getBorrowCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(),
+                getStatementHitRatio() * 100, getStatementEvictionCount());
+    }
+
+    // ─── HOUSE‑KEEPING ─────────────────────────────────────────────────────────────
+    public boolean isClosed() { return closed; }
+
+    /**
+     * Runs {@code listener} at the start of {@link #close()}, while connections can still be
+     * borrowed, e.g. to write out buffered changes.
+     */
+    public void addCloseListener(Runnable listener) {
+        closeListeners.add(listener);
+    }
+
+    /** Closes every idle connection; connections still borrowed are closed when returned. */
+    @Override
+    public void close() {
+        if (closed) return;
+        for (Runnable listener : closeListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        closeListeners.clear();
+        closed = true;
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            pc.closeQuietly();
+            created.decrementAndGet();
+        }
+    }
+}
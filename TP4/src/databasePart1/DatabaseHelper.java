@@ -1,13 +1,29 @@
 package databasePart1;
 
 import application.AdminRequest;
+import application.Answers;
+import application.ChatMessage;
+import application.PasswordEvaluator;
+import application.Questions;
 import application.User;
+import application.UserNameRecognizer;
+import application.ValidationResult;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.security.SecureRandom;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The DatabaseHelper class is responsible for managing the connection to the database,
@@ -18,30 +34,143 @@ public class DatabaseHelper {
 
     // ─── JDBC CONFIG ────────────────────────────────────────────────────────────────
     static final String JDBC_DRIVER = "org.h2.Driver";
-    static final String DB_URL      = "jdbc:h2:./mydb";
+    // closeConnection() closes the database, after the buffered votes are written; H2's own
+    // exit hook would otherwise close it first
+    static final String DB_URL      = "jdbc:h2:./mydb;DB_CLOSE_ON_EXIT=FALSE";
     static final String USER        = "sa";
     static final String PASS        = "";
-
-    private Connection connection;
-    private Statement  statement;
+    static final int    POOL_SIZE   = 10;
+
+    // ─── BULK ONBOARDING ───────────────────────────────────────────────────────────
+    static final int    IMPORT_BATCH_SIZE      = 200;
+    static final int    INVITATION_CODE_LENGTH = 8;
+    // no 0/O, 1/I/L: codes are read off a screen and typed in
+    private static final String      CODE_ALPHABET = "ABCDEFGHJKMNPQRSTUVWXYZ23456789";
+    private static final Set<String> IMPORT_ROLES  = Set.of("user", "reviewer", "instructor", "staff", "admin");
+
+    private ConnectionPool pool;
+    private volatile ChatMessageBus chatBus = new InProcessChatMessageBus();
+    private ReputationEngine reputation;
+    private VoteBuffer voteBuffer;
+    private UserCache userCache;
+    private volatile PasswordHasher passwordHasher = PasswordHasher.fromSystemProperties();
+    private final LoginRateLimiter loginLimiter = LoginRateLimiter.fromSystemProperties();
+    private final SessionManager sessions = new SessionManager();
+    private final SecureRandom codeRandom = new SecureRandom();
+
+    // student → reviewers they trust; filled on first lookup, dropped when the student trusts someone new
+    private final Map<String, Set<String>> trustedReviewersCache = new ConcurrentHashMap<>();
+    // bumped by every drop, under the cache's monitor; a lookup that raced one is not stored
+    private long trustedReviewersGeneration;
 
     // ─── DATABASE BOOTSTRAP ────────────────────────────────────────────────────────
     public void connectToDatabase() throws SQLException {
+        connectToDatabase(DB_URL, USER, PASS);
+    }
+
+    /** Connects to another database than the application's own, e.g. an in‑memory one for benchmarks. */
+    public void connectToDatabase(String url, String user, String pass) throws SQLException {
         try {
             Class.forName(JDBC_DRIVER);
             System.out.println("Connecting to database...");
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
-            statement  = connection.createStatement();
+            pool = new ConnectionPool(url, user, pass, POOL_SIZE);
+            reputation = new ReputationEngine(pool);
+            voteBuffer = new VoteBuffer(pool, reputation);
+            userCache = new UserCache(pool);
 			// You can use this command to clear the database and restart from fresh.
 			//statement.execute("DROP ALL OBJECTS");
 
-            createTables();
+            try (PooledConnection pc = pool.borrow();
+                 Statement statement = pc.getConnection().createStatement()) {
+                createTables(statement);
+                // the migrations alter and index the question and answer tables, so those must exist first
+                statement.execute(Questions.CREATE_TABLE_SQL);
+                statement.execute(Answers.CREATE_TABLE_SQL);
+            }
+            new SchemaMigrator(pool).migrate();
+            // only now may anything read a column a migration adds
+            Questions questions = new Questions(pool);
+            questions.createTable();
+            new Answers(pool, questions, this).createTable();
         } catch (ClassNotFoundException e) {
             System.err.println("JDBC Driver not found: " + e.getMessage());
         }
     }
 
-    private void createTables() throws SQLException {
+    /** Shared pool – hand this to Questions / Answers instead of opening new connections. */
+    public ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
+    /** Write‑behind buffer for answer votes, shared by every Answers manager on this pool. */
+    public VoteBuffer getVoteBuffer() {
+        return voteBuffer;
+    }
+
+    /** Cache behind getUserRole, doesUserExist and isUserBanned; exposes hit/miss counts. */
+    public UserCache getUserCache() {
+        return userCache;
+    }
+
+    /** Hashes new passwords and checks stored ones; see {@link PasswordHasher}. */
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
+
+    /**
+     * Changes the work factor for passwords stored from now on. Existing hashes keep
+     * working and are rehashed with the new cost at their owner's next login.
+     */
+    public void setPasswordHasher(PasswordHasher hasher) {
+        passwordHasher = hasher;
+    }
+
+    /**
+     * Runs several calls on this database, and on the Questions and Answers managers that
+     * share its pool, as one transaction; see {@link UnitOfWork}.
+     */
+    public <T> T inTransaction(UnitOfWork.Work<T> work) throws SQLException {
+        return UnitOfWork.run(pool, work);
+    }
+
+    /** Per-user and per-source limit on login attempts, applied by {@link #signIn}. */
+    public LoginRateLimiter getLoginRateLimiter() {
+        return loginLimiter;
+    }
+
+    /** Sessions handed out by {@link #signIn}; validate a token here instead of re-reading the user. */
+    public SessionManager getSessionManager() {
+        return sessions;
+    }
+
+    /** Running reviewer reputation; see {@link ReputationEngine}. */
+    public ReputationEngine getReputationEngine() {
+        return reputation;
+    }
+
+    /** Best‑rated reviewers first; empty if the leaderboard cannot be read. */
+    public List<ReputationEngine.ReviewerScore> getTopReviewers(int k) {
+        try {
+            return reputation.getTopReviewers(k);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
+    }
+
+    /** Bus that every stored chat message is published to; open ChatBoxes subscribe here. */
+    public ChatMessageBus getChatMessageBus() {
+        return chatBus;
+    }
+
+    /** Replaces the chat bus, e.g. with a broker‑backed one when running several nodes. */
+    public void setChatMessageBus(ChatMessageBus bus) {
+        ChatMessageBus previous = chatBus;
+        chatBus = bus;
+        if (previous != null && previous != bus) previous.close();
+    }
+
+    private void createTables(Statement statement) throws SQLException {
     	// Core user table ---------------------------------------------------------
         String userTable = """
                 CREATE TABLE IF NOT EXISTS cse360users (
@@ -49,8 +178,8 @@ public class DatabaseHelper {
                     userName VARCHAR(255) UNIQUE,
                     password VARCHAR(255),
                     role VARCHAR(20),
-                    l_d_difference INT,
-                    num_ratings INT,
+                    l_d_difference INT DEFAULT 0,
+                    num_ratings INT DEFAULT 0,
                     reviewer_request BOOLEAN DEFAULT FALSE,
                     isBanned BOOLEAN DEFAULT FALSE
                 )
@@ -75,6 +204,7 @@ public class DatabaseHelper {
                 reviewer VARCHAR(300)
             )
         """);
+        // conversation_key and the other later columns and indexes come from SchemaMigrator
 
         // Trusted‑reviewer relationships -----------------------------------------
         statement.execute("""
@@ -104,12 +234,13 @@ public class DatabaseHelper {
     }
 
     private void createAdminUserIfNotExists() throws SQLException {
-        try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM cse360users WHERE role='admin'")) {
-            if (rs.next() && rs.getInt(1) == 0) {
-                try (PreparedStatement ps = connection.prepareStatement(
-                        "INSERT INTO cse360users (userName, password, role) VALUES (?,?,?)")) {
+        try (PooledConnection pc = pool.borrow()) {
+            try (ResultSet rs = pc.prepareStatement("SELECT COUNT(*) FROM cse360users WHERE role='admin'").executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 0) {
+                    PreparedStatement ps = pc.prepareStatement(
+                            "INSERT INTO cse360users (userName, password, role) VALUES (?,?,?)");
                     ps.setString(1, "admin");
-                    ps.setString(2, "admin123");
+                    ps.setString(2, passwordHasher.hash("admin123"));
                     ps.setString(3, "admin");
                     ps.executeUpdate();
                 }
@@ -121,120 +252,455 @@ public class DatabaseHelper {
     public void markReviewerAsTrusted(String student, String reviewer) {
         String check = "SELECT COUNT(*) FROM trusted_relations WHERE studentName=? AND reviewerName=?";
         String insert= "INSERT INTO trusted_relations (studentName, reviewerName) VALUES (?,?)";
-        try (PreparedStatement ck = connection.prepareStatement(check)) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ck = pc.prepareStatement(check);
             ck.setString(1, student);
             ck.setString(2, reviewer);
             try (ResultSet rs = ck.executeQuery()) {
                 if (rs.next() && rs.getInt(1)==0) {
-                    try (PreparedStatement ins = connection.prepareStatement(insert)) {
-                        ins.setString(1, student);
-                        ins.setString(2, reviewer);
-                        ins.executeUpdate();
-                    }
+                    PreparedStatement ins = pc.prepareStatement(insert);
+                    ins.setString(1, student);
+                    ins.setString(2, reviewer);
+                    ins.executeUpdate();
                 }
             }
-        } catch (SQLException e) { e.printStackTrace(); }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            UnitOfWork.setRollbackOnly(pool);
+            return;
+        }
+        UnitOfWork.afterCommit(pool, () -> {
+            synchronized (trustedReviewersCache) {
+                trustedReviewersGeneration++;
+                trustedReviewersCache.remove(student);
+            }
+        });
     }
     public boolean isReviewerTrusted(String student, String reviewer) {
-        String sql = "SELECT COUNT(*) FROM trusted_relations WHERE studentName=? AND reviewerName=?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        return getTrustedReviewers(student).contains(reviewer);
+    }
+
+    /**
+     * Every reviewer the student trusts, fetched in one query and cached for the session.
+     * The returned set is read‑only.
+     */
+    public Set<String> getTrustedReviewers(String student) {
+        // a unit of work reads past the cache, since it may have trusted someone not committed yet,
+        // and what it reads is not kept
+        boolean inUnit = UnitOfWork.isActive(pool);
+        Set<String> cached = inUnit ? null : trustedReviewersCache.get(student);
+        if (cached != null) return cached;
+        long seenGeneration;
+        synchronized (trustedReviewersCache) {
+            seenGeneration = trustedReviewersGeneration;
+        }
+
+        String sql = "SELECT reviewerName FROM trusted_relations WHERE studentName=?";
+        Set<String> trusted = new HashSet<>();
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql);
             ps.setString(1, student);
-            ps.setString(2, reviewer);
             try (ResultSet rs = ps.executeQuery()) {
-                return rs.next() && rs.getInt(1)>0;
+                while (rs.next()) trusted.add(rs.getString(1));
             }
-        } catch (SQLException e) { e.printStackTrace(); }
-        return false;
+        } catch (SQLException e) { e.printStackTrace(); return Collections.emptySet(); }
+
+        Set<String> result = Collections.unmodifiableSet(trusted);
+        if (!inUnit) {
+            synchronized (trustedReviewersCache) {
+                if (trustedReviewersGeneration == seenGeneration) trustedReviewersCache.put(student, result);
+            }
+        }
+        return result;
     }
 
     // ======== User‑management utils ============================================
     public boolean isDatabaseEmpty() throws SQLException {
-        try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM cse360users")) {
+        try (PooledConnection pc = pool.borrow();
+             ResultSet rs = pc.prepareStatement("SELECT COUNT(*) FROM cse360users").executeQuery()) {
             return rs.next() && rs.getInt(1)==0;
         }
     }
 
     public void register(User user) throws SQLException {
+        String hash = passwordHasher.hash(user.getPassword());   // before borrowing: hashing is slow on purpose
+        insertUser(user.getUserName(), hash, user.getRole());
+    }
+
+    /**
+     * Registers a new user with an invitation code, in one unit of work: the code is
+     * claimed and the user inserted together, so two people cannot use one code and a
+     * failed registration (e.g. a taken user name) leaves the code unused.
+     *
+     * @param user The new user.
+     * @param code The invitation code they entered.
+     * @return false if the code is unknown or already used; nothing is stored then.
+     * @throws SQLException if the user cannot be inserted; the code stays unused.
+     */
+    public boolean registerWithInvitationCode(User user, String code) throws SQLException {
+        String hash = passwordHasher.hash(user.getPassword());   // outside the transaction: it holds a connection
+        return inTransaction(pc -> {
+            if (!claimInvitationCode(code)) return false;
+            insertUser(user.getUserName(), hash, user.getRole());
+            return true;
+        });
+    }
+
+    private void insertUser(String userName, String hash, String role) throws SQLException {
         String sql="INSERT INTO cse360users (userName,password,role) VALUES (?,?,?)";
-        try (PreparedStatement ps=connection.prepareStatement(sql)) {
-            ps.setString(1, user.getUserName());
-            ps.setString(2, user.getPassword());
-            ps.setString(3, user.getRole());
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql);
+            ps.setString(1, userName);
+            ps.setString(2, hash);
+            ps.setString(3, role);
             ps.executeUpdate();
         }
+        UnitOfWork.afterCommit(pool, () -> userCache.invalidate(userName));   // drops a cached "does not exist"
+    }
+
+    /**
+     * Registers the users of a CSV file, e.g. a course roster. Each line is
+     * {@code userName,password[,role]}; the role defaults to {@code user}, a first line
+     * starting with {@code userName} is taken as a header, blank lines are skipped and
+     * fields may be double-quoted. The input is read as a stream and written in batches
+     * of {@value #IMPORT_BATCH_SIZE} rows, one transaction each, so a large roster never
+     * sits in memory at once.
+     *
+     * A row is reported instead of registered when it is malformed, its user name or
+     * password fails the same checks as the setup page, its role is unknown, or its user
+     * name repeats an earlier row or an existing account. The other rows go ahead.
+     *
+     * @param csv The CSV input; not closed.
+     * @return How many users were registered and which rows failed.
+     * @throws IOException  if the input cannot be read.
+     * @throws SQLException if the database fails; the batches before it stay registered.
+     *         Called inside a {@link UnitOfWork}, the batches join it and commit with it,
+     *         and a batch that collides with a registration not yet committed elsewhere
+     *         throws, leaving the unit rollback-only, instead of being retried row by row.
+     */
+    public BulkRegistrationReport registerFromCsv(Reader csv) throws IOException, SQLException {
+        BulkRegistrationReport report = new BulkRegistrationReport();
+        BufferedReader in = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv);
+        Set<String> seen = new HashSet<>();
+        List<ImportRow> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) continue;
+            List<String> fields = parseCsvLine(line);
+            if (fields == null) {
+                report.addFailure(lineNo, null, "Unterminated quoted field");
+                continue;
+            }
+            if (lineNo == 1 && fields.get(0).trim().equalsIgnoreCase("userName")) continue;
+
+            String userName = fields.get(0).trim();
+            String problem = checkImportRow(fields, userName, seen);
+            if (problem != null) {
+                report.addFailure(lineNo, userName, problem);
+                continue;
+            }
+            String role = fields.size() > 2 && !fields.get(2).isBlank() ? fields.get(2).trim().toLowerCase() : "user";
+            batch.add(new ImportRow(lineNo, userName, fields.get(1), role));
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                registerBatch(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) registerBatch(batch, report);
+        report.sortByLine();
+        return report;
+    }
+
+    /** One row of a CSV import that passed the checks that need no database. */
+    private static final class ImportRow {
+        final int line;
+        final String userName;
+        final String password;
+        final String role;
+        String hash;
+
+        ImportRow(int line, String userName, String password, String role) {
+            this.line = line;
+            this.userName = userName;
+            this.password = password;
+            this.role = role;
+        }
     }
 
+    private static String checkImportRow(List<String> fields, String userName, Set<String> seen) {
+        if (fields.size() < 2 || fields.size() > 3) return "Expected userName,password[,role]";
+        ValidationResult name = UserNameRecognizer.validate(userName);
+        if (!name.isValid()) return "Username Error: " + name.getMessage().trim();
+        ValidationResult password = PasswordEvaluator.evaluate(fields.get(1));
+        if (!password.isValid()) return "Password Error: " + password.getMessage().trim();
+        if (fields.size() > 2 && !fields.get(2).isBlank()
+                && !IMPORT_ROLES.contains(fields.get(2).trim().toLowerCase())) {
+            return "Unknown role " + fields.get(2).trim();
+        }
+        if (!seen.add(userName)) return "Repeats an earlier row";
+        return null;
+    }
+
+    private void registerBatch(List<ImportRow> batch, BulkRegistrationReport report) throws SQLException {
+        List<String> names = new ArrayList<>(batch.size());
+        for (ImportRow r : batch) names.add(r.userName);
+        List<ImportRow> rows = new ArrayList<>(batch.size());
+        try (PooledConnection pc = pool.borrow()) {
+            Set<String> taken = findExisting(pc, "SELECT userName FROM cse360users WHERE userName = ANY(?)", names);
+            for (ImportRow r : batch) {
+                if (taken.contains(r.userName)) report.addFailure(r.line, r.userName, "This username is taken");
+                else rows.add(r);
+            }
+        }
+        if (rows.isEmpty()) return;
+
+        // hashing is slow on purpose and CPU-bound: spread it over the cores, holding no connection
+        rows.parallelStream().forEach(r -> r.hash = passwordHasher.hash(r.password));
+
+        // a name registered since the check above inserts nothing instead of failing the batch
+        String sql = "INSERT INTO cse360users (userName,password,role) "
+                   + "SELECT CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(20)) "
+                   + "WHERE NOT EXISTS (SELECT 1 FROM cse360users WHERE userName = ?)";
+        try {
+            int[] counts = inTransaction(pc -> {
+                PreparedStatement ps = pc.prepareStatement(sql);
+                for (ImportRow r : rows) {
+                    ps.setString(1, r.userName);
+                    ps.setString(2, r.hash);
+                    ps.setString(3, r.role);
+                    ps.setString(4, r.userName);
+                    ps.addBatch();
+                }
+                int[] inserted = ps.executeBatch();
+                UnitOfWork.afterCommit(pool, () -> {
+                    for (ImportRow r : rows) userCache.invalidate(r.userName);   // drops cached "does not exist"
+                });
+                return inserted;
+            });
+            for (int i = 0; i < rows.size(); i++) {
+                ImportRow r = rows.get(i);
+                if (counts[i] > 0) report.addRegistered(1);
+                else report.addFailure(r.line, r.userName, "This username is taken");
+            }
+        } catch (BatchUpdateException e) {
+            // a registration of one of these names was still uncommitted. Inside a unit of work
+            // that unit is now rollback-only, so rows written into it would never be kept
+            if (UnitOfWork.isActive(pool)) throw e;
+            // on its own the batch rolled back whole: redo it row by row
+            for (ImportRow r : rows) {
+                try {
+                    insertUser(r.userName, r.hash, r.role);
+                    report.addRegistered(1);
+                } catch (SQLException rowFailure) {
+                    report.addFailure(r.line, r.userName, rowFailure.getMessage());
+                }
+            }
+        }
+    }
+
+    // Splits one CSV line; a double-quoted field may hold commas and "" for a quote.
+    // Returns null if a quote is left open.
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch != '"') field.append(ch);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"') { field.append('"'); i++; }
+                else quoted = false;
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        if (quoted) return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Checks the user's password and role. The hash is verified without holding a pooled
+     * connection, so slow hashing never starves other queries. A legacy plain password
+     * or a hash with an outdated work factor is replaced by a fresh hash on success.
+     */
     public boolean login(User user) throws SQLException {
-        String sql="SELECT 1 FROM cse360users WHERE userName=? AND password=? AND role=?";
-        try (PreparedStatement ps=connection.prepareStatement(sql)) {
+        String sql="SELECT password FROM cse360users WHERE userName=? AND role=?";
+        String stored;
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql);
             ps.setString(1, user.getUserName());
-            ps.setString(2, user.getPassword());
-            ps.setString(3, user.getRole());
-            try (ResultSet rs=ps.executeQuery()) { return rs.next(); }
+            ps.setString(2, user.getRole());
+            try (ResultSet rs=ps.executeQuery()) {
+                if (!rs.next()) return false;
+                stored = rs.getString(1);
+            }
+        }
+        PasswordHasher hasher = passwordHasher;
+        if (!hasher.verify(user.getPassword(), stored)) return false;
+        if (hasher.needsRehash(stored)) rehash(user.getUserName(), stored, hasher.hash(user.getPassword()));
+        return true;
+    }
+
+    /**
+     * Signs a user in the way the login page does: checks the attempt against the rate
+     * limit, the password and role, then the ban state, and starts a session that carries
+     * the role from then on.
+     *
+     * @param userName The user name entered.
+     * @param password The password entered.
+     * @param source   Where the attempt comes from, e.g. the client address.
+     * @return The session, or why there is none.
+     * @throws SQLException if the users table cannot be read.
+     */
+    public LoginResult signIn(String userName, String password, String source) throws SQLException {
+        long wait = loginLimiter.tryAcquire(userName, source);
+        if (wait > 0) return LoginResult.rateLimited(wait);
+
+        UserCache.UserInfo info = userCache.get(userName);
+        if (!info.exists()) return LoginResult.failed(LoginResult.Status.UNKNOWN_USER);
+        User user = new User(userName, password, info.getRole());
+        if (!login(user)) return LoginResult.failed(LoginResult.Status.WRONG_PASSWORD);
+        loginLimiter.succeeded(userName);
+        if (isUserBanned(user)) return LoginResult.failed(LoginResult.Status.BANNED);
+        return LoginResult.signedIn(sessions.issue(userName, info.getRole()));
+    }
+
+    // only replaces the value that was verified, so a concurrent password change wins
+    private void rehash(String userName, String verified, String hash) throws SQLException {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                "UPDATE cse360users SET password=? WHERE userName=? AND password=?");
+            ps.setString(1, hash);
+            ps.setString(2, userName);
+            ps.setString(3, verified);
+            ps.executeUpdate();
         }
     }
 
     public boolean doesUserExist(String uname) {
-        String sql="SELECT COUNT(*) FROM cse360users WHERE userName=?";
-        try (PreparedStatement ps=connection.prepareStatement(sql)) {
-            ps.setString(1, uname);
-            try(ResultSet rs=ps.executeQuery()) { return rs.next() && rs.getInt(1)>0; }
+        try {
+            return userCache.get(uname).exists();
         } catch (SQLException e) { e.printStackTrace(); }
         return false;
     }
 
     public String getUserRole(String uname) {
-        String sql="SELECT role FROM cse360users WHERE userName=?";
-        try (PreparedStatement ps=connection.prepareStatement(sql)) {
-            ps.setString(1, uname);
-            try (ResultSet rs = ps.executeQuery()) { return rs.next()? rs.getString("role") : null; }
+        try {
+            return userCache.get(uname).getRole();
         } catch (SQLException e) { e.printStackTrace(); }
         return null;
     }
 
     // Invitation codes -----------------------------------------------------------
     public String generateInvitationCode() {
-        String code = UUID.randomUUID().toString().substring(0,4);
-        try (PreparedStatement ps = connection.prepareStatement(
-                "INSERT INTO InvitationCodes (code) VALUES (?)")) {
-            ps.setString(1, code);
-            ps.executeUpdate();
+        try {
+            return generateInvitationCodes(1).get(0);
         } catch (SQLException e) { e.printStackTrace(); }
-        return code;
+        return null;
     }
-    public boolean validateInvitationCode(String code) {
-        String sql="SELECT 1 FROM InvitationCodes WHERE code=? AND isUsed=FALSE";
-        try (PreparedStatement ps=connection.prepareStatement(sql)) {
-            ps.setString(1, code);
-            try(ResultSet rs=ps.executeQuery()) {
-                if (rs.next()) { markInvitationCodeAsUsed(code); return true; }
+
+    /**
+     * Creates unused invitation codes for a whole course at once. The codes are random,
+     * distinct from each other and from every code already stored, and are inserted as
+     * one JDBC batch in one transaction: either all of them exist afterwards or none.
+     *
+     * @param count How many codes to create.
+     * @return The new codes.
+     * @throws SQLException if they cannot be stored; nothing is stored then.
+     */
+    public List<String> generateInvitationCodes(int count) throws SQLException {
+        if (count < 1) throw new IllegalArgumentException("count must be positive");
+        return inTransaction(pc -> {
+            Set<String> codes = new LinkedHashSet<>();
+            while (codes.size() < count) {
+                Set<String> fresh = new LinkedHashSet<>();
+                while (codes.size() + fresh.size() < count) {
+                    String code = randomInvitationCode();
+                    if (!codes.contains(code)) fresh.add(code);
+                }
+                fresh.removeAll(findExisting(pc, "SELECT code FROM InvitationCodes WHERE code = ANY(?)", fresh));
+                codes.addAll(fresh);
             }
+            // the primary key still refuses a code a concurrent caller inserted meanwhile
+            PreparedStatement ps = pc.prepareStatement("INSERT INTO InvitationCodes (code) VALUES (?)");
+            for (String code : codes) {
+                ps.setString(1, code);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            return new ArrayList<>(codes);
+        });
+    }
+
+    private String randomInvitationCode() {
+        char[] code = new char[INVITATION_CODE_LENGTH];
+        for (int i = 0; i < code.length; i++) code[i] = CODE_ALPHABET.charAt(codeRandom.nextInt(CODE_ALPHABET.length()));
+        return new String(code);
+    }
+
+    // which of the values the single-column query finds; one round trip for the whole set
+    private static Set<String> findExisting(PooledConnection pc, String sql, Collection<String> values)
+            throws SQLException {
+        Set<String> found = new HashSet<>();
+        PreparedStatement ps = pc.prepareStatement(sql);
+        ps.setArray(1, pc.getConnection().createArrayOf("VARCHAR", values.toArray()));
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) found.add(rs.getString(1));
+        }
+        return found;
+    }
+    /** Uses up an invitation code; returns false if it is unknown or already used. */
+    public boolean validateInvitationCode(String code) {
+        try {
+            return claimInvitationCode(code);
         } catch(SQLException e){ e.printStackTrace(); }
         return false;
     }
-    private void markInvitationCodeAsUsed(String code) {
-        try (PreparedStatement ps = connection.prepareStatement(
-                "UPDATE InvitationCodes SET isUsed=TRUE WHERE code=?")) {
+
+    // checks and marks in one statement, so two callers can never both get the code
+    private boolean claimInvitationCode(String code) throws SQLException {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                "UPDATE InvitationCodes SET isUsed=TRUE WHERE code=? AND isUsed=FALSE");
             ps.setString(1, code);
-            ps.executeUpdate();
-        } catch (SQLException e) { e.printStackTrace(); }
+            return ps.executeUpdate() > 0;
+        }
     }
 
     // Role‑change helpers --------------------------------------------------------
     public boolean changeUserRole(String userName, String newRole) {
-        try (PreparedStatement ps = connection.prepareStatement(
-                "UPDATE cse360users SET role=? WHERE userName=?")) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                "UPDATE cse360users SET role=? WHERE userName=?");
             ps.setString(1, newRole);
             ps.setString(2, userName);
-            return ps.executeUpdate()>0;
-        } catch (SQLException e) { e.printStackTrace(); }
+            if (ps.executeUpdate() == 0) return false;
+            // signed-in sessions carry the role, so they must see the change as soon as it commits
+            UnitOfWork.afterCommit(pool, () -> {
+                userCache.invalidate(userName);
+                sessions.updateRole(userName, newRole);
+            });
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            UnitOfWork.setRollbackOnly(pool);
+        }
         return false;
     }
 
     // Reviewer‑request workflow --------------------------------------------------
     public boolean requestReviewer(String uname) {
-        try (PreparedStatement ps = connection.prepareStatement(
-                "UPDATE cse360users SET reviewer_request=TRUE WHERE userName=? AND reviewer_request=FALSE")) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                "UPDATE cse360users SET reviewer_request=TRUE WHERE userName=? AND reviewer_request=FALSE");
             ps.setString(1, uname);
             return ps.executeUpdate()>0;
         } catch (SQLException e) { e.printStackTrace(); }
@@ -242,24 +708,34 @@ public class DatabaseHelper {
     }
     public List<String> getReviewerRequests() {
         List<String> list=new ArrayList<>();
-        try (PreparedStatement ps=connection.prepareStatement(
-                "SELECT userName FROM cse360users WHERE reviewer_request=TRUE");
-             ResultSet rs=ps.executeQuery()) {
+        try (PooledConnection pc = pool.borrow();
+             ResultSet rs = pc.prepareStatement(
+                "SELECT userName FROM cse360users WHERE reviewer_request=TRUE").executeQuery()) {
             while(rs.next()) list.add(rs.getString(1));
         } catch (SQLException e) { e.printStackTrace(); }
         return list;
     }
     public boolean approveReviewer(String uname) {
-        try (PreparedStatement ps=connection.prepareStatement(
-                "UPDATE cse360users SET role='reviewer', reviewer_request=FALSE WHERE userName=?")) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                "UPDATE cse360users SET role='reviewer', reviewer_request=FALSE WHERE userName=?");
             ps.setString(1, uname);
-            return ps.executeUpdate()>0;
-        } catch (SQLException e) { e.printStackTrace(); }
+            if (ps.executeUpdate() == 0) return false;
+            UnitOfWork.afterCommit(pool, () -> {
+                userCache.invalidate(uname);
+                sessions.updateRole(uname, "reviewer");
+            });
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            UnitOfWork.setRollbackOnly(pool);
+        }
         return false;
     }
     public boolean denyReviewer(String uname) {
-        try (PreparedStatement ps=connection.prepareStatement(
-                "UPDATE cse360users SET reviewer_request=FALSE WHERE userName=?")) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                "UPDATE cse360users SET reviewer_request=FALSE WHERE userName=?");
             ps.setString(1, uname);
             return ps.executeUpdate()>0;
         } catch (SQLException e) { e.printStackTrace(); }
@@ -269,7 +745,8 @@ public class DatabaseHelper {
     // ===== NEW: Instructor → Admin request helpers ==============================
     public long createAdminRequest(String description, String instructor) {
         String sql="INSERT INTO admin_requests (description, created_by) VALUES (?,?)";
-        try (PreparedStatement ps=connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, description);
             ps.setString(2, instructor);
             ps.executeUpdate();
@@ -281,8 +758,8 @@ public class DatabaseHelper {
     public List<AdminRequest> getAdminRequests(boolean includeClosed) {
         List<AdminRequest> list=new ArrayList<>();
         String sql="SELECT * FROM admin_requests" + (includeClosed?"":" WHERE status='OPEN'");
-        try (PreparedStatement ps=connection.prepareStatement(sql);
-             ResultSet rs=ps.executeQuery()) {
+        try (PooledConnection pc = pool.borrow();
+             ResultSet rs = pc.prepareStatement(sql).executeQuery()) {
             while(rs.next()) list.add(mapRowToAdminRequest(rs));
         } catch (SQLException e) { e.printStackTrace(); }
         return list;
@@ -290,7 +767,8 @@ public class DatabaseHelper {
 
     public boolean closeAdminRequest(long id, String admin, String message) {
         String sql="UPDATE admin_requests SET status='CLOSED', closed_by=?, closed_message=?, closed_at=CURRENT_TIMESTAMP WHERE id=? AND status='OPEN'";
-        try (PreparedStatement ps=connection.prepareStatement(sql)) {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(sql);
             ps.setString(1, admin);
             ps.setString(2, message);
             ps.setLong(3, id);
@@ -299,20 +777,27 @@ public class DatabaseHelper {
         return false;
     }
 
+    /**
+     * Opens a follow-up to a closed request. The check and the insert are one unit of
+     * work, and the closed request stays locked in between, so it cannot change state
+     * before its follow-up is stored.
+     */
     public boolean reopenAdminRequest(long closedId, String instructor, String newDesc) {
         // ensure target is closed
-        String check="SELECT 1 FROM admin_requests WHERE id=? AND status='CLOSED'";
-        try (PreparedStatement ps=connection.prepareStatement(check)) {
-            ps.setLong(1, closedId);
-            try(ResultSet rs=ps.executeQuery()) { if(!rs.next()) return false; }
-        } catch (SQLException e) { e.printStackTrace(); return false; }
-
+        String check="SELECT 1 FROM admin_requests WHERE id=? AND status='CLOSED' FOR UPDATE";
         String sql="INSERT INTO admin_requests (description, created_by, parent_request_id) VALUES (?,?,?)";
-        try (PreparedStatement ps=connection.prepareStatement(sql)) {
-            ps.setString(1, newDesc);
-            ps.setString(2, instructor);
-            ps.setLong(3, closedId);
-            return ps.executeUpdate()>0;
+        try {
+            return inTransaction(pc -> {
+                PreparedStatement ck = pc.prepareStatement(check);
+                ck.setLong(1, closedId);
+                try(ResultSet rs=ck.executeQuery()) { if(!rs.next()) return false; }
+
+                PreparedStatement ps = pc.prepareStatement(sql);
+                ps.setString(1, newDesc);
+                ps.setString(2, instructor);
+                ps.setLong(3, closedId);
+                return ps.executeUpdate()>0;
+            });
         } catch (SQLException e) { e.printStackTrace(); }
         return false;
     }
@@ -333,12 +818,16 @@ public class DatabaseHelper {
   //marks a user as banned in the database
   	public void userBanned(String username) throws SQLException {
   		String query = "UPDATE cse360users SET isBanned = TRUE WHERE userName = ?";
-  		try(PreparedStatement ps = connection.prepareStatement(query)){
+  		try(PooledConnection pc = pool.borrow()){
+  			PreparedStatement ps = pc.prepareStatement(query);
   			ps.setString(1, username);
   			ps.executeUpdate();
-  		} catch (SQLException e) {
-  	        e.printStackTrace();
-  	    }
+  		}
+  		// inside a unit of work the ban is only visible to others once it commits
+  		UnitOfWork.afterCommit(pool, () -> {
+  	        userCache.invalidate(username);
+  	        sessions.revokeUser(username);
+  		});
   	}
   	
   	//checks if the user is banned when they log in
@@ -348,14 +837,8 @@ public class DatabaseHelper {
     return false;
     }
     
-    String query = "SELECT isBanned FROM cse360users WHERE userName = ?";
-    try(PreparedStatement ps = connection.prepareStatement(query)){
-    ps.setString(1, user.getUserName());
-    ResultSet rs = ps.executeQuery();
-    
-    if(rs.next()) {
-    return rs.getBoolean("isBanned");
-    }
+    try {
+    return userCache.get(user.getUserName()).isBanned();
     } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -368,13 +851,14 @@ public class DatabaseHelper {
   	public List<String> getChatters(String searchedRole){
   		List<String> reviewers = new ArrayList<>();
   		String query = "SELECT userName FROM cse360users WHERE role = ?";
-  		try(PreparedStatement ps = connection.prepareStatement(query)){
+  		try(PooledConnection pc = pool.borrow()){
+  			PreparedStatement ps = pc.prepareStatement(query);
   			ps.setString(1, searchedRole);
-  			ResultSet rs = ps.executeQuery();
-  			
-  			while(rs.next()) {
-  				String chatterName = rs.getString("userName");
-  				reviewers.add(chatterName);
+  			try(ResultSet rs = ps.executeQuery()) {
+  				while(rs.next()) {
+  					String chatterName = rs.getString("userName");
+  					reviewers.add(chatterName);
+  				}
   			}
   		} catch (SQLException e) {
   	        e.printStackTrace();
@@ -383,53 +867,81 @@ public class DatabaseHelper {
   		return reviewers;
   	}
   	
-  	//inserts a message into the chat log
-  	public void insertMessage(String sender, String receiver, String message) {
-  		String query = "INSERT INTO chat_messages (student_ID, reviewer, comment) VALUES (?, ?, ?)";
-          try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+  	//inserts a message into the chat log, publishes it to open chats and returns its id (-1 if it could not be stored)
+  	public long insertMessage(String sender, String receiver, String message) {
+  		String query = "INSERT INTO chat_messages (student_ID, reviewer, comment, conversation_key) VALUES (?, ?, ?, ?)";
+  		long id = -1;
+          try (PooledConnection pc = pool.borrow()) {
+              PreparedStatement pstmt = pc.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
               pstmt.setString(1, sender);
               pstmt.setString(2, receiver);
               pstmt.setString(3, message);
+              pstmt.setString(4, conversationKey(sender, receiver));
               pstmt.executeUpdate();
+              try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                  if (keys.next()) id = keys.getLong(1);
+              }
           } catch (SQLException e) {
           	e.printStackTrace();
+          	UnitOfWork.setRollbackOnly(pool);
+          }
+          // published after the connection is back, since a full subscriber queue may make this
+          // wait, and inside a unit of work only once the message is committed
+          if (id >= 0) {
+              ChatMessage stored = new ChatMessage(id, sender, receiver, message);
+              UnitOfWork.afterCommit(pool, () -> chatBus.publish(stored));
           }
+          return id;
   	}
   	
-  	//gathers all the messages from a specific chat log
-  	public List<String> getChat(String user1, String user2, String currentUser){
-  		List<String> messages = new ArrayList<>();
+  	/**
+  	 * Gathers one page of the chat between two users, oldest message first.
+  	 * With {@code afterId} it returns the messages that follow that id; otherwise the
+  	 * newest messages before {@code beforeId} (or the newest overall when it is null).
+  	 * Either way it is one range scan of the (conversation_key, chat_Id) index.
+  	 */
+  	public List<ChatMessage> getChat(String user1, String user2, Long afterId, Long beforeId, int limit){
+  		List<ChatMessage> messages = new ArrayList<>();
+  		boolean forward = afterId != null;
   		
-  		String sql = "SELECT student_ID, comment FROM chat_messages WHERE (student_ID = ? AND reviewer = ?) OR (student_ID = ? AND reviewer = ?)";
-          try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-              pstmt.setString(1, user1);
-              pstmt.setString(2, user2);
-              pstmt.setString(3, user2);
-              pstmt.setString(4, user1);
-              ResultSet rs = pstmt.executeQuery();
-              while (rs.next()) {
-                  String sender = rs.getString("student_ID");
-                  String msg = rs.getString("comment");
-                  messages.add(sender.equals(currentUser) ? "You: " + msg : sender + ": " + msg);
+  		String sql = forward
+  		        ? "SELECT chat_Id, student_ID, reviewer, comment FROM chat_messages WHERE conversation_key = ? AND chat_Id > ? ORDER BY chat_Id ASC LIMIT ?"
+  		        : "SELECT chat_Id, student_ID, reviewer, comment FROM chat_messages WHERE conversation_key = ? AND chat_Id < ? ORDER BY chat_Id DESC LIMIT ?";
+          try (PooledConnection pc = pool.borrow()) {
+              PreparedStatement pstmt = pc.prepareStatement(sql);
+              pstmt.setString(1, conversationKey(user1, user2));
+              pstmt.setLong(2, forward ? afterId : (beforeId != null ? beforeId : Long.MAX_VALUE));
+              pstmt.setInt(3, limit);
+              try (ResultSet rs = pstmt.executeQuery()) {
+                  while (rs.next()) {
+                      messages.add(new ChatMessage(rs.getLong("chat_Id"), rs.getString("student_ID"),
+                                                   rs.getString("reviewer"), rs.getString("comment")));
+                  }
               }
           } catch (SQLException e){
           	 e.printStackTrace();
           }
+          if (!forward) Collections.reverse(messages);
           
   		return messages;
   	}
 
+  	// same value as LEAST(a, b) || '|' || GREATEST(a, b) in schema migration 2 (SchemaMigrator)
+  	static String conversationKey(String user1, String user2) {
+  		return user1.compareTo(user2) <= 0 ? user1 + "|" + user2 : user2 + "|" + user1;
+  	}
+
     // ===== House‑keeping ========================================================
     public void closeConnection() {
-        try { if(statement!=null) statement.close(); } catch (SQLException ignored) {}
-        try { if(connection!=null) connection.close(); } catch (SQLException ignored) {}
+        chatBus.close();
+        if (pool != null) pool.close();
     }
     
     public List<User> getAllUsers() {
         List<User> users = new ArrayList<>();
         String sql = "SELECT userName, role FROM cse360users";
-        try (PreparedStatement ps = connection.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
+        try (PooledConnection pc = pool.borrow();
+             ResultSet rs = pc.prepareStatement(sql).executeQuery()) {
             while (rs.next()) {
                 String username = rs.getString("userName");
                 String role = rs.getString("role");
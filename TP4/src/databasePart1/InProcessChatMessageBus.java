@@ -0,0 +1,149 @@
+package databasePart1;
+
+import application.ChatMessage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ChatMessageBus} for a single JVM.
+ *
+ * Every subscription owns a bounded queue drained by its own virtual thread, so a slow
+ * window never delays delivery to the others. When a queue is full the publisher waits
+ * up to {@code offerTimeoutMillis} for room; if there still is none the message is
+ * dropped for that subscriber only, and it is told how many it missed.
+ */
+public class InProcessChatMessageBus implements ChatMessageBus {
+
+    // ─── CONFIG ─────────────────────────────────────────────────────────────────────
+    public static final int  DEFAULT_QUEUE_CAPACITY   = 256;
+    public static final long DEFAULT_OFFER_TIMEOUT_MS = 50;
+
+    private final int  queueCapacity;
+    private final long offerTimeoutMillis;
+
+    // ─── STATE ──────────────────────────────────────────────────────────────────────
+    private final Map<String, Set<QueueSubscription>> byUser = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    // ─── METRICS ────────────────────────────────────────────────────────────────────
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped   = new AtomicLong();
+
+    public InProcessChatMessageBus() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_OFFER_TIMEOUT_MS);
+    }
+
+    public InProcessChatMessageBus(int queueCapacity, long offerTimeoutMillis) {
+        if (queueCapacity < 1) throw new IllegalArgumentException("queueCapacity must be at least 1");
+        this.queueCapacity = queueCapacity;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    @Override
+    public void publish(ChatMessage message) {
+        if (closed) return;
+        published.incrementAndGet();
+        deliver(message.getSender(), message);
+        if (!message.getReceiver().equals(message.getSender())) {
+            deliver(message.getReceiver(), message);
+        }
+    }
+
+    private void deliver(String userName, ChatMessage message) {
+        Set<QueueSubscription> subscribers = byUser.get(userName);
+        if (subscribers == null) return;
+        for (QueueSubscription s : subscribers) {
+            s.offer(message);
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String userName, Listener listener) {
+        if (closed) throw new IllegalStateException("Chat message bus is closed");
+        QueueSubscription s = new QueueSubscription(userName, listener);
+        byUser.computeIfAbsent(userName, k -> new CopyOnWriteArraySet<>()).add(s);
+        s.worker.start();
+        return s;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Set<QueueSubscription> subscribers : byUser.values()) {
+            for (QueueSubscription s : subscribers) s.close();
+        }
+        byUser.clear();
+    }
+
+    // ─── METRICS ACCESSORS ─────────────────────────────────────────────────────────
+    public long getPublishedCount() { return published.get(); }
+    public long getDroppedCount()   { return dropped.get(); }
+
+    public int getSubscriberCount() {
+        int n = 0;
+        for (Set<QueueSubscription> subscribers : byUser.values()) n += subscribers.size();
+        return n;
+    }
+
+    // ─── SUBSCRIPTION ──────────────────────────────────────────────────────────────
+    private final class QueueSubscription implements Subscription {
+        private final String userName;
+        private final Listener listener;
+        private final BlockingQueue<ChatMessage> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicLong missed = new AtomicLong();
+        private final Thread worker;
+        private volatile boolean open = true;
+
+        QueueSubscription(String userName, Listener listener) {
+            this.userName = userName;
+            this.listener = listener;
+            this.worker = Thread.ofVirtual().name("chat-" + userName).unstarted(this::drain);
+        }
+
+        void offer(ChatMessage message) {
+            if (!open) return;
+            try {
+                if (!queue.offer(message, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    missed.incrementAndGet();
+                    dropped.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void drain() {
+            while (open) {
+                try {
+                    ChatMessage message = queue.take();
+                    listener.onMessage(message);
+                    // drops only happen while the queue is full, so this runs soon after one
+                    long gap = missed.getAndSet(0);
+                    if (gap > 0) listener.onMessagesDropped(gap);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    e.printStackTrace();   // a faulty listener must not kill delivery
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!open) return;
+            open = false;
+            worker.interrupt();
+            byUser.computeIfPresent(userName, (k, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package databasePart1;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock‑free latency histogram with power‑of‑two buckets.
+ *
+ * Bucket {@code i} counts samples in [2^(i‑1), 2^i) nanoseconds, so 64 counters cover
+ * every possible duration with at most a factor‑of‑two error and recording a sample is
+ * one array increment. Percentiles are reported as the upper bound of their bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets  = new AtomicLongArray(BUCKETS);
+    private final AtomicLong      count    = new AtomicLong();
+    private final AtomicLong      totalNanos = new AtomicLong();
+    private final AtomicLong      maxNanos = new AtomicLong();
+
+    /** Records one sample. Negative durations are counted as zero. */
+    public void record(long nanos) {
+        long n = Math.max(0, nanos);
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(n));
+        count.incrementAndGet();
+        totalNanos.addAndGet(n);
+        maxNanos.accumulateAndGet(n, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanMillis() {
+        long c = count.get();
+        return c == 0 ? 0 : totalNanos.get() / 1e6 / c;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    /**
+     * Returns the latency below which the given fraction of samples fall.
+     *
+     * @param fraction A value in (0, 1], e.g. 0.99 for p99.
+     * @return The upper bound of the bucket holding that percentile, in milliseconds.
+     */
+    public double getPercentileMillis(double fraction) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundNanos(i), maxNanos.get()) / 1e6;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /** Forgets every sample. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    private static long upperBoundNanos(int bucket) {
+        return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, p999=%.3fms, max=%.3fms",
+                getCount(), getMeanMillis(), getPercentileMillis(0.50), getPercentileMillis(0.99),
+                getPercentileMillis(0.999), getMaxMillis());
+    }
+}
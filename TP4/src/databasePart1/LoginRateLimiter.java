@@ -0,0 +1,159 @@
+package databasePart1;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket limit on login attempts, one bucket per user name and one per source
+ * (the client address, or a fixed name for the desktop application).
+ *
+ * An attempt takes one token from both buckets and is refused if either is empty.
+ * Buckets refill continuously up to their burst size, so a user who mistypes once is
+ * never slowed down, while a flood against one account, or from one address against
+ * many accounts, is cut to the refill rate. A successful login refills the user's
+ * bucket. Buckets that have refilled completely are dropped now and then, so memory
+ * only grows with the users and sources that are actively failing.
+ */
+public class LoginRateLimiter {
+
+    // ─── CONFIG ─────────────────────────────────────────────────────────────────────
+    public static final int    DEFAULT_USER_BURST        = 5;
+    public static final double DEFAULT_USER_PER_MINUTE   = 6;
+    public static final int    DEFAULT_SOURCE_BURST      = 50;
+    public static final double DEFAULT_SOURCE_PER_MINUTE = 120;
+
+    private static final int SWEEP_EVERY = 1024;   // attempts between sweeps of full buckets
+
+    private final int userBurst;
+    private final double userTokensPerNano;
+    private final int sourceBurst;
+    private final double sourceTokensPerNano;
+
+    // ─── STATE ──────────────────────────────────────────────────────────────────────
+    private final ConcurrentHashMap<String, Bucket> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Bucket> sources = new ConcurrentHashMap<>();
+    private final AtomicLong attempts = new AtomicLong();
+
+    // ─── METRICS ────────────────────────────────────────────────────────────────────
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong denied  = new AtomicLong();
+
+    /** One token bucket. The lock is only held for arithmetic, never across I/O. */
+    private static final class Bucket {
+        private double tokens;
+        private long updated;
+
+        Bucket(int burst, long now) {
+            tokens = burst;
+            updated = now;
+        }
+
+        // takes a token and returns 0, or returns the nanos until one is available
+        synchronized long take(long now, int burst, double perNano) {
+            refill(now, burst, perNano);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / perNano);
+        }
+
+        synchronized void give(int burst) {
+            tokens = Math.min(burst, tokens + 1);
+        }
+
+        synchronized void fill(int burst) {
+            tokens = burst;
+        }
+
+        synchronized boolean isFull(long now, int burst, double perNano) {
+            refill(now, burst, perNano);
+            return tokens >= burst;
+        }
+
+        private void refill(long now, int burst, double perNano) {
+            if (now <= updated) return;   // a racing caller read the clock later than us
+            tokens = Math.min(burst, tokens + (now - updated) * perNano);
+            updated = now;
+        }
+    }
+
+    public LoginRateLimiter() {
+        this(DEFAULT_USER_BURST, DEFAULT_USER_PER_MINUTE, DEFAULT_SOURCE_BURST, DEFAULT_SOURCE_PER_MINUTE);
+    }
+
+    /**
+     * @param userBurst         Attempts a user name may make back to back.
+     * @param userPerMinute     Attempts per minute it regains after that.
+     * @param sourceBurst       Attempts one source may make back to back, across all users.
+     * @param sourcePerMinute   Attempts per minute a source regains after that.
+     */
+    public LoginRateLimiter(int userBurst, double userPerMinute, int sourceBurst, double sourcePerMinute) {
+        if (userBurst < 1 || sourceBurst < 1) throw new IllegalArgumentException("burst must be at least 1");
+        if (userPerMinute <= 0 || sourcePerMinute <= 0) throw new IllegalArgumentException("rate must be positive");
+        this.userBurst = userBurst;
+        this.userTokensPerNano = userPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.sourceBurst = sourceBurst;
+        this.sourceTokensPerNano = sourcePerMinute / TimeUnit.MINUTES.toNanos(1);
+    }
+
+    /**
+     * A limiter configured by {@code auth.limit.user.burst}, {@code auth.limit.user.perMinute},
+     * {@code auth.limit.source.burst} and {@code auth.limit.source.perMinute}, each falling
+     * back to its default.
+     */
+    public static LoginRateLimiter fromSystemProperties() {
+        return new LoginRateLimiter(
+                Integer.getInteger("auth.limit.user.burst", DEFAULT_USER_BURST),
+                Double.parseDouble(System.getProperty("auth.limit.user.perMinute",
+                                                      String.valueOf(DEFAULT_USER_PER_MINUTE))),
+                Integer.getInteger("auth.limit.source.burst", DEFAULT_SOURCE_BURST),
+                Double.parseDouble(System.getProperty("auth.limit.source.perMinute",
+                                                      String.valueOf(DEFAULT_SOURCE_PER_MINUTE))));
+    }
+
+    /**
+     * Takes one attempt for the user name and the source.
+     *
+     * @param userName The user name being tried.
+     * @param source   Where the attempt comes from.
+     * @return 0 if the attempt may go ahead, otherwise how many milliseconds to wait.
+     */
+    public long tryAcquire(String userName, String source) {
+        long now = System.nanoTime();
+        if (attempts.incrementAndGet() % SWEEP_EVERY == 0) sweep(now);
+
+        Bucket bySource = sources.computeIfAbsent(source, s -> new Bucket(sourceBurst, now));
+        long wait = bySource.take(now, sourceBurst, sourceTokensPerNano);
+        if (wait == 0) {
+            Bucket byUser = users.computeIfAbsent(userName, u -> new Bucket(userBurst, now));
+            wait = byUser.take(now, userBurst, userTokensPerNano);
+            if (wait > 0) bySource.give(sourceBurst);   // refused anyway; don't charge the source
+        }
+        if (wait > 0) {
+            denied.incrementAndGet();
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait));
+        }
+        allowed.incrementAndGet();
+        return 0;
+    }
+
+    /** Refills the user's bucket after a successful login. */
+    public void succeeded(String userName) {
+        Bucket byUser = users.get(userName);
+        if (byUser != null) byUser.fill(userBurst);
+    }
+
+    // A bucket dropped here is full, so a racing attempt that still holds it loses nothing
+    // it would not get back from the fresh bucket created next time.
+    private void sweep(long now) {
+        users.values().removeIf(b -> b.isFull(now, userBurst, userTokensPerNano));
+        sources.values().removeIf(b -> b.isFull(now, sourceBurst, sourceTokensPerNano));
+    }
+
+    // ─── METRICS ACCESSORS ─────────────────────────────────────────────────────────
+    public long getAllowedCount() { return allowed.get(); }
+    public long getDeniedCount()  { return denied.get(); }
+    public int  getTrackedCount() { return users.size() + sources.size(); }
+}
@@ -0,0 +1,52 @@
+package databasePart1;
+
+/**
+ * The outcome of {@link DatabaseHelper#signIn}: either a session token, or why there
+ * is none.
+ */
+public final class LoginResult {
+
+    public enum Status { SIGNED_IN, RATE_LIMITED, UNKNOWN_USER, WRONG_PASSWORD, BANNED }
+
+    private final Status status;
+    private final SessionManager.Session session;
+    private final long retryAfterMillis;
+
+    private LoginResult(Status status, SessionManager.Session session, long retryAfterMillis) {
+        this.status = status;
+        this.session = session;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    static LoginResult signedIn(SessionManager.Session session) {
+        return new LoginResult(Status.SIGNED_IN, session, 0);
+    }
+
+    static LoginResult rateLimited(long retryAfterMillis) {
+        return new LoginResult(Status.RATE_LIMITED, null, retryAfterMillis);
+    }
+
+    static LoginResult failed(Status status) {
+        return new LoginResult(status, null, 0);
+    }
+
+    public Status getStatus()                  { return status; }
+    public boolean isSignedIn()                { return status == Status.SIGNED_IN; }
+    /** The session token; null unless signed in. */
+    public String getToken()                   { return session == null ? null : session.getToken(); }
+    /** The session with the user's role; null unless signed in. */
+    public SessionManager.Session getSession() { return session; }
+    /** How long to wait before the next attempt; 0 unless rate limited. */
+    public long getRetryAfterMillis()          { return retryAfterMillis; }
+
+    /** The message the login page shows for this outcome. */
+    public String getMessage() {
+        switch (status) {
+            case SIGNED_IN:    return "";
+            case RATE_LIMITED: return "Too many attempts, try again in " + ((retryAfterMillis + 999) / 1000) + " s";
+            case UNKNOWN_USER: return "user account doesn't exists";
+            case BANNED:       return "You are banned";
+            default:           return "Error logging in";
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package databasePart1;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted, iterated password hashing with PBKDF2-HMAC-SHA256.
+ *
+ * A stored hash records its own cost: {@code pbkdf2-sha256$<iterations>$<salt>$<hash>},
+ * salt and hash in unpadded Base64. That lets {@link #verify} check hashes written with
+ * an older work factor and {@link #needsRehash} tell the caller to store a new one.
+ * Rows written before hashing existed hold the plain password; they are recognised by
+ * the missing prefix, verified once and then rehashed.
+ *
+ * The work factor is the iteration count. {@code benchmark.PasswordHashBenchmarks}
+ * measures which count fits a login latency budget on the target machine; pass it as
+ * {@code -Dauth.pbkdf2.iterations=...} or to the constructor.
+ */
+public final class PasswordHasher {
+
+    // ─── CONFIG ─────────────────────────────────────────────────────────────────────
+    public static final String ITERATIONS_PROPERTY = "auth.pbkdf2.iterations";
+    /** Calibrated for a 40 ms budget: about 35 ms per hash on one core of the development machine. */
+    public static final int    DEFAULT_ITERATIONS  = 90_000;
+    public static final int    MIN_ITERATIONS      = 1_000;
+
+    private static final String ALGORITHM  = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX     = "pbkdf2-sha256$";
+    private static final int    SALT_BYTES = 16;
+    private static final int    HASH_BITS  = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher(int iterations) {
+        if (iterations < MIN_ITERATIONS) {
+            throw new IllegalArgumentException("iterations must be at least " + MIN_ITERATIONS);
+        }
+        this.iterations = iterations;
+    }
+
+    /** A hasher with the iteration count from {@value #ITERATIONS_PROPERTY}, or the default. */
+    public static PasswordHasher fromSystemProperties() {
+        return new PasswordHasher(Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS));
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Hashes a password with a fresh random salt and this hasher's iteration count.
+     *
+     * @param password The plain password.
+     * @return The encoded hash to store.
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + b64.encodeToString(salt) + "$"
+                + b64.encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * Checks a password against a stored value, whatever cost it was hashed with. A
+     * stored value without the hash prefix is a legacy plain password.
+     *
+     * @param password The password entered.
+     * @param stored   The stored hash or legacy plain password; may be null.
+     * @return true if the password matches.
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) return false;
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                                         stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) return false;
+        try {
+            int cost = Integer.parseInt(parts[0]);
+            Base64.Decoder b64 = Base64.getDecoder();
+            byte[] expected = b64.decode(parts[2]);
+            return cost >= 1 && MessageDigest.isEqual(expected, derive(password, b64.decode(parts[1]), cost));
+        } catch (IllegalArgumentException malformed) {   // also NumberFormatException
+            return false;
+        }
+    }
+
+    /**
+     * Returns true when a stored value should be replaced after a successful login:
+     * it is a legacy plain password or was hashed with a different iteration count.
+     *
+     * @param stored The stored value.
+     * @return true if it should be rehashed.
+     */
+    public boolean needsRehash(String stored) {
+        return stored == null || !stored.startsWith(PREFIX + iterations + "$");
+    }
+
+    /** Returns true if the stored value is a hash rather than a legacy plain password. */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
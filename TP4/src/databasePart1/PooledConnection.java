@@ -0,0 +1,88 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A connection borrowed from a {@link ConnectionPool}. Closing it returns it to the pool.
+ *
+ * Prepared statements obtained through {@link #prepareStatement(String)} are cached on
+ * the connection and must NOT be closed by the caller – only their ResultSets. The cache
+ * is keyed by SQL text and holds at most {@link ConnectionPool#getStatementCacheSize()}
+ * statements; beyond that the least recently used one is closed. A pooled connection is
+ * only ever used by the one thread that borrowed it, so the cache needs no locking.
+ */
+public final class PooledConnection implements AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    int holds;   // re‑entrant borrow depth, managed by the pool
+    UnitOfWork unitOfWork;   // the transaction this connection is in, if any
+
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+        int capacity = pool.getStatementCacheSize();
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= capacity) return false;
+                try { eldest.getValue().close(); } catch (SQLException ignored) {}
+                pool.recordStatementEviction();
+                return true;
+            }
+        };
+    }
+
+    /** The underlying JDBC connection, for DDL and transaction control. */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return cached(sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        return cached(sql, autoGeneratedKeys);
+    }
+
+    private PreparedStatement cached(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        PreparedStatement ps = statements.get(key);
+        if (ps == null || ps.isClosed()) {
+            ps = connection.prepareStatement(sql, autoGeneratedKeys);
+            statements.put(key, ps);
+            pool.recordStatementLookup(false);
+        } else {
+            ps.clearParameters();
+            ps.clearBatch();   // a batch left behind by a failed executeBatch
+            pool.recordStatementLookup(true);
+        }
+        return ps;
+    }
+
+    /** Number of statements currently cached on this connection. */
+    public int getCachedStatementCount() {
+        return statements.size();
+    }
+
+    @Override
+    public void close() {
+        if (--holds == 0) pool.release(this);
+    }
+
+    void closeQuietly() {
+        for (PreparedStatement ps : statements.values()) {
+            try { ps.close(); } catch (SQLException ignored) {}
+        }
+        statements.clear();
+        try { connection.close(); } catch (SQLException ignored) {}
+    }
+}
@@ -0,0 +1,317 @@
+package databasePart1;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps every reviewer's reputation as two running totals in cse360users:
+ * {@code l_d_difference} (likes minus dislikes over all their reviews) and
+ * {@code num_ratings} (likes plus dislikes). A vote on a review adjusts both by one,
+ * so a rating never has to be recomputed from the reviews themselves.
+ *
+ * Totals are cached per reviewer after the first lookup and changed in memory at once;
+ * the changes are written by the {@link VoteBuffer} in the same transaction as the
+ * votes that caused them.
+ *
+ * Every cached reviewer with at least one rating also sits in a sorted leaderboard that
+ * is re‑positioned on each vote, so the top K are read off its head without looking at
+ * any review. The first leaderboard read loads every rated user in one query.
+ */
+public class ReputationEngine {
+
+    private static final String UPDATE_SQL = """
+        UPDATE cse360users
+        SET l_d_difference = COALESCE(l_d_difference, 0) + ?,
+            num_ratings    = COALESCE(num_ratings, 0) + ?
+        WHERE userName = ?
+    """;
+
+    private final ConnectionPool pool;
+
+    // persisted totals plus every change not written yet
+    private final ConcurrentHashMap<String, Totals> totals  = new ConcurrentHashMap<>();
+    // changes not written yet
+    private final ConcurrentHashMap<String, Totals> pending = new ConcurrentHashMap<>();
+    // cached reviewers with a rating, best first
+    private final ConcurrentSkipListSet<ReviewerScore> leaderboard = new ConcurrentSkipListSet<>(ReviewerScore.BEST_FIRST);
+    private volatile boolean leaderboardLoaded;
+    // not a monitor, so a virtual thread waiting for a connection here does not pin its carrier
+    private final ReentrantLock leaderboardLoad = new ReentrantLock();
+
+    /** A reviewer's running totals, or a change to them. Guarded by its own monitor. */
+    static final class Totals {
+        long difference;
+        long ratings;
+        ReviewerScore ranked;   // this reviewer's current leaderboard entry, if any
+
+        synchronized void add(long difference, long ratings) {
+            this.difference += difference;
+            this.ratings += ratings;
+        }
+    }
+
+    /** One leaderboard row. Immutable; a vote replaces the reviewer's row. */
+    public static final class ReviewerScore {
+        static final Comparator<ReviewerScore> BEST_FIRST = Comparator
+                .comparingDouble(ReviewerScore::getRating).reversed()
+                .thenComparing(Comparator.comparingLong(ReviewerScore::getRatings).reversed())
+                .thenComparing(ReviewerScore::getUserName);
+
+        private final String userName;
+        private final double rating;
+        private final long ratings;
+
+        ReviewerScore(String userName, double rating, long ratings) {
+            this.userName = userName;
+            this.rating = rating;
+            this.ratings = ratings;
+        }
+
+        public String getUserName() { return userName; }
+        public double getRating()   { return rating; }
+        public long getRatings()    { return ratings; }
+
+        @Override public String toString() {
+            return String.format("%s  %.2f/5.00 (%d votes)", userName, rating, ratings);
+        }
+    }
+
+    public ReputationEngine(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Fills the totals of users that have none yet (NULL, e.g. rows loaded in bulk behind
+     * the engine's back) from the votes already on their reviews. Schema migration 7 did
+     * this once for every existing user, and new users start at zero, so the application
+     * never needs it at run time.
+     *
+     * Nothing cached is dropped: a user cached while their row was NULL counted from zero,
+     * so what is filled in is added to their cached totals once it commits, and votes
+     * counted meanwhile are kept. Inside a {@link UnitOfWork} it joins that unit.
+     */
+    public void backfill() throws SQLException {
+        UnitOfWork.run(pool, pc -> {
+            List<String> users = new ArrayList<>();
+            // locks the rows, so a concurrent flush adds its change on top of the filled value
+            try (ResultSet rs = pc.prepareStatement(
+                    "SELECT userName FROM cse360users WHERE num_ratings IS NULL FOR UPDATE").executeQuery()) {
+                while (rs.next()) users.add(rs.getString(1));
+            }
+            if (users.isEmpty()) return null;
+
+            Map<String, Totals> filled = new HashMap<>();
+            for (String user : users) filled.put(user, new Totals());
+            PreparedStatement sums = pc.prepareStatement("""
+                SELECT author, SUM(likes - dislikes), SUM(likes + dislikes) FROM answers
+                WHERE is_review = 1 AND author = ANY(?) GROUP BY author
+            """);
+            sums.setArray(1, pc.getConnection().createArrayOf("VARCHAR", users.toArray()));
+            try (ResultSet rs = sums.executeQuery()) {
+                while (rs.next()) filled.get(rs.getString(1)).add(rs.getLong(2), rs.getLong(3));
+            }
+
+            PreparedStatement ps = pc.prepareStatement(
+                    "UPDATE cse360users SET l_d_difference = ?, num_ratings = ? WHERE userName = ? AND num_ratings IS NULL");
+            for (Map.Entry<String, Totals> e : filled.entrySet()) {
+                ps.setLong(1, e.getValue().difference);
+                ps.setLong(2, e.getValue().ratings);
+                ps.setString(3, e.getKey());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            UnitOfWork.afterCommit(pool, () -> adopt(filled));
+            return null;
+        });
+    }
+
+    // adds committed backfill values to what is cached; uncached users are read when needed
+    private void adopt(Map<String, Totals> filled) {
+        for (Map.Entry<String, Totals> e : filled.entrySet()) {
+            Totals f = e.getValue();
+            if (f.ratings == 0 && f.difference == 0) continue;
+            Totals t = totals.get(e.getKey());
+            if (t != null) {
+                synchronized (t) {
+                    t.add(f.difference, f.ratings);
+                    rerank(e.getKey(), t);
+                }
+            } else if (leaderboardLoaded) {
+                cache(e.getKey(), f);   // the leaderboard holds every rated user
+            }
+        }
+    }
+
+    // ─── UPDATES ───────────────────────────────────────────────────────────────────
+    /** Counts one helpful ({@code true}) or not‑helpful vote on a review by {@code reviewer}. */
+    public void recordVote(String reviewer, boolean helpful) throws SQLException {
+        apply(reviewer, helpful ? 1 : -1, 1);
+    }
+
+    /** Takes the votes of a deleted review back out of its author's totals. */
+    public void removeReview(String reviewer, int likes, int dislikes) throws SQLException {
+        if (likes + dislikes == 0) return;
+        apply(reviewer, -(likes - dislikes), -(likes + dislikes));
+    }
+
+    private void apply(String reviewer, long difference, long ratings) throws SQLException {
+        Totals t = totalsFor(reviewer);
+        synchronized (t) {
+            t.add(difference, ratings);
+            rerank(reviewer, t);
+        }
+        addPending(reviewer, difference, ratings);
+    }
+
+    // caller holds t's monitor
+    private void rerank(String reviewer, Totals t) {
+        if (t.ranked != null) leaderboard.remove(t.ranked);
+        Double rating = rating(t.difference, t.ratings);
+        t.ranked = rating == null ? null : new ReviewerScore(reviewer, rating, t.ratings);
+        if (t.ranked != null) leaderboard.add(t.ranked);
+    }
+
+    // inside compute so a concurrent drain sees the change either in full or not at all
+    private void addPending(String reviewer, long difference, long ratings) {
+        pending.compute(reviewer, (k, t) -> {
+            if (t == null) t = new Totals();
+            t.add(difference, ratings);
+            return t;
+        });
+    }
+
+    // ─── READS ─────────────────────────────────────────────────────────────────────
+    /**
+     * Reviewer rating on the 1–5 scale, or {@code null} when nobody has voted on their
+     * reviews. A map lookup once the reviewer is cached, one indexed row read before that.
+     */
+    public Double getRating(String reviewer) throws SQLException {
+        Totals t = totalsFor(reviewer);
+        synchronized (t) {
+            return rating(t.difference, t.ratings);
+        }
+    }
+
+    /**
+     * The {@code k} best‑rated reviewers, best first; ties go to the reviewer with more
+     * votes. Costs O(k) once the leaderboard is loaded.
+     */
+    public List<ReviewerScore> getTopReviewers(int k) throws SQLException {
+        if (!leaderboardLoaded) loadLeaderboard();
+        List<ReviewerScore> top = new ArrayList<>(Math.min(k, 64));
+        for (ReviewerScore s : leaderboard) {
+            if (top.size() >= k) break;
+            top.add(s);
+        }
+        return top;
+    }
+
+    private void loadLeaderboard() throws SQLException {
+        leaderboardLoad.lock();
+        try {
+            if (!leaderboardLoaded) readLeaderboard();
+        } finally {
+            leaderboardLoad.unlock();
+        }
+    }
+
+    private void readLeaderboard() throws SQLException {
+        try (PooledConnection pc = pool.borrow();
+             Statement st = pc.getConnection().createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT userName, l_d_difference, num_ratings FROM cse360users WHERE num_ratings > 0")) {
+            while (rs.next()) {
+                Totals t = new Totals();
+                t.difference = rs.getLong("l_d_difference");
+                t.ratings = rs.getLong("num_ratings");
+                cache(rs.getString("userName"), t);   // keeps the cached totals if there already are some
+            }
+        }
+        leaderboardLoaded = true;
+    }
+
+    /** Maps running totals to the 1–5 scale used for single reviews. */
+    public static Double rating(long difference, long ratings) {
+        if (ratings <= 0) return null;
+        double raw = ((double) difference / ratings) * 4 + 3;
+        return Math.max(1.0, Math.min(5.0, raw));
+    }
+
+    private Totals totalsFor(String reviewer) throws SQLException {
+        Totals t = totals.get(reviewer);
+        if (t != null) return t;
+        return cache(reviewer, load(reviewer));
+    }
+
+    private Totals cache(String reviewer, Totals loaded) {
+        Totals raced = totals.putIfAbsent(reviewer, loaded);
+        if (raced != null) return raced;
+        synchronized (loaded) {
+            rerank(reviewer, loaded);
+        }
+        return loaded;
+    }
+
+    private Totals load(String reviewer) throws SQLException {
+        Totals t = new Totals();
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                    "SELECT l_d_difference, num_ratings FROM cse360users WHERE userName = ?");
+            ps.setString(1, reviewer);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    t.difference = rs.getLong("l_d_difference");
+                    t.ratings = rs.getLong("num_ratings");
+                }
+            }
+        }
+        return t;
+    }
+
+    // ─── WRITE‑BEHIND (driven by VoteBuffer) ─────────────────────────────────────────
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /** Takes every unwritten change out of the buffer. */
+    Map<String, Totals> drainPending() {
+        Map<String, Totals> drained = new HashMap<>();
+        for (String user : pending.keySet()) {
+            pending.computeIfPresent(user, (k, t) -> {
+                drained.put(k, t);
+                return null;
+            });
+        }
+        return drained;
+    }
+
+    /** Adds the drained changes to the caller's open transaction. */
+    void write(PooledConnection pc, Map<String, Totals> drained) throws SQLException {
+        if (drained.isEmpty()) return;
+        PreparedStatement ps = pc.prepareStatement(UPDATE_SQL);
+        for (Map.Entry<String, Totals> e : drained.entrySet()) {
+            synchronized (e.getValue()) {
+                ps.setLong(1, e.getValue().difference);
+                ps.setLong(2, e.getValue().ratings);
+            }
+            ps.setString(3, e.getKey());
+            ps.addBatch();
+        }
+        ps.executeBatch();
+    }
+
+    /** Puts changes from a failed write back so the next flush retries them. */
+    void requeue(Map<String, Totals> drained) {
+        drained.forEach((user, t) -> addPending(user, t.difference, t.ratings));
+    }
+}
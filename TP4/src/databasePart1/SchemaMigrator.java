@@ -0,0 +1,170 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Brings the database schema up to the latest version at start‑up.
+ *
+ * Each {@link Migration} has a version number and is applied once, in version order;
+ * the versions applied so far are recorded in the schema_version table. To change the
+ * schema, append a migration with the next version to {@link #MIGRATIONS} – never edit
+ * one that has shipped.
+ *
+ * H2 commits DDL implicitly, so a migration that fails halfway is not rolled back. Every
+ * statement must therefore be idempotent (IF NOT EXISTS, WHERE … IS NULL, …) so the
+ * migration can simply run again on the next start.
+ */
+public class SchemaMigrator {
+
+    /** One numbered schema change. */
+    public static final class Migration {
+        private final int version;
+        private final String description;
+        private final List<String> statements;
+
+        public Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = List.of(statements);
+        }
+
+        public int getVersion()            { return version; }
+        public String getDescription()     { return description; }
+        public List<String> getStatements() { return statements; }
+    }
+
+    /** Every migration, oldest first. Expects the tables of DatabaseHelper, Questions and Answers. */
+    public static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Add answer columns missing from early databases",
+            "ALTER TABLE answers ADD COLUMN IF NOT EXISTS dislikes INT DEFAULT 0",
+            "ALTER TABLE answers ADD COLUMN IF NOT EXISTS is_review INT",
+            "ALTER TABLE answers ADD COLUMN IF NOT EXISTS parent_answer_id BIGINT"),
+
+        // both directions of a chat share one key, so a conversation is a single index range
+        new Migration(2, "Key chat messages by conversation",
+            "ALTER TABLE chat_messages ADD COLUMN IF NOT EXISTS conversation_key VARCHAR(601)",
+            """
+            UPDATE chat_messages
+            SET conversation_key = LEAST(student_Id, reviewer) || '|' || GREATEST(student_Id, reviewer)
+            WHERE conversation_key IS NULL
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_chat_conversation ON chat_messages (conversation_key, chat_Id)"),
+
+        new Migration(3, "Index answers by question, author and parent answer",
+            "CREATE INDEX IF NOT EXISTS idx_answers_question ON answers (question_id)",
+            "CREATE INDEX IF NOT EXISTS idx_answers_author ON answers (author)",
+            "CREATE INDEX IF NOT EXISTS idx_answers_parent ON answers (parent_answer_id)"),
+
+        new Migration(4, "Index questions by author and resolved state",
+            "CREATE INDEX IF NOT EXISTS idx_questions_author ON questions (author)",
+            "CREATE INDEX IF NOT EXISTS idx_questions_resolved ON questions (resolved)"),
+
+        new Migration(5, "Index chat messages by sender and receiver",
+            "CREATE INDEX IF NOT EXISTS idx_chat_sender_receiver ON chat_messages (student_Id, reviewer)"),
+
+        new Migration(6, "Index admin requests by status",
+            "CREATE INDEX IF NOT EXISTS idx_admin_requests_status ON admin_requests (status)"),
+
+        // the running totals of ReputationEngine, filled once from the votes already cast
+        new Migration(7, "Fill reviewer totals and start new users at zero",
+            """
+            UPDATE cse360users u SET
+              l_d_difference = (SELECT COALESCE(SUM(a.likes - a.dislikes), 0) FROM answers a
+                                WHERE a.author = u.userName AND a.is_review = 1),
+              num_ratings    = (SELECT COALESCE(SUM(a.likes + a.dislikes), 0) FROM answers a
+                                WHERE a.author = u.userName AND a.is_review = 1)
+            WHERE u.num_ratings IS NULL
+            """,
+            "ALTER TABLE cse360users ALTER COLUMN l_d_difference SET DEFAULT 0",
+            "ALTER TABLE cse360users ALTER COLUMN num_ratings SET DEFAULT 0")
+    );
+
+    private final ConnectionPool pool;
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(ConnectionPool pool) {
+        this(pool, MIGRATIONS);
+    }
+
+    public SchemaMigrator(ConnectionPool pool, List<Migration> migrations) {
+        this.pool = pool;
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort((a, b) -> Integer.compare(a.getVersion(), b.getVersion()));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getVersion() == sorted.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Duplicate migration version " + sorted.get(i).getVersion());
+            }
+        }
+        this.migrations = sorted;
+    }
+
+    /**
+     * Applies every migration newer than the recorded schema version.
+     *
+     * @return the migrations that were applied, possibly none
+     * @throws SQLException if a migration fails; later ones are not attempted
+     */
+    public List<Migration> migrate() throws SQLException {
+        List<Migration> applied = new ArrayList<>();
+        try (PooledConnection pc = pool.borrow()) {
+            Connection c = pc.getConnection();
+            try (Statement st = c.createStatement()) {
+                st.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INT PRIMARY KEY,
+                        description VARCHAR(255),
+                        applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                """);
+            }
+            int current = getCurrentVersion();
+            for (Migration m : migrations) {
+                if (m.getVersion() <= current) continue;
+                apply(pc, m);
+                applied.add(m);
+                System.out.println("Applied schema migration " + m.getVersion() + ": " + m.getDescription());
+            }
+        }
+        return applied;
+    }
+
+    /** Highest migration version recorded, or 0 for a database that has never been migrated. */
+    public int getCurrentVersion() throws SQLException {
+        try (PooledConnection pc = pool.borrow();
+             Statement st = pc.getConnection().createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private void apply(PooledConnection pc, Migration m) throws SQLException {
+        Connection c = pc.getConnection();
+        c.setAutoCommit(false);
+        try {
+            try (Statement st = c.createStatement()) {
+                for (String sql : m.getStatements()) {
+                    st.execute(sql);
+                }
+            }
+            PreparedStatement ps = pc.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)");
+            ps.setInt(1, m.getVersion());
+            ps.setString(2, m.getDescription());
+            ps.executeUpdate();
+            c.commit();
+        } catch (SQLException e) {
+            c.rollback();
+            throw new SQLException("Schema migration " + m.getVersion() + " (" + m.getDescription()
+                    + ") failed: " + e.getMessage(), e);
+        } finally {
+            c.setAutoCommit(true);
+        }
+    }
+}
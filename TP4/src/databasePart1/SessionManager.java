@@ -0,0 +1,205 @@
+package databasePart1;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Signed session tokens for signed-in users, checked entirely in memory.
+ *
+ * A token is {@code <session id>.<expiry millis>.<HMAC-SHA256 of both>}. The signature
+ * lets a forged or altered token be rejected without a lookup; the session it names
+ * holds the user's role and ban state, so requests that carry a token never read
+ * {@code cse360users}. Banning a user ends their sessions through {@link #revokeUser(String)},
+ * and a role change reaches them through {@link #updateRole(String, String)}; tokens also
+ * end on {@link #revoke(String)} or expiry.
+ *
+ * The signing key is random per process unless one is passed in, so tokens do not
+ * survive a restart.
+ */
+public class SessionManager {
+
+    // ─── CONFIG ─────────────────────────────────────────────────────────────────────
+    public static final long DEFAULT_TTL_MS = TimeUnit.HOURS.toMillis(8);
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int    ID_BYTES      = 18;
+    private static final int    SWEEP_EVERY   = 1024;   // sessions issued between sweeps of expired ones
+
+    /** What is known about a signed-in user for the life of one token. */
+    public static final class Session {
+        private final String id;
+        private final String token;
+        private final String userName;
+        private volatile String role;
+        private final long expiresAt;
+        private volatile boolean banned;
+
+        Session(String id, String token, String userName, String role, long expiresAt) {
+            this.id = id;
+            this.token = token;
+            this.userName = userName;
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getToken()       { return token; }
+        public String getUserName()    { return userName; }
+        public String getRole()        { return role; }
+        public boolean isBanned()      { return banned; }
+        public long getExpiresAtMillis() { return expiresAt; }
+    }
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    // ─── STATE ──────────────────────────────────────────────────────────────────────
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    // ─── METRICS ────────────────────────────────────────────────────────────────────
+    private final AtomicLong issued   = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public SessionManager() {
+        this(null, DEFAULT_TTL_MS);
+    }
+
+    /**
+     * @param signingKey The HMAC key, e.g. shared by several servers; null for a random one.
+     * @param ttlMillis  How long a token stays valid.
+     */
+    public SessionManager(byte[] signingKey, long ttlMillis) {
+        if (ttlMillis <= 0) throw new IllegalArgumentException("ttlMillis must be positive");
+        byte[] k = signingKey;
+        if (k == null) {
+            k = new byte[32];
+            random.nextBytes(k);
+        }
+        this.key = new SecretKeySpec(k, MAC_ALGORITHM);
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Starts a session.
+     *
+     * @param userName The user who signed in.
+     * @param role     Their role.
+     * @return The session; its token is what the client sends back.
+     */
+    public Session issue(String userName, String role) {
+        if (issued.incrementAndGet() % SWEEP_EVERY == 0) sweep();
+        byte[] bytes = new byte[ID_BYTES];
+        random.nextBytes(bytes);
+        String id = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        String payload = id + "." + expiresAt;
+        Session s = new Session(id, payload + "." + sign(payload), userName, role, expiresAt);
+        sessions.put(id, s);
+        return s;
+    }
+
+    /**
+     * Checks a token: signature, expiry and that its session has not ended.
+     *
+     * @param token The token, may be null.
+     * @return The session, or null if the token is not valid (or its user is banned).
+     */
+    public Session validate(String token) {
+        Session s = find(token);
+        if (s == null || s.banned) {
+            if (token != null) rejected.incrementAndGet();
+            return null;
+        }
+        return s;
+    }
+
+    /** Ends the session of one token; unknown tokens are ignored. */
+    public void revoke(String token) {
+        Session s = find(token);
+        if (s != null) sessions.remove(s.id);
+    }
+
+    /**
+     * Ends every session of a user, e.g. when they are banned. Their next request with
+     * an old token is refused without a database read.
+     *
+     * @param userName The user.
+     * @return How many sessions were ended.
+     */
+    public int revokeUser(String userName) {
+        int[] ended = new int[1];
+        sessions.values().removeIf(s -> {
+            if (!s.userName.equals(userName)) return false;
+            s.banned = true;   // for anyone still holding the Session object
+            ended[0]++;
+            return true;
+        });
+        return ended[0];
+    }
+
+    /**
+     * Gives every session of a user their new role, e.g. when an admin demotes them, so
+     * their next request is checked against it.
+     *
+     * @param userName The user.
+     * @param role     Their role from now on.
+     */
+    public void updateRole(String userName, String role) {
+        for (Session s : sessions.values()) {
+            if (s.userName.equals(userName)) s.role = role;
+        }
+    }
+
+    private Session find(String token) {
+        if (token == null) return null;
+        int last = token.lastIndexOf('.');
+        int first = token.indexOf('.');
+        if (first <= 0 || last <= first) return null;
+        String payload = token.substring(0, last);
+        if (!MessageDigest.isEqual(sign(payload).getBytes(StandardCharsets.US_ASCII),
+                                   token.substring(last + 1).getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(payload.substring(first + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String id = payload.substring(0, first);
+        if (expiresAt <= System.currentTimeMillis()) {
+            sessions.remove(id);
+            return null;
+        }
+        return sessions.get(id);
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);   // Mac is not thread-safe; a fresh one is cheap
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                         .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(MAC_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(s -> s.expiresAt <= now);
+    }
+
+    // ─── METRICS ACCESSORS ─────────────────────────────────────────────────────────
+    public int  getActiveCount()   { return sessions.size(); }
+    public long getIssuedCount()   { return issued.get(); }
+    public long getRejectedCount() { return rejected.get(); }
+}
@@ -0,0 +1,126 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs several data-access calls as one transaction with a single commit.
+ *
+ * A unit of work borrows the thread's pooled connection and turns auto-commit off for
+ * as long as the work runs. Because borrowing is re-entrant per thread, every helper
+ * the work calls – in DatabaseHelper, Questions, Answers – gets that same connection
+ * and so takes part in the transaction without being passed anything. The work commits
+ * once at the end, or rolls back if it throws.
+ *
+ * A unit of work started inside another one joins it instead of committing on its own;
+ * if the inner work throws, the outer one can no longer commit even if it catches the
+ * exception. Changes to in-memory state that must only happen once the data is stored –
+ * caches, loaded lists – are registered with {@link #afterCommit} and run after the
+ * commit, or straight away when no unit of work is active. Helpers that report a failed
+ * statement instead of throwing call {@link #setRollbackOnly} so the unit of work
+ * around them still cannot commit half its changes.
+ */
+public final class UnitOfWork {
+
+    /** The work: data-access calls on this thread, with the transaction's connection at hand. */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(PooledConnection pc) throws SQLException;
+    }
+
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private boolean rollbackOnly;
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Runs the work in one transaction on the calling thread's connection, or as part of
+     * the unit of work the thread is already in.
+     *
+     * @param pool The pool the work's data-access calls borrow from.
+     * @param work The calls to make.
+     * @param <T>  The result type.
+     * @return What the work returned.
+     * @throws SQLException if the work or the commit fails; nothing is stored then.
+     */
+    public static <T> T run(ConnectionPool pool, Work<T> work) throws SQLException {
+        UnitOfWork uow = new UnitOfWork();
+        T result;
+        try (PooledConnection pc = pool.borrow()) {
+            UnitOfWork outer = pc.unitOfWork;
+            if (outer != null) {
+                try {
+                    return work.run(pc);
+                } catch (SQLException | RuntimeException | Error e) {
+                    outer.rollbackOnly = true;
+                    throw e;
+                }
+            }
+
+            Connection c = pc.getConnection();
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+            pc.unitOfWork = uow;
+            try {
+                result = work.run(pc);
+                if (uow.rollbackOnly) {
+                    throw new SQLException("A statement in the unit of work failed; rolled back");
+                }
+                c.commit();
+            } catch (SQLException | RuntimeException | Error e) {
+                try {
+                    c.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            } finally {
+                pc.unitOfWork = null;
+                c.setAutoCommit(autoCommit);
+            }
+        }
+        // with the connection back in the pool, so an action may wait or borrow again
+        for (Runnable action : uow.afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();   // the data is committed; a stale cache must not undo that
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the action once the calling thread's unit of work has committed, or now if
+     * the thread is not in one. If the unit of work rolls back, the action never runs.
+     *
+     * @param pool   The pool the unit of work borrowed from.
+     * @param action E.g. dropping a cache entry or updating a loaded list.
+     */
+    public static void afterCommit(ConnectionPool pool, Runnable action) {
+        PooledConnection pc = pool.current();
+        UnitOfWork uow = pc == null ? null : pc.unitOfWork;
+        if (uow == null) action.run();
+        else uow.afterCommit.add(action);
+    }
+
+    /**
+     * Makes the calling thread's unit of work roll back instead of committing; does
+     * nothing if the thread is not in one. For helpers that catch their own SQLException.
+     *
+     * @param pool The pool the unit of work borrowed from.
+     */
+    public static void setRollbackOnly(ConnectionPool pool) {
+        PooledConnection pc = pool.current();
+        if (pc != null && pc.unitOfWork != null) pc.unitOfWork.rollbackOnly = true;
+    }
+
+    /** Returns true if the calling thread is inside a unit of work on this pool. */
+    public static boolean isActive(ConnectionPool pool) {
+        PooledConnection pc = pool.current();
+        return pc != null && pc.unitOfWork != null;
+    }
+}
@@ -0,0 +1,156 @@
+package databasePart1;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read‑through cache of the per‑user facts that are checked over and over: whether the
+ * user exists, their role and whether they are banned. One row read fills all three.
+ *
+ * Holds at most {@code maxEntries} users, dropping the least recently used, and reloads
+ * an entry once it is older than {@code ttlMillis} so changes made outside this process
+ * are picked up eventually. Unknown user names are cached too (as "does not exist").
+ * Every DatabaseHelper method that changes one of these facts calls
+ * {@link #invalidate(String)}, so within the process a change is visible immediately.
+ * Inside a {@link UnitOfWork} lookups read past the cache and store nothing: the unit
+ * may see its own uncommitted changes, which must not outlive a rollback.
+ */
+public class UserCache {
+
+    // ─── CONFIG ─────────────────────────────────────────────────────────────────────
+    public static final int  DEFAULT_MAX_ENTRIES = 10_000;
+    public static final long DEFAULT_TTL_MS      = TimeUnit.MINUTES.toMillis(5);
+
+    /** What is cached for one user name. */
+    public static final class UserInfo {
+        static final UserInfo MISSING = new UserInfo(false, null, false);
+
+        private final boolean exists;
+        private final String role;
+        private final boolean banned;
+
+        UserInfo(boolean exists, String role, boolean banned) {
+            this.exists = exists;
+            this.role = role;
+            this.banned = banned;
+        }
+
+        public boolean exists()  { return exists; }
+        public String getRole()  { return role; }
+        public boolean isBanned() { return banned; }
+    }
+
+    private static final class Entry {
+        final UserInfo info;
+        final long expiresAt;
+
+        Entry(UserInfo info, long expiresAt) {
+            this.info = info;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // ─── STATE (guarded by this) ───────────────────────────────────────────────────
+    private final LinkedHashMap<String, Entry> entries;
+    // bumped by every invalidation; a load that raced one is not stored
+    private long generation;
+
+    // ─── METRICS ────────────────────────────────────────────────────────────────────
+    private final AtomicLong hits      = new AtomicLong();
+    private final AtomicLong misses    = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserCache(ConnectionPool pool) {
+        this(pool, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MS);
+    }
+
+    public UserCache(ConnectionPool pool, int maxEntries, long ttlMillis) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be at least 1");
+        this.pool = pool;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= UserCache.this.maxEntries) return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached facts for {@code userName}, reading them from cse360users on a
+     * miss or once the entry has expired, and always inside a unit of work.
+     */
+    public UserInfo get(String userName) throws SQLException {
+        if (UnitOfWork.isActive(pool)) {
+            misses.incrementAndGet();
+            return load(userName);
+        }
+        long seenGeneration;
+        synchronized (this) {
+            Entry e = entries.get(userName);
+            if (e != null && System.nanoTime() - e.expiresAt < 0) {
+                hits.incrementAndGet();
+                return e.info;
+            }
+            seenGeneration = generation;
+        }
+        misses.incrementAndGet();
+        UserInfo info = load(userName);
+        synchronized (this) {
+            if (generation == seenGeneration) {
+                entries.put(userName, new Entry(info, System.nanoTime() + ttlNanos));
+            }
+        }
+        return info;
+    }
+
+    private UserInfo load(String userName) throws SQLException {
+        try (PooledConnection pc = pool.borrow()) {
+            PreparedStatement ps = pc.prepareStatement("SELECT role, isBanned FROM cse360users WHERE userName=?");
+            ps.setString(1, userName);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return UserInfo.MISSING;
+                return new UserInfo(true, rs.getString("role"), rs.getBoolean("isBanned"));
+            }
+        }
+    }
+
+    /** Forgets {@code userName}; the next lookup reads the database. */
+    public synchronized void invalidate(String userName) {
+        generation++;
+        entries.remove(userName);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    // ─── METRICS ACCESSORS ─────────────────────────────────────────────────────────
+    public long getHitCount()      { return hits.get(); }
+    public long getMissCount()     { return misses.get(); }
+    public long getEvictionCount() { return evictions.get(); }
+    public synchronized int size() { return entries.size(); }
+
+    public double getHitRate() {
+        long h = hits.get(), total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override public String toString() {
+        return String.format("users[size=%d, max=%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d]",
+                size(), maxEntries, getHitCount(), getMissCount(), getHitRate() * 100, getEvictionCount());
+    }
+}
@@ -0,0 +1,308 @@
+package databasePart1;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write‑behind buffer for helpful / not‑helpful votes on answers.
+ *
+ * A vote only bumps an in‑memory counter for its answer. Pending counters are written
+ * as one JDBC batch in one transaction every {@code flushIntervalMillis}, or as soon as
+ * {@code flushThreshold} votes are waiting, so a burst of clicks costs one commit instead
+ * of one per click. The buffer is flushed when its pool closes and on JVM shutdown.
+ * When a {@link ReputationEngine} is attached, the reviewer totals those votes changed
+ * are written in the same transaction.
+ *
+ * Counters are updated inside {@link ConcurrentHashMap#compute}, which locks only the
+ * answer's hash bin, and a flush takes each counter out with {@code remove}; a vote
+ * therefore lands either in the batch being written or in the next one, never in neither.
+ * Votes that are being written still count in {@link #getPendingLikes} until committed:
+ * a flush moves, commits and drops the counters under a write lock that
+ * {@link #getPendingLikes} takes for reading, so a read never misses a counter half-way
+ * between the maps or counts one the database already holds. Voting never waits for it.
+ *
+ * {@link #writeThrough} makes a buffer that schedules nothing and registers no hooks, for
+ * code that has no long-lived buffer to share; every vote is written at once.
+ */
+public final class VoteBuffer implements AutoCloseable {
+
+    // ─── CONFIG ─────────────────────────────────────────────────────────────────────
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 500;
+    public static final int  DEFAULT_FLUSH_THRESHOLD   = 500;
+
+    private static final String UPDATE_SQL =
+            "UPDATE answers SET likes = likes + ?, dislikes = dislikes + ? WHERE id = ?";
+
+    // one daemon thread serves every buffer; a flush is a single short transaction
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "vote-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ConnectionPool pool;
+    private final ReputationEngine reputation;   // may be null
+    private final int flushThreshold;
+
+    // ─── STATE ──────────────────────────────────────────────────────────────────────
+    private final ConcurrentHashMap<Long, Delta> pending  = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Delta> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder pendingVotes = new LongAdder();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // a lock rather than a monitor: a virtual thread waiting for a connection inside it
+    // must not pin its carrier thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // written by a flush from moving the counters until inFlight is committed and emptied
+    private final ReentrantReadWriteLock mapsLock = new ReentrantReadWriteLock();
+    private final ScheduledFuture<?> schedule;
+    private final Thread shutdownHook;
+    private volatile boolean closed;
+
+    // ─── METRICS ────────────────────────────────────────────────────────────────────
+    private final LongAdder  votes          = new LongAdder();
+    private final AtomicLong flushes        = new AtomicLong();
+    private final AtomicLong rowsWritten    = new AtomicLong();
+    private final AtomicLong failedFlushes  = new AtomicLong();
+
+    /** Net change to one answer's counters that has not reached the database yet. */
+    private static final class Delta {
+        int likes;
+        int dislikes;
+    }
+
+    public VoteBuffer(ConnectionPool pool, ReputationEngine reputation) {
+        this(pool, reputation, DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    public VoteBuffer(ConnectionPool pool, long flushIntervalMillis, int flushThreshold) {
+        this(pool, null, flushIntervalMillis, flushThreshold);
+    }
+
+    public VoteBuffer(ConnectionPool pool, ReputationEngine reputation, long flushIntervalMillis, int flushThreshold) {
+        if (flushThreshold < 1) throw new IllegalArgumentException("flushThreshold must be at least 1");
+        this.pool = pool;
+        this.reputation = reputation;
+        this.flushThreshold = flushThreshold;
+        this.schedule = FLUSHER.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        this.shutdownHook = new Thread(this::flushQuietly, "vote-flush-on-exit");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        pool.addCloseListener(this::close);
+    }
+
+    // starts closed: a closed buffer writes each vote straight through
+    private VoteBuffer(ConnectionPool pool) {
+        this.pool = pool;
+        this.reputation = null;
+        this.flushThreshold = 1;
+        this.schedule = null;
+        this.shutdownHook = null;
+        this.closed = true;
+    }
+
+    /**
+     * A buffer that writes every vote on the caller's thread before returning (inside a
+     * unit of work, on the flusher thread right after). Nothing is scheduled and no
+     * shutdown hook or pool listener is registered, so it may be created per object and
+     * simply dropped.
+     */
+    public static VoteBuffer writeThrough(ConnectionPool pool) {
+        return new VoteBuffer(pool);
+    }
+
+    public ReputationEngine getReputationEngine() {
+        return reputation;
+    }
+
+    // ─── VOTING ────────────────────────────────────────────────────────────────────
+    public void recordLike(long answerId) {
+        record(answerId, 1, 0);
+    }
+
+    public void recordDislike(long answerId) {
+        record(answerId, 0, 1);
+    }
+
+    private void record(long answerId, int likes, int dislikes) {
+        add(answerId, likes, dislikes);
+        votes.increment();
+        if (closed) {
+            flushQuietly();   // nothing is scheduled any more, so write straight through
+        } else if (pendingVotes.sum() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            FLUSHER.execute(this::flushQuietly);
+        }
+    }
+
+    // ─── READS ─────────────────────────────────────────────────────────────────────
+    /** Likes for {@code answerId} that are not committed yet; add them to what the database says. */
+    public int getPendingLikes(long answerId) {
+        return sum(answerId, true);
+    }
+
+    /** Dislikes for {@code answerId} that are not committed yet. */
+    public int getPendingDislikes(long answerId) {
+        return sum(answerId, false);
+    }
+
+    private int sum(long answerId, boolean likes) {
+        mapsLock.readLock().lock();
+        try {
+            int n = 0;
+            for (Map<Long, Delta> m : List.of(inFlight, pending)) {
+                Delta d = m.get(answerId);
+                if (d != null) {
+                    synchronized (d) { n += likes ? d.likes : d.dislikes; }
+                }
+            }
+            return n;
+        } finally {
+            mapsLock.readLock().unlock();
+        }
+    }
+
+    // ─── FLUSHING ──────────────────────────────────────────────────────────────────
+    /**
+     * Writes every pending vote in one batch and one transaction. On failure the votes go
+     * back into the buffer and are retried on the next flush.
+     *
+     * Votes are not part of anyone's unit of work, so a flush never joins one: called
+     * from inside a {@link UnitOfWork}, it is handed to the flusher thread, which writes
+     * in a transaction of its own, and returns 0.
+     *
+     * @return number of answers updated
+     */
+    public int flush() throws SQLException {
+        if (UnitOfWork.isActive(pool)) {
+            FLUSHER.execute(this::flushQuietly);
+            return 0;
+        }
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            boolean reputationPending = reputation != null && reputation.hasPending();
+            if (pending.isEmpty() && !reputationPending) return 0;
+
+            // the connection first: a reader waiting below may hold one, and the pool may be empty
+            PooledConnection held = pool.borrow();
+            mapsLock.writeLock().lock();
+            try {
+                return writeInFlight(reputationPending);
+            } finally {
+                mapsLock.writeLock().unlock();
+                held.close();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // under the write lock: readers see each counter in exactly one map, and in inFlight
+    // only until the database holds it
+    private int writeInFlight(boolean reputationPending) throws SQLException {
+        // move each counter across inside its bin lock; voters carry on
+        for (Long id : pending.keySet()) {
+            pending.computeIfPresent(id, (k, d) -> {
+                inFlight.put(k, d);
+                return null;
+            });
+        }
+        int taken = 0;
+        for (Delta d : inFlight.values()) taken += d.likes + d.dislikes;
+        pendingVotes.add(-taken);
+        Map<String, ReputationEngine.Totals> reviewerChanges =
+                reputationPending ? reputation.drainPending() : Map.of();
+
+        try {
+            UnitOfWork.run(pool, pc -> {
+                if (!inFlight.isEmpty()) {
+                    PreparedStatement ps = pc.prepareStatement(UPDATE_SQL);
+                    for (Map.Entry<Long, Delta> e : inFlight.entrySet()) {
+                        ps.setInt(1, e.getValue().likes);
+                        ps.setInt(2, e.getValue().dislikes);
+                        ps.setLong(3, e.getKey());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                if (!reviewerChanges.isEmpty()) reputation.write(pc, reviewerChanges);
+                return null;
+            });
+        } catch (SQLException e) {
+            failedFlushes.incrementAndGet();
+            requeue();
+            if (!reviewerChanges.isEmpty()) reputation.requeue(reviewerChanges);
+            throw e;
+        }
+        int rows = inFlight.size();
+        inFlight.clear();
+        flushes.incrementAndGet();
+        rowsWritten.addAndGet(rows);
+        return rows;
+    }
+
+    private void add(long answerId, int likes, int dislikes) {
+        pending.compute(answerId, (id, d) -> {
+            if (d == null) d = new Delta();
+            synchronized (d) {
+                d.likes += likes;
+                d.dislikes += dislikes;
+            }
+            return d;
+        });
+        pendingVotes.add(likes + dislikes);
+    }
+
+    private void requeue() {
+        Map<Long, Delta> failed = new HashMap<>(inFlight);
+        inFlight.clear();
+        failed.forEach((id, d) -> add(id, d.likes, d.dislikes));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // ─── METRICS ACCESSORS ─────────────────────────────────────────────────────────
+    public long getVoteCount()        { return votes.sum(); }
+    public long getPendingVoteCount() { return pendingVotes.sum(); }
+    public long getFlushCount()       { return flushes.get(); }
+    public long getRowsWritten()      { return rowsWritten.get(); }
+    public long getFailedFlushCount() { return failedFlushes.get(); }
+
+    @Override public String toString() {
+        return String.format("votes[total=%d, pending=%d, flushes=%d, rows=%d, failed=%d]",
+                getVoteCount(), getPendingVoteCount(), getFlushCount(), getRowsWritten(), getFailedFlushCount());
+    }
+
+    // ─── HOUSE‑KEEPING ─────────────────────────────────────────────────────────────
+    /** Stops the schedule and writes whatever is still pending. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        schedule.cancel(false);
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException alreadyShuttingDown) {
+            // the hook itself is doing the final flush
+        }
+        flushQuietly();
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * AdminRequestService.java
+ *
+ * UI-free entry point for the instructor → admin request workflow.
+ */
+
+package service;
+
+import application.AdminRequest;
+import application.User;
+import databasePart1.DatabaseHelper;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The AdminRequestService class lets instructors open and reopen requests and admins
+ * close them, with the same role rules as the dashboards. Errors are reported the same
+ * way as in {@link QuestionService}.
+ */
+public class AdminRequestService {
+    private final DatabaseHelper db;
+
+    public AdminRequestService(DatabaseHelper db) {
+        this.db = db;
+    }
+
+    /**
+     * Returns the requests, oldest first.
+     *
+     * @param viewer        An admin or instructor.
+     * @param includeClosed Whether closed requests are included.
+     * @return The requests.
+     */
+    public List<AdminRequest> list(User viewer, boolean includeClosed) {
+        requireRole(viewer, "admin", "instructor");
+        return db.getAdminRequests(includeClosed);
+    }
+
+    /**
+     * Opens a request.
+     *
+     * @param instructor  The instructor asking.
+     * @param description What is needed.
+     * @return The id of the new request.
+     */
+    public long create(User instructor, String description) {
+        requireRole(instructor, "instructor");
+        String text = QuestionService.nonNull(description);
+        if (text.isEmpty()) throw new IllegalArgumentException("Description is empty");
+        long id = db.createAdminRequest(text, instructor.getUserName());
+        if (id < 0) throw new IllegalStateException("The request could not be stored");
+        return id;
+    }
+
+    /**
+     * Closes an open request.
+     *
+     * @param admin   The admin closing it.
+     * @param id      The request.
+     * @param message The resolution note.
+     * @throws NoSuchElementException if there is no open request with that id.
+     */
+    public void close(User admin, long id, String message) {
+        requireRole(admin, "admin");
+        if (!db.closeAdminRequest(id, admin.getUserName(), QuestionService.nonNull(message))) {
+            throw new NoSuchElementException("No open request " + id);
+        }
+    }
+
+    /**
+     * Opens a follow-up of a closed request.
+     *
+     * @param instructor  The instructor asking.
+     * @param closedId    The closed request.
+     * @param description What is still needed.
+     * @throws NoSuchElementException if there is no closed request with that id.
+     */
+    public void reopen(User instructor, long closedId, String description) {
+        requireRole(instructor, "instructor");
+        String text = QuestionService.nonNull(description);
+        if (text.isEmpty()) throw new IllegalArgumentException("Description is empty");
+        if (!db.reopenAdminRequest(closedId, instructor.getUserName(), text)) {
+            throw new NoSuchElementException("No closed request " + closedId);
+        }
+    }
+
+    private static void requireRole(User user, String... roles) {
+        for (String role : roles) {
+            if (role.equals(user.getRole())) return;
+        }
+        throw new SecurityException("Not allowed for role " + user.getRole());
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * AnswerService.java
+ *
+ * UI-free entry point for reading and posting answers and reviews, and for voting.
+ */
+
+package service;
+
+import application.Answer;
+import application.Answers;
+import application.Question;
+import application.User;
+import application.ValidationResult;
+import application.answerEvaluator;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The AnswerService class exposes the answer operations of the AnswersWindow over plain
+ * collections. Reads go through the thread-safe indexes of {@link Answers}. Errors are
+ * reported the same way as in {@link QuestionService}.
+ */
+public class AnswerService {
+    private final QuestionService questions;
+    private final Answers answers;
+
+    public AnswerService(QuestionService questions, Answers answers) {
+        this.questions = questions;
+        this.answers = answers;
+    }
+
+    /**
+     * Returns the answers and reviews of a question.
+     *
+     * @param questionId The question id.
+     * @return Its answers, oldest first.
+     * @throws NoSuchElementException if there is no such question.
+     */
+    public List<Answer> forQuestion(long questionId) {
+        questions.get(questionId);
+        return answers.getAnswersForQuestion(questionId);
+    }
+
+    /**
+     * Returns one answer.
+     *
+     * @param answerId The answer id.
+     * @return The answer.
+     * @throws NoSuchElementException if there is no such answer.
+     */
+    public Answer get(long answerId) {
+        Answer a = answers.getAnswer(answerId);
+        if (a == null) throw new NoSuchElementException("No answer " + answerId);
+        return a;
+    }
+
+    /**
+     * Answers a question, or reviews one of its answers when {@code parentAnswerId} is
+     * given. Reviews are for reviewers only, as in the AnswersWindow.
+     *
+     * @param questionId     The question.
+     * @param user           The author.
+     * @param text           The answer text; checked like the answer form does.
+     * @param parentAnswerId The answer being reviewed, or null for a plain answer.
+     * @return The stored answer.
+     */
+    public Answer post(long questionId, User user, String text, Long parentAnswerId) {
+        Question q = questions.get(questionId);
+        String body = QuestionService.nonNull(text);
+        ValidationResult check = answerEvaluator.validate(body);
+        if (!check.isValid()) throw new IllegalArgumentException(check.getMessage());
+
+        int roleVal = 0;
+        if (parentAnswerId != null) {
+            if (!"reviewer".equals(user.getRole())) {
+                throw new SecurityException("Only reviewers can post reviews");
+            }
+            if (get(parentAnswerId).getQuestionId() != questionId) {
+                throw new IllegalArgumentException("Answer " + parentAnswerId + " belongs to another question");
+            }
+            roleVal = 1;
+        }
+        Answer a = answers.createAnswer(q, body, user, roleVal, parentAnswerId);
+        if (a == null) throw new IllegalStateException("The answer could not be stored");
+        return a;
+    }
+
+    /**
+     * Counts a helpful or not-helpful vote for an answer.
+     *
+     * @param answerId The answer.
+     * @param helpful  True for helpful.
+     */
+    public void vote(long answerId, boolean helpful) {
+        Answer a = get(answerId);
+        if (helpful) answers.markHelpful(a); else answers.markNotHelpful(a);
+    }
+}
@@ -0,0 +1,434 @@
+/**
+ * ApiServer.java
+ *
+ * Embedded HTTP/JSON front end for the service layer, so one JVM can serve many
+ * clients at once instead of one desktop user per process. Every request runs on its
+ * own virtual thread.
+ *
+ * Run:  java service.ApiServer [port] [jdbcUrl]
+ */
+
+package service;
+
+import application.AdminRequest;
+import application.Answer;
+import application.Answers;
+import application.AsyncDataAccess;
+import application.ChatMessage;
+import application.Question;
+import application.Questions;
+import application.User;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import databasePart1.DatabaseHelper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The ApiServer class maps HTTP requests under {@code /api/} onto the services.
+ * Request parameters come from the query string or a form-encoded body; responses are
+ * JSON. Every call except {@code POST /api/login} needs the header
+ * {@code Authorization: Bearer <token>} with a token from that call.
+ *
+ * <pre>
+ * POST /api/login                      userName, password → {token, role}
+ * POST /api/logout
+ * GET  /api/questions                  after, limit
+ * POST /api/questions                  title, text
+ * GET  /api/questions/unanswered
+ * GET  /api/questions/search           q, author, resolved
+ * GET  /api/questions/{id}
+ * POST /api/questions/{id}/resolve
+ * GET  /api/questions/{id}/answers
+ * POST /api/questions/{id}/answers     text, parent (reviewers)
+ * GET  /api/answers/{id}
+ * POST /api/answers/{id}/vote          helpful=true|false
+ * GET  /api/chat/users                 role
+ * GET  /api/chat/{user}                after, before, limit
+ * GET  /api/chat/{user}/poll           after, wait (seconds, default 25), limit
+ * POST /api/chat/{user}                text
+ * GET  /api/admin-requests             closed=true|false
+ * POST /api/admin-requests             description
+ * POST /api/admin-requests/{id}/close  message
+ * POST /api/admin-requests/{id}/reopen description
+ * </pre>
+ *
+ * Bad input answers 400, a missing session 401, a forbidden action 403, an unknown
+ * object or endpoint 404, too many login attempts 429 (with {@code Retry-After}) and
+ * anything else 500. Login attempts are limited per user name and per client address.
+ *
+ * Handlers block in plain JDBC calls; on virtual threads that costs no platform thread,
+ * and the connection pool, not the thread count, bounds how many queries run at once.
+ * An open chat long poll holds neither a connection nor a platform thread, so thousands
+ * of them can wait side by side.
+ */
+public class ApiServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_PAGE = 50;
+    private static final long DEFAULT_POLL_SECONDS = 25;
+
+    private final HttpServer server;
+    private final Sessions sessions;
+    private final QuestionService questions;
+    private final AnswerService answers;
+    private final ChatService chat;
+    private final AdminRequestService adminRequests;
+
+    /** A failure answered with a specific status code. */
+    static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private static final class Reply {
+        final int status;
+        final String body;
+
+        Reply(int status, Object body) {
+            this.status = status;
+            this.body = body == null ? null : body.toString();
+        }
+    }
+
+    /** One parsed request. */
+    private final class Request {
+        final String method;
+        final String[] path;
+        final Map<String, String> params = new HashMap<>();
+        final String token;
+        final String source;
+
+        Request(HttpExchange ex) throws IOException {
+            method = ex.getRequestMethod();
+            source = ex.getRemoteAddress().getAddress().getHostAddress();
+            String p = ex.getRequestURI().getPath().substring("/api/".length());
+            path = p.isEmpty() ? new String[0] : p.split("/");
+            parseForm(ex.getRequestURI().getRawQuery(), params);
+            if ("POST".equals(method)) {
+                parseForm(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), params);
+            }
+            String auth = ex.getRequestHeaders().getFirst("Authorization");
+            token = auth != null && auth.startsWith("Bearer ") ? auth.substring(7).trim() : null;
+        }
+
+        boolean is(String m, int length) {
+            return method.equals(m) && path.length == length;
+        }
+
+        String param(String name) {
+            return params.get(name);
+        }
+
+        long longParam(String name, long fallback) {
+            String v = params.get(name);
+            return v == null || v.isEmpty() ? fallback : Long.parseLong(v);
+        }
+
+        Long optionalLong(String name) {
+            String v = params.get(name);
+            return v == null || v.isEmpty() ? null : Long.valueOf(v);
+        }
+
+        long id(int segment) {
+            return Long.parseLong(path[segment]);
+        }
+
+        User user() {
+            User u = sessions.get(token);
+            if (u == null) throw new HttpError(401, "Sign in first");
+            return u;
+        }
+    }
+
+    /**
+     * Creates a server over already loaded managers. Call {@link #start()} to serve.
+     *
+     * @param db        The database.
+     * @param qs        The loaded questions.
+     * @param as        The loaded answers, linked to {@code qs}.
+     * @param address   Where to listen; port 0 picks a free port.
+     * @param executor  Runs the request handlers; see {@link #newRequestExecutor()}.
+     * @throws IOException if the address cannot be bound.
+     */
+    public ApiServer(DatabaseHelper db, Questions qs, Answers as, InetSocketAddress address, Executor executor)
+            throws IOException {
+        this.sessions = new Sessions(db);
+        this.questions = new QuestionService(qs);
+        this.answers = new AnswerService(questions, as);
+        this.chat = new ChatService(db);
+        this.adminRequests = new AdminRequestService(db);
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext("/api/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Returns the executor {@link #main} serves with: a new virtual thread per request.
+     *
+     * @return The executor.
+     */
+    public static ExecutorService newRequestExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /** Stops accepting requests and waits up to {@code delaySeconds} for running ones. */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public Sessions getSessions() {
+        return sessions;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        // the managers' list updates normally go to the JavaFX thread; there is none here
+        ExecutorService ui = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ui");
+            t.setDaemon(true);
+            return t;
+        });
+        AsyncDataAccess.setUiExecutor(ui);
+
+        DatabaseHelper db = new DatabaseHelper();
+        if (args.length > 1) db.connectToDatabase(args[1], "sa", ""); else db.connectToDatabase();
+        Questions qs = new Questions(db.getConnectionPool());
+        Answers as = new Answers(db.getConnectionPool(), qs, db);
+        qs.loadAllFromDB();
+        as.loadAllFromDB();
+
+        ApiServer server = new ApiServer(db, qs, as, new InetSocketAddress(port), newRequestExecutor());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            db.closeConnection();
+        }));
+        server.start();
+        System.out.println("Serving /api/ on port " + server.getPort());
+    }
+
+    private void handle(HttpExchange ex) {
+        Reply reply;
+        try {
+            reply = route(new Request(ex));
+        } catch (HttpError e) {
+            reply = error(e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            reply = error(400, e.getMessage());
+        } catch (Sessions.RateLimitedException e) {
+            ex.getResponseHeaders().set("Retry-After",
+                    String.valueOf((e.getRetryAfterMillis() + 999) / 1000));
+            reply = error(429, e.getMessage());
+        } catch (SecurityException e) {
+            reply = error(403, e.getMessage());
+        } catch (NoSuchElementException e) {
+            reply = error(404, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            reply = error(500, "Internal error");
+        }
+        try {
+            send(ex, reply);
+        } catch (IOException e) {
+            // the client went away
+        } finally {
+            ex.close();
+        }
+    }
+
+    private Reply route(Request r) throws Exception {
+        String[] p = r.path;
+        String root = p.length > 0 ? p[0] : "";
+        switch (root) {
+            case "login":
+                if (r.is("POST", 1)) {
+                    String token = sessions.login(QuestionService.nonNull(r.param("userName")), r.param("password"),
+                                                  r.source);
+                    return ok(Json.object().put("token", token).put("role", sessions.get(token).getRole()));
+                }
+                break;
+            case "logout":
+                if (r.is("POST", 1)) {
+                    sessions.logout(r.token);
+                    return ok(null);
+                }
+                break;
+            case "questions":
+                return questions(r);
+            case "answers":
+                r.user();
+                if (r.is("GET", 2)) return ok(json(answers.get(r.id(1))));
+                if (r.is("POST", 3) && p[2].equals("vote")) {
+                    answers.vote(r.id(1), Boolean.parseBoolean(r.param("helpful")));
+                    return ok(null);
+                }
+                break;
+            case "chat":
+                return chat(r);
+            case "admin-requests":
+                return adminRequests(r);
+            default:
+                break;
+        }
+        throw new HttpError(404, "No such endpoint");
+    }
+
+    private Reply questions(Request r) throws Exception {
+        User user = r.user();
+        String[] p = r.path;
+        if (r.is("GET", 1)) {
+            return ok(Json.array(questions.list(r.longParam("after", 0), (int) r.longParam("limit", DEFAULT_PAGE)),
+                                 ApiServer::json));
+        }
+        if (r.is("POST", 1)) {
+            return created(json(questions.ask(user.getUserName(), r.param("title"), r.param("text"))));
+        }
+        if (r.is("GET", 2) && p[1].equals("unanswered")) {
+            return ok(Json.array(questions.unanswered(), ApiServer::json));
+        }
+        if (r.is("GET", 2) && p[1].equals("search")) {
+            String resolved = r.param("resolved");
+            return ok(Json.array(questions.search(r.param("q"), r.param("author"),
+                                                  resolved == null ? null : Boolean.valueOf(resolved)),
+                                 ApiServer::json));
+        }
+        if (r.is("GET", 2)) return ok(json(questions.get(r.id(1))));
+        if (r.is("POST", 3) && p[2].equals("resolve")) {
+            questions.resolve(r.id(1), user.getUserName());
+            return ok(null);
+        }
+        if (r.is("GET", 3) && p[2].equals("answers")) {
+            return ok(Json.array(answers.forQuestion(r.id(1)), ApiServer::json));
+        }
+        if (r.is("POST", 3) && p[2].equals("answers")) {
+            return created(json(answers.post(r.id(1), user, r.param("text"), r.optionalLong("parent"))));
+        }
+        throw new HttpError(404, "No such endpoint");
+    }
+
+    private Reply chat(Request r) throws InterruptedException {
+        User user = r.user();
+        String[] p = r.path;
+        if (r.is("GET", 3) && p[2].equals("poll")) {
+            return ok(Json.array(chat.poll(user.getUserName(), p[1], r.longParam("after", 0),
+                                           r.longParam("wait", DEFAULT_POLL_SECONDS) * 1000,
+                                           (int) r.longParam("limit", DEFAULT_PAGE)),
+                                 ApiServer::json));
+        }
+        if (r.is("GET", 2) && p[1].equals("users")) {
+            return ok(Json.array(chat.chatters(QuestionService.nonNull(r.param("role"))), name -> name));
+        }
+        if (r.is("GET", 2)) {
+            return ok(Json.array(chat.history(user.getUserName(), p[1], r.optionalLong("after"),
+                                              r.optionalLong("before"), (int) r.longParam("limit", DEFAULT_PAGE)),
+                                 ApiServer::json));
+        }
+        if (r.is("POST", 2)) {
+            return created(json(chat.send(user.getUserName(), p[1], r.param("text"))));
+        }
+        throw new HttpError(404, "No such endpoint");
+    }
+
+    private Reply adminRequests(Request r) {
+        User user = r.user();
+        String[] p = r.path;
+        if (r.is("GET", 1)) {
+            return ok(Json.array(adminRequests.list(user, Boolean.parseBoolean(r.param("closed"))), ApiServer::json));
+        }
+        if (r.is("POST", 1)) {
+            return created(Json.object().put("id", adminRequests.create(user, r.param("description"))));
+        }
+        if (r.is("POST", 3) && p[2].equals("close")) {
+            adminRequests.close(user, r.id(1), r.param("message"));
+            return ok(null);
+        }
+        if (r.is("POST", 3) && p[2].equals("reopen")) {
+            adminRequests.reopen(user, r.id(1), r.param("description"));
+            return ok(null);
+        }
+        throw new HttpError(404, "No such endpoint");
+    }
+
+    // ─── JSON MAPPING ──────────────────────────────────────────────────────────────
+    static Json.Obj json(Question q) {
+        return Json.object().put("id", q.getId()).put("title", q.getTitle()).put("text", q.getText())
+                   .put("author", q.getAuthor()).put("resolved", q.isResolved());
+    }
+
+    static Json.Obj json(Answer a) {
+        return Json.object().put("id", a.getId()).put("questionId", a.getQuestionId()).put("text", a.getText())
+                   .put("author", a.getAuthor()).put("likes", a.getLikes()).put("dislikes", a.getDislikes())
+                   .put("review", a.isReview()).put("parentAnswerId", a.getParentAnswerId());
+    }
+
+    static Json.Obj json(ChatMessage m) {
+        return Json.object().put("id", m.getId()).put("sender", m.getSender())
+                   .put("receiver", m.getReceiver()).put("text", m.getText());
+    }
+
+    static Json.Obj json(AdminRequest a) {
+        return Json.object().put("id", a.getId()).put("description", a.getDescription())
+                   .put("status", a.getStatus()).put("createdBy", a.getCreatedBy())
+                   .put("closedBy", a.getClosedBy()).put("closedMessage", a.getClosedMessage())
+                   .put("parentRequestId", a.getParentRequestId());
+    }
+
+    // ─── HTTP PLUMBING ─────────────────────────────────────────────────────────────
+    private static Reply ok(Object body) {
+        return body == null ? new Reply(204, null) : new Reply(200, body);
+    }
+
+    private static Reply created(Object body) {
+        return new Reply(201, body);
+    }
+
+    private static Reply error(int status, String message) {
+        return new Reply(status, Json.object().put("error", message));
+    }
+
+    private static void send(HttpExchange ex, Reply reply) throws IOException {
+        if (reply.body == null) {
+            ex.sendResponseHeaders(reply.status, -1);
+            return;
+        }
+        byte[] bytes = reply.body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(reply.status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static void parseForm(String raw, Map<String, String> into) {
+        if (raw == null || raw.isEmpty()) return;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            into.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+}
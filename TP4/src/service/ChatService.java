@@ -0,0 +1,117 @@
+/**
+ * ChatService.java
+ *
+ * UI-free entry point for the student / reviewer chat.
+ */
+
+package service;
+
+import application.ChatMessage;
+import databasePart1.ChatMessageBus;
+import databasePart1.DatabaseHelper;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ChatService class sends and pages chat messages the way the ChatBox does.
+ * Errors are reported the same way as in {@link QuestionService}.
+ */
+public class ChatService {
+    /** Largest page {@link #history} returns. */
+    public static final int MAX_PAGE = 200;
+    /** Longest time {@link #poll} waits for a message. */
+    public static final long MAX_POLL_MS = 60_000;
+
+    private final DatabaseHelper db;
+
+    public ChatService(DatabaseHelper db) {
+        this.db = db;
+    }
+
+    /**
+     * Returns one page of the conversation between two users, oldest message first:
+     * the messages after {@code afterId}, or else the newest ones before {@code beforeId}.
+     *
+     * @param user     The user asking.
+     * @param other    The other participant.
+     * @param afterId  Cursor for newer messages, or null.
+     * @param beforeId Cursor for older messages, or null.
+     * @param limit    Page size, capped at {@link #MAX_PAGE}.
+     * @return The messages.
+     */
+    public List<ChatMessage> history(String user, String other, Long afterId, Long beforeId, int limit) {
+        return db.getChat(user, other, afterId, beforeId, Math.max(1, Math.min(limit, MAX_PAGE)));
+    }
+
+    /**
+     * Long poll: returns the messages after {@code afterId} at once if there are any,
+     * otherwise waits until one arrives or {@code timeoutMillis} passes. The wait holds
+     * no database connection; it is woken by the chat message bus, so a waiting request
+     * costs one parked (virtual) thread.
+     *
+     * @param user          The user asking.
+     * @param other         The other participant.
+     * @param afterId       Id of the newest message the caller has.
+     * @param timeoutMillis How long to wait, capped at {@link #MAX_POLL_MS}.
+     * @param limit         Page size, capped at {@link #MAX_PAGE}.
+     * @return The new messages, empty if none arrived in time.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    public List<ChatMessage> poll(String user, String other, long afterId, long timeoutMillis, int limit)
+            throws InterruptedException {
+        CountDownLatch arrived = new CountDownLatch(1);
+        // subscribe before reading, so a message stored in between still wakes us
+        ChatMessageBus.Subscription subscription = db.getChatMessageBus().subscribe(user, new ChatMessageBus.Listener() {
+            @Override public void onMessage(ChatMessage m) {
+                if (m.getId() > afterId && (m.getSender().equals(other) || m.getReceiver().equals(other))) {
+                    arrived.countDown();
+                }
+            }
+
+            @Override public void onMessagesDropped(long count) {
+                arrived.countDown();
+            }
+        });
+        try {
+            List<ChatMessage> page = history(user, other, afterId, null, limit);
+            if (!page.isEmpty()) return page;
+            if (!arrived.await(Math.max(0, Math.min(timeoutMillis, MAX_POLL_MS)), TimeUnit.MILLISECONDS)) {
+                return List.of();
+            }
+        } finally {
+            subscription.close();
+        }
+        return history(user, other, afterId, null, limit);
+    }
+
+    /**
+     * Sends a message; it is also published to open chats of both users.
+     *
+     * @param from The sender.
+     * @param to   The receiver.
+     * @param text The message.
+     * @return The stored message.
+     * @throws NoSuchElementException if the receiver does not exist.
+     */
+    public ChatMessage send(String from, String to, String text) {
+        String body = QuestionService.nonNull(text);
+        if (body.isEmpty()) throw new IllegalArgumentException("Message is empty");
+        if (!db.doesUserExist(to)) throw new NoSuchElementException("No user " + to);
+        long id = db.insertMessage(from, to, body);
+        if (id < 0) throw new IllegalStateException("The message could not be stored");
+        return new ChatMessage(id, from, to, body);
+    }
+
+    /**
+     * Returns the user names with the given role, e.g. the reviewers a student can chat with.
+     *
+     * @param role The role.
+     * @return The user names.
+     */
+    public List<String> chatters(String role) {
+        return db.getChatters(role);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Json.java
+ *
+ * Minimal JSON writer for the HTTP API, so the service layer needs no library.
+ */
+
+package service;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Builds JSON text. {@link Obj} writes one object field by field; {@link #array}
+ * writes a list through a per-element mapper.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    /** A JSON object under construction. */
+    public static final class Obj {
+        private final StringBuilder sb = new StringBuilder("{");
+
+        /**
+         * Adds a field. Strings are quoted, numbers and booleans written as is, null as
+         * null, and {@link Obj} or {@link Raw} values inserted unchanged.
+         */
+        public Obj put(String name, Object value) {
+            if (sb.length() > 1) sb.append(',');
+            quote(sb, name);
+            sb.append(':');
+            write(sb, value);
+            return this;
+        }
+
+        @Override public String toString() {
+            return sb + "}";
+        }
+    }
+
+    /** Text that is already JSON, e.g. an array built by {@link #array}. */
+    public static final class Raw {
+        private final String json;
+
+        Raw(String json) {
+            this.json = json;
+        }
+
+        @Override public String toString() {
+            return json;
+        }
+    }
+
+    public static Obj object() {
+        return new Obj();
+    }
+
+    /**
+     * Writes {@code items} as a JSON array.
+     *
+     * @param items  The elements.
+     * @param mapper Turns one element into a JSON value (see {@link Obj#put}).
+     * @return The array.
+     */
+    public static <T> Raw array(Collection<T> items, Function<? super T, ?> mapper) {
+        StringBuilder sb = new StringBuilder("[");
+        for (T item : items) {
+            if (sb.length() > 1) sb.append(',');
+            write(sb, mapper.apply(item));
+        }
+        return new Raw(sb.append(']').toString());
+    }
+
+    private static void write(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Number || value instanceof Boolean
+                   || value instanceof Obj || value instanceof Raw) {
+            sb.append(value);
+        } else {
+            quote(sb, value.toString());
+        }
+    }
+
+    private static void quote(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * QuestionService.java
+ *
+ * UI-free entry point for reading, asking, searching and resolving questions.
+ */
+
+package service;
+
+import application.Question;
+import application.Questions;
+import application.ValidationResult;
+import application.questionEvaluator;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The QuestionService class exposes the question operations of the JavaFX pages over
+ * plain collections, so any number of threads (e.g. HTTP requests) can call it. It only
+ * reads the thread-safe parts of {@link Questions}, never its ObservableLists.
+ *
+ * Invalid input is reported with IllegalArgumentException, a missing question with
+ * NoSuchElementException and an action the user may not take with SecurityException.
+ */
+public class QuestionService {
+    /** Largest page {@link #list(long, int)} returns. */
+    public static final int MAX_PAGE = 200;
+
+    private final Questions questions;
+
+    public QuestionService(Questions questions) {
+        this.questions = questions;
+    }
+
+    /**
+     * Returns a page of questions in id order.
+     *
+     * @param afterId Keyset cursor; 0 starts from the first question.
+     * @param limit   Page size, capped at {@link #MAX_PAGE}.
+     * @return The questions.
+     */
+    public List<Question> list(long afterId, int limit) {
+        return questions.getQuestionsAfter(afterId, Math.max(1, Math.min(limit, MAX_PAGE)));
+    }
+
+    /**
+     * Returns one question.
+     *
+     * @param id The question id.
+     * @return The question.
+     * @throws NoSuchElementException if there is no such question.
+     */
+    public Question get(long id) {
+        Question q = questions.getQuestion(id);
+        if (q == null) throw new NoSuchElementException("No question " + id);
+        return q;
+    }
+
+    /**
+     * Posts a question after checking it the same way the question form does.
+     *
+     * @param author The user asking.
+     * @param title  The title.
+     * @param text   The question text.
+     * @return The stored question.
+     * @throws IllegalArgumentException if the title or text is rejected.
+     */
+    public Question ask(String author, String title, String text) {
+        String t = nonNull(title), body = nonNull(text);
+        ValidationResult check = questionEvaluator.validate(t, body);
+        if (!check.isValid()) throw new IllegalArgumentException(check.getMessage());
+        Question q = questions.createQuestion(body, author, t);
+        if (q == null) throw new IllegalStateException("The question could not be stored");
+        return q;
+    }
+
+    /**
+     * Searches questions by keywords, author and resolved state; any may be null.
+     * @return The matches, most relevant first when keywords are given, otherwise in id order.
+     * @return The matches, most relevant first when keywords are given.
+     * @throws SQLException if the search fails.
+     */
+    public List<Question> search(String text, String author, Boolean resolved) throws SQLException {
+        return new ArrayList<>(questions.advancedSearch(text, author, resolved));
+    }
+
+    /**
+     * Returns the questions without any answer, in id order.
+     *
+     * @return The unanswered questions.
+     * @throws SQLException if they have to be read from the database and that fails.
+     */
+    public List<Question> unanswered() throws SQLException {
+        return new ArrayList<>(questions.hasMorePages()
+                               ? questions.fetchUnansweredQuestions()
+                               : questions.getUnansweredQuestions());
+    }
+
+    /**
+     * Marks a question as resolved. Only its author may do so, as in the home page.
+     *
+     * @param id       The question id.
+     * @param userName The user asking for it.
+     */
+    public void resolve(long id, String userName) {
+        Question q = get(id);
+        if (!q.getAuthor().equals(userName)) {
+            throw new SecurityException("Only the author can mark a question as resolved");
+        }
+        questions.markQuestionAsResolved(q);
+    }
+
+    static String nonNull(String s) {
+        return s == null ? "" : s.trim();
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Sessions.java
+ *
+ * Sign-in for clients of the HTTP API: checks a user name and password once and hands
+ * out a bearer token for the requests that follow.
+ */
+
+package service;
+
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.LoginResult;
+import databasePart1.SessionManager;
+
+import java.sql.SQLException;
+
+/**
+ * The Sessions class signs API clients in through {@link DatabaseHelper#signIn}, so they
+ * share the login page's rate limit, and resolves their tokens with the database's
+ * {@link SessionManager}. A token is checked in memory on every request; it ends on
+ * {@link #logout(String)}, on expiry, when its user is banned, or on a restart.
+ */
+public class Sessions {
+    private final DatabaseHelper db;
+
+    /**
+     * Thrown when a client has made too many login attempts; the server answers 429.
+     */
+    public static class RateLimitedException extends SecurityException {
+        private static final long serialVersionUID = 1L;
+        private final long retryAfterMillis;
+
+        public RateLimitedException(long retryAfterMillis) {
+            super("Too many login attempts");
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+
+    public Sessions(DatabaseHelper db) {
+        this.db = db;
+    }
+
+    /**
+     * Signs a user in with the same checks as the login page.
+     *
+     * @param userName The user name.
+     * @param password The password.
+     * @param source   The client address the attempt came from.
+     * @return A new session token.
+     * @throws RateLimitedException if the user or the source has made too many attempts.
+     * @throws SecurityException    if the credentials are wrong or the user is banned.
+     * @throws SQLException         if the users table cannot be read.
+     */
+    public String login(String userName, String password, String source) throws SQLException {
+        LoginResult result = db.signIn(userName, password, source);
+        switch (result.getStatus()) {
+            case SIGNED_IN:    return result.getToken();
+            case RATE_LIMITED: throw new RateLimitedException(result.getRetryAfterMillis());
+            case BANNED:       throw new SecurityException("This account is banned");
+            default:           throw new SecurityException("Invalid user name or password");
+        }
+    }
+
+    /**
+     * Returns the user a token was issued to.
+     *
+     * @param token The bearer token, may be null.
+     * @return The user (without a password), or null if the token is not valid.
+     */
+    public User get(String token) {
+        SessionManager.Session s = db.getSessionManager().validate(token);
+        return s == null ? null : new User(s.getUserName(), "", s.getRole());
+    }
+
+    public void logout(String token) {
+        if (token != null) db.getSessionManager().revoke(token);
+    }
+}
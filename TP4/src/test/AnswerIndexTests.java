@@ -0,0 +1,132 @@
+/**
+ * AnswerIndexTests.java
+ *
+ * JUnit tests for the in-memory answer indexes kept by the Answers manager.
+ */
+
+package test;
+
+import application.Answer;
+import application.Answers;
+import application.Question;
+import application.Questions;
+import application.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the question, review and author indexes follow every change.
+ */
+public class AnswerIndexTests {
+
+    private static Connection connection;
+    private static Questions questions;
+    private static Answers answers;
+
+    private final User student  = new User("student", "", "user");
+    private final User reviewer = new User("reviewer", "", "reviewer");
+
+    /**
+     * Creates the questions and answers tables in a private in-memory database.
+     *
+     * @throws Exception if setup fails due to database issues.
+     */
+    @BeforeAll
+    public static void setupDatabase() throws Exception {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:answerindex;DB_CLOSE_DELAY=-1", "sa", "");
+        questions = new Questions(connection);
+        answers = new Answers(connection, questions, null);
+        questions.createTable();
+        answers.createTable();
+    }
+
+    /**
+     * Starts every test from empty tables and empty managers.
+     *
+     * @throws Exception if the tables cannot be cleared.
+     */
+    @BeforeEach
+    public void clearTables() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DELETE FROM answers");
+            st.execute("DELETE FROM questions");
+        }
+        questions.loadAllFromDB();
+        answers.loadAllFromDB();
+    }
+
+    /**
+     * Tests that answers and reviews are found through their indexes after creation.
+     */
+    @Test
+    public void testCreateMaintainsIndexes() {
+        questions.createQuestion("What is an index?", "student", "Indexes");
+        Question q = questions.getAllQuestions().get(0);
+
+        answers.createAnswer(q, "A lookup structure.", student, 0);
+        Answer answer = answers.getAnswersForQuestion(q.getId()).get(0);
+        answers.createAnswer(q, "Good answer.", reviewer, 1, answer.getId());
+
+        assertEquals(2, answers.getAnswersForQuestion(q.getId()).size(), "Answer and review belong to the question");
+        assertEquals(1, answers.getReviewsForAnswer(answer.getId()).size(), "Review should be indexed by parent");
+        assertEquals(1, answers.getAnswersByAuthor("reviewer").size(), "Review should be indexed by author");
+        assertTrue(answers.getAnswersForQuestion(-1).isEmpty(), "Unknown question has no answers");
+    }
+
+    /**
+     * Tests that deleting an answer removes it and its cascaded reviews from every index.
+     */
+    @Test
+    public void testDeleteRemovesAnswerAndReviews() {
+        questions.createQuestion("What is a cascade?", "student", "Cascade");
+        Question q = questions.getAllQuestions().get(0);
+        answers.createAnswer(q, "A chained delete.", student, 0);
+        Answer answer = answers.getAnswersForQuestion(q.getId()).get(0);
+        answers.createAnswer(q, "Correct.", reviewer, 1, answer.getId());
+
+        answers.deleteAnswer(answer, q);
+
+        assertTrue(answers.getAnswersForQuestion(q.getId()).isEmpty(), "Question index should be empty");
+        assertTrue(answers.getReviewsForAnswer(answer.getId()).isEmpty(), "Review index should be empty");
+        assertTrue(answers.getAnswersByAuthor("reviewer").isEmpty(), "Author index should be empty");
+        assertTrue(q.getAnswers().isEmpty(), "Question should hold no answers");
+    }
+
+    /**
+     * Tests that the indexes are rebuilt from the database on reload.
+     *
+     * @throws Exception if reloading fails.
+     */
+    @Test
+    public void testReloadRebuildsIndexes() throws Exception {
+        questions.createQuestion("What is a reload?", "student", "Reload");
+        Question q = questions.getAllQuestions().get(0);
+        answers.createAnswer(q, "Reading it again.", student, 0);
+
+        answers.loadAllFromDB();
+
+        List<Answer> reloaded = answers.getAnswersForQuestion(q.getId());
+        assertEquals(1, reloaded.size(), "Reloaded answer should be indexed");
+        assertEquals("student", reloaded.get(0).getAuthor());
+    }
+
+    /**
+     * Closes the in-memory database connection after all tests.
+     *
+     * @throws Exception if closing the connection fails.
+     */
+    @AfterAll
+    public static void cleanup() throws Exception {
+        connection.close();
+    }
+}
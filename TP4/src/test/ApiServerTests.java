@@ -0,0 +1,257 @@
+/**
+ * ApiServerTests.java
+ *
+ * JUnit tests for the HTTP API over the service layer.
+ */
+
+package test;
+
+import application.Answers;
+import application.AsyncDataAccess;
+import application.Questions;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.LoginRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.ApiServer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts a server on a free port over a private in-memory database and drives it with
+ * java.net.http: sign-in, asking and answering, voting, chat and the error statuses.
+ */
+public class ApiServerTests {
+
+    private DatabaseHelper db;
+    private ApiServer server;
+    private ExecutorService ui;
+    private ExecutorService handlers;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * Creates the database with a student and a reviewer, and starts the server.
+     *
+     * @throws Exception if the database or server cannot be set up.
+     */
+    @BeforeEach
+    public void startServer() throws Exception {
+        ui = Executors.newSingleThreadExecutor();
+        AsyncDataAccess.setUiExecutor(ui);
+        db = new DatabaseHelper();
+        db.connectToDatabase("jdbc:h2:mem:api" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        db.register(new User("sam", "Secret#123", "user"));
+        db.register(new User("rita", "Secret#456", "reviewer"));
+
+        Questions qs = new Questions(db.getConnectionPool());
+        Answers as = new Answers(db.getConnectionPool(), qs, db);
+        qs.loadAllFromDB();
+        as.loadAllFromDB();
+        server = new ApiServer(db, qs, as, new InetSocketAddress("127.0.0.1", 0),
+                                   handlers = ApiServer.newRequestExecutor());
+        server.start();
+    }
+
+    /**
+     * Stops the server and closes the database.
+     */
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        handlers.shutdown();
+        db.closeConnection();
+        AsyncDataAccess.setUiExecutor(null);
+        ui.shutdown();
+    }
+
+    /**
+     * Tests a question being asked, listed, answered, reviewed and voted on.
+     *
+     * @throws Exception if a request fails.
+     */
+    @Test
+    public void testQuestionAnswerFlow() throws Exception {
+        String sam = login("sam", "Secret#123");
+        String rita = login("rita", "Secret#456");
+
+        HttpResponse<String> asked = post("/api/questions", sam, "title=Streams&text=How do streams work%3F");
+        assertEquals(201, asked.statusCode(), asked.body());
+        long questionId = id(asked.body());
+
+        HttpResponse<String> listed = get("/api/questions", sam);
+        assertEquals(200, listed.statusCode());
+        assertTrue(listed.body().contains("\"title\":\"Streams\""));
+        assertTrue(get("/api/questions/unanswered", sam).body().contains("\"id\":" + questionId));
+
+        HttpResponse<String> answered = post("/api/questions/" + questionId + "/answers", sam,
+                                             "text=Use the map method.");
+        assertEquals(201, answered.statusCode(), answered.body());
+        long answerId = id(answered.body());
+        assertEquals("[]", get("/api/questions/unanswered", sam).body());
+
+        assertEquals(403, post("/api/questions/" + questionId + "/answers", sam,
+                               "text=Looks right.&parent=" + answerId).statusCode(), "Students cannot review");
+        assertEquals(201, post("/api/questions/" + questionId + "/answers", rita,
+                               "text=Looks right.&parent=" + answerId).statusCode());
+
+        assertEquals(204, post("/api/answers/" + answerId + "/vote", rita, "helpful=true").statusCode());
+        db.getVoteBuffer().flush();
+        assertEquals(1, likesInDatabase(answerId));
+
+        assertEquals(403, post("/api/questions/" + questionId + "/resolve", rita, "").statusCode());
+        assertEquals(204, post("/api/questions/" + questionId + "/resolve", sam, "").statusCode());
+    }
+
+    /**
+     * Tests the error statuses: no session, bad input, unknown ids and bad credentials.
+     *
+     * @throws Exception if a request fails.
+     */
+    @Test
+    public void testErrors() throws Exception {
+        assertEquals(401, get("/api/questions", null).statusCode());
+        assertEquals(403, send(HttpRequest.newBuilder(uri("/api/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("userName=sam&password=wrong"))).statusCode());
+
+        String sam = login("sam", "Secret#123");
+        HttpResponse<String> invalid = post("/api/questions", sam, "title=lower&text=No question mark");
+        assertEquals(400, invalid.statusCode());
+        assertTrue(invalid.body().contains("error"));
+        assertEquals(404, get("/api/questions/999", sam).statusCode());
+        assertEquals(400, get("/api/questions/abc", sam).statusCode());
+        assertEquals(404, get("/api/nothing", sam).statusCode());
+        assertEquals(403, get("/api/admin-requests", sam).statusCode(), "Students cannot see admin requests");
+
+        HttpResponse<String> limited = null;
+        for (int i = 0; i <= LoginRateLimiter.DEFAULT_USER_BURST; i++) {
+            limited = send(HttpRequest.newBuilder(uri("/api/login"))
+                    .POST(HttpRequest.BodyPublishers.ofString("userName=rita&password=wrong")));
+        }
+        assertEquals(429, limited.statusCode(), "Repeated wrong passwords are slowed down");
+        assertTrue(limited.headers().firstValue("Retry-After").isPresent());
+    }
+
+    /**
+     * Tests that a role change reaches a user who is already signed in: once demoted, their
+     * old token no longer opens the admin routes.
+     *
+     * @throws Exception if a request fails.
+     */
+    @Test
+    public void testRoleChangeReachesSignedInUser() throws Exception {
+        db.register(new User("ivan", "Secret#789", "instructor"));
+        String ivan = login("ivan", "Secret#789");
+        assertEquals(200, get("/api/admin-requests", ivan).statusCode());
+
+        assertTrue(db.changeUserRole("ivan", "user"));
+
+        assertEquals(403, get("/api/admin-requests", ivan).statusCode(), "The session has the new role");
+        assertEquals(200, get("/api/questions", ivan).statusCode(), "The user is still signed in");
+    }
+
+    /**
+     * Tests sending a chat message and reading it back from the other side.
+     *
+     * @throws Exception if a request fails.
+     */
+    @Test
+    public void testChat() throws Exception {
+        String sam = login("sam", "Secret#123");
+        String rita = login("rita", "Secret#456");
+
+        assertEquals(201, post("/api/chat/rita", sam, "text=Hi \"Rita\"").statusCode());
+        HttpResponse<String> history = get("/api/chat/sam", rita);
+        assertEquals(200, history.statusCode());
+        assertTrue(history.body().contains("\"text\":\"Hi \\\"Rita\\\"\""), history.body());
+        assertEquals(404, post("/api/chat/nobody", sam, "text=Hello").statusCode());
+        assertTrue(get("/api/chat/users?role=reviewer", sam).body().contains("\"rita\""));
+    }
+
+    /**
+     * Tests that a chat long poll waits until a message arrives and returns it, and that
+     * an idle poll ends empty after its wait.
+     *
+     * @throws Exception if a request fails.
+     */
+    @Test
+    public void testChatLongPoll() throws Exception {
+        String sam = login("sam", "Secret#123");
+        String rita = login("rita", "Secret#456");
+        assertEquals("[]", get("/api/chat/sam/poll?wait=0", rita).body());
+
+        CompletableFuture<HttpResponse<String>> waiting = client.sendAsync(
+                HttpRequest.newBuilder(uri("/api/chat/sam/poll?wait=10"))
+                           .header("Authorization", "Bearer " + rita).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Thread.sleep(200);
+        assertFalse(waiting.isDone(), "Nothing was sent yet, so the poll must still be open");
+
+        long sent = System.nanoTime();
+        assertEquals(201, post("/api/chat/rita", sam, "text=Are you there?").statusCode());
+        HttpResponse<String> woken = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(200, woken.statusCode());
+        assertTrue(woken.body().contains("Are you there?"), woken.body());
+        assertTrue(System.nanoTime() - sent < TimeUnit.SECONDS.toNanos(5), "Woken by the message, not the timeout");
+
+        long lastId = id(woken.body());
+        assertEquals("[]", get("/api/chat/sam/poll?wait=0&after=" + lastId, rita).body());
+    }
+
+    private int likesInDatabase(long answerId) throws Exception {
+        try (var pc = db.getConnectionPool().borrow();
+             var rs = pc.prepareStatement("SELECT likes FROM answers WHERE id=" + answerId).executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private String login(String user, String password) throws Exception {
+        HttpResponse<String> r = send(HttpRequest.newBuilder(uri("/api/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("userName=" + user + "&password=" + password.replace("#", "%23"))));
+        assertEquals(200, r.statusCode(), r.body());
+        Matcher m = Pattern.compile("\"token\":\"([^\"]+)\"").matcher(r.body());
+        assertTrue(m.find());
+        return m.group(1);
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        HttpRequest.Builder b = HttpRequest.newBuilder(uri(path)).GET();
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return send(b);
+    }
+
+    private HttpResponse<String> post(String path, String token, String form) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form.replace(" ", "+"))));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder b) throws Exception {
+        return client.send(b.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+
+    private static long id(String json) {
+        Matcher m = Pattern.compile("\"id\":(\\d+)").matcher(json);
+        assertTrue(m.find(), json);
+        return Long.parseLong(m.group(1));
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * AsyncDataAccessTests.java
+ *
+ * JUnit tests for the background data-access facade and its latency histogram.
+ */
+
+package test;
+
+import application.AsyncDataAccess;
+import databasePart1.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that work runs off the calling thread, failures reach the future,
+ * and every call is timed.
+ */
+public class AsyncDataAccessTests {
+
+    /**
+     * Tests that a call runs on a different thread and its result is delivered.
+     *
+     * @throws Exception if the future fails.
+     */
+    @Test
+    public void testSupplyRunsInBackground() throws Exception {
+        Thread caller = Thread.currentThread();
+        Thread worker = AsyncDataAccess.supply("test.thread", Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertNotSame(caller, worker, "Work should not run on the calling thread");
+        assertTrue(worker.isVirtual(), "Work should run on a virtual thread");
+        assertEquals(1, AsyncDataAccess.getLatency("test.thread").getCount(), "The call should be timed");
+    }
+
+    /**
+     * Tests that an exception thrown by the work fails the future.
+     */
+    @Test
+    public void testFailureCompletesExceptionally() {
+        ExecutionException e = assertThrows(ExecutionException.class, () ->
+                AsyncDataAccess.run("test.failure", () -> { throw new SQLException("boom"); })
+                               .get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(SQLException.class, e.getCause());
+        assertEquals(1, AsyncDataAccess.getLatency("test.failure").getCount(), "Failed calls are timed too");
+    }
+
+    /**
+     * Tests that percentiles land within a factor of two of the recorded samples.
+     */
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) histogram.record(1_000_000);   // 1 ms
+        histogram.record(100_000_000);                               // 100 ms
+
+        assertEquals(100, histogram.getCount());
+        double p50 = histogram.getPercentileMillis(0.50);
+        assertTrue(p50 >= 1.0 && p50 < 2.1, "p50 should be about 1 ms, was " + p50);
+        assertEquals(100.0, histogram.getPercentileMillis(1.0), 1e-9, "p100 is the maximum");
+        assertEquals(100.0, histogram.getMaxMillis(), 1e-9);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMillis(0.99));
+    }
+
+    /**
+     * Tests that a headless UI executor receives the work meant for the JavaFX thread.
+     *
+     * @throws Exception if the task does not run.
+     */
+    @Test
+    public void testUiExecutorReplacesFxThread() throws Exception {
+        ExecutorService ui = Executors.newSingleThreadExecutor(r -> new Thread(r, "test-ui"));
+        try {
+            AsyncDataAccess.setUiExecutor(ui);
+            CompletableFuture<String> thread = new CompletableFuture<>();
+            AsyncDataAccess.runOnFxThread(() -> thread.complete(Thread.currentThread().getName()));
+            assertEquals("test-ui", thread.get(5, TimeUnit.SECONDS));
+        } finally {
+            AsyncDataAccess.setUiExecutor(null);
+            ui.shutdown();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * BulkOnboardingTests.java
+ *
+ * JUnit tests for bulk invitation codes and the CSV user import.
+ */
+
+package test;
+
+import application.User;
+import databasePart1.BulkRegistrationReport;
+import databasePart1.DatabaseHelper;
+import databasePart1.PasswordHasher;
+import org.h2.api.Trigger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that bulk codes are distinct, stored and usable, and that a CSV import
+ * registers the good rows of a roster and reports each bad one with its line.
+ */
+public class BulkOnboardingTests {
+
+    private DatabaseHelper db;
+    private String url;
+
+    /**
+     * Connects to a private in-memory database with a cheap hasher.
+     *
+     * @throws Exception if the database cannot be set up.
+     */
+    @BeforeEach
+    public void connect() throws Exception {
+        db = new DatabaseHelper();
+        url = "jdbc:h2:mem:bulk" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        db.connectToDatabase(url, "sa", "");
+        db.setPasswordHasher(new PasswordHasher(1_000));
+    }
+
+    /**
+     * Closes the database after each test.
+     */
+    @AfterEach
+    public void close() {
+        db.closeConnection();
+    }
+
+    /**
+     * Tests that a course worth of codes is created distinct and that each works once.
+     *
+     * @throws Exception if the database cannot be written.
+     */
+    @Test
+    public void testGenerateInvitationCodes() throws Exception {
+        List<String> first = db.generateInvitationCodes(2_000);
+        List<String> second = db.generateInvitationCodes(500);
+
+        Set<String> all = new HashSet<>(first);
+        all.addAll(second);
+        assertEquals(2_500, all.size(), "Codes must not repeat, within or across calls");
+        assertTrue(first.get(0).matches("[A-Z2-9]{8}"), first.get(0));
+
+        String code = second.get(123);
+        assertTrue(db.validateInvitationCode(code));
+        assertFalse(db.validateInvitationCode(code), "A code works only once");
+        assertNotNull(db.generateInvitationCode());
+        assertThrows(IllegalArgumentException.class, () -> db.generateInvitationCodes(0));
+    }
+
+    /**
+     * Tests a roster with good rows, a header, blank and quoted lines, and one bad row
+     * of every kind.
+     *
+     * @throws Exception if the import fails.
+     */
+    @Test
+    public void testRegisterFromCsv() throws Exception {
+        db.register(new User("taken", "Secret#123", "user"));
+        String csv = String.join("\n",
+                "userName,password,role",
+                "alice,Secret#111",
+                "bobby,Secret#222,reviewer",
+                "",
+                "\"carol\",\"Sec,ret#333\",STAFF",
+                "taken,Secret#444",
+                "alice,Secret#555",
+                "b,Secret#666",
+                "dave,weak",
+                "erin,Secret#777,wizard",
+                "frank",
+                "gina,\"Secret#888");
+
+        BulkRegistrationReport report = db.registerFromCsv(new StringReader(csv));
+
+        assertEquals(3, report.getRegisteredCount(), report.getFailures().toString());
+        List<BulkRegistrationReport.Failure> failures = report.getFailures();
+        assertEquals(7, failures.size(), failures.toString());
+        int[] lines = failures.stream().mapToInt(BulkRegistrationReport.Failure::getLine).toArray();
+        assertArrayEquals(new int[] {6, 7, 8, 9, 10, 11, 12}, lines, "Failures are reported by line, in order");
+        assertEquals("taken", failures.get(0).getUserName());
+        assertTrue(failures.get(0).getReason().contains("taken"));
+        assertTrue(failures.get(1).getReason().contains("earlier row"));
+        assertTrue(failures.get(2).getReason().startsWith("Username Error"));
+        assertTrue(failures.get(3).getReason().startsWith("Password Error"));
+        assertTrue(failures.get(4).getReason().contains("wizard"));
+
+        assertTrue(db.login(new User("alice", "Secret#111", "user")));
+        assertTrue(db.login(new User("bobby", "Secret#222", "reviewer")));
+        assertTrue(db.login(new User("carol", "Sec,ret#333", "staff")));
+        assertTrue(db.doesUserExist("alice"));
+    }
+
+    /**
+     * Tests that a roster larger than one batch is registered completely.
+     *
+     * @throws Exception if the import fails.
+     */
+    @Test
+    public void testRegisterFromCsvInBatches() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 450; i++) csv.append("student").append(i).append(",Secret#").append(i).append('\n');
+        csv.append("student7,Secret#7\n");
+
+        BulkRegistrationReport report = db.registerFromCsv(new StringReader(csv.toString()));
+
+        assertEquals(450, report.getRegisteredCount());
+        assertEquals(1, report.getFailedCount());
+        assertEquals(451, report.getFailures().get(0).getLine());
+        assertEquals("user", db.getUserRole("student449"));
+    }
+
+    /**
+     * Tests that a name registered after the import checked for it, while its batch is
+     * being inserted, is reported as taken and the rest of the batch is kept, on its own
+     * and inside a unit of work.
+     *
+     * @throws Exception if the import fails.
+     */
+    @Test
+    public void testRegisterFromCsvRacingRegistration() throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement st = connection.createStatement()) {
+            st.execute("CREATE TRIGGER register_first BEFORE INSERT ON cse360users FOR EACH ROW CALL \""
+                    + RegisterElsewhere.class.getName() + "\"");
+        }
+
+        RegisterElsewhere.arm(url, "bobby");
+        BulkRegistrationReport report = db.registerFromCsv(new StringReader("alice,Secret#111\nbobby,Secret#222\ncarol,Secret#333"));
+        assertEquals(2, report.getRegisteredCount(), report.getFailures().toString());
+        assertEquals(1, report.getFailedCount());
+        assertEquals(2, report.getFailures().get(0).getLine());
+        assertTrue(report.getFailures().get(0).getReason().contains("taken"));
+        assertFalse(db.login(new User("bobby", "Secret#222", "user")), "The other registration is kept");
+
+        RegisterElsewhere.arm(url, "erin");
+        BulkRegistrationReport inUnit = db.inTransaction(pc -> {
+            try {
+                return db.registerFromCsv(new StringReader("dave,Secret#444\nerin,Secret#555"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        assertEquals(1, inUnit.getRegisteredCount(), inUnit.getFailures().toString());
+        assertEquals("erin", inUnit.getFailures().get(0).getUserName());
+        assertTrue(db.login(new User("dave", "Secret#444", "user")), "The unit commits the rest of the batch");
+    }
+
+    /**
+     * Registers one user name from another session, committed, the first time any row
+     * is inserted after {@link #arm}: between the import's check and its insert.
+     */
+    public static class RegisterElsewhere implements Trigger {
+        private static volatile String url;
+        private static volatile String userName;
+
+        static void arm(String databaseUrl, String name) {
+            url = databaseUrl;
+            userName = name;
+        }
+
+        @Override
+        public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+            String name = userName;
+            if (name == null) return;
+            userName = null;
+            try (Connection other = DriverManager.getConnection(url, "sa", "");
+                 Statement st = other.createStatement()) {
+                st.executeUpdate("INSERT INTO cse360users (userName,password,role) VALUES ('" + name + "','x','user')");
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * ChatMessageBusTests.java
+ *
+ * JUnit tests for push delivery of chat messages.
+ */
+
+package test;
+
+import application.ChatMessage;
+import databasePart1.ChatMessageBus;
+import databasePart1.InProcessChatMessageBus;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that both ends of a conversation are notified, closed subscriptions stop
+ * receiving, and a stalled subscriber is told about the messages it lost.
+ */
+public class ChatMessageBusTests {
+
+    /**
+     * Tests that the sender and the receiver each get the message, and nobody else does.
+     *
+     * @throws Exception if interrupted while waiting.
+     */
+    @Test
+    public void testDeliversToSenderAndReceiver() throws Exception {
+        try (InProcessChatMessageBus bus = new InProcessChatMessageBus()) {
+            BlockingQueue<ChatMessage> alice = new LinkedBlockingQueue<>();
+            BlockingQueue<ChatMessage> bob = new LinkedBlockingQueue<>();
+            BlockingQueue<ChatMessage> carol = new LinkedBlockingQueue<>();
+            bus.subscribe("alice", alice::add);
+            bus.subscribe("bob", bob::add);
+            bus.subscribe("carol", carol::add);
+
+            bus.publish(new ChatMessage(1, "alice", "bob", "hi"));
+
+            assertEquals(1, alice.poll(5, TimeUnit.SECONDS).getId());
+            assertEquals(1, bob.poll(5, TimeUnit.SECONDS).getId());
+            assertNull(carol.poll(100, TimeUnit.MILLISECONDS), "Other users should not see the message");
+        }
+    }
+
+    /**
+     * Tests that closing a subscription stops delivery.
+     *
+     * @throws Exception if interrupted while waiting.
+     */
+    @Test
+    public void testClosedSubscriptionStopsReceiving() throws Exception {
+        try (InProcessChatMessageBus bus = new InProcessChatMessageBus()) {
+            BlockingQueue<ChatMessage> bob = new LinkedBlockingQueue<>();
+            ChatMessageBus.Subscription s = bus.subscribe("bob", bob::add);
+            s.close();
+
+            bus.publish(new ChatMessage(1, "alice", "bob", "hi"));
+
+            assertNull(bob.poll(100, TimeUnit.MILLISECONDS));
+            assertEquals(0, bus.getSubscriberCount());
+        }
+    }
+
+    /**
+     * Tests that a full queue drops messages for the slow subscriber and reports the gap.
+     *
+     * @throws Exception if interrupted while waiting.
+     */
+    @Test
+    public void testSlowSubscriberIsToldAboutDrops() throws Exception {
+        try (InProcessChatMessageBus bus = new InProcessChatMessageBus(1, 1)) {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch reported = new CountDownLatch(1);
+            AtomicLong droppedSeen = new AtomicLong();
+            bus.subscribe("bob", new ChatMessageBus.Listener() {
+                @Override
+                public void onMessage(ChatMessage message) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void onMessagesDropped(long count) {
+                    droppedSeen.addAndGet(count);
+                    reported.countDown();
+                }
+            });
+
+            // one message is being handled, one waits in the queue, the rest are dropped
+            for (int i = 1; i <= 10; i++) {
+                bus.publish(new ChatMessage(i, "alice", "bob", "m" + i));
+            }
+            release.countDown();
+
+            assertTrue(reported.await(5, TimeUnit.SECONDS), "The subscriber should hear about the drops");
+            assertTrue(droppedSeen.get() > 0);
+            assertEquals(bus.getDroppedCount(), droppedSeen.get());
+            assertEquals(10, bus.getPublishedCount());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * ConnectionPoolTests.java
+ *
+ * JUnit tests for the bounded, re-entrant connection pool behind DatabaseHelper.
+ */
+
+package test;
+
+import databasePart1.ConnectionPool;
+import databasePart1.PooledConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for borrow/return, re-entrancy, bounding and statement caching.
+ */
+public class ConnectionPoolTests {
+
+    private ConnectionPool pool;
+
+    /**
+     * Opens a small pool over a private in-memory database.
+     *
+     * @throws Exception if the H2 driver cannot be loaded.
+     */
+    @BeforeEach
+    public void openPool() throws Exception {
+        Class.forName("org.h2.Driver");
+        pool = new ConnectionPool("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1", "sa", "", 2, 500);
+    }
+
+    /**
+     * Closes the pool after each test.
+     */
+    @AfterEach
+    public void closePool() {
+        pool.close();
+    }
+
+    /**
+     * Tests that a returned connection becomes idle again and is reused.
+     */
+    @Test
+    public void testBorrowAndReturn() throws SQLException {
+        try (PooledConnection pc = pool.borrow()) {
+            assertFalse(pc.getConnection().isClosed());
+            assertEquals(1, pool.getActiveCount(), "One connection should be active");
+        }
+        assertEquals(0, pool.getActiveCount(), "Nothing should be active after return");
+        assertEquals(1, pool.getIdleCount(), "The returned connection should be idle");
+        assertEquals(1, pool.getOpenCount(), "Only one physical connection should be opened");
+    }
+
+    /**
+     * Tests that a nested borrow on the same thread reuses the held connection.
+     */
+    @Test
+    public void testNestedBorrowIsReentrant() throws SQLException {
+        try (PooledConnection outer = pool.borrow();
+             PooledConnection inner = pool.borrow()) {
+            assertSame(outer, inner, "Nested borrow should return the same connection");
+            assertEquals(1, pool.getActiveCount(), "Nested borrow must not take a second slot");
+        }
+        assertEquals(0, pool.getActiveCount(), "Connection should be returned once both are closed");
+    }
+
+    /**
+     * Tests that prepared statements are cached per connection.
+     */
+    @Test
+    public void testStatementsAreCached() throws SQLException {
+        PreparedStatement first;
+        try (PooledConnection pc = pool.borrow()) {
+            first = pc.prepareStatement("SELECT 1");
+        }
+        try (PooledConnection pc = pool.borrow()) {
+            assertSame(first, pc.prepareStatement("SELECT 1"), "Same SQL should reuse the statement");
+        }
+    }
+
+    /**
+     * Tests that the statement cache is bounded: the least recently used statement is
+     * closed once the cache is full, and hits, misses and evictions are counted.
+     */
+    @Test
+    public void testStatementCacheEvictsLeastRecentlyUsed() throws SQLException {
+        try (ConnectionPool small = new ConnectionPool("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1", "sa", "", 1, 500, 2);
+             PooledConnection pc = small.borrow()) {
+            PreparedStatement one = pc.prepareStatement("SELECT 1");
+            PreparedStatement two = pc.prepareStatement("SELECT 2");
+            assertSame(one, pc.prepareStatement("SELECT 1"), "A hit should reuse the statement");
+            pc.prepareStatement("SELECT 3");   // evicts SELECT 2, the least recently used
+
+            assertTrue(two.isClosed(), "The evicted statement should be closed");
+            assertFalse(one.isClosed(), "The recently used statement should stay cached");
+            assertEquals(2, pc.getCachedStatementCount(), "The cache should stay at its bound");
+            assertEquals(1, small.getStatementHitCount());
+            assertEquals(3, small.getStatementMissCount());
+            assertEquals(1, small.getStatementEvictionCount());
+            assertEquals(0.25, small.getStatementHitRatio(), 1e-9);
+        }
+    }
+
+    /**
+     * Tests that the pool never hands out more connections than its bound and
+     * times out waiters that cannot be served.
+     */
+    @Test
+    public void testPoolIsBounded() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(3);
+        CountDownLatch holding = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger timeouts = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            workers.submit(() -> {
+                try (PooledConnection pc = pool.borrow()) {
+                    assertNotNull(pc.getConnection());
+                    holding.countDown();
+                    release.await();
+                }
+                return null;
+            });
+        }
+        assertTrue(holding.await(5, TimeUnit.SECONDS), "Both slots should be taken");
+        assertEquals(2, pool.getActiveCount(), "Pool should be saturated");
+
+        workers.submit(() -> {
+            try (PooledConnection pc = pool.borrow()) {
+                fail("Third borrow should not succeed while the pool is full, got " + pc);
+            } catch (SQLException e) {
+                timeouts.incrementAndGet();
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        release.countDown();
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, timeouts.get(), "The extra borrower should time out");
+        assertEquals(0, pool.getActiveCount(), "All connections should be returned");
+        assertTrue(pool.getMaxWaitMillis() > 0, "Wait time should have been recorded");
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * LoginRateLimiterTests.java
+ *
+ * JUnit tests for the login rate limit and the signed session tokens.
+ */
+
+package test;
+
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.LoginRateLimiter;
+import databasePart1.LoginResult;
+import databasePart1.PasswordHasher;
+import databasePart1.SessionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that attempts are limited per user and per source and regained over time,
+ * that a token is only accepted as issued and until it expires, and that signing in
+ * through the database carries the role and ends when the user is banned.
+ */
+public class LoginRateLimiterTests {
+
+    private DatabaseHelper db;
+
+    /**
+     * Connects to a private in-memory database with a cheap hasher.
+     *
+     * @throws Exception if the database cannot be set up.
+     */
+    @BeforeEach
+    public void connect() throws Exception {
+        db = new DatabaseHelper();
+        db.connectToDatabase("jdbc:h2:mem:limit" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        db.setPasswordHasher(new PasswordHasher(2_000));
+    }
+
+    /**
+     * Closes the database after each test.
+     */
+    @AfterEach
+    public void close() {
+        db.closeConnection();
+    }
+
+    /**
+     * Tests that a user's burst is used up, other users are unaffected, and attempts
+     * come back at the refill rate.
+     *
+     * @throws InterruptedException if the wait for a refill is interrupted.
+     */
+    @Test
+    public void testUserBucketEmptiesAndRefills() throws InterruptedException {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 600, 100, 600);   // one attempt per 100 ms
+
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("sam", "a"), "attempt " + i);
+        long wait = limiter.tryAcquire("sam", "b");
+        assertTrue(wait > 0 && wait <= 100, "The fourth attempt should wait for a token, got " + wait);
+        assertEquals(0, limiter.tryAcquire("rita", "a"), "Other users keep their own bucket");
+
+        Thread.sleep(wait + 20);
+        assertEquals(0, limiter.tryAcquire("sam", "a"), "A token should have come back");
+        assertEquals(5, limiter.getAllowedCount());
+        assertEquals(1, limiter.getDeniedCount());
+    }
+
+    /**
+     * Tests that one source cannot spread attempts over many users, and that a refused
+     * attempt does not use up the source's tokens.
+     */
+    @Test
+    public void testSourceLimitAcrossUsers() {
+        LoginRateLimiter limiter = new LoginRateLimiter(1, 1, 4, 1);
+
+        assertEquals(0, limiter.tryAcquire("u0", "10.0.0.1"));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("u0", "10.0.0.1") > 0, "u0 is out of attempts");
+        }
+        for (int i = 1; i <= 3; i++) assertEquals(0, limiter.tryAcquire("u" + i, "10.0.0.1"), "user u" + i);
+        assertTrue(limiter.tryAcquire("u4", "10.0.0.1") > 0, "The source is out of attempts");
+        assertEquals(0, limiter.tryAcquire("u4", "10.0.0.2"), "Another source is not");
+    }
+
+    /**
+     * Tests that a successful login gives the user their full burst back.
+     */
+    @Test
+    public void testSuccessRefillsUser() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 1, 100, 1);
+
+        assertEquals(0, limiter.tryAcquire("sam", "a"));
+        assertEquals(0, limiter.tryAcquire("sam", "a"));
+        assertTrue(limiter.tryAcquire("sam", "a") > 0);
+        limiter.succeeded("sam");
+        assertEquals(0, limiter.tryAcquire("sam", "a"));
+    }
+
+    /**
+     * Tests that altered, foreign, revoked and expired tokens are all refused.
+     *
+     * @throws InterruptedException if the wait for expiry is interrupted.
+     */
+    @Test
+    public void testTokensAreSignedAndExpire() throws InterruptedException {
+        SessionManager sessions = new SessionManager(null, 200);
+        String token = sessions.issue("sam", "user").getToken();
+
+        SessionManager.Session s = sessions.validate(token);
+        assertNotNull(s);
+        assertEquals("sam", s.getUserName());
+        assertEquals("user", s.getRole());
+
+        String[] parts = token.split("\\.");
+        assertNull(sessions.validate(parts[0] + "." + (Long.parseLong(parts[1]) + 60_000) + "." + parts[2]),
+                   "A later expiry must not keep the old signature valid");
+        assertNull(sessions.validate(token + "x"));
+        assertNull(sessions.validate("garbage"));
+        assertNull(new SessionManager().validate(token), "Another key must not accept the token");
+
+        String other = sessions.issue("rita", "reviewer").getToken();
+        sessions.revoke(other);
+        assertNull(sessions.validate(other));
+
+        Thread.sleep(250);
+        assertNull(sessions.validate(token), "The token has expired");
+        assertEquals(0, sessions.getActiveCount());
+    }
+
+    /**
+     * Tests signing in through the database: the outcomes, the role in the session,
+     * the lockout after repeated wrong passwords, and that a ban ends the session.
+     *
+     * @throws SQLException if the database cannot be read.
+     */
+    @Test
+    public void testSignInAndBanEndsSession() throws SQLException {
+        db.register(new User("sam", "Secret#123", "user"));
+        db.register(new User("rita", "Secret#456", "user"));
+
+        assertEquals(LoginResult.Status.UNKNOWN_USER, db.signIn("nobody", "x", "local").getStatus());
+        assertEquals(LoginResult.Status.WRONG_PASSWORD, db.signIn("sam", "wrong", "local").getStatus());
+
+        LoginResult ok = db.signIn("sam", "Secret#123", "local");
+        assertTrue(ok.isSignedIn());
+        assertEquals("user", ok.getSession().getRole());
+        assertSame(ok.getSession(), db.getSessionManager().validate(ok.getToken()));
+
+        for (int i = 0; i < LoginRateLimiter.DEFAULT_USER_BURST; i++) db.signIn("rita", "wrong", "local");
+        LoginResult limited = db.signIn("rita", "Secret#456", "local");
+        assertEquals(LoginResult.Status.RATE_LIMITED, limited.getStatus(), "Even the right password waits");
+        assertTrue(limited.getRetryAfterMillis() > 0);
+        assertTrue(limited.getMessage().startsWith("Too many attempts"));
+
+        db.userBanned("sam");
+        assertNull(db.getSessionManager().validate(ok.getToken()), "A ban ends the user's sessions");
+        assertTrue(ok.getSession().isBanned());
+        assertEquals(LoginResult.Status.BANNED, db.signIn("sam", "Secret#123", "local").getStatus());
+    }
+}
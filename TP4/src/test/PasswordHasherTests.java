@@ -0,0 +1,136 @@
+/**
+ * PasswordHasherTests.java
+ *
+ * JUnit tests for salted password hashing and the rehash on login.
+ */
+
+package test;
+
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.PasswordHasher;
+import databasePart1.PooledConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the hash format and verification, that passwords are never stored in plain
+ * text, and that legacy plain passwords and outdated work factors are upgraded when
+ * their owner logs in. Uses a low iteration count to keep the tests fast.
+ */
+public class PasswordHasherTests {
+
+    private DatabaseHelper db;
+
+    /**
+     * Connects to a private in-memory database with a cheap hasher.
+     *
+     * @throws Exception if the database cannot be set up.
+     */
+    @BeforeEach
+    public void connect() throws Exception {
+        db = new DatabaseHelper();
+        db.connectToDatabase("jdbc:h2:mem:hash" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        db.setPasswordHasher(new PasswordHasher(2_000));
+    }
+
+    /**
+     * Closes the database after each test.
+     */
+    @AfterEach
+    public void close() {
+        db.closeConnection();
+    }
+
+    /**
+     * Tests that hashes are salted, self-describing and verify only the right password.
+     */
+    @Test
+    public void testHashAndVerify() {
+        PasswordHasher hasher = new PasswordHasher(2_000);
+        String first = hasher.hash("Secret#123");
+        String second = hasher.hash("Secret#123");
+
+        assertTrue(first.startsWith("pbkdf2-sha256$2000$"), first);
+        assertNotEquals(first, second, "Each hash should get its own salt");
+        assertTrue(hasher.verify("Secret#123", first));
+        assertFalse(hasher.verify("Secret#124", first));
+        assertFalse(hasher.verify("Secret#123", "pbkdf2-sha256$2000$broken"));
+        assertTrue(new PasswordHasher(3_000).verify("Secret#123", first), "Older work factors still verify");
+    }
+
+    /**
+     * Tests that register stores a hash and login accepts only the right password and role.
+     *
+     * @throws SQLException if the database cannot be read.
+     */
+    @Test
+    public void testRegisterStoresHash() throws SQLException {
+        db.register(new User("sam", "Secret#123", "user"));
+
+        String stored = storedPassword("sam");
+        assertTrue(PasswordHasher.isHashed(stored), "The password must not be stored in plain text");
+        assertTrue(db.login(new User("sam", "Secret#123", "user")));
+        assertFalse(db.login(new User("sam", "wrong", "user")));
+        assertFalse(db.login(new User("sam", "Secret#123", "admin")), "The role still has to match");
+        assertFalse(db.login(new User("nobody", "Secret#123", "user")));
+    }
+
+    /**
+     * Tests that a plain password written before hashing existed still logs in and is
+     * replaced by a hash on that login.
+     *
+     * @throws SQLException if the database cannot be read.
+     */
+    @Test
+    public void testLegacyPlainPasswordIsRehashed() throws SQLException {
+        try (PooledConnection pc = db.getConnectionPool().borrow()) {
+            PreparedStatement ps = pc.prepareStatement(
+                    "INSERT INTO cse360users (userName, password, role) VALUES (?, ?, ?)");
+            ps.setString(1, "old");
+            ps.setString(2, "Plain#123");
+            ps.setString(3, "user");
+            ps.executeUpdate();
+        }
+
+        assertFalse(db.login(new User("old", "plain#123", "user")));
+        assertEquals("Plain#123", storedPassword("old"), "A failed login changes nothing");
+        assertTrue(db.login(new User("old", "Plain#123", "user")));
+        assertTrue(PasswordHasher.isHashed(storedPassword("old")), "The plain password should be replaced");
+        assertTrue(db.login(new User("old", "Plain#123", "user")));
+    }
+
+    /**
+     * Tests that raising the work factor rehashes a password at its next login.
+     *
+     * @throws SQLException if the database cannot be read.
+     */
+    @Test
+    public void testNewWorkFactorRehashesOnLogin() throws SQLException {
+        db.register(new User("rita", "Secret#456", "reviewer"));
+        db.setPasswordHasher(new PasswordHasher(4_000));
+
+        assertTrue(db.login(new User("rita", "Secret#456", "reviewer")));
+        String upgraded = storedPassword("rita");
+        assertTrue(upgraded.startsWith("pbkdf2-sha256$4000$"), upgraded);
+        assertTrue(db.login(new User("rita", "Secret#456", "reviewer")));
+        assertEquals(upgraded, storedPassword("rita"), "A current hash is left alone");
+    }
+
+    private String storedPassword(String userName) throws SQLException {
+        try (PooledConnection pc = db.getConnectionPool().borrow()) {
+            PreparedStatement ps = pc.prepareStatement("SELECT password FROM cse360users WHERE userName=?");
+            ps.setString(1, userName);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * QuestionPagingTests.java
+ *
+ * JUnit tests for keyset paging of questions and their answers.
+ */
+
+package test;
+
+import application.Answers;
+import application.Question;
+import application.QuestionPager;
+import application.Questions;
+import application.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that pages arrive in id order, stop at the end and bring their answers.
+ */
+public class QuestionPagingTests {
+
+    private static Connection connection;
+    private static Questions questions;
+    private static Answers answers;
+
+    /**
+     * Creates the tables in a private in-memory database.
+     *
+     * @throws Exception if setup fails due to database issues.
+     */
+    @BeforeAll
+    public static void setupDatabase() throws Exception {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:paging;DB_CLOSE_DELAY=-1", "sa", "");
+        questions = new Questions(connection);
+        answers = new Answers(connection, questions, null);
+        questions.createTable();
+        answers.createTable();
+    }
+
+    /**
+     * Fills the tables with five questions, each with one answer.
+     *
+     * @throws Exception if the tables cannot be reset.
+     */
+    @BeforeEach
+    public void fillTables() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DELETE FROM answers");
+            st.execute("DELETE FROM questions");
+        }
+        questions.loadAllFromDB();
+        answers.loadAllFromDB();
+        User student = new User("student", "", "user");
+        for (int i = 1; i <= 5; i++) {
+            questions.createQuestion("Question number " + i + "?", "student", "Q" + i);
+            Question q = questions.getAllQuestions().get(i - 1);
+            answers.createAnswer(q, "Answer " + i, student, 0);
+        }
+    }
+
+    /**
+     * Tests that pages arrive in id order and that paging stops after a short page.
+     *
+     * @throws Exception if loading fails.
+     */
+    @Test
+    public void testPagesInIdOrder() throws Exception {
+        QuestionPager pager = new QuestionPager(questions, answers, 2);
+        pager.loadFirstPage();
+        assertEquals(2, questions.getAllQuestions().size(), "First page should hold two questions");
+        assertEquals("Q1", questions.getAllQuestions().get(0).getTitle());
+
+        assertTrue(pager.loadNextPage());
+        assertTrue(pager.loadNextPage());
+        assertEquals(5, questions.getAllQuestions().size(), "All questions should be loaded");
+        assertEquals("Q5", questions.getAllQuestions().get(4).getTitle());
+        assertFalse(questions.hasMorePages(), "A short page marks the end");
+        assertFalse(pager.loadNextPage(), "Nothing left to load");
+    }
+
+    /**
+     * Tests that every page brings the answers of its questions and nothing else.
+     *
+     * @throws Exception if loading fails.
+     */
+    @Test
+    public void testPagesBringTheirAnswers() throws Exception {
+        QuestionPager pager = new QuestionPager(questions, answers, 2);
+        pager.loadFirstPage();
+
+        assertEquals(2, answers.getAllAnswers().size(), "Only the first page's answers should be loaded");
+        for (Question q : questions.getAllQuestions()) {
+            assertEquals(1, q.getAnswers().size(), "Each question should hold its answer");
+        }
+    }
+
+    /**
+     * Tests that a question created between pages is not loaded a second time.
+     *
+     * @throws Exception if loading fails.
+     */
+    @Test
+    public void testCreatedQuestionIsNotDuplicated() throws Exception {
+        QuestionPager pager = new QuestionPager(questions, answers, 3);
+        pager.loadFirstPage();
+        questions.createQuestion("A brand new question?", "student", "New");
+        Question created = questions.getAllQuestions().get(3);
+        answers.createAnswer(created, "Fresh answer", new User("student", "", "user"), 0);
+
+        while (pager.loadNextPage()) { }
+
+        assertEquals(6, questions.getAllQuestions().size(), "Each question should appear once");
+        assertEquals(1, created.getAnswers().size(), "Its answer should not be linked twice");
+        assertEquals(6, answers.getAllAnswers().size(), "Each answer should appear once");
+    }
+
+    /**
+     * Closes the in-memory database connection after all tests.
+     *
+     * @throws Exception if closing the connection fails.
+     */
+    @AfterAll
+    public static void cleanup() throws Exception {
+        connection.close();
+    }
+}
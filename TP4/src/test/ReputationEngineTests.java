@@ -0,0 +1,205 @@
+/**
+ * ReputationEngineTests.java
+ *
+ * JUnit tests for the running reviewer reputation kept in cse360users.
+ */
+
+package test;
+
+import application.Questions;
+import application.Answers;
+import databasePart1.ConnectionPool;
+import databasePart1.ReputationEngine;
+import databasePart1.VoteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the backfill from existing votes, incremental updates, the leaderboard, and
+ * that the totals are written together with the votes.
+ */
+public class ReputationEngineTests {
+
+    private static final String URL = "jdbc:h2:mem:reputation;DB_CLOSE_DELAY=-1";
+
+    private Connection connection;
+    private ConnectionPool pool;
+    private ReputationEngine reputation;
+    private VoteBuffer votes;
+
+    /**
+     * Creates users, questions and answers, with one reviewer whose review already has votes.
+     *
+     * @throws Exception if setup fails due to database issues.
+     */
+    @BeforeEach
+    public void setupDatabase() throws Exception {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection(URL, "sa", "");
+        Questions questions = new Questions(connection);
+        questions.createTable();
+        new Answers(connection, questions, null).createTable();
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS cse360users");
+            st.execute("""
+                CREATE TABLE cse360users (
+                    userName VARCHAR(255) UNIQUE,
+                    l_d_difference INT,
+                    num_ratings INT
+                )
+            """);
+            st.execute("INSERT INTO cse360users (userName) VALUES ('rev'), ('quiet')");
+            st.execute("DELETE FROM answers");
+            st.execute("DELETE FROM questions");
+            st.execute("INSERT INTO questions (id, text, author, title) VALUES (1, 'q', 'student', 't')");
+            st.execute("""
+                INSERT INTO answers (id, question_id, text, author, likes, dislikes, is_review)
+                VALUES (10, 1, 'review', 'rev', 3, 1, 1),
+                       (11, 1, 'answer', 'rev', 9, 0, 0)
+            """);
+        }
+        pool = new ConnectionPool(URL, "sa", "", 2);
+        reputation = new ReputationEngine(pool);
+        votes = new VoteBuffer(pool, reputation, TimeUnit.HOURS.toMillis(1), 1_000_000);
+        reputation.backfill();
+    }
+
+    /**
+     * Closes the pool and the setup connection.
+     *
+     * @throws Exception if closing fails.
+     */
+    @AfterEach
+    public void closeDatabase() throws Exception {
+        pool.close();
+        connection.close();
+    }
+
+    /**
+     * Tests that the backfill counts votes on reviews only.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testBackfillCountsReviewVotes() throws Exception {
+        assertArrayEquals(new int[] {2, 4}, storedTotals("rev"), "Only the review's 3 likes and 1 dislike count");
+        assertEquals(5.0, reputation.getRating("rev"), 1e-9);
+        assertArrayEquals(new int[] {0, 0}, storedTotals("quiet"));
+        assertNull(reputation.getRating("quiet"), "Nobody has voted on this user's reviews");
+    }
+
+    /**
+     * Tests that a later backfill adds to the totals already cached instead of dropping
+     * them, so votes not yet written are kept.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testBackfillKeepsRunningTotals() throws Exception {
+        reputation.recordVote("rev", false);
+        assertEquals(1, reputation.getTopReviewers(10).size());
+        try (Statement st = connection.createStatement()) {
+            st.execute("INSERT INTO cse360users (userName) VALUES ('late')");
+            st.execute("""
+                INSERT INTO answers (id, question_id, text, author, likes, dislikes, is_review)
+                VALUES (12, 1, 'review', 'late', 2, 0, 1)
+            """);
+        }
+        reputation.recordVote("late", true);   // cached while the row is still empty
+
+        reputation.backfill();
+
+        // rev: (1 / 5) * 4 + 3, with the unwritten dislike; late: 3 likes in all
+        assertEquals(3.8, reputation.getRating("rev"), 1e-9);
+        assertEquals(3, reputation.getTopReviewers(10).stream()
+                .filter(s -> s.getUserName().equals("late")).findFirst().orElseThrow().getRatings());
+        votes.flush();
+        assertArrayEquals(new int[] {3, 3}, storedTotals("late"));
+        assertArrayEquals(new int[] {1, 5}, storedTotals("rev"));
+    }
+
+    /**
+     * Tests that a vote changes the rating at once and reaches the table with the next flush.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testVotesUpdateRatingAndAreWrittenOnFlush() throws Exception {
+        reputation.recordVote("rev", false);
+        reputation.recordVote("rev", false);
+        votes.recordDislike(10);
+        votes.recordDislike(10);
+
+        // (3 - 3) / 6 * 4 + 3
+        assertEquals(3.0, reputation.getRating("rev"), 1e-9);
+        assertArrayEquals(new int[] {2, 4}, storedTotals("rev"), "Nothing is written before the flush");
+
+        votes.flush();
+
+        assertArrayEquals(new int[] {0, 6}, storedTotals("rev"));
+        assertEquals(3.0, new ReputationEngine(pool).getRating("rev"), 1e-9, "A fresh engine reads the stored totals");
+    }
+
+    /**
+     * Tests that deleting a review takes its votes back out.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testRemovedReviewNoLongerCounts() throws Exception {
+        reputation.removeReview("rev", 3, 1);
+        assertNull(reputation.getRating("rev"));
+
+        votes.flush();
+        assertArrayEquals(new int[] {0, 0}, storedTotals("rev"));
+    }
+
+    /**
+     * Tests that the leaderboard loads rated users from the table and re-sorts on every vote.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testTopReviewersFollowVotes() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("INSERT INTO cse360users (userName, l_d_difference, num_ratings) VALUES ('solid', 8, 10)");
+        }
+        ReputationEngine fresh = new ReputationEngine(pool);
+
+        // rev: 2/4 -> 5.00, solid: 8/10 -> 6.2 clamped to 5.00 but with more votes
+        List<ReputationEngine.ReviewerScore> top = fresh.getTopReviewers(10);
+        assertEquals(List.of("solid", "rev"), top.stream().map(ReputationEngine.ReviewerScore::getUserName).toList());
+
+        fresh.recordVote("solid", false);
+        fresh.recordVote("solid", false);
+        fresh.recordVote("solid", false);
+        // solid: 5/13 -> 4.54
+        top = fresh.getTopReviewers(10);
+        assertEquals("rev", top.get(0).getUserName());
+        assertEquals("solid", top.get(1).getUserName());
+        assertEquals(4.54, top.get(1).getRating(), 0.01);
+        assertEquals(1, fresh.getTopReviewers(1).size());
+
+        fresh.recordVote("quiet", true);
+        assertEquals(3, fresh.getTopReviewers(10).size(), "A first vote puts a reviewer on the board");
+    }
+
+    private int[] storedTotals(String user) throws Exception {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT l_d_difference, num_ratings FROM cse360users WHERE userName = '" + user + "'")) {
+            assertTrue(rs.next());
+            return new int[] {rs.getInt(1), rs.getInt(2)};
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * SchemaMigratorTests.java
+ *
+ * JUnit tests for the versioned schema migrations run at start-up.
+ */
+
+package test;
+
+import application.Answers;
+import application.Questions;
+import databasePart1.ConnectionPool;
+import databasePart1.DatabaseHelper;
+import databasePart1.SchemaMigrator;
+import databasePart1.SchemaMigrator.Migration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that migrations run once and in order, that a failure stops the run without
+ * recording the failed version, and that the shipped migrations apply to a fresh schema.
+ */
+public class SchemaMigratorTests {
+
+    private Connection connection;
+    private ConnectionPool pool;
+
+    /**
+     * Opens an empty private in-memory database.
+     *
+     * @throws Exception if the database cannot be opened.
+     */
+    @BeforeEach
+    public void openDatabase() throws Exception {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:migrations;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        pool = ConnectionPool.wrap(connection);
+    }
+
+    /**
+     * Closes the database.
+     *
+     * @throws Exception if closing fails.
+     */
+    @AfterEach
+    public void closeDatabase() throws Exception {
+        connection.close();
+    }
+
+    /**
+     * Tests that pending migrations apply in version order and a second run does nothing.
+     *
+     * @throws Exception if a migration fails.
+     */
+    @Test
+    public void testAppliesPendingMigrationsOnce() throws Exception {
+        List<Migration> migrations = List.of(
+                new Migration(2, "add column", "ALTER TABLE t ADD COLUMN name VARCHAR(20)"),
+                new Migration(1, "create table", "CREATE TABLE t (id INT PRIMARY KEY)"));
+        SchemaMigrator migrator = new SchemaMigrator(pool, migrations);
+
+        assertEquals(2, migrator.migrate().size(), "Version 1 must run before version 2 despite list order");
+        assertEquals(2, migrator.getCurrentVersion());
+        assertTrue(migrator.migrate().isEmpty(), "Nothing is left to apply");
+
+        SchemaMigrator later = new SchemaMigrator(pool, List.of(
+                migrations.get(0), migrations.get(1),
+                new Migration(3, "index name", "CREATE INDEX idx_t_name ON t (name)")));
+        List<Migration> applied = later.migrate();
+        assertEquals(1, applied.size());
+        assertEquals(3, applied.get(0).getVersion());
+    }
+
+    /**
+     * Tests that a failing migration is not recorded and stops the ones after it.
+     *
+     * @throws Exception if the version cannot be read.
+     */
+    @Test
+    public void testFailureStopsAndIsNotRecorded() throws Exception {
+        SchemaMigrator migrator = new SchemaMigrator(pool, List.of(
+                new Migration(1, "create table", "CREATE TABLE t (id INT PRIMARY KEY)"),
+                new Migration(2, "broken", "ALTER TABLE missing ADD COLUMN x INT"),
+                new Migration(3, "never reached", "CREATE TABLE u (id INT)")));
+
+        SQLException e = assertThrows(SQLException.class, migrator::migrate);
+        assertTrue(e.getMessage().contains("Schema migration 2"));
+        assertEquals(1, migrator.getCurrentVersion());
+        assertFalse(tableExists("U"));
+    }
+
+    /**
+     * Tests that two migrations with the same version are rejected.
+     */
+    @Test
+    public void testDuplicateVersionsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(pool, List.of(
+                new Migration(1, "a", "SELECT 1"),
+                new Migration(1, "b", "SELECT 1"))));
+    }
+
+    /**
+     * Tests that the shipped migrations apply to freshly created tables and create the indexes.
+     *
+     * @throws Exception if a migration fails.
+     */
+    @Test
+    public void testShippedMigrationsApply() throws Exception {
+        Questions questions = new Questions(pool);
+        questions.createTable();
+        new Answers(pool, questions, null).createTable();
+        try (Statement st = connection.createStatement()) {
+            st.execute("""
+                CREATE TABLE chat_messages (
+                    chat_Id INT AUTO_INCREMENT PRIMARY KEY,
+                    student_Id VARCHAR(300),
+                    comment VARCHAR(1000),
+                    thread_Id INT,
+                    reviewer VARCHAR(300)
+                )
+            """);
+            st.execute("INSERT INTO chat_messages (student_Id, reviewer, comment) VALUES ('zed', 'amy', 'hi')");
+            st.execute("CREATE TABLE admin_requests (id IDENTITY PRIMARY KEY, status VARCHAR(20))");
+            st.execute("CREATE TABLE cse360users (userName VARCHAR(255) UNIQUE, l_d_difference INT, num_ratings INT)");
+            st.execute("INSERT INTO cse360users (userName) VALUES ('amy')");
+            st.execute("INSERT INTO questions (id, text, author, title) VALUES (1, 'q', 'zed', 't')");
+            st.execute("INSERT INTO answers (question_id, text, author, likes, dislikes, is_review) VALUES (1, 'r', 'amy', 2, 1, 1)");
+        }
+
+        SchemaMigrator migrator = new SchemaMigrator(pool);
+        assertEquals(SchemaMigrator.MIGRATIONS.size(), migrator.migrate().size());
+        assertTrue(indexExists("IDX_ANSWERS_AUTHOR"));
+        assertTrue(indexExists("IDX_QUESTIONS_RESOLVED"));
+        assertTrue(indexExists("IDX_ADMIN_REQUESTS_STATUS"));
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT conversation_key FROM chat_messages")) {
+            assertTrue(rs.next());
+            assertEquals("amy|zed", rs.getString(1), "Existing messages are given their conversation key");
+        }
+        try (Statement st = connection.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT l_d_difference, num_ratings FROM cse360users")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1), "Existing reviewers are given totals from their votes");
+                assertEquals(3, rs.getInt(2));
+            }
+            st.execute("INSERT INTO cse360users (userName) VALUES ('newbie')");
+            try (ResultSet rs = st.executeQuery("SELECT num_ratings FROM cse360users WHERE userName = 'newbie'")) {
+                assertTrue(rs.next());
+                assertEquals(0, rs.getInt(1));
+                assertFalse(rs.wasNull(), "New users start at zero");
+            }
+        }
+    }
+
+    /**
+     * Tests that connecting to a database from before the later answer columns existed
+     * migrates it first, instead of failing in code that reads those columns.
+     *
+     * @throws Exception if the upgrade fails.
+     */
+    @Test
+    public void testConnectUpgradesEarlyDatabase() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute(Questions.CREATE_TABLE_SQL);
+            st.execute("""
+                CREATE TABLE answers (
+                  id IDENTITY PRIMARY KEY,
+                  question_id BIGINT NOT NULL,
+                  text VARCHAR(255) NOT NULL,
+                  author VARCHAR(255) NOT NULL,
+                  likes INT DEFAULT 0,
+                  FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE
+                )
+            """);
+            st.execute("""
+                CREATE TABLE cse360users (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    userName VARCHAR(255) UNIQUE,
+                    password VARCHAR(255),
+                    role VARCHAR(20),
+                    l_d_difference INT,
+                    num_ratings INT,
+                    reviewer_request BOOLEAN DEFAULT FALSE,
+                    isBanned BOOLEAN DEFAULT FALSE
+                )
+            """);
+            st.execute("INSERT INTO cse360users (userName, password, role) VALUES ('rev', 'pw', 'reviewer')");
+            st.execute("INSERT INTO questions (id, text, author, title) VALUES (1, 'Why?', 'sam', 'Early')");
+            st.execute("INSERT INTO answers (question_id, text, author, likes) VALUES (1, 'Because', 'rev', 2)");
+        }
+
+        DatabaseHelper db = new DatabaseHelper();
+        try {
+            db.connectToDatabase("jdbc:h2:mem:migrations;DB_CLOSE_DELAY=-1", "sa", "");
+            assertEquals(SchemaMigrator.MIGRATIONS.size(), new SchemaMigrator(pool).getCurrentVersion());
+
+            Answers answers = new Answers(db.getConnectionPool(), new Questions(db.getConnectionPool()), db);
+            answers.loadAllFromDB();
+            assertEquals(1, answers.getAnswersForQuestion(1).size());
+            assertEquals(0, answers.getAnswersForQuestion(1).get(0).getDislikes(), "The added column has its default");
+        } finally {
+            db.closeConnection();
+        }
+    }
+
+    private boolean tableExists(String name) throws Exception {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = '" + name + "'")) {
+            rs.next();
+            return rs.getInt(1) > 0;
+        }
+    }
+
+    private boolean indexExists(String name) throws Exception {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = '" + name + "'")) {
+            rs.next();
+            return rs.getInt(1) > 0;
+        }
+    }
+}
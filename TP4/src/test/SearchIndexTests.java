@@ -0,0 +1,184 @@
+/**
+ * SearchIndexTests.java
+ *
+ * JUnit tests for the keyword index behind question search.
+ */
+
+package test;
+
+import application.Answer;
+import application.Answers;
+import application.Question;
+import application.Questions;
+import application.SearchIndex;
+import application.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies tokenizing, prefix matching, ranking and index maintenance.
+ */
+public class SearchIndexTests {
+
+    private static Connection connection;
+    private static Questions questions;
+    private static Answers answers;
+
+    /**
+     * Creates the tables and the postings table in a private in-memory database.
+     *
+     * @throws Exception if setup fails due to database issues.
+     */
+    @BeforeAll
+    public static void setupDatabase() throws Exception {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:searchindex;DB_CLOSE_DELAY=-1", "sa", "");
+        questions = new Questions(connection);
+        answers = new Answers(connection, questions, null);
+        questions.createTable();
+        answers.createTable();
+    }
+
+    /**
+     * Starts every test from empty tables and empty managers.
+     *
+     * @throws Exception if the tables cannot be cleared.
+     */
+    @BeforeEach
+    public void clearTables() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DELETE FROM answers");
+            st.execute("DELETE FROM questions");
+        }
+        questions.loadAllFromDB();
+        answers.loadAllFromDB();
+    }
+
+    /**
+     * Tests that tokenizing lower-cases, splits on punctuation and drops stop words.
+     */
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("java", "streams", "work"), SearchIndex.tokenize("How do Java-streams work?"));
+        assertTrue(SearchIndex.tokenize(null).isEmpty(), "Null text has no terms");
+    }
+
+    /**
+     * Tests that a word prefix finds the question and that title hits rank first.
+     *
+     * @throws Exception if searching fails.
+     */
+    @Test
+    public void testPrefixMatchAndTitleRanking() throws Exception {
+        questions.createQuestion("My loop never ends, what about threads?", "student", "Loop question");
+        questions.createQuestion("Can two threads share a list?", "student", "Threading basics");
+
+        List<Question> results = questions.search("thread");
+
+        assertEquals(2, results.size(), "Prefix should match 'threads' and 'threading'");
+        assertEquals("Threading basics", results.get(0).getTitle(), "Title hit should rank first");
+    }
+
+    /**
+     * Tests that questions matching more query words rank above partial matches.
+     *
+     * @throws Exception if searching fails.
+     */
+    @Test
+    public void testAllWordsRankAbovePartialMatches() throws Exception {
+        questions.createQuestion("How does a heap work?", "student", "Heap heap heap");
+        questions.createQuestion("Is the heap bigger than the stack?", "student", "Memory");
+
+        List<Question> results = questions.search("heap stack");
+
+        assertEquals("Memory", results.get(0).getTitle(), "Matching both words should win");
+    }
+
+    /**
+     * Tests that answers are searchable and that edits and deletes update the index.
+     *
+     * @throws Exception if searching fails.
+     */
+    @Test
+    public void testIndexFollowsChanges() throws Exception {
+        questions.createQuestion("Why does my build fail?", "student", "Build");
+        Question q = questions.getAllQuestions().get(0);
+        answers.createAnswer(q, "Check the classpath.", new User("helper", "", "user"), 0);
+        Answer answer = answers.getAnswersForQuestion(q.getId()).get(0);
+
+        assertEquals(1, questions.search("classpath").size(), "Answer text should be searchable");
+
+        answers.updateAnswer(answer, "Check the module path.");
+        assertTrue(questions.search("classpath").isEmpty(), "Old answer text should be gone");
+
+        questions.updateQuestion(q, "Why does gradle fail?");
+        assertEquals(1, questions.search("gradle").size(), "Edited question text should be searchable");
+
+        questions.deleteQuestion(q);
+        assertTrue(questions.search("build").isEmpty(), "Deleted question should not be found");
+    }
+
+    /**
+     * Tests that the resolved filter still applies to keyword results, and that a search
+     * without keywords lists questions in id order.
+     *
+     * @throws Exception if searching fails.
+     */
+    @Test
+    public void testAdvancedSearchFilters() throws Exception {
+        questions.createQuestion("What is a lambda?", "alice", "Lambda");
+        questions.createQuestion("Lambda capture rules?", "bob", "Lambda capture");
+        questions.markQuestionAsResolved(questions.getAllQuestions().get(1));
+
+        List<Question> results = questions.advancedSearch("lambda", null, true);
+
+        assertEquals(1, results.size(), "Only the resolved question should match");
+        assertEquals("bob", results.get(0).getAuthor());
+
+        List<Question> all = questions.advancedSearch("", null, null);
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getId() < all.get(i).getId(), "Without keywords results are in id order");
+        }
+    }
+
+    /**
+     * Tests that filters apply before the result limit, so matches that rank below the
+     * first {@link Questions#SEARCH_LIMIT} are still found.
+     *
+     * @throws Exception if searching fails.
+     */
+    @Test
+    public void testFiltersApplyBeforeLimit() throws Exception {
+        for (int i = 0; i < Questions.SEARCH_LIMIT + 50; i++) {
+            questions.createQuestion("Lambda question " + i + "?", "alice", "Lambda " + i);
+        }
+        // only in the body, so these rank below every question with the word in its title
+        questions.createQuestion("Is a lambda an object?", "carol", "Objects");
+        questions.createQuestion("Can a lambda throw?", "carol", "Exceptions");
+
+        assertEquals(Questions.SEARCH_LIMIT, questions.advancedSearch("lambda", null, null).size());
+        List<Question> carols = questions.advancedSearch("lambda", "carol", null);
+        assertEquals(2, carols.size(), "Low-ranked matches by the author are not cut off");
+        assertEquals(Questions.SEARCH_LIMIT, questions.advancedSearch("lambda", "alice", null).size(),
+                     "The limit still applies after filtering");
+    }
+
+    /**
+     * Closes the in-memory database connection after all tests.
+     *
+     * @throws Exception if closing the connection fails.
+     */
+    @AfterAll
+    public static void cleanup() throws Exception {
+        connection.close();
+    }
+}
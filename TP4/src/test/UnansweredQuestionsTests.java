@@ -0,0 +1,146 @@
+/**
+ * UnansweredQuestionsTests.java
+ *
+ * JUnit tests for the unanswered-question set and its SQL equivalent.
+ */
+
+package test;
+
+import application.Answer;
+import application.Answers;
+import application.Question;
+import application.QuestionPager;
+import application.Questions;
+import application.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that creating and deleting questions and answers keeps the set current,
+ * and that the database query agrees with it.
+ */
+public class UnansweredQuestionsTests {
+
+    private static Connection connection;
+    private static Questions questions;
+    private static Answers answers;
+    private static final User STUDENT = new User("student", "", "user");
+
+    /**
+     * Creates the tables in a private in-memory database and links the two managers.
+     *
+     * @throws Exception if setup fails due to database issues.
+     */
+    @BeforeAll
+    public static void setupDatabase() throws Exception {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:unanswered;DB_CLOSE_DELAY=-1", "sa", "");
+        questions = new Questions(connection);
+        answers = new Answers(connection, questions, null);
+        questions.createTable();
+        answers.createTable();
+    }
+
+    /**
+     * Starts every test from empty tables with everything loaded.
+     *
+     * @throws Exception if the tables cannot be cleared.
+     */
+    @BeforeEach
+    public void clearTables() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DELETE FROM answers");
+            st.execute("DELETE FROM questions");
+        }
+        questions.loadAllFromDB();
+        answers.loadAllFromDB();
+    }
+
+    /**
+     * Closes the shared connection.
+     *
+     * @throws Exception if closing fails.
+     */
+    @AfterAll
+    public static void closeDatabase() throws Exception {
+        connection.close();
+    }
+
+    /**
+     * Tests that answering, un-answering and deleting questions move them in and out of the set.
+     *
+     * @throws Exception if the database query fails.
+     */
+    @Test
+    public void testSetFollowsAnswersAndQuestions() throws Exception {
+        questions.createQuestion("First?", "student", "Q1");
+        questions.createQuestion("Second?", "student", "Q2");
+        questions.createQuestion("Third?", "student", "Q3");
+        Question q1 = questions.getAllQuestions().get(0);
+        Question q2 = questions.getAllQuestions().get(1);
+        Question q3 = questions.getAllQuestions().get(2);
+        assertEquals(List.of(q1, q2, q3), questions.getUnansweredQuestions());
+
+        answers.createAnswer(q2, "An answer", STUDENT, 0);
+        assertEquals(List.of(q1, q3), questions.getUnansweredQuestions());
+
+        Answer answer = answers.getAnswersForQuestion(q2.getId()).get(0);
+        answers.deleteAnswer(answer, q2);
+        assertEquals(List.of(q1, q2, q3), questions.getUnansweredQuestions(), "Deleting the only answer");
+
+        questions.deleteQuestion(q3);
+        answers.createAnswer(q1, "Another answer", STUDENT, 0);
+        assertEquals(List.of(q2), questions.getUnansweredQuestions());
+        assertEquals(questions.getUnansweredQuestions(), questions.fetchUnansweredQuestions(),
+                "The database query must agree with the set");
+        assertSame(q2, questions.fetchUnansweredQuestions().get(0), "Loaded questions come back as the same instance");
+    }
+
+    /**
+     * Tests that a reload rebuilds the set from the database.
+     *
+     * @throws Exception if loading fails.
+     */
+    @Test
+    public void testReloadRebuildsSet() throws Exception {
+        questions.createQuestion("Answered?", "student", "A");
+        questions.createQuestion("Open?", "student", "B");
+        answers.createAnswer(questions.getAllQuestions().get(0), "Yes", STUDENT, 0);
+
+        questions.loadAllFromDB();
+        answers.loadAllFromDB();
+        answers.linkAnswersToQuestions(questions.getAllQuestions());
+
+        List<Question> unanswered = questions.getUnansweredQuestions();
+        assertEquals(1, unanswered.size());
+        assertEquals("B", unanswered.get(0).getTitle());
+    }
+
+    /**
+     * Tests that the database query also finds questions on pages not loaded yet.
+     *
+     * @throws Exception if loading fails.
+     */
+    @Test
+    public void testDatabaseQueryCoversUnloadedPages() throws Exception {
+        for (int i = 1; i <= 6; i++) {
+            questions.createQuestion("Question " + i + "?", "student", "Q" + i);
+        }
+        answers.createAnswer(questions.getAllQuestions().get(0), "Answer", STUDENT, 0);
+
+        QuestionPager pager = new QuestionPager(questions, answers, 2);
+        pager.loadFirstPage();
+        assertTrue(questions.hasMorePages());
+        assertEquals(1, questions.getUnansweredQuestions().size(), "Only the loaded page is in memory");
+        assertEquals(5, questions.fetchUnansweredQuestions().size());
+    }
+}
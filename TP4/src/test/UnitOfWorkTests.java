@@ -0,0 +1,383 @@
+/**
+ * UnitOfWorkTests.java
+ *
+ * JUnit tests for running several data-access calls in one transaction.
+ */
+
+package test;
+
+import application.AdminRequest;
+import application.Answer;
+import application.Answers;
+import application.AsyncDataAccess;
+import application.Question;
+import application.Questions;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.InProcessChatMessageBus;
+import databasePart1.PasswordHasher;
+import databasePart1.PooledConnection;
+import databasePart1.UnitOfWork;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a unit of work commits all of its calls or none, that in-memory state
+ * and caches only follow a commit, that nested units join the outer one, and that the
+ * composite operations built on it – ban, invitation sign-up, reopen – are atomic.
+ */
+public class UnitOfWorkTests {
+
+    private DatabaseHelper db;
+    private Questions questions;
+
+    /**
+     * Connects to a private in-memory database with a cheap hasher and runs UI updates inline.
+     *
+     * @throws Exception if the database cannot be set up.
+     */
+    @BeforeEach
+    public void connect() throws Exception {
+        AsyncDataAccess.setUiExecutor(Runnable::run);
+        db = new DatabaseHelper();
+        db.connectToDatabase("jdbc:h2:mem:uow" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        db.setPasswordHasher(new PasswordHasher(1_000));
+        questions = new Questions(db.getConnectionPool());
+        questions.loadAllFromDB();
+    }
+
+    /**
+     * Closes the database after each test.
+     */
+    @AfterEach
+    public void close() {
+        db.closeConnection();
+        AsyncDataAccess.setUiExecutor(null);
+    }
+
+    /**
+     * Tests that the calls of a unit of work are stored together and that after-commit
+     * actions run only once they are.
+     *
+     * @throws SQLException if the database fails.
+     */
+    @Test
+    public void testCommitsTogether() throws SQLException {
+        AtomicBoolean afterCommitRan = new AtomicBoolean();
+        long id = db.inTransaction(pc -> {
+            db.register(new User("sam", "Secret#123", "user"));
+            long request = db.createAdminRequest("Need a new section", "sam");
+            UnitOfWork.afterCommit(db.getConnectionPool(), () -> afterCommitRan.set(true));
+            assertTrue(UnitOfWork.isActive(db.getConnectionPool()));
+            assertFalse(afterCommitRan.get(), "Nothing runs before the commit");
+            return request;
+        });
+
+        assertTrue(afterCommitRan.get());
+        assertFalse(UnitOfWork.isActive(db.getConnectionPool()));
+        assertTrue(db.doesUserExist("sam"));
+        assertTrue(id > 0);
+        assertEquals(1, db.getAdminRequests(false).size());
+    }
+
+    /**
+     * Tests that a failure rolls back every call, leaves no stale cache entry and skips
+     * the after-commit actions.
+     */
+    @Test
+    public void testRollsBackOnFailure() {
+        assertFalse(db.doesUserExist("sam"));   // caches "does not exist"
+        AtomicBoolean afterCommitRan = new AtomicBoolean();
+
+        assertThrows(IllegalStateException.class, () -> db.inTransaction(pc -> {
+            db.register(new User("sam", "Secret#123", "user"));
+            db.createAdminRequest("Never stored", "sam");
+            UnitOfWork.afterCommit(db.getConnectionPool(), () -> afterCommitRan.set(true));
+            throw new IllegalStateException("boom");
+        }));
+
+        assertFalse(afterCommitRan.get());
+        assertFalse(db.doesUserExist("sam"));
+        assertTrue(db.getAdminRequests(true).isEmpty());
+        assertEquals(1, db.getConnectionPool().getIdleCount(), "The connection is back in the pool");
+    }
+
+    /**
+     * Tests that a nested unit joins the outer one, and that the outer one cannot commit
+     * after an inner one failed, even if it catches the exception.
+     *
+     * @throws SQLException if the database fails.
+     */
+    @Test
+    public void testNestedUnitJoinsAndCannotBeIgnored() throws SQLException {
+        db.inTransaction(pc -> {
+            db.createAdminRequest("Outer", "sam");
+            return db.generateInvitationCodes(3);   // its own unit of work, joined here
+        });
+        assertEquals(1, db.getAdminRequests(false).size());
+
+        SQLException e = assertThrows(SQLException.class, () -> db.inTransaction(pc -> {
+            db.createAdminRequest("Lost with the inner failure", "sam");
+            try {
+                db.inTransaction(inner -> {
+                    throw new SQLException("inner");
+                });
+            } catch (SQLException ignored) {
+                // the outer unit carries on as if nothing happened
+            }
+            return null;
+        }));
+        assertTrue(e.getMessage().contains("rolled back"), e.getMessage());
+        assertEquals(1, db.getAdminRequests(false).size());
+    }
+
+    /**
+     * Tests the staff ban: the ban and the delete commit together, and a failure after
+     * both leaves the user unbanned and the question loaded.
+     *
+     * @throws SQLException if the database fails.
+     */
+    @Test
+    public void testBanAndDeleteAreAtomic() throws SQLException {
+        db.register(new User("sam", "Secret#123", "user"));
+        User sam = new User("sam", "Secret#123", "user");
+        Question first = questions.createQuestion("Why?", "sam", "First question");
+        Question second = questions.createQuestion("How?", "sam", "Second question");
+        assertFalse(db.isUserBanned(sam));   // caches "not banned"
+
+        assertThrows(IllegalStateException.class, () -> db.inTransaction(pc -> {
+            db.userBanned("sam");
+            questions.deleteQuestion(first);
+            throw new IllegalStateException("the staff member's session ended");
+        }));
+        assertFalse(db.isUserBanned(sam), "The ban was rolled back");
+        assertNotNull(questions.getQuestion(first.getId()), "So was the delete");
+        assertEquals(2, questions.countTotalQuestions());
+
+        db.inTransaction(pc -> {
+            db.userBanned("sam");
+            questions.deleteQuestion(second);
+            return null;
+        });
+        assertTrue(db.isUserBanned(sam));
+        assertNull(questions.getQuestion(second.getId()));
+        assertFalse(questions.getAllQuestions().contains(second));
+        assertEquals(1, questions.countTotalQuestions());
+    }
+
+    /**
+     * Tests that a question and answer created in a unit of work that rolls back never
+     * reach the loaded lists, and do once a unit commits.
+     *
+     * @throws SQLException if the database fails.
+     */
+    @Test
+    public void testCreatedRowsLoadOnlyAfterCommit() throws SQLException {
+        Answers answers = new Answers(db.getConnectionPool(), questions, db);
+        User sam = new User("sam", "Secret#123", "user");
+
+        assertThrows(IllegalStateException.class, () -> db.inTransaction(pc -> {
+            Question q = questions.createQuestion("Why?", "sam", "Rolled back");
+            answers.createAnswer(q, "Because.", sam, 0);
+            assertNull(questions.getQuestion(q.getId()), "Not loaded before the commit");
+            throw new IllegalStateException("boom");
+        }));
+        assertTrue(questions.getAllQuestions().isEmpty());
+        assertTrue(answers.getAllAnswers().isEmpty());
+        assertTrue(questions.getUnansweredQuestions().isEmpty());
+
+        Question kept = db.inTransaction(pc -> {
+            Question q = questions.createQuestion("How?", "sam", "Committed");
+            answers.createAnswer(q, "Like this.", sam, 0);
+            return q;
+        });
+        assertSame(kept, questions.getQuestion(kept.getId()));
+        assertEquals(1, answers.getAnswersForQuestion(kept.getId()).size());
+        assertEquals(1, kept.getAnswers().size());
+    }
+
+    /**
+     * Tests that deleting a review in a unit of work that rolls back leaves its author's
+     * reputation alone, and takes the votes out once a delete commits.
+     *
+     * @throws SQLException if the database fails.
+     */
+    @Test
+    public void testReviewDeleteMovesReputationOnlyAfterCommit() throws SQLException {
+        Answers answers = new Answers(db.getConnectionPool(), questions, db);
+        Question q = questions.createQuestion("Why?", "sam", "Reviewed");
+        Answer answer = answers.createAnswer(q, "Because.", new User("sam", "", "user"), 0);
+        Answer review = answers.createAnswer(q, "Good answer", new User("rita", "", "reviewer"), 1, answer.getId());
+        answers.markHelpful(review);
+        db.getVoteBuffer().flush();
+        assertEquals(5.0, db.getReputationEngine().getRating("rita"), 1e-9);
+
+        assertThrows(IllegalStateException.class, () -> db.inTransaction(pc -> {
+            answers.deleteAnswer(review, q);
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(5.0, db.getReputationEngine().getRating("rita"), 1e-9, "The rollback kept the review's vote");
+
+        db.inTransaction(pc -> {
+            answers.deleteAnswer(review, q);
+            return null;
+        });
+        assertNull(db.getReputationEngine().getRating("rita"));
+    }
+
+    /**
+     * Tests that a vote flush started inside a unit of work does not join it, so a
+     * rollback of that unit cannot take the votes with it.
+     *
+     * @throws SQLException if the database fails.
+     */
+    @Test
+    public void testVoteFlushDoesNotJoinUnit() throws SQLException {
+        Answers answers = new Answers(db.getConnectionPool(), questions, db);
+        Question q = questions.createQuestion("Why?", "sam", "Voted on");
+        Answer answer = answers.createAnswer(q, "Because.", new User("sam", "", "user"), 0);
+
+        assertThrows(IllegalStateException.class, () -> db.inTransaction(pc -> {
+            answers.markHelpful(answer);
+            assertEquals(0, db.getVoteBuffer().flush(), "Handed to the flusher thread");
+            throw new IllegalStateException("boom");
+        }));
+        db.getVoteBuffer().flush();   // waits for the handed-off flush, or writes the votes itself
+
+        try (PooledConnection pc = db.getConnectionPool().borrow();
+             ResultSet rs = pc.prepareStatement("SELECT likes FROM answers WHERE id = " + answer.getId()).executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1), "The vote survived the rollback");
+        }
+        assertEquals(0, db.getVoteBuffer().getPendingVoteCount());
+    }
+
+    /**
+     * Tests that trusted reviewers read inside a unit of work that rolls back are not
+     * cached, and that a committed trust is seen by the next lookup.
+     *
+     * @throws SQLException if the database fails.
+     */
+    @Test
+    public void testTrustedReviewersCacheOnlyCommittedRows() throws SQLException {
+        assertTrue(db.getTrustedReviewers("sam").isEmpty());   // cached
+
+        assertThrows(IllegalStateException.class, () -> db.inTransaction(pc -> {
+            db.markReviewerAsTrusted("sam", "rita");
+            assertTrue(db.isReviewerTrusted("sam", "rita"), "The unit sees its own insert");
+            throw new IllegalStateException("boom");
+        }));
+        assertFalse(db.isReviewerTrusted("sam", "rita"), "The rolled-back trust was not cached");
+
+        db.markReviewerAsTrusted("sam", "rita");
+        assertEquals(Set.of("rita"), db.getTrustedReviewers("sam"));
+    }
+
+    /**
+     * Tests that a ban read back inside a unit of work that rolls back is not cached.
+     *
+     * @throws SQLException if the database fails.
+     */
+    @Test
+    public void testUserCacheOnlyCommittedBans() throws SQLException {
+        db.register(new User("sam", "Secret#123", "user"));
+        User sam = new User("sam", "Secret#123", "user");
+        assertFalse(db.isUserBanned(sam));   // cached
+
+        assertThrows(IllegalStateException.class, () -> db.inTransaction(pc -> {
+            db.userBanned("sam");
+            assertTrue(db.isUserBanned(sam), "The unit sees its own ban");
+            throw new IllegalStateException("boom");
+        }));
+        assertFalse(db.isUserBanned(sam), "The rolled-back ban was not cached");
+        assertTrue(db.login(sam));
+    }
+
+    /**
+     * Tests that a chat message sent in a unit of work is published only once it commits,
+     * so open chats never show a message that was rolled back.
+     *
+     * @throws SQLException if the database fails.
+     */
+    @Test
+    public void testChatMessagePublishedOnlyAfterCommit() throws SQLException {
+        InProcessChatMessageBus bus = new InProcessChatMessageBus();
+        db.setChatMessageBus(bus);
+
+        assertThrows(IllegalStateException.class, () -> db.inTransaction(pc -> {
+            assertTrue(db.insertMessage("sam", "rita", "Never sent") > 0);
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(0, bus.getPublishedCount());
+
+        db.inTransaction(pc -> {
+            db.insertMessage("sam", "rita", "Sent");
+            assertEquals(0, bus.getPublishedCount(), "Nothing is published before the commit");
+            return null;
+        });
+        assertEquals(1, bus.getPublishedCount());
+    }
+
+    /**
+     * Tests that an invitation code is used up only by a registration that succeeds, and
+     * by exactly one of several racing ones.
+     *
+     * @throws Exception if the database fails.
+     */
+    @Test
+    public void testInvitationSignUpIsAtomic() throws Exception {
+        db.register(new User("taken", "Secret#123", "user"));
+        String code = db.generateInvitationCode();
+
+        assertThrows(SQLException.class,
+                () -> db.registerWithInvitationCode(new User("taken", "Secret#456", "user"), code));
+        assertTrue(db.registerWithInvitationCode(new User("sam", "Secret#123", "user"), code),
+                "A failed sign-up must not use up the code");
+        assertFalse(db.registerWithInvitationCode(new User("rita", "Secret#123", "user"), code));
+        assertFalse(db.doesUserExist("rita"));
+
+        String shared = db.generateInvitationCode();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> signUps = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                User u = new User("racer" + i, "Secret#123", "user");
+                signUps.add(() -> db.registerWithInvitationCode(u, shared));
+            }
+            int winners = 0;
+            for (Future<Boolean> f : threads.invokeAll(signUps)) if (f.get()) winners++;
+            assertEquals(1, winners, "One code, one account");
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that only a closed request can be reopened, as one linked follow-up.
+     */
+    @Test
+    public void testReopenAdminRequest() {
+        long id = db.createAdminRequest("Need a new section", "instructor");
+        assertFalse(db.reopenAdminRequest(id, "instructor", "Still open"), "An open request cannot be reopened");
+        assertTrue(db.closeAdminRequest(id, "admin", "Done"));
+        assertTrue(db.reopenAdminRequest(id, "instructor", "Not quite done"));
+
+        List<AdminRequest> open = db.getAdminRequests(false);
+        assertEquals(1, open.size());
+        assertEquals(Long.valueOf(id), open.get(0).getParentRequestId());
+    }
+}
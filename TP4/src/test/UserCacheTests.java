@@ -0,0 +1,146 @@
+/**
+ * UserCacheTests.java
+ *
+ * JUnit tests for the read-through cache of user roles and ban status.
+ */
+
+package test;
+
+import databasePart1.ConnectionPool;
+import databasePart1.UserCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that repeated lookups stay in memory, that invalidation, expiry and eviction
+ * send the next lookup to the database, and that unknown users are cached as well.
+ */
+public class UserCacheTests {
+
+    private Connection connection;
+    private ConnectionPool pool;
+
+    /**
+     * Creates a users table holding one student.
+     *
+     * @throws Exception if setup fails due to database issues.
+     */
+    @BeforeEach
+    public void setupDatabase() throws Exception {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:usercache;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS cse360users");
+            st.execute("""
+                CREATE TABLE cse360users (
+                    userName VARCHAR(255) UNIQUE,
+                    role VARCHAR(20),
+                    isBanned BOOLEAN DEFAULT FALSE
+                )
+            """);
+            st.execute("INSERT INTO cse360users (userName, role) VALUES ('sam', 'student')");
+        }
+        pool = ConnectionPool.wrap(connection);
+    }
+
+    /**
+     * Closes the database.
+     *
+     * @throws Exception if closing fails.
+     */
+    @AfterEach
+    public void closeDatabase() throws Exception {
+        connection.close();
+    }
+
+    /**
+     * Tests that only the first lookup reads the table until the entry is invalidated.
+     *
+     * @throws Exception if the table cannot be read.
+     */
+    @Test
+    public void testRepeatedLookupsAreHits() throws Exception {
+        UserCache cache = new UserCache(pool);
+        assertEquals("student", cache.get("sam").getRole());
+        execute("UPDATE cse360users SET role = 'reviewer', isBanned = TRUE WHERE userName = 'sam'");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("student", cache.get("sam").getRole(), "Served from memory");
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(10, cache.getHitCount());
+
+        cache.invalidate("sam");
+        assertEquals("reviewer", cache.get("sam").getRole());
+        assertTrue(cache.get("sam").isBanned());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    /**
+     * Tests that a user name that does not exist is cached until invalidated.
+     *
+     * @throws Exception if the table cannot be read.
+     */
+    @Test
+    public void testUnknownUsersAreCached() throws Exception {
+        UserCache cache = new UserCache(pool);
+        assertFalse(cache.get("newbie").exists());
+        assertNull(cache.get("newbie").getRole());
+        assertEquals(1, cache.getMissCount());
+
+        execute("INSERT INTO cse360users (userName, role) VALUES ('newbie', 'student')");
+        cache.invalidate("newbie");
+        assertTrue(cache.get("newbie").exists());
+    }
+
+    /**
+     * Tests that the least recently used entry is evicted once the cache is full.
+     *
+     * @throws Exception if the table cannot be read.
+     */
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        UserCache cache = new UserCache(pool, 2, UserCache.DEFAULT_TTL_MS);
+        cache.get("a");
+        cache.get("b");
+        cache.get("a");         // b is now the least recently used
+        cache.get("c");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        long misses = cache.getMissCount();
+        cache.get("a");
+        assertEquals(misses, cache.getMissCount(), "a was used recently and must still be cached");
+        cache.get("b");
+        assertEquals(misses + 1, cache.getMissCount(), "b was evicted");
+    }
+
+    /**
+     * Tests that an expired entry is read again.
+     *
+     * @throws Exception if the table cannot be read.
+     */
+    @Test
+    public void testExpiredEntriesAreReloaded() throws Exception {
+        UserCache cache = new UserCache(pool, 10, 1);
+        cache.get("sam");
+        Thread.sleep(5);
+        execute("UPDATE cse360users SET role = 'staff' WHERE userName = 'sam'");
+
+        assertEquals("staff", cache.get("sam").getRole());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    private void execute(String sql) throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute(sql);
+        }
+    }
+}
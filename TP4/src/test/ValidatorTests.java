@@ -0,0 +1,109 @@
+/**
+ * ValidatorTests.java
+ *
+ * JUnit tests for the reentrant input validators and their ValidationResult.
+ */
+
+package test;
+
+import application.PasswordEvaluator;
+import application.UserNameRecognizer;
+import application.ValidationResult;
+import application.answerEvaluator;
+import application.questionEvaluator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the result objects the validators return and that concurrent callers do not
+ * see each other's results.
+ */
+public class ValidatorTests {
+
+    /**
+     * Tests that a rejected user name reports the message and the position of the error,
+     * and that a valid one returns the shared VALID result.
+     */
+    @Test
+    public void testUserNameResult() {
+        assertSame(ValidationResult.VALID, UserNameRecognizer.validate("Sam.Smith"));
+
+        ValidationResult bad = UserNameRecognizer.validate("samuel!x");
+        assertFalse(bad.isValid());
+        assertEquals(6, bad.getErrorIndex(), "The FSM stops at the '!'");
+        assertTrue(bad.getMessage().contains("may only contain"));
+        assertEquals(bad.getMessage(), UserNameRecognizer.checkForValidUserName("samuel!x"),
+                     "The String API returns the same message");
+    }
+
+    /**
+     * Tests that the password result lists every unsatisfied condition and points at an
+     * invalid character.
+     */
+    @Test
+    public void testPasswordResult() {
+        assertSame(ValidationResult.VALID, PasswordEvaluator.evaluate("Secret#123"));
+        assertEquals("Upper case; Numeric digits; Long Enough; conditions were not satisfied",
+                     PasswordEvaluator.evaluate("abc!").getMessage());
+
+        ValidationResult tab = PasswordEvaluator.evaluate("Ab1!\tzzzz");
+        assertEquals(4, tab.getErrorIndex());
+        assertEquals("*** Error *** An invalid character has been found!", tab.getMessage());
+    }
+
+    /**
+     * Tests that the question and answer results list every failed check, as before.
+     */
+    @Test
+    public void testQuestionAndAnswerResults() {
+        assertSame(ValidationResult.VALID, questionEvaluator.validate("Streams", "How do streams work?"));
+        assertEquals("Question title must start with upper case letter; Question must end with a ?; ",
+                     questionEvaluator.validate("streams", "How do streams work").getMessage());
+        assertEquals("Answer must start with upper case letter; Your answer contains a word that is prohibited",
+                     answerEvaluator.validate("ask ChatGPT.").getMessage());
+    }
+
+    /**
+     * Tests that threads validating different inputs at the same time each get the
+     * result for their own input.
+     *
+     * @throws Exception if a worker fails.
+     */
+    @Test
+    public void testConcurrentCallersGetTheirOwnResults() throws Exception {
+        String[] names = { "Sam.Smith", "9lives", "a.b", "ok-name", "bad!name", "rita_reviewer" };
+        String[] expected = new String[names.length];
+        for (int i = 0; i < names.length; i++) expected[i] = UserNameRecognizer.checkForValidUserName(names[i]);
+
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                tasks.add(() -> {
+                    int wrong = 0;
+                    for (int n = 0; n < 20_000; n++) {
+                        int i = (n + offset) % names.length;
+                        if (!UserNameRecognizer.checkForValidUserName(names[i]).equals(expected[i])) wrong++;
+                        String answer = i % 2 == 0 ? "Use the map method." : "it is lower case";
+                        if (answerEvaluator.checkAnswer(answer).isEmpty() != (i % 2 == 0)) wrong++;
+                    }
+                    return wrong;
+                });
+            }
+            for (Future<Integer> f : workers.invokeAll(tasks)) {
+                assertEquals(0, f.get(), "No thread should see another thread's result");
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * VoteBufferTests.java
+ *
+ * JUnit tests for write-behind batching of helpful / not-helpful votes.
+ */
+
+package test;
+
+import application.Answer;
+import application.Answers;
+import application.Question;
+import application.Questions;
+import application.User;
+import databasePart1.ConnectionPool;
+import databasePart1.VoteBuffer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that votes are coalesced, merged into reads before they are written,
+ * survive concurrent voting and are written when the pool closes.
+ */
+public class VoteBufferTests {
+
+    private static final String URL = "jdbc:h2:mem:votebuffer;DB_CLOSE_DELAY=-1";
+
+    private static Connection connection;
+    private static Questions questions;
+    private static Answers answers;
+    private Answer answer;
+
+    /**
+     * Creates the question and answer tables in a private in-memory database.
+     *
+     * @throws Exception if setup fails due to database issues.
+     */
+    @BeforeAll
+    public static void setupDatabase() throws Exception {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection(URL, "sa", "");
+        ConnectionPool pool = ConnectionPool.wrap(connection);
+        questions = new Questions(pool);
+        // flushed only by the tests themselves, so they see exactly one flush each
+        answers = new Answers(pool, questions, null, new VoteBuffer(pool, TimeUnit.HOURS.toMillis(1), 1_000_000));
+        questions.createTable();
+        answers.createTable();
+    }
+
+    /**
+     * Starts every test with one question holding one answer and no pending votes.
+     *
+     * @throws Exception if the tables cannot be reset.
+     */
+    @BeforeEach
+    public void resetTables() throws Exception {
+        answers.getVoteBuffer().flush();
+        try (Statement st = connection.createStatement()) {
+            st.execute("DELETE FROM answers");
+            st.execute("DELETE FROM questions");
+        }
+        questions.loadAllFromDB();
+        answers.loadAllFromDB();
+        questions.createQuestion("Why is my loop slow?", "student", "Loops");
+        Question q = questions.getAllQuestions().get(0);
+        answers.createAnswer(q, "Hoist the lookup out of it.", new User("helper", "pw", "student"), 0);
+        answer = answers.getAllAnswers().get(0);
+    }
+
+    /**
+     * Closes the shared connection.
+     *
+     * @throws Exception if closing fails.
+     */
+    @AfterAll
+    public static void closeDatabase() throws Exception {
+        connection.close();
+    }
+
+    /**
+     * Tests that unflushed votes show in memory and on reload, and reach the table in one flush.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testVotesAreMergedUntilFlushed() throws Exception {
+        for (int i = 0; i < 5; i++) answers.markHelpful(answer);
+        answers.markNotHelpful(answer);
+
+        assertEquals(5, answer.getLikes(), "The in-memory answer counts the vote at once");
+        answers.loadAllFromDB();
+        Answer reloaded = answers.getAllAnswers().get(0);
+        assertEquals(5, reloaded.getLikes(), "A reload should add pending votes to the stored ones");
+        assertEquals(1, reloaded.getDislikes());
+
+        VoteBuffer votes = answers.getVoteBuffer();
+        long flushesBefore = votes.getFlushCount();
+        assertEquals(1, votes.flush(), "Six votes on one answer are one row update");
+        assertEquals(flushesBefore + 1, votes.getFlushCount());
+        assertEquals(0, votes.getPendingVoteCount());
+        assertArrayEquals(new int[] {5, 1}, storedCounts(answer.getId()));
+
+        answers.loadAllFromDB();
+        assertEquals(5, answers.getAllAnswers().get(0).getLikes(), "Flushed votes must not be counted twice");
+    }
+
+    /**
+     * Tests that no vote is lost when many threads vote while flushes run.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testConcurrentVotesAreNotLost() throws Exception {
+        VoteBuffer votes = answers.getVoteBuffer();
+        List<Runnable> voters = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            voters.add(() -> {
+                for (int i = 0; i < 250; i++) votes.recordLike(answer.getId());
+            });
+        }
+        voters.add(() -> {
+            for (int i = 0; i < 20; i++) {
+                try {
+                    votes.flush();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(9);
+        voters.forEach(pool::execute);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        votes.flush();
+
+        assertEquals(2000, storedCounts(answer.getId())[0]);
+    }
+
+    /**
+     * Tests that a read while flushes run sees every vote exactly once: pending until
+     * the database holds it, never in both and never in neither.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testReadsDuringFlushCountEachVoteOnce() throws Exception {
+        ConnectionPool pool = new ConnectionPool(URL, "sa", "", 2);
+        VoteBuffer votes = new VoteBuffer(pool, TimeUnit.HOURS.toMillis(1), 1_000_000);
+        long id = answer.getId();
+        ExecutorService flusher = Executors.newSingleThreadExecutor();
+        try {
+            for (int round = 1; round <= 200; round++) {
+                for (int i = 0; i < 3; i++) votes.recordLike(id);
+                int before = 3 * (round - 1);
+                Future<Integer> flush = flusher.submit(votes::flush);
+                do {
+                    int storedFirst = committedLikes(id);
+                    int pending = votes.getPendingLikes(id);
+                    int storedAfter = committedLikes(id);
+                    if (storedFirst == before + 3) assertEquals(0, pending, "Counted in the database and pending");
+                    if (storedAfter == before) assertEquals(3, pending, "Counted in neither");
+                } while (!flush.isDone());
+                assertEquals(1, flush.get());
+            }
+        } finally {
+            flusher.shutdownNow();
+            pool.close();
+        }
+    }
+
+    /**
+     * Tests that closing the pool writes out votes that are still buffered.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testPoolCloseFlushes() throws Exception {
+        ConnectionPool pool = new ConnectionPool(URL, "sa", "", 2);
+        VoteBuffer votes = new VoteBuffer(pool, TimeUnit.HOURS.toMillis(1), 1_000_000);
+        votes.recordLike(answer.getId());
+        votes.recordDislike(answer.getId());
+
+        pool.close();
+
+        assertArrayEquals(new int[] {1, 1}, storedCounts(answer.getId()));
+        assertEquals(0, votes.getPendingVoteCount());
+    }
+
+    /**
+     * Tests that a manager built without the application's buffer writes each vote at once
+     * instead of leaving it with a buffer nobody flushes.
+     *
+     * @throws Exception if the database cannot be read.
+     */
+    @Test
+    public void testPrivateBufferWritesThrough() throws Exception {
+        Answers unshared = new Answers(ConnectionPool.wrap(connection), questions, null);
+        unshared.markHelpful(answer);
+        unshared.markNotHelpful(answer);
+
+        assertEquals(0, unshared.getVoteBuffer().getPendingVoteCount());
+        assertArrayEquals(new int[] {1, 1}, storedCounts(answer.getId()));
+    }
+
+    // a session of its own per read: H2 may hand a session's repeated query the result it
+    // cached while another session's update was still uncommitted
+    private static int committedLikes(long answerId) throws Exception {
+        try (Connection fresh = DriverManager.getConnection(URL, "sa", "");
+             Statement st = fresh.createStatement();
+             ResultSet rs = st.executeQuery("SELECT likes FROM answers WHERE id = " + answerId)) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+
+    private static int[] storedCounts(long answerId) throws Exception {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT likes, dislikes FROM answers WHERE id = " + answerId)) {
+            assertTrue(rs.next());
+            return new int[] {rs.getInt(1), rs.getInt(2)};
+        }
+    }
+}